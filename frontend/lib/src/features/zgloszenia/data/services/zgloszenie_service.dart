@@ -8,31 +8,45 @@ import '../models/zgloszenie_model.dart';
 class ZgloszenieService {
   final ApiClient _apiClient = ApiClient();
 
-  /// Get all zgloszenia with optional filters
+  /// Get all zgloszenia with optional filters.
+  /// The backend pages results with a keyset cursor (X-Next-Cursor header),
+  /// so pages are fetched until the header is absent.
   Future<List<ZgloszenieModel>> getAll({
     String? status,
     String? typ,
     String? query,
   }) async {
-    String endpoint = ApiConfig.zgloszeniaEndpoint;
     List<String> queryParams = [];
 
     if (status != null) queryParams.add('status=${Uri.encodeComponent(status)}');
     if (typ != null) queryParams.add('typ=${Uri.encodeComponent(typ)}');
     if (query != null) queryParams.add('q=${Uri.encodeComponent(query)}');
 
-    if (queryParams.isNotEmpty) {
-      endpoint += '?${queryParams.join('&')}';
-    }
+    final List<ZgloszenieModel> result = [];
+    String? cursor;
 
-    final response = await _apiClient.get(endpoint);
+    do {
+      final params = [
+        ...queryParams,
+        if (cursor != null) 'cursor=${Uri.encodeComponent(cursor)}',
+      ];
+      String endpoint = ApiConfig.zgloszeniaEndpoint;
+      if (params.isNotEmpty) {
+        endpoint += '?${params.join('&')}';
+      }
+
+      final response = await _apiClient.get(endpoint);
+
+      if (response.statusCode != 200) {
+        throw ApiException('Failed to load zgloszenia: ${response.statusCode}');
+      }
 
-    if (response.statusCode == 200) {
       final List<dynamic> jsonList = jsonDecode(response.body);
-      return jsonList.map((json) => ZgloszenieModel.fromJson(json)).toList();
-    } else {
-      throw ApiException('Failed to load zgloszenia: ${response.statusCode}');
-    }
+      result.addAll(jsonList.map((json) => ZgloszenieModel.fromJson(json)));
+      cursor = response.headers['x-next-cursor'];
+    } while (cursor != null && cursor.isNotEmpty);
+
+    return result;
   }
 
   /// Get a specific zgloszenie by ID
@@ -0,0 +1,25 @@
+package drimer.drimain.api.dto;
+
+import drimer.drimain.events.EntityType;
+import drimer.drimain.events.EventType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/** Wiadomość wspólnego strumienia zdarzeń (/api/events/stream i /topic/events/**). */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntityChangeDTO {
+    private EntityType entity;
+    private EventType action;
+    private Long id;
+    private List<String> changedFields;
+    private Long version; // updatedAt w µs; null gdy nieznany
+    private Map<String, String> attributes;
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,21 @@
+package drimer.drimain.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Dzień, w którym osoba albo maszyna (ustawione jest jedno z pól) ma więcej niż jeden wpis – zapisany
+ * (harmonogramIds) lub wyliczone wystąpienie reguły (ruleIds).
+ */
+@Data
+@AllArgsConstructor
+public class HarmonogramConflictDTO {
+    private LocalDate data;
+    private Long osobaId;
+    private Long maszynaId;
+    private List<Long> harmonogramIds;
+    private List<Long> ruleIds;
+}
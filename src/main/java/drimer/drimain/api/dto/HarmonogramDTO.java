@@ -13,4 +13,6 @@ public class HarmonogramDTO {
     private SimpleMaszynaDTO maszyna;
     private SimpleOsobaDTO osoba;
     private StatusHarmonogramu status;
+    private Long ruleId;             // wystąpienie reguły (id == null – wyliczone, jeszcze nie zapisane)
+    private LocalDate occurrenceDate;
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package drimer.drimain.api.dto;
+
+import drimer.drimain.model.enums.CzestotliwoscHarmonogramu;
+import lombok.Data;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+@Data
+public class HarmonogramRuleDTO {
+    private Long id;
+    private SimpleMaszynaDTO maszyna;
+    private SimpleOsobaDTO osoba;
+    private String opis;
+    private CzestotliwoscHarmonogramu czestotliwosc;
+    private Integer interwal;
+    private DayOfWeek dzienTygodnia;
+    private Integer dzienMiesiaca;
+    private Integer tydzienMiesiaca;
+    private LocalDate dataOd;
+    private LocalDate dataDo;
+}
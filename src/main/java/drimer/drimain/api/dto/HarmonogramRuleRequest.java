@@ -0,0 +1,32 @@
+package drimer.drimain.api.dto;
+
+import drimer.drimain.model.enums.CzestotliwoscHarmonogramu;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/** Tworzenie i pełna zamiana reguły (PUT) – pominięte pola dnia przyjmują wartości z dataOd. */
+@Data
+public class HarmonogramRuleRequest {
+    @NotNull
+    private Long maszynaId;
+
+    private Long osobaId;
+
+    private String opis;
+
+    @NotNull
+    private CzestotliwoscHarmonogramu czestotliwosc;
+
+    private Integer interwal;          // domyślnie 1
+    private DayOfWeek dzienTygodnia;   // TYGODNIOWO, MIESIECZNIE z tydzienMiesiaca
+    private Integer dzienMiesiaca;     // MIESIECZNIE: 1..31
+    private Integer tydzienMiesiaca;   // MIESIECZNIE: 1..4 albo -1 (ostatni)
+
+    @NotNull
+    private LocalDate dataOd;
+
+    private LocalDate dataDo;
+}
@@ -4,5 +4,8 @@ import lombok.Data;
 
 @Data
 public class PartQuantityPatch {
+    private Long partId; // tylko w PATCH /api/czesci/ilosc
     private Integer delta;
+    private String reason; // MANUAL (domyślnie) lub DELIVERY – do dziennika ruchów
+    private String note;
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package drimer.drimain.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Wiadomość STOMP o zmianie raportu – bez pełnego RaportDTO; klient dociąga raport przez REST,
+ * jeśli go potrzebuje.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RaportChangeMessageDTO {
+    private Long id;
+    private String action; // CREATED / UPDATED / DELETED
+    private List<String> changedFields;
+    private Long version; // updatedAt w µs od epoki; większy = nowszy
+}
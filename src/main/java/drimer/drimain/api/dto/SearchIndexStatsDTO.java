@@ -0,0 +1,16 @@
+package drimer.drimain.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class SearchIndexStatsDTO {
+    private boolean ready;
+    private int documents;
+    private int terms;
+    private long lastBuildMillis;
+    private LocalDateTime lastBuiltAt;
+}
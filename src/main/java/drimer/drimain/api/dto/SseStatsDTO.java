@@ -0,0 +1,54 @@
+package drimer.drimain.api.dto;
+
+import drimer.drimain.events.EventType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Set;
+
+@Data
+@AllArgsConstructor
+public class SseStatsDTO {
+    private int activeSubscriptions;
+    private int maxClients;
+    private long queuedMessages;
+    private long eventsPublished;
+    private long messagesSent;
+    private long messagesDropped;
+    private long slowConsumerDisconnects;
+    private long idleDisconnects;
+    private long reconnects;
+    private long resyncs;
+    private LatencyStats serialization;
+    private LatencyStats write;
+    private LatencyStats deliveryLag;
+    private List<SubscriptionStats> subscriptions;
+
+    /** Czasy w milisekundach; percentyle liczone po stronie aplikacji (okno Micrometera). */
+    @Data
+    @AllArgsConstructor
+    public static class LatencyStats {
+        private long count;
+        private double meanMs;
+        private double maxMs;
+        private double p50Ms;
+        private double p95Ms;
+        private double p99Ms;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class SubscriptionStats {
+        private String id;
+        private long ageSeconds;
+        private long idleMillis;
+        private int queueDepth;
+        private long sent;
+        private long dropped;
+        private boolean coalescing;
+        private Set<EventType> eventTypes;
+        private Long dzialId;
+        private Long autorId;
+    }
+}
@@ -0,0 +1,14 @@
+package drimer.drimain.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class StockBalanceDTO {
+    private Long partId;
+    private LocalDateTime at;
+    private Integer ilosc;
+}
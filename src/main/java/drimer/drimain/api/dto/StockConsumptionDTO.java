@@ -0,0 +1,11 @@
+package drimer.drimain.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class StockConsumptionDTO {
+    private String miesiac; // yyyy-MM
+    private Long zuzycie;
+}
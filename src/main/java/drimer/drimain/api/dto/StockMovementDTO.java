@@ -0,0 +1,18 @@
+package drimer.drimain.api.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class StockMovementDTO {
+    private Long id;
+    private Long partId;
+    private Integer delta;
+    private Integer balanceAfter;
+    private String reason;
+    private Long raportId;
+    private String username;
+    private String note;
+    private LocalDateTime createdAt;
+}
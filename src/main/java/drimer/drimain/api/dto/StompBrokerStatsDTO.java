@@ -0,0 +1,38 @@
+package drimer.drimain.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class StompBrokerStatsDTO {
+    private int sessions;
+    private String slowSessionPolicy;
+    private long bufferedBytes; // czekające w buforach sesji na zablokowany zapis
+    private long droppedBytes; // usunięte przez DROP_OLDEST od startu
+    private long limitExceededSessions; // zamknięte po przekroczeniu limitu czasu/bufora
+    private ChannelStats inbound;
+    private ChannelStats outbound;
+    private List<SessionStats> slowestSessions;
+
+    @Data
+    @AllArgsConstructor
+    public static class ChannelStats {
+        private int poolSize;
+        private int activeThreads;
+        private int queued;
+        private int queueCapacity;
+        private long rejected;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class SessionStats {
+        private String id;
+        private int bufferedBytes;
+        private long sendInProgressMillis; // 0 = brak zapisu w toku
+        private long droppedBytes;
+    }
+}
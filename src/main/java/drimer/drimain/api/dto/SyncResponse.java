@@ -0,0 +1,24 @@
+package drimer.drimain.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Odpowiedź synchronizacji przyrostowej.
+ * items – rekordy utworzone/zmienione po tokenie (upsert po id),
+ * deletedIds – rekordy usunięte po tokenie,
+ * nextToken – do przekazania w kolejnym wywołaniu jako since,
+ * hasMore – są kolejne strony, należy od razu wywołać ponownie,
+ * fullResync – token zbyt stary (brak śladów usunięć) – klient musi wyczyścić lokalne dane.
+ */
+@Data
+@AllArgsConstructor
+public class SyncResponse<T> {
+    private List<T> items;
+    private List<Long> deletedIds;
+    private String nextToken;
+    private boolean hasMore;
+    private boolean fullResync;
+}
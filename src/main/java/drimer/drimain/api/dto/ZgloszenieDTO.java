@@ -39,6 +39,33 @@ public class ZgloszenieDTO {
 
     private boolean hasPhoto; // NOWE POLE
 
+    public ZgloszenieDTO() {}
+
+    /**
+     * Konstruktor dla projekcji JPA (ZgloszenieReadRepository) – jeden SELECT z LEFT JOIN na dzial i autor.
+     */
+    public ZgloszenieDTO(Long id, String typ, String imie, String nazwisko, String tytul,
+                         ZgloszenieStatus status, ZgloszeniePriorytet priorytet, String opis,
+                         LocalDateTime dataGodzina, LocalDateTime createdAt, LocalDateTime updatedAt,
+                         Long dzialId, String dzialNazwa, Long autorId, String autorUsername, boolean hasPhoto) {
+        this.id = id;
+        this.typ = typ;
+        this.imie = imie;
+        this.nazwisko = nazwisko;
+        this.tytul = tytul;
+        this.status = status;
+        this.priorytet = priorytet;
+        this.opis = opis;
+        this.dataGodzina = dataGodzina;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.dzialId = dzialId;
+        this.dzialNazwa = dzialNazwa;
+        this.autorId = autorId;
+        this.autorUsername = autorUsername;
+        this.hasPhoto = hasPhoto;
+    }
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
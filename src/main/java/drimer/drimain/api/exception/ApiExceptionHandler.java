@@ -20,6 +20,28 @@ public class ApiExceptionHandler {
         return ResponseEntity.badRequest().body(resp);
     }
 
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<ApiErrorResponse> handleInsufficientStock(InsufficientStockException ex) {
+        ApiErrorResponse resp = new ApiErrorResponse(
+                "InsufficientStock",
+                ex.getMessage(),
+                Instant.now(),
+                HttpStatus.CONFLICT.value()
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(resp);
+    }
+
+    @ExceptionHandler(HarmonogramConflictException.class)
+    public ResponseEntity<ApiErrorResponse> handleHarmonogramConflict(HarmonogramConflictException ex) {
+        ApiErrorResponse resp = new ApiErrorResponse(
+                "HarmonogramConflict",
+                ex.getMessage(),
+                Instant.now(),
+                HttpStatus.CONFLICT.value()
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(resp);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiErrorResponse> handleOther(Exception ex) {
         ApiErrorResponse resp = new ApiErrorResponse(
@@ -0,0 +1,27 @@
+package drimer.drimain.api.exception;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Zapis harmonogramu zajmowałby osobę lub maszynę w dniu, w którym mają już inny wpis albo wystąpienie
+ * reguły cyklicznej (HarmonogramConflictIndex). Można go wymusić parametrem allowConflicts=true.
+ */
+public class HarmonogramConflictException extends RuntimeException {
+
+    private final LocalDate data;
+    private final List<Long> conflictingIds;
+    private final List<Long> conflictingRuleIds;
+
+    public HarmonogramConflictException(LocalDate data, List<Long> conflictingIds, List<Long> conflictingRuleIds) {
+        super("Harmonogram conflict on " + data + " with " + conflictingIds
+                + (conflictingRuleIds.isEmpty() ? "" : " and rules " + conflictingRuleIds));
+        this.data = data;
+        this.conflictingIds = conflictingIds;
+        this.conflictingRuleIds = conflictingRuleIds;
+    }
+
+    public LocalDate getData() { return data; }
+    public List<Long> getConflictingIds() { return conflictingIds; }
+    public List<Long> getConflictingRuleIds() { return conflictingRuleIds; }
+}
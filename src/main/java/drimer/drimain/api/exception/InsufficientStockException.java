@@ -0,0 +1,22 @@
+package drimer.drimain.api.exception;
+
+/**
+ * Zmiana stanu części zeszłaby poniżej zera – cała operacja (także wsadowa) jest wycofywana.
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    private final Long partId;
+    private final int available;
+    private final int delta;
+
+    public InsufficientStockException(Long partId, int available, int delta) {
+        super("Insufficient stock for part " + partId + ": available " + available + ", change " + delta);
+        this.partId = partId;
+        this.available = available;
+        this.delta = delta;
+    }
+
+    public Long getPartId() { return partId; }
+    public int getAvailable() { return available; }
+    public int getDelta() { return delta; }
+}
@@ -0,0 +1,70 @@
+package drimer.drimain.api.mapper;
+
+import drimer.drimain.api.dto.HarmonogramDTO;
+import drimer.drimain.api.dto.SimpleMaszynaDTO;
+import drimer.drimain.api.dto.SimpleOsobaDTO;
+import drimer.drimain.events.EntityChangedEvent;
+import drimer.drimain.events.EntityType;
+import drimer.drimain.events.EventType;
+import drimer.drimain.model.Harmonogram;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public final class HarmonogramMapper {
+    private HarmonogramMapper() {}
+
+    public static HarmonogramDTO toDto(Harmonogram h) {
+        HarmonogramDTO dto = new HarmonogramDTO();
+        dto.setId(h.getId());
+        dto.setData(h.getData());
+        dto.setOpis(h.getOpis());
+        dto.setStatus(h.getStatus());
+
+        if (h.getMaszyna() != null) {
+            SimpleMaszynaDTO maszynaDto = new SimpleMaszynaDTO();
+            maszynaDto.setId(h.getMaszyna().getId());
+            maszynaDto.setNazwa(h.getMaszyna().getNazwa());
+            dto.setMaszyna(maszynaDto);
+        }
+
+        if (h.getOsoba() != null) {
+            SimpleOsobaDTO osobaDto = new SimpleOsobaDTO();
+            osobaDto.setId(h.getOsoba().getId());
+            osobaDto.setImieNazwisko(h.getOsoba().getImieNazwisko());
+            dto.setOsoba(osobaDto);
+        }
+
+        if (h.getRule() != null) {
+            dto.setRuleId(h.getRule().getId()); // proxy – bez wczytywania reguły
+            dto.setOccurrenceDate(h.getOccurrenceDate());
+        }
+        return dto;
+    }
+
+    /**
+     * Atrybuty zdarzenia: maszynaId/osobaId/status do filtrowania strumienia oraz data – po niej
+     * unieważniane są miesiące w HarmonogramCalendar (także na innych węzłach).
+     */
+    public static Map<String, String> attributes(Harmonogram h) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        if (h.getMaszyna() != null) attributes.put("maszynaId", Objects.toString(h.getMaszyna().getId()));
+        if (h.getOsoba() != null) attributes.put("osobaId", Objects.toString(h.getOsoba().getId()));
+        if (h.getStatus() != null) attributes.put("status", h.getStatus().name());
+        if (h.getData() != null) attributes.put("data", h.getData().toString());
+        return attributes;
+    }
+
+    /** Zdarzenie zmiany harmonogramu; before – atrybuty sprzed zmiany (tylko zmienione trafiają do zdarzenia). */
+    public static EntityChangedEvent changedEvent(Object source, Harmonogram h, EventType action,
+                                                  List<String> changedFields, Map<String, String> before) {
+        Map<String, String> attributes = attributes(h);
+        Map<String, String> previous = new LinkedHashMap<>(before);
+        previous.entrySet().removeIf(e -> e.getValue().equals(attributes.get(e.getKey())));
+        return new EntityChangedEvent(source, EntityType.HARMONOGRAM, action, h.getId(), changedFields,
+                EntityChangedEvent.versionOf(h.getUpdatedAt()), attributes, previous, LocalDateTime.now());
+    }
+}
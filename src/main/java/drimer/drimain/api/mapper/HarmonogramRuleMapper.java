@@ -0,0 +1,80 @@
+package drimer.drimain.api.mapper;
+
+import drimer.drimain.api.dto.HarmonogramDTO;
+import drimer.drimain.api.dto.HarmonogramRuleDTO;
+import drimer.drimain.api.dto.SimpleMaszynaDTO;
+import drimer.drimain.api.dto.SimpleOsobaDTO;
+import drimer.drimain.events.EntityChangedEvent;
+import drimer.drimain.events.EntityType;
+import drimer.drimain.events.EventType;
+import drimer.drimain.model.HarmonogramRule;
+import drimer.drimain.model.enums.StatusHarmonogramu;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public final class HarmonogramRuleMapper {
+    private HarmonogramRuleMapper() {}
+
+    public static HarmonogramRuleDTO toDto(HarmonogramRule r) {
+        HarmonogramRuleDTO dto = new HarmonogramRuleDTO();
+        dto.setId(r.getId());
+        dto.setMaszyna(maszyna(r));
+        dto.setOsoba(osoba(r));
+        dto.setOpis(r.getOpis());
+        dto.setCzestotliwosc(r.getCzestotliwosc());
+        dto.setInterwal(r.getInterwal());
+        dto.setDzienTygodnia(r.getDzienTygodnia());
+        dto.setDzienMiesiaca(r.getDzienMiesiaca());
+        dto.setTydzienMiesiaca(r.getTydzienMiesiaca());
+        dto.setDataOd(r.getDataOd());
+        dto.setDataDo(r.getDataDo());
+        return dto;
+    }
+
+    /** Wyliczone (niezapisane) wystąpienie reguły w postaci wiersza harmonogramu: id == null. */
+    public static HarmonogramDTO occurrence(HarmonogramRule r, LocalDate date) {
+        HarmonogramDTO dto = new HarmonogramDTO();
+        dto.setData(date);
+        dto.setOpis(r.getOpis());
+        dto.setMaszyna(maszyna(r));
+        dto.setOsoba(osoba(r));
+        dto.setStatus(StatusHarmonogramu.PLANOWANE);
+        dto.setRuleId(r.getId());
+        dto.setOccurrenceDate(date);
+        return dto;
+    }
+
+    /**
+     * Zdarzenie zmiany reguły; occurrence – data pominiętego wystąpienia (atrybut data: kalendarz
+     * unieważnia tylko jej miesiąc), null – zmiana całej reguły.
+     */
+    public static EntityChangedEvent changedEvent(Object source, HarmonogramRule r, EventType action,
+                                                  List<String> changedFields, LocalDate occurrence) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        attributes.put("maszynaId", Objects.toString(r.getMaszyna().getId()));
+        if (r.getOsoba() != null) attributes.put("osobaId", Objects.toString(r.getOsoba().getId()));
+        if (occurrence != null) attributes.put("data", occurrence.toString());
+        return new EntityChangedEvent(source, EntityType.HARMONOGRAM_RULE, action, r.getId(), changedFields,
+                EntityChangedEvent.versionOf(r.getUpdatedAt()), attributes, Map.of(), LocalDateTime.now());
+    }
+
+    private static SimpleMaszynaDTO maszyna(HarmonogramRule r) {
+        SimpleMaszynaDTO dto = new SimpleMaszynaDTO();
+        dto.setId(r.getMaszyna().getId());
+        dto.setNazwa(r.getMaszyna().getNazwa());
+        return dto;
+    }
+
+    private static SimpleOsobaDTO osoba(HarmonogramRule r) {
+        if (r.getOsoba() == null) return null;
+        SimpleOsobaDTO dto = new SimpleOsobaDTO();
+        dto.setId(r.getOsoba().getId());
+        dto.setImieNazwisko(r.getOsoba().getImieNazwisko());
+        return dto;
+    }
+}
@@ -0,0 +1,48 @@
+package drimer.drimain.api.mapper;
+
+import drimer.drimain.api.dto.PartDTO;
+import drimer.drimain.events.EntityChangedEvent;
+import drimer.drimain.events.EntityType;
+import drimer.drimain.events.EventType;
+import drimer.drimain.model.Part;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class PartMapper {
+    private PartMapper() {}
+
+    public static PartDTO toDto(Part p) {
+        PartDTO dto = new PartDTO();
+        dto.setId(p.getId());
+        dto.setNazwa(p.getNazwa());
+        dto.setKod(p.getKod());
+        dto.setKategoria(p.getKategoria());
+        dto.setIlosc(p.getIlosc());
+        dto.setMinIlosc(p.getMinIlosc());
+        dto.setJednostka(p.getJednostka());
+        return dto;
+    }
+
+    /** Stan poniżej minimalnego – ta sama reguła co kolumna parts.below_min. */
+    public static boolean belowMin(Integer ilosc, Integer minIlosc) {
+        return ilosc != null && minIlosc != null && ilosc < minIlosc;
+    }
+
+    /**
+     * Zdarzenie zmiany części dla szyny czasu rzeczywistego; kategoria i belowMin są atrybutami
+     * filtrowania (belowMin {@code null} – np. przy usunięciu – pomija atrybut).
+     */
+    public static EntityChangedEvent changedEvent(Object source, Long partId, EventType action, List<String> changedFields,
+                                                  String kategoria, String previousKategoria, Boolean belowMin,
+                                                  LocalDateTime updatedAt) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        if (kategoria != null) attributes.put("kategoria", kategoria);
+        if (belowMin != null) attributes.put("belowMin", belowMin.toString());
+        Map<String, String> previous = previousKategoria != null ? Map.of("kategoria", previousKategoria) : Map.of();
+        return new EntityChangedEvent(source, EntityType.PART, action, partId, changedFields,
+                EntityChangedEvent.versionOf(updatedAt), attributes, previous, LocalDateTime.now());
+    }
+}
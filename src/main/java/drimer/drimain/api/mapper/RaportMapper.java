@@ -1,7 +1,7 @@
 package drimer.drimain.api.mapper;
 
 import drimer.drimain.api.dto.*;
-import drimer.drimain.model.Part;
+import drimer.drimain.events.EntityChangedEvent;
 import drimer.drimain.model.PartUsage;
 import drimer.drimain.model.Raport;
 import drimer.drimain.model.enums.RaportStatus;
@@ -13,7 +13,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalTime;
-import java.util.Collections;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Component
@@ -56,20 +56,74 @@ public class RaportMapper {
         return dto;
     }
 
-    public void applyPartUsages(Raport r, java.util.List<PartUsageDTO> list) {
-        if (list == null) return;
-        r.getPartUsages().clear();
-        list.forEach(dto -> {
-            Part part = partRepository.findById(dto.getPartId())
-                    .orElseThrow(() -> new IllegalArgumentException("Part not found: " + dto.getPartId()));
-            PartUsage pu = new PartUsage();
-            pu.setPart(part);
-            pu.setIlosc(dto.getIlosc());
-            r.addPartUsage(pu);
+    /**
+     * Ustawia użycia części raportu na podstawie listy DTO, zmieniając tylko różnice: istniejące linie
+     * tej samej części są dopasowywane po kolei (zmiana ilości = UPDATE), brakujące dodawane,
+     * nadmiarowe usuwane (orphanRemoval). Istnienie nowych części sprawdzane jednym zapytaniem.
+     *
+     * @return zmiana zużycia per część (partId → ilość; ujemna = zwrot) – do PartStockService.consume
+     */
+    public Map<Long, Integer> applyPartUsages(Raport r, java.util.List<PartUsageDTO> list) {
+        if (list == null) return Map.of();
+
+        Map<Long, Deque<PartUsage>> existing = new HashMap<>();
+        for (PartUsage pu : r.getPartUsages()) {
+            existing.computeIfAbsent(pu.getPart().getId(), id -> new ArrayDeque<>()).add(pu);
+        }
+
+        Map<Long, Integer> consumed = new HashMap<>();
+        Set<PartUsage> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<PartUsageDTO> added = new ArrayList<>();
+        for (PartUsageDTO dto : list) {
+            Deque<PartUsage> candidates = existing.get(dto.getPartId());
+            PartUsage pu = candidates != null ? candidates.poll() : null;
+            if (pu == null) {
+                added.add(dto);
+                continue;
+            }
+            if (!Objects.equals(pu.getIlosc(), dto.getIlosc())) {
+                consumed.merge(dto.getPartId(), quantity(dto.getIlosc()) - quantity(pu.getIlosc()), Integer::sum);
+                pu.setIlosc(dto.getIlosc());
+            }
+            kept.add(pu);
+        }
+        r.getPartUsages().removeIf(pu -> {
+            if (kept.contains(pu)) return false;
+            consumed.merge(pu.getPart().getId(), -quantity(pu.getIlosc()), Integer::sum);
+            return true;
         });
+
+        if (!added.isEmpty()) {
+            Set<Long> partIds = added.stream().map(PartUsageDTO::getPartId).collect(Collectors.toSet());
+            if (partIds.contains(null)) throw new IllegalArgumentException("Part not found: null");
+            Set<Long> found = new HashSet<>(partRepository.findExistingIds(partIds));
+            for (PartUsageDTO dto : added) {
+                if (!found.contains(dto.getPartId())) throw new IllegalArgumentException("Part not found: " + dto.getPartId());
+                PartUsage pu = new PartUsage();
+                pu.setPart(partRepository.getReferenceById(dto.getPartId()));
+                pu.setIlosc(dto.getIlosc());
+                r.addPartUsage(pu);
+                consumed.merge(dto.getPartId(), quantity(dto.getIlosc()), Integer::sum);
+            }
+        }
+        consumed.values().removeIf(q -> q == 0);
+        return consumed;
+    }
+
+    /** Zużycie wszystkich linii raportu (partId → ilość) – np. zwrot do magazynu przy usunięciu. */
+    public static Map<Long, Integer> usage(Raport r) {
+        Map<Long, Integer> usage = new HashMap<>();
+        r.getPartUsages().forEach(pu -> usage.merge(pu.getPart().getId(), quantity(pu.getIlosc()), Integer::sum));
+        usage.values().removeIf(q -> q == 0);
+        return usage;
     }
 
-    public void updateEntity(Raport r, RaportUpdateRequest req) {
+    private static int quantity(Integer ilosc) {
+        return ilosc != null ? ilosc : 0;
+    }
+
+    /** @return zmiana zużycia części (jak {@link #applyPartUsages}) */
+    public Map<Long, Integer> updateEntity(Raport r, RaportUpdateRequest req) {
         if (req.getTypNaprawy() != null) r.setTypNaprawy(req.getTypNaprawy());
         if (req.getOpis() != null) r.setOpis(req.getOpis());
         if (req.getStatus() != null) {
@@ -83,7 +137,7 @@ public class RaportMapper {
             r.setMaszyna(maszynaRepository.findById(req.getMaszynaId()).orElse(null));
         if (req.getOsobaId() != null)
             r.setOsoba(osobaRepository.findById(req.getOsobaId()).orElse(null));
-        if (req.getPartUsages() != null) applyPartUsages(r, req.getPartUsages());
+        return applyPartUsages(r, req.getPartUsages());
     }
 
     public void applyCreateDefaults(Raport r, RaportCreateRequest req) {
@@ -94,4 +148,30 @@ public class RaportMapper {
             r.setStatus(RaportStatus.NOWY);
         }
     }
-}
\ No newline at end of file
+
+    /** Pola RaportDTO, które różnią się między stanem przed i po zmianie. */
+    public List<String> changedFields(RaportDTO before, RaportDTO after) {
+        List<String> changed = new ArrayList<>();
+        if (!Objects.equals(maszynaId(before), maszynaId(after))) changed.add("maszyna");
+        if (!Objects.equals(before.getTypNaprawy(), after.getTypNaprawy())) changed.add("typNaprawy");
+        if (!Objects.equals(before.getOpis(), after.getOpis())) changed.add("opis");
+        if (!Objects.equals(before.getStatus(), after.getStatus())) changed.add("status");
+        if (!Objects.equals(before.getDataNaprawy(), after.getDataNaprawy())) changed.add("dataNaprawy");
+        if (!Objects.equals(before.getCzasOd(), after.getCzasOd())) changed.add("czasOd");
+        if (!Objects.equals(before.getCzasDo(), after.getCzasDo())) changed.add("czasDo");
+        Long osobaBefore = before.getOsoba() != null ? before.getOsoba().getId() : null;
+        Long osobaAfter = after.getOsoba() != null ? after.getOsoba().getId() : null;
+        if (!Objects.equals(osobaBefore, osobaAfter)) changed.add("osoba");
+        if (!Objects.equals(before.getPartUsages(), after.getPartUsages())) changed.add("partUsages");
+        return changed;
+    }
+
+    public static Long maszynaId(RaportDTO dto) {
+        return dto != null && dto.getMaszyna() != null ? dto.getMaszyna().getId() : null;
+    }
+
+    /** Wersja dla klientów WebSocket: updatedAt w mikrosekundach (kolumna ma taką precyzję). */
+    public static Long version(Raport r) {
+        return EntityChangedEvent.versionOf(r.getUpdatedAt());
+    }
+}
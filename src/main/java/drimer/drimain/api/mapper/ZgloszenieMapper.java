@@ -1,8 +1,11 @@
 package drimer.drimain.api.mapper;
 
 import drimer.drimain.api.dto.ZgloszenieDTO;
+import drimer.drimain.model.Attachment;
 import drimer.drimain.model.Zgloszenie;
 
+import java.util.List;
+
 public final class ZgloszenieMapper {
     private ZgloszenieMapper() {}
 
@@ -29,10 +32,17 @@ public final class ZgloszenieMapper {
             dto.setAutorId(z.getAutor().getId());
             dto.setAutorUsername(z.getAutor().getUsername());
         }
+        dto.setHasPhoto(hasPhoto(z.getAttachments()));
         
         return dto;
     }
 
+    /** Ta sama reguła co projekcja listy: zdjęcie = załącznik z typem image/*. */
+    public static boolean hasPhoto(List<Attachment> attachments) {
+        return attachments != null && attachments.stream()
+                .anyMatch(a -> a.getContentType() != null && a.getContentType().startsWith("image/"));
+    }
+
     public static void updateEntity(Zgloszenie z, ZgloszenieDTO dto) {
         z.setTyp(dto.getTyp());
         z.setImie(dto.getImie());
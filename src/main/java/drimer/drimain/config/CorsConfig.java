@@ -23,6 +23,7 @@ public class CorsConfig implements WebMvcConfigurer {
                         "http://10.0.2.2:3000"       // Android emulator Flutter dev
                 )
                 .allowedMethods("GET","POST","PUT","PATCH","DELETE","OPTIONS")
+                .exposedHeaders("X-Next-Cursor")           // kursor stronicowania /api/zgloszenia
                 .allowCredentials(true);
     }
 }
\ No newline at end of file
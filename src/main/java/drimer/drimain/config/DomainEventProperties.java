@@ -0,0 +1,29 @@
+package drimer.drimain.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.events")
+public class DomainEventProperties {
+
+    private int dispatchThreads = 1; // 1 = zdarzenia rozsyłane w kolejności zatwierdzenia
+    private int queueCapacity = 10_000;
+
+    // Getters and setters
+    public int getDispatchThreads() {
+        return dispatchThreads;
+    }
+
+    public void setDispatchThreads(int dispatchThreads) {
+        this.dispatchThreads = dispatchThreads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+}
@@ -0,0 +1,67 @@
+package drimer.drimain.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.UUID;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.outbox")
+public class OutboxProperties {
+
+    private boolean enabled = false; // włączane jawnie przy wielu węzłach
+    private String nodeId = UUID.randomUUID().toString(); // domyślnie unikalne na uruchomienie
+    private long pollIntervalMs = 1000;
+    private int batchSize = 500;
+    private long gapTimeoutSeconds = 10; // jak długo czekać na id z niezatwierdzonej transakcji
+    private int retentionHours = 24;
+
+    // Getters and setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public long getPollIntervalMs() {
+        return pollIntervalMs;
+    }
+
+    public void setPollIntervalMs(long pollIntervalMs) {
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getGapTimeoutSeconds() {
+        return gapTimeoutSeconds;
+    }
+
+    public void setGapTimeoutSeconds(long gapTimeoutSeconds) {
+        this.gapTimeoutSeconds = gapTimeoutSeconds;
+    }
+
+    public int getRetentionHours() {
+        return retentionHours;
+    }
+
+    public void setRetentionHours(int retentionHours) {
+        this.retentionHours = retentionHours;
+    }
+}
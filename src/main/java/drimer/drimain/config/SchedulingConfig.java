@@ -6,5 +6,5 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 @Configuration
 @EnableScheduling
 public class SchedulingConfig {
-    // Enables scheduling for SSE heartbeat and cleanup tasks
+    // Enables scheduling for cleanup tasks (tombstones, outbox) and outbox polling
 }
\ No newline at end of file
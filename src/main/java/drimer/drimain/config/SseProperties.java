@@ -9,7 +9,26 @@ public class SseProperties {
     
     private int maxClients = 100;
     private long heartbeatIntervalSeconds = 30;
-    private long clientTimeoutSeconds = 300; // 5 minutes
+    private long clientTimeoutSeconds = 300; // 5 minut bez udanego zapisu do klienta
+    private int queueCapacity = 256; // zdarzeń oczekujących na jednego klienta
+    private SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.DROP_OLDEST;
+    private int writerThreads = 4;
+    private int dispatcherQueueCapacity = 10_000;
+    private int replayBufferSize = 1000; // ostatnie zdarzenia do odtworzenia po Last-Event-ID
+    private long coalesceWindowMs = 500; // 0 = scalanie UPDATED wyłączone
+    private boolean coalesceByDefault = true; // subskrypcja może nadpisać parametrem coalesce
+    private long timerTickMillis = 500; // rozdzielczość koła czasowego heartbeat/timeout
+    private int timerWheelSize = 512;
+
+    /** Co zrobić, gdy kolejka klienta jest pełna. */
+    public enum SlowConsumerPolicy {
+        /** Usuń najstarsze oczekujące zdarzenie. */
+        DROP_OLDEST,
+        /** Zastąp oczekujące zdarzenie tego samego zgłoszenia nowszym; gdy brak – jak DROP_OLDEST. */
+        COALESCE,
+        /** Zamknij połączenie – klient odświeży stan po ponownym połączeniu. */
+        DISCONNECT
+    }
     
     // Getters and setters
     public int getMaxClients() {
@@ -35,4 +54,76 @@ public class SseProperties {
     public void setClientTimeoutSeconds(long clientTimeoutSeconds) {
         this.clientTimeoutSeconds = clientTimeoutSeconds;
     }
-}
\ No newline at end of file
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public SlowConsumerPolicy getSlowConsumerPolicy() {
+        return slowConsumerPolicy;
+    }
+
+    public void setSlowConsumerPolicy(SlowConsumerPolicy slowConsumerPolicy) {
+        this.slowConsumerPolicy = slowConsumerPolicy;
+    }
+
+    public int getWriterThreads() {
+        return writerThreads;
+    }
+
+    public void setWriterThreads(int writerThreads) {
+        this.writerThreads = writerThreads;
+    }
+
+    public int getDispatcherQueueCapacity() {
+        return dispatcherQueueCapacity;
+    }
+
+    public void setDispatcherQueueCapacity(int dispatcherQueueCapacity) {
+        this.dispatcherQueueCapacity = dispatcherQueueCapacity;
+    }
+
+    public int getReplayBufferSize() {
+        return replayBufferSize;
+    }
+
+    public void setReplayBufferSize(int replayBufferSize) {
+        this.replayBufferSize = replayBufferSize;
+    }
+
+    public long getCoalesceWindowMs() {
+        return coalesceWindowMs;
+    }
+
+    public void setCoalesceWindowMs(long coalesceWindowMs) {
+        this.coalesceWindowMs = coalesceWindowMs;
+    }
+
+    public boolean isCoalesceByDefault() {
+        return coalesceByDefault;
+    }
+
+    public void setCoalesceByDefault(boolean coalesceByDefault) {
+        this.coalesceByDefault = coalesceByDefault;
+    }
+
+    public long getTimerTickMillis() {
+        return timerTickMillis;
+    }
+
+    public void setTimerTickMillis(long timerTickMillis) {
+        this.timerTickMillis = timerTickMillis;
+    }
+
+    public int getTimerWheelSize() {
+        return timerWheelSize;
+    }
+
+    public void setTimerWheelSize(int timerWheelSize) {
+        this.timerWheelSize = timerWheelSize;
+    }
+}
@@ -0,0 +1,38 @@
+package drimer.drimain.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.sync")
+public class SyncProperties {
+
+    private int maxPageSize = 500;
+    private long overlapSeconds = 5; // zapas na transakcje zatwierdzone po odczycie
+    private int tombstoneRetentionDays = 30;
+
+    // Getters and setters
+    public int getMaxPageSize() {
+        return maxPageSize;
+    }
+
+    public void setMaxPageSize(int maxPageSize) {
+        this.maxPageSize = maxPageSize;
+    }
+
+    public long getOverlapSeconds() {
+        return overlapSeconds;
+    }
+
+    public void setOverlapSeconds(long overlapSeconds) {
+        this.overlapSeconds = overlapSeconds;
+    }
+
+    public int getTombstoneRetentionDays() {
+        return tombstoneRetentionDays;
+    }
+
+    public void setTombstoneRetentionDays(int tombstoneRetentionDays) {
+        this.tombstoneRetentionDays = tombstoneRetentionDays;
+    }
+}
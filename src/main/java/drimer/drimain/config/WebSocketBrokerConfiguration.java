@@ -0,0 +1,63 @@
+package drimer.drimain.config;
+
+import drimer.drimain.service.StompBrokerMonitor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.config.annotation.DelegatingWebSocketMessageBrokerConfiguration;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+/**
+ * Zamiast @EnableWebSocketMessageBroker: ta sama konfiguracja (zbiera WebSocketMessageBrokerConfigurer,
+ * w tym {@link WebSocketConfig}), ale z własnym SubProtocolWebSocketHandler – domyślny zawsze zamyka
+ * sesję po przepełnieniu bufora i nie daje wglądu w bufory sesji.
+ */
+@Configuration
+public class WebSocketBrokerConfiguration extends DelegatingWebSocketMessageBrokerConfiguration {
+
+    private final StompBrokerMonitor monitor;
+
+    public WebSocketBrokerConfiguration(StompBrokerMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    @Bean
+    @Override
+    public WebSocketHandler subProtocolWebSocketHandler(AbstractSubscribableChannel clientInboundChannel,
+                                                        AbstractSubscribableChannel clientOutboundChannel) {
+        MonitoredSubProtocolWebSocketHandler handler =
+                new MonitoredSubProtocolWebSocketHandler(clientInboundChannel, clientOutboundChannel, monitor);
+        handler.setPhase(getPhase());
+        return handler;
+    }
+
+    static class MonitoredSubProtocolWebSocketHandler extends SubProtocolWebSocketHandler {
+
+        private final StompBrokerMonitor monitor;
+
+        MonitoredSubProtocolWebSocketHandler(MessageChannel clientInboundChannel,
+                                             SubscribableChannel clientOutboundChannel, StompBrokerMonitor monitor) {
+            super(clientInboundChannel, clientOutboundChannel);
+            this.monitor = monitor;
+        }
+
+        @Override
+        protected WebSocketSession decorateSession(WebSocketSession session) {
+            return monitor.track(session, getSendTimeLimit(), getSendBufferSizeLimit());
+        }
+
+        @Override
+        public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+            try {
+                super.afterConnectionClosed(session, closeStatus);
+            } finally {
+                monitor.closed(session, closeStatus);
+            }
+        }
+    }
+}
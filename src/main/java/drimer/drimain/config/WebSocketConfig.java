@@ -1,14 +1,28 @@
 package drimer.drimain.config;
 
+import drimer.drimain.service.StompBrokerMonitor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
-import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+/**
+ * Broker włącza {@link WebSocketBrokerConfiguration}; tu endpoint, pule kanałów i limity wysyłki
+ * z app.websocket.*.
+ */
 @Configuration
-@EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    private final WebSocketProperties properties;
+    private final StompBrokerMonitor monitor;
+
+    public WebSocketConfig(WebSocketProperties properties, StompBrokerMonitor monitor) {
+        this.properties = properties;
+        this.monitor = monitor;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
         registry.enableSimpleBroker("/topic");      // /topic/** dla subskrypcji
@@ -21,4 +35,23 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*")
                 .withSockJS();                      // opcjonalnie SockJS
     }
-}
\ No newline at end of file
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.executor(monitor.channelExecutor("inbound", properties.getInboundCorePoolSize(),
+                properties.getInboundMaxPoolSize(), properties.getInboundQueueCapacity()));
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.executor(monitor.channelExecutor("outbound", properties.getOutboundCorePoolSize(),
+                properties.getOutboundMaxPoolSize(), properties.getOutboundQueueCapacity()));
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(properties.getSendTimeLimitMs())
+                .setSendBufferSizeLimit(properties.getSendBufferSizeLimitBytes())
+                .setMessageSizeLimit(properties.getMessageSizeLimitBytes());
+    }
+}
@@ -0,0 +1,108 @@
+package drimer.drimain.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.websocket")
+public class WebSocketProperties {
+    private int inboundCorePoolSize = Runtime.getRuntime().availableProcessors() * 2;
+    private int inboundMaxPoolSize = Runtime.getRuntime().availableProcessors() * 2;
+    private int inboundQueueCapacity = 10_000; // ramki od klientów czekające na obsługę
+    private int outboundCorePoolSize = Runtime.getRuntime().availableProcessors() * 2;
+    private int outboundMaxPoolSize = Runtime.getRuntime().availableProcessors() * 2;
+    private int outboundQueueCapacity = 10_000; // wiadomości do klientów czekające na wątek; pełna = odrzucenie
+    private int sendTimeLimitMs = 10_000; // jeden zapis do sesji dłużej = sesja zamykana
+    private int sendBufferSizeLimitBytes = 512 * 1024; // bufor wiadomości czekających na zablokowany zapis
+    private int messageSizeLimitBytes = 64 * 1024; // ramka przychodząca
+    private SlowSessionPolicy slowSessionPolicy = SlowSessionPolicy.DROP_OLDEST;
+
+    /** Co zrobić, gdy bufor wysyłki sesji przekroczy send-buffer-size-limit-bytes. */
+    public enum SlowSessionPolicy {
+        /** Usuń najstarsze wiadomości z bufora – klient traci część zmian, ale zostaje połączony. */
+        DROP_OLDEST,
+        /** Zamknij sesję – klient połączy się ponownie i pobierze stan od nowa. */
+        TERMINATE
+    }
+
+    // Getters and setters
+    public int getInboundCorePoolSize() {
+        return inboundCorePoolSize;
+    }
+
+    public void setInboundCorePoolSize(int inboundCorePoolSize) {
+        this.inboundCorePoolSize = inboundCorePoolSize;
+    }
+
+    public int getInboundMaxPoolSize() {
+        return inboundMaxPoolSize;
+    }
+
+    public void setInboundMaxPoolSize(int inboundMaxPoolSize) {
+        this.inboundMaxPoolSize = inboundMaxPoolSize;
+    }
+
+    public int getInboundQueueCapacity() {
+        return inboundQueueCapacity;
+    }
+
+    public void setInboundQueueCapacity(int inboundQueueCapacity) {
+        this.inboundQueueCapacity = inboundQueueCapacity;
+    }
+
+    public int getOutboundCorePoolSize() {
+        return outboundCorePoolSize;
+    }
+
+    public void setOutboundCorePoolSize(int outboundCorePoolSize) {
+        this.outboundCorePoolSize = outboundCorePoolSize;
+    }
+
+    public int getOutboundMaxPoolSize() {
+        return outboundMaxPoolSize;
+    }
+
+    public void setOutboundMaxPoolSize(int outboundMaxPoolSize) {
+        this.outboundMaxPoolSize = outboundMaxPoolSize;
+    }
+
+    public int getOutboundQueueCapacity() {
+        return outboundQueueCapacity;
+    }
+
+    public void setOutboundQueueCapacity(int outboundQueueCapacity) {
+        this.outboundQueueCapacity = outboundQueueCapacity;
+    }
+
+    public int getSendTimeLimitMs() {
+        return sendTimeLimitMs;
+    }
+
+    public void setSendTimeLimitMs(int sendTimeLimitMs) {
+        this.sendTimeLimitMs = sendTimeLimitMs;
+    }
+
+    public int getSendBufferSizeLimitBytes() {
+        return sendBufferSizeLimitBytes;
+    }
+
+    public void setSendBufferSizeLimitBytes(int sendBufferSizeLimitBytes) {
+        this.sendBufferSizeLimitBytes = sendBufferSizeLimitBytes;
+    }
+
+    public int getMessageSizeLimitBytes() {
+        return messageSizeLimitBytes;
+    }
+
+    public void setMessageSizeLimitBytes(int messageSizeLimitBytes) {
+        this.messageSizeLimitBytes = messageSizeLimitBytes;
+    }
+
+    public SlowSessionPolicy getSlowSessionPolicy() {
+        return slowSessionPolicy;
+    }
+
+    public void setSlowSessionPolicy(SlowSessionPolicy slowSessionPolicy) {
+        this.slowSessionPolicy = slowSessionPolicy;
+    }
+}
@@ -2,6 +2,7 @@ package drimer.drimain.controller;
 
 import drimer.drimain.model.*;
 import drimer.drimain.repository.*;
+import drimer.drimain.service.HarmonogramCalendar;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.annotation.Secured;
@@ -32,6 +33,9 @@ public class AdminController {
     @Autowired
     private BCryptPasswordEncoder passwordEncoder;
 
+    @Autowired
+    private HarmonogramCalendar harmonogramCalendar;
+
     // Panel admina
     @GetMapping("")
     public String adminPanel(Model model) {
@@ -80,6 +84,7 @@ public class AdminController {
     @PostMapping("/delete-maszyna")
     public String deleteMaszyna(@RequestParam Long id) {
         maszynaRepository.deleteById(id);
+        harmonogramCalendar.evictAll();
         return "redirect:/admin";
     }
 
@@ -96,6 +101,7 @@ public class AdminController {
     @PostMapping("/delete-osoba")
     public String deleteOsoba(@RequestParam Long id) {
         osobaRepository.deleteById(id);
+        harmonogramCalendar.evictAll();
         return "redirect:/admin";
     }
 
@@ -3,6 +3,7 @@ package drimer.drimain.controller;
 import drimer.drimain.api.dto.*;
 import drimer.drimain.model.*;
 import drimer.drimain.repository.*;
+import drimer.drimain.service.HarmonogramCalendar;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -30,6 +31,7 @@ public class AdminRestController {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final HarmonogramCalendar harmonogramCalendar;
 
     // ========== DZIALY ==========
     
@@ -104,6 +106,8 @@ public class AdminRestController {
         }
         
         maszynaRepository.save(maszyna);
+        // Kalendarz trzyma nazwy maszyn w widokach miesięcy
+        harmonogramCalendar.evictAll();
         return toMaszynaDto(maszyna);
     }
 
@@ -112,6 +116,7 @@ public class AdminRestController {
     public void deleteMaszyna(@PathVariable Long id) {
         // TODO: Add validation to prevent deletion if maszyna has related zgloszenia/harmonogramy
         maszynaRepository.deleteById(id);
+        harmonogramCalendar.evictAll();
     }
 
     // ========== OSOBY ==========
@@ -150,6 +155,8 @@ public class AdminRestController {
         osoba.setRola(req.getRola());
         
         osobaRepository.save(osoba);
+        // Kalendarz trzyma imiona i nazwiska osób w widokach miesięcy
+        harmonogramCalendar.evictAll();
         return toOsobaDto(osoba);
     }
 
@@ -158,6 +165,7 @@ public class AdminRestController {
     public void deleteOsoba(@PathVariable Long id) {
         // TODO: Add validation to prevent deletion if osoba has related zgloszenia/harmonogramy
         osobaRepository.deleteById(id);
+        harmonogramCalendar.evictAll();
     }
 
     // ========== USERS (SECURITY) ==========
@@ -1,20 +1,33 @@
 package drimer.drimain.controller;
 
+import drimer.drimain.api.exception.HarmonogramConflictException;
+import drimer.drimain.api.mapper.HarmonogramMapper;
+import drimer.drimain.events.DomainEventPublisher;
+import drimer.drimain.events.EventType;
 import drimer.drimain.model.Harmonogram;
 import drimer.drimain.model.Maszyna;
 import drimer.drimain.model.Osoba;
+import drimer.drimain.model.enums.SyncEntityType;
 import drimer.drimain.repository.HarmonogramRepository;
 import drimer.drimain.repository.MaszynaRepository;
 import drimer.drimain.repository.OsobaRepository;
+import drimer.drimain.service.HarmonogramCalendar;
+import drimer.drimain.service.HarmonogramConflictIndex;
+import drimer.drimain.service.SyncService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 @Controller
 @RequestMapping("/harmonogramy")
@@ -26,6 +39,14 @@ public class HarmonogramController {
     private MaszynaRepository maszynaRepository;
     @Autowired
     private OsobaRepository osobaRepository;
+    @Autowired
+    private SyncService syncService;
+    @Autowired
+    private HarmonogramCalendar harmonogramCalendar;
+    @Autowired
+    private DomainEventPublisher eventPublisher;
+    @Autowired
+    private HarmonogramConflictIndex conflictIndex;
 
     @GetMapping
     public String harmonogramy(@RequestParam(required = false) Integer year,
@@ -84,8 +105,13 @@ public class HarmonogramController {
     }
 
     @PostMapping("/dodaj")
-    public String dodajHarmonogram(@ModelAttribute Harmonogram harmonogram) {
-        harmonogramRepository.save(harmonogram);
+    @Transactional
+    public String dodajHarmonogram(@ModelAttribute Harmonogram harmonogram, RedirectAttributes redirect) {
+        if (!checkConflicts(harmonogram, redirect)) return "redirect:/harmonogramy";
+        Harmonogram saved = harmonogramRepository.save(harmonogram);
+        harmonogramCalendar.evict(saved.getData());
+        conflictIndex.put(saved);
+        eventPublisher.publish(HarmonogramMapper.changedEvent(this, saved, EventType.CREATED, List.of(), Map.of()));
         return "redirect:/harmonogramy";
     }
 
@@ -100,14 +126,54 @@ public class HarmonogramController {
     }
 
     @PostMapping("/edit")
-    public String saveEditedHarmonogram(@ModelAttribute Harmonogram harmonogram) {
-        harmonogramRepository.save(harmonogram);
+    @Transactional
+    public String saveEditedHarmonogram(@ModelAttribute("harmonogram") Harmonogram form, RedirectAttributes redirect) {
+        // Formularz nie ma pól reguły (rule/occurrenceDate) – kopiujemy tylko jego pola na encję z bazy,
+        // żeby zapisane wystąpienie reguły nie straciło powiązania
+        Harmonogram harmonogram = harmonogramRepository.findById(form.getId())
+                .orElseThrow(() -> new IllegalArgumentException("Harmonogram not found"));
+        // Stan sprzed zmiany – miesiąc, z którego wpis mógł zniknąć
+        Map<String, String> before = HarmonogramMapper.attributes(harmonogram);
+        Map<String, String> after = HarmonogramMapper.attributes(form);
+        boolean rebooked = Stream.of("data", "maszynaId", "osobaId")
+                .anyMatch(key -> !Objects.equals(before.get(key), after.get(key)));
+        if (rebooked && !checkConflicts(form, redirect)) return "redirect:/harmonogramy";
+        harmonogram.setData(form.getData());
+        harmonogram.setOpis(form.getOpis());
+        harmonogram.setMaszyna(form.getMaszyna());
+        harmonogram.setOsoba(form.getOsoba());
+        harmonogram.setStatus(form.getStatus());
+        Harmonogram saved = harmonogramRepository.save(harmonogram);
+        String dataBefore = before.get("data");
+        harmonogramCalendar.evict(saved.getData(), dataBefore != null ? LocalDate.parse(dataBefore) : null);
+        conflictIndex.put(saved);
+        eventPublisher.publish(HarmonogramMapper.changedEvent(this, saved, EventType.UPDATED, List.of(), before));
         return "redirect:/harmonogramy";
     }
 
     @PostMapping("/delete")
     public String deleteHarmonogram(@RequestParam Long id) {
-        harmonogramRepository.deleteById(id);
+        harmonogramRepository.findById(id).ifPresent(h -> {
+            harmonogramRepository.delete(h);
+            harmonogramCalendar.evict(h.getData());
+            conflictIndex.remove(h);
+            eventPublisher.publish(HarmonogramMapper.changedEvent(this, h, EventType.DELETED, List.of(), Map.of()));
+            syncService.recordDeletion(SyncEntityType.HARMONOGRAM, id);
+        });
         return "redirect:/harmonogramy";
     }
-}
\ No newline at end of file
+
+    // To samo sprawdzenie co w API – formularz nie ma odpowiednika allowConflicts
+    private boolean checkConflicts(Harmonogram h, RedirectAttributes redirect) {
+        try {
+            conflictIndex.check(h.getId(), h.getData(), h.getMaszyna() != null ? h.getMaszyna().getId() : null,
+                    h.getOsoba() != null ? h.getOsoba().getId() : null);
+            return true;
+        } catch (HarmonogramConflictException e) {
+            redirect.addFlashAttribute("error", "Osoba lub maszyna ma już wpis w dniu " + e.getData()
+                    + " (harmonogram " + e.getConflictingIds()
+                    + (e.getConflictingRuleIds().isEmpty() ? "" : ", reguła " + e.getConflictingRuleIds()) + ")");
+            return false;
+        }
+    }
+}
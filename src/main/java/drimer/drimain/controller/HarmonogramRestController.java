@@ -1,20 +1,33 @@
 package drimer.drimain.controller;
 
 import drimer.drimain.api.dto.*;
+import drimer.drimain.api.mapper.HarmonogramMapper;
+import drimer.drimain.events.DomainEventPublisher;
+import drimer.drimain.events.EventType;
 import drimer.drimain.model.Harmonogram;
 import drimer.drimain.model.Maszyna;
 import drimer.drimain.model.Osoba;
 import drimer.drimain.model.enums.StatusHarmonogramu;
+import drimer.drimain.model.enums.SyncEntityType;
 import drimer.drimain.repository.HarmonogramRepository;
 import drimer.drimain.repository.MaszynaRepository;
 import drimer.drimain.repository.OsobaRepository;
+import drimer.drimain.service.HarmonogramCalendar;
+import drimer.drimain.service.HarmonogramConflictIndex;
+import drimer.drimain.service.HarmonogramRuleService;
+import drimer.drimain.service.SyncService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -26,27 +39,62 @@ public class HarmonogramRestController {
     private final HarmonogramRepository harmonogramRepository;
     private final MaszynaRepository maszynaRepository;
     private final OsobaRepository osobaRepository;
+    private final SyncService syncService;
+    private final DomainEventPublisher publisher;
+    private final HarmonogramCalendar harmonogramCalendar;
+    private final HarmonogramRuleService harmonogramRuleService;
+    private final HarmonogramConflictIndex conflictIndex;
 
+    /**
+     * Rok i miesiąc – widok miesiąca z HarmonogramCalendar (zapytanie zakresowe po data, cache do
+     * najbliższej zmiany w tym miesiącu); sam rok – 12 takich miesięcy; from/to – dowolny zakres do roku.
+     * Widoki kalendarza zawierają wyliczone wystąpienia reguł cyklicznych (id == null, ruleId).
+     */
     @GetMapping
     public List<HarmonogramDTO> list(@RequestParam Optional<Integer> year,
-                                   @RequestParam Optional<Integer> month) {
-        return harmonogramRepository.findAll().stream()
-                .filter(h -> year.map(y -> h.getData() != null && h.getData().getYear() == y).orElse(true))
+                                   @RequestParam Optional<Integer> month,
+                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Optional<LocalDate> from,
+                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Optional<LocalDate> to) {
+        if (from.isPresent() || to.isPresent()) {
+            if (from.isEmpty() || to.isEmpty()) throw new IllegalArgumentException("Both from and to are required");
+            return harmonogramCalendar.range(from.get(), to.get());
+        }
+        month.ifPresent(m -> {
+            if (m < 1 || m > 12) throw new IllegalArgumentException("Invalid month: " + m);
+        });
+        if (year.isPresent() && month.isPresent()) {
+            return harmonogramCalendar.month(YearMonth.of(year.get(), month.get()));
+        }
+        if (year.isPresent()) {
+            return harmonogramCalendar.year(year.get());
+        }
+        return harmonogramRepository.findAllWithDetails().stream()
                 .filter(h -> month.map(m -> h.getData() != null && h.getData().getMonthValue() == m).orElse(true))
-                .map(this::toDto)
+                .map(HarmonogramMapper::toDto)
                 .collect(Collectors.toList());
     }
 
+    /** Dni, w których osoba lub maszyna ma więcej niż jeden wpis – z indeksu w pamięci. */
+    @GetMapping("/conflicts")
+    public List<HarmonogramConflictDTO> conflicts(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return conflictIndex.conflicts(from, to);
+    }
+
     @GetMapping("/{id}")
     public HarmonogramDTO get(@PathVariable Long id) {
         Harmonogram h = harmonogramRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Harmonogram not found"));
-        return toDto(h);
+        return HarmonogramMapper.toDto(h);
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public HarmonogramDTO create(@Valid @RequestBody HarmonogramCreateRequest req) {
+    @Transactional // sprawdzenie konfliktu i zapis pod blokadą osoby/maszyny do commit
+    public HarmonogramDTO create(@Valid @RequestBody HarmonogramCreateRequest req,
+                                 @RequestParam(defaultValue = "false") boolean allowConflicts) {
+        if (!allowConflicts) conflictIndex.check(null, req.getData(), req.getMaszynaId(), req.getOsobaId());
         Harmonogram h = new Harmonogram();
         h.setData(req.getData());
         h.setOpis(req.getOpis());
@@ -65,63 +113,102 @@ public class HarmonogramRestController {
         
         h.setStatus(req.getStatus() != null ? req.getStatus() : StatusHarmonogramu.PLANOWANE);
         
-        harmonogramRepository.save(h);
-        return toDto(h);
+        h = harmonogramRepository.save(h);
+        harmonogramCalendar.evict(h.getData());
+        conflictIndex.put(h);
+        publish(h, EventType.CREATED, List.of(), Map.of());
+        return HarmonogramMapper.toDto(h);
     }
 
     @PutMapping("/{id}")
-    public HarmonogramDTO update(@PathVariable Long id, @Valid @RequestBody HarmonogramUpdateRequest req) {
+    @Transactional
+    public HarmonogramDTO update(@PathVariable Long id, @Valid @RequestBody HarmonogramUpdateRequest req,
+                                 @RequestParam(defaultValue = "false") boolean allowConflicts) {
         Harmonogram h = harmonogramRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Harmonogram not found"));
+        Map<String, String> before = HarmonogramMapper.attributes(h);
+        LocalDate dataBefore = h.getData();
+        List<String> changedFields = new ArrayList<>();
         
-        if (req.getData() != null) h.setData(req.getData());
-        if (req.getOpis() != null) h.setOpis(req.getOpis());
+        if (req.getData() != null && !req.getData().equals(h.getData())) {
+            h.setData(req.getData());
+            changedFields.add("data");
+        }
+        if (req.getOpis() != null && !req.getOpis().equals(h.getOpis())) {
+            h.setOpis(req.getOpis());
+            changedFields.add("opis");
+        }
         
-        if (req.getMaszynaId() != null) {
+        if (req.getMaszynaId() != null && (h.getMaszyna() == null || !req.getMaszynaId().equals(h.getMaszyna().getId()))) {
             Maszyna maszyna = maszynaRepository.findById(req.getMaszynaId())
                     .orElseThrow(() -> new IllegalArgumentException("Maszyna not found"));
             h.setMaszyna(maszyna);
+            changedFields.add("maszyna");
         }
         
-        if (req.getOsobaId() != null) {
+        if (req.getOsobaId() != null && (h.getOsoba() == null || !req.getOsobaId().equals(h.getOsoba().getId()))) {
             Osoba osoba = osobaRepository.findById(req.getOsobaId())
                     .orElseThrow(() -> new IllegalArgumentException("Osoba not found"));
             h.setOsoba(osoba);
+            changedFields.add("osoba");
         }
         
-        if (req.getStatus() != null) h.setStatus(req.getStatus());
+        if (req.getStatus() != null && req.getStatus() != h.getStatus()) {
+            h.setStatus(req.getStatus());
+            changedFields.add("status");
+        }
         
-        harmonogramRepository.save(h);
-        return toDto(h);
+        boolean rebooked = changedFields.contains("data") || changedFields.contains("maszyna")
+                || changedFields.contains("osoba");
+        if (rebooked && !allowConflicts) {
+            conflictIndex.check(h.getId(), h.getData(), h.getMaszyna() != null ? h.getMaszyna().getId() : null,
+                    h.getOsoba() != null ? h.getOsoba().getId() : null);
+        }
+
+        h = harmonogramRepository.save(h);
+        if (!changedFields.isEmpty()) {
+            harmonogramCalendar.evict(dataBefore, h.getData());
+            conflictIndex.put(h);
+            publish(h, EventType.UPDATED, changedFields, before);
+        }
+        return HarmonogramMapper.toDto(h);
+    }
+
+    /** Edycja lub zakończenie wystąpienia reguły: zapisuje je jako wiersz harmonogramu i stosuje zmiany. */
+    @PutMapping("/reguly/{ruleId}/wystapienia/{data}")
+    @Transactional
+    public HarmonogramDTO updateOccurrence(@PathVariable Long ruleId,
+                                           @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data,
+                                           @Valid @RequestBody HarmonogramUpdateRequest req,
+                                           @RequestParam(defaultValue = "false") boolean allowConflicts) {
+        Harmonogram h = harmonogramRuleService.materialize(ruleId, data);
+        conflictIndex.put(h);
+        return update(h.getId(), req, allowConflicts);
+    }
+
+    /** Pominięcie wystąpienia reguły (zapisane wystąpienie jest usuwane jak każdy harmonogram). */
+    @DeleteMapping("/reguly/{ruleId}/wystapienia/{data}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Transactional
+    public void skipOccurrence(@PathVariable Long ruleId,
+                               @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data) {
+        harmonogramRuleService.skip(ruleId, data).ifPresent(h -> delete(h.getId()));
     }
 
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Transactional
     public void delete(@PathVariable Long id) {
-        harmonogramRepository.deleteById(id);
+        harmonogramRepository.findById(id).ifPresent(h -> {
+            harmonogramRepository.delete(h);
+            harmonogramCalendar.evict(h.getData());
+            conflictIndex.remove(h);
+            publish(h, EventType.DELETED, List.of(), Map.of());
+            syncService.recordDeletion(SyncEntityType.HARMONOGRAM, id);
+        });
     }
 
-    private HarmonogramDTO toDto(Harmonogram h) {
-        HarmonogramDTO dto = new HarmonogramDTO();
-        dto.setId(h.getId());
-        dto.setData(h.getData());
-        dto.setOpis(h.getOpis());
-        dto.setStatus(h.getStatus());
-        
-        if (h.getMaszyna() != null) {
-            SimpleMaszynaDTO maszynaDto = new SimpleMaszynaDTO();
-            maszynaDto.setId(h.getMaszyna().getId());
-            maszynaDto.setNazwa(h.getMaszyna().getNazwa());
-            dto.setMaszyna(maszynaDto);
-        }
-        
-        if (h.getOsoba() != null) {
-            SimpleOsobaDTO osobaDto = new SimpleOsobaDTO();
-            osobaDto.setId(h.getOsoba().getId());
-            osobaDto.setImieNazwisko(h.getOsoba().getImieNazwisko());
-            dto.setOsoba(osobaDto);
-        }
-        
-        return dto;
+    private void publish(Harmonogram h, EventType action, List<String> changedFields, Map<String, String> before) {
+        publisher.publish(HarmonogramMapper.changedEvent(this, h, action, changedFields, before));
     }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package drimer.drimain.controller;
+
+import drimer.drimain.api.dto.HarmonogramRuleDTO;
+import drimer.drimain.api.dto.HarmonogramRuleRequest;
+import drimer.drimain.service.HarmonogramRuleService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/** Reguły cyklicznych przeglądów; edycja i pomijanie pojedynczych wystąpień – HarmonogramRestController. */
+@RestController
+@RequestMapping("/api/harmonogramy/reguly")
+@RequiredArgsConstructor
+public class HarmonogramRuleRestController {
+
+    private final HarmonogramRuleService harmonogramRuleService;
+
+    @GetMapping
+    public List<HarmonogramRuleDTO> list() {
+        return harmonogramRuleService.list();
+    }
+
+    @GetMapping("/{id}")
+    public HarmonogramRuleDTO get(@PathVariable Long id) {
+        return harmonogramRuleService.get(id);
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public HarmonogramRuleDTO create(@Valid @RequestBody HarmonogramRuleRequest req) {
+        return harmonogramRuleService.create(req);
+    }
+
+    @PutMapping("/{id}")
+    public HarmonogramRuleDTO update(@PathVariable Long id, @Valid @RequestBody HarmonogramRuleRequest req) {
+        return harmonogramRuleService.update(id, req);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void delete(@PathVariable Long id) {
+        harmonogramRuleService.delete(id);
+    }
+}
@@ -1,14 +1,26 @@
 package drimer.drimain.controller;
 
 import drimer.drimain.api.dto.*;
+import drimer.drimain.api.mapper.PartMapper;
+import drimer.drimain.events.DomainEventPublisher;
+import drimer.drimain.events.EventType;
 import drimer.drimain.model.Part; // TODO: encja części
+import drimer.drimain.model.enums.StockMovementReason;
+import drimer.drimain.model.enums.SyncEntityType;
 import drimer.drimain.repository.PartRepository; // TODO
+import drimer.drimain.service.PartStockService;
+import drimer.drimain.service.StockChange;
+import drimer.drimain.service.StockLedgerService;
+import drimer.drimain.service.SyncService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @RestController
@@ -17,31 +29,40 @@ import java.util.stream.Collectors;
 public class PartRestController {
 
     private final PartRepository partRepository;
+    private final SyncService syncService;
+    private final DomainEventPublisher publisher;
+    private final PartStockService partStockService;
+    private final StockLedgerService stockLedgerService;
 
+    /**
+     * belowMin=true czyta tylko części poniżej stanu minimalnego z indeksu (kolumna below_min);
+     * zmiany tego stanu są też wysyłane na żywo jako PART_BELOW_MIN / PART_RESTOCKED (/api/events).
+     */
     @GetMapping
     public List<PartDTO> list(@RequestParam Optional<String> kat,
                               @RequestParam Optional<String> q,
                               @RequestParam Optional<Boolean> belowMin) {
-        return partRepository.findAll().stream()
+        List<Part> parts = belowMin.orElse(false) ? partRepository.findBelowMin() : partRepository.findAll();
+        return parts.stream()
                 .filter(p -> kat.map(k -> k.equalsIgnoreCase(p.getKategoria())).orElse(true))
                 .filter(p -> q.map(query ->
                         (p.getNazwa() != null && p.getNazwa().toLowerCase().contains(query.toLowerCase())) ||
                         (p.getKod() != null && p.getKod().toLowerCase().contains(query.toLowerCase())) ||
                         (p.getKategoria() != null && p.getKategoria().toLowerCase().contains(query.toLowerCase()))
                 ).orElse(true))
-                .filter(p -> belowMin.map(b -> !b || (p.getIlosc() != null && p.getMinIlosc() != null && p.getIlosc() < p.getMinIlosc())).orElse(true))
-                .map(this::toDto)
+                .map(PartMapper::toDto)
                 .collect(Collectors.toList());
     }
 
     @GetMapping("/{id}")
     public PartDTO get(@PathVariable Long id) {
         Part p = partRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Part not found"));
-        return toDto(p);
+        return PartMapper.toDto(p);
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
+    @Transactional
     public PartDTO create(@RequestBody PartCreateRequest req) {
         Part p = new Part();
         p.setNazwa(req.getNazwa());
@@ -50,45 +71,130 @@ public class PartRestController {
         p.setIlosc(req.getIlosc());
         p.setMinIlosc(req.getMinIlosc());
         p.setJednostka(req.getJednostka());
-        partRepository.save(p);
-        return toDto(p);
+        p = partRepository.save(p);
+        stockLedgerService.recordOpening(p.getId(), p.getIlosc());
+        publish(p, EventType.CREATED, List.of(), null);
+        return PartMapper.toDto(p);
     }
 
     @PutMapping("/{id}")
     public PartDTO update(@PathVariable Long id, @RequestBody PartUpdateRequest req) {
         Part p = partRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Part not found"));
-        if (req.getNazwa() != null) p.setNazwa(req.getNazwa());
-        if (req.getKod() != null) p.setKod(req.getKod());
-        if (req.getKategoria() != null) p.setKategoria(req.getKategoria());
-        if (req.getMinIlosc() != null) p.setMinIlosc(req.getMinIlosc());
-        if (req.getJednostka() != null) p.setJednostka(req.getJednostka());
-        partRepository.save(p);
-        return toDto(p);
+        String kategoriaBefore = p.getKategoria();
+        List<String> changedFields = new ArrayList<>();
+        if (req.getNazwa() != null && !req.getNazwa().equals(p.getNazwa())) {
+            p.setNazwa(req.getNazwa());
+            changedFields.add("nazwa");
+        }
+        if (req.getKod() != null && !req.getKod().equals(p.getKod())) {
+            p.setKod(req.getKod());
+            changedFields.add("kod");
+        }
+        if (req.getKategoria() != null && !req.getKategoria().equals(p.getKategoria())) {
+            p.setKategoria(req.getKategoria());
+            changedFields.add("kategoria");
+        }
+        if (req.getMinIlosc() != null && !req.getMinIlosc().equals(p.getMinIlosc())) {
+            p.setMinIlosc(req.getMinIlosc());
+            changedFields.add("minIlosc");
+        }
+        if (req.getJednostka() != null && !req.getJednostka().equals(p.getJednostka())) {
+            p.setJednostka(req.getJednostka());
+            changedFields.add("jednostka");
+        }
+        p = partRepository.save(p);
+        if (!changedFields.isEmpty()) {
+            publish(p, EventType.UPDATED, changedFields, changedFields.contains("kategoria") ? kategoriaBefore : null);
+        }
+        return PartMapper.toDto(p);
     }
 
+    /**
+     * Atomowa zmiana stanu o delta (bez odczytu i zapisu encji). 409, gdy stan zszedłby poniżej zera.
+     */
     @PatchMapping("/{id}/ilosc")
+    @Transactional
     public PartDTO adjust(@PathVariable Long id, @RequestBody PartQuantityPatch patch) {
-        Part p = partRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Part not found"));
-        p.setIlosc(p.getIlosc() + patch.getDelta());
-        partRepository.save(p);
-        return toDto(p);
+        if (patch.getDelta() == null) throw new IllegalArgumentException("delta is required");
+        partStockService.adjust(id, patch.getDelta(), stockChange(patch));
+        return PartMapper.toDto(partRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Part not found")));
+    }
+
+    /**
+     * Wiele zmian stanu w jednym wywołaniu – wszystkie albo żadna (np. wydanie z magazynu wg listy).
+     */
+    @PatchMapping("/ilosc")
+    @Transactional
+    public List<PartDTO> adjustAll(@RequestBody List<PartQuantityPatch> patches) {
+        // Jeden batch na przyczynę (np. dostawa i korekta w jednym wywołaniu)
+        Map<StockChange, Map<Long, Integer>> deltas = new LinkedHashMap<>();
+        for (PartQuantityPatch patch : patches) {
+            if (patch.getPartId() == null || patch.getDelta() == null) {
+                throw new IllegalArgumentException("partId and delta are required");
+            }
+            deltas.computeIfAbsent(stockChange(patch), c -> new HashMap<>())
+                    .merge(patch.getPartId(), patch.getDelta(), Integer::sum);
+        }
+        Set<Long> ids = new TreeSet<>();
+        deltas.forEach((change, byPart) -> partStockService.adjustAll(byPart, change)
+                .forEach(level -> ids.add(level.partId())));
+        return partRepository.findAllById(ids).stream()
+                .sorted(Comparator.comparing(Part::getId))
+                .map(PartMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    /** Dziennik ruchów części, od najnowszych. */
+    @GetMapping("/{id}/ruchy")
+    public List<StockMovementDTO> movements(@PathVariable Long id, @RequestParam(defaultValue = "50") int limit) {
+        return stockLedgerService.movements(id, limit);
+    }
+
+    /** Stan części na chwilę at (domyślnie teraz) – ze snapshotu i ruchów po nim. */
+    @GetMapping("/{id}/stan")
+    public StockBalanceDTO balance(@PathVariable Long id,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        LocalDateTime moment = at != null ? at : LocalDateTime.now();
+        return new StockBalanceDTO(id, moment, stockLedgerService.balanceAt(id, moment));
+    }
+
+    /** Zużycie części w raportach per miesiąc, np. from=2024-01&amp;to=2024-12. */
+    @GetMapping("/{id}/zuzycie")
+    public List<StockConsumptionDTO> consumption(@PathVariable Long id,
+                                                 @RequestParam YearMonth from,
+                                                 @RequestParam YearMonth to) {
+        return stockLedgerService.monthlyConsumption(id, from, to);
     }
 
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Transactional
     public void delete(@PathVariable Long id) {
-        partRepository.deleteById(id);
+        partRepository.findById(id).ifPresent(p -> {
+            partRepository.delete(p);
+            publish(p, EventType.DELETED, List.of(), null);
+            syncService.recordDeletion(SyncEntityType.PART, id);
+        });
+    }
+
+    private static StockChange stockChange(PartQuantityPatch patch) {
+        StockMovementReason reason = StockMovementReason.MANUAL;
+        if (patch.getReason() != null) {
+            try {
+                reason = StockMovementReason.valueOf(patch.getReason().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid reason: " + patch.getReason());
+            }
+            if (reason != StockMovementReason.MANUAL && reason != StockMovementReason.DELIVERY) {
+                throw new IllegalArgumentException("Reason must be MANUAL or DELIVERY");
+            }
+        }
+        return new StockChange(reason, null, patch.getNote());
     }
 
-    private PartDTO toDto(Part p) {
-        PartDTO dto = new PartDTO();
-        dto.setId(p.getId());
-        dto.setNazwa(p.getNazwa());
-        dto.setKod(p.getKod());
-        dto.setKategoria(p.getKategoria());
-        dto.setIlosc(p.getIlosc());
-        dto.setMinIlosc(p.getMinIlosc());
-        dto.setJednostka(p.getJednostka());
-        return dto;
+    private void publish(Part p, EventType action, List<String> changedFields, String previousKategoria) {
+        Boolean belowMin = action == EventType.DELETED ? null : PartMapper.belowMin(p.getIlosc(), p.getMinIlosc());
+        publisher.publish(PartMapper.changedEvent(this, p.getId(), action, changedFields, p.getKategoria(),
+                previousKategoria, belowMin, p.getUpdatedAt()));
     }
 }
\ No newline at end of file
@@ -1,5 +1,9 @@
 package drimer.drimain.controller;
 
+import drimer.drimain.api.dto.RaportDTO;
+import drimer.drimain.api.mapper.RaportMapper;
+import drimer.drimain.events.DomainEventPublisher;
+import drimer.drimain.events.RaportChangedEvent;
 import drimer.drimain.model.Raport;
 import drimer.drimain.model.enums.RaportStatus;
 import drimer.drimain.repository.*;
@@ -22,6 +26,8 @@ public class RaportController {
     @Autowired private OsobaRepository osobaRepository;
     @Autowired private DzialRepository dzialRepository;
     @Autowired private RaportRepository raportRepository;
+    @Autowired private RaportMapper raportMapper;
+    @Autowired private DomainEventPublisher publisher;
 
     @GetMapping("/raporty")
     public String raporty(Model model) {
@@ -71,6 +77,7 @@ public class RaportController {
         Raport raport = id != null
                 ? raportRepository.findById(id).orElse(new Raport())
                 : new Raport();
+        RaportDTO before = raport.getId() != null ? raportMapper.toDto(raport) : null;
 
         raport.setMaszyna(maszynaRepository.findById(maszynaId).orElse(null));
         raport.setTypNaprawy(typNaprawy);
@@ -88,7 +95,18 @@ public class RaportController {
         raport.setCzasOd(LocalTime.parse(czasOd));
         raport.setCzasDo(LocalTime.parse(czasDo));
 
-        raportRepository.save(raport);
+        raport = raportRepository.save(raport);
+        // Te same zdarzenia co z REST – STOMP, SSE i indeks wyszukiwania widzą zmiany z formularza
+        RaportDTO after = raportMapper.toDto(raport);
+        if (before == null) {
+            publisher.publish(new RaportChangedEvent(this, after, "CREATED", List.of(), RaportMapper.version(raport), null, null));
+        } else {
+            List<String> changedFields = raportMapper.changedFields(before, after);
+            if (!changedFields.isEmpty()) {
+                publisher.publish(new RaportChangedEvent(this, after, "UPDATED", changedFields, RaportMapper.version(raport),
+                        RaportMapper.maszynaId(before), before.getStatus()));
+            }
+        }
         return "redirect:/raporty";
     }
 
@@ -4,22 +4,36 @@ import drimer.drimain.api.dto.RaportCreateRequest;
 import drimer.drimain.api.dto.RaportDTO;
 import drimer.drimain.api.dto.RaportUpdateRequest;
 import drimer.drimain.api.mapper.RaportMapper;
+import drimer.drimain.events.DomainEventPublisher;
 import drimer.drimain.events.RaportChangedEvent;
 import drimer.drimain.model.Raport;
 import drimer.drimain.model.enums.RaportStatus;
+import drimer.drimain.model.enums.SyncEntityType;
 import drimer.drimain.repository.MaszynaRepository;
 import drimer.drimain.repository.OsobaRepository;
 import drimer.drimain.repository.RaportRepository;
 import drimer.drimain.repository.spec.RaportSpecifications;
+import drimer.drimain.service.PartStockService;
+import drimer.drimain.service.RaportSearch;
+import drimer.drimain.service.StockChange;
+import drimer.drimain.service.SyncService;
+import drimer.drimain.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController
@@ -29,46 +43,89 @@ public class RaportRestController {
 
     private final RaportRepository raportRepository;
     private final MaszynaRepository maszynaRepository;
-    private final ApplicationEventPublisher publisher;
+    private final DomainEventPublisher publisher;
     private final OsobaRepository osobaRepository;
     private final RaportMapper raportMapper;
-
+    private final SyncService syncService;
+    private final RaportSearch raportSearch;
+    private final PartStockService partStockService;
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_PAGE_SIZE = 200;
+
+    /**
+     * Lista raportów stronicowana offsetem. Zapytanie w dwóch fazach: identyfikatory strony
+     * (bez złączeń), potem raporty z maszyną, osobą i częściami jednym zapytaniem – zamiast leniwego
+     * dociągania relacji dla każdego wiersza. Przy withTotal=false COUNT jest pomijany, a odpowiedź
+     * mówi tylko, czy istnieje następna strona.
+     */
     @GetMapping
-    public Page<RaportDTO> list(@RequestParam(required = false) String status,
-                                @RequestParam(required = false) Long maszynaId,
-                                @RequestParam(required = false) LocalDate from,
-                                @RequestParam(required = false) LocalDate to,
-                                @RequestParam(required = false) String q,
-                                @RequestParam(defaultValue = "0") int page,
-                                @RequestParam(defaultValue = "25") int size,
-                                @RequestParam(defaultValue = "dataNaprawy,desc") String sort) {
-
-        Sort sortObj = Sort.by(
-            java.util.Arrays.stream(sort.split(","))
-                .map(s -> {
-                    String[] p = s.split(":");
-                    String field = p[0];
-                    Sort.Direction dir = p.length > 1 && p[1].equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
-                    return new Sort.Order(dir, field);
-                }).collect(Collectors.toList())
-        );
-
-        Pageable pageable = PageRequest.of(page, size, sortObj);
-
-        RaportStatus statusEnum = null;
-        if (status != null && !status.isBlank()) {
-            try { statusEnum = RaportStatus.valueOf(status); } catch (Exception ignored) {}
+    public Slice<RaportDTO> list(@RequestParam(required = false) String status,
+                                 @RequestParam(required = false) Long maszynaId,
+                                 @RequestParam(required = false) LocalDate from,
+                                 @RequestParam(required = false) LocalDate to,
+                                 @RequestParam(required = false) String q,
+                                 @RequestParam(defaultValue = "0") int page,
+                                 @RequestParam(defaultValue = "25") int size,
+                                 @RequestParam(defaultValue = "dataNaprawy,desc") String sort,
+                                 @RequestParam(defaultValue = "true") boolean withTotal) {
+
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Pageable pageable = PageRequest.of(Math.max(0, page), limit, parseSort(sort));
+        Specification<Raport> spec = filter(status, maszynaId, from, to, q);
+
+        if (!withTotal) {
+            // O jeden wiersz więcej, żeby wiedzieć czy istnieje następna strona – bez COUNT
+            List<Long> ids = raportRepository.findIds(spec, pageable.getSort(), pageable.getOffset(), limit + 1);
+            boolean hasNext = ids.size() > limit;
+            return new SliceImpl<>(loadDtos(hasNext ? ids.subList(0, limit) : ids), pageable, hasNext);
         }
+        List<Long> ids = raportRepository.findIds(spec, pageable.getSort(), pageable.getOffset(), limit);
+        // COUNT tylko gdy nie da się wyliczyć sumy z niepełnej strony
+        return PageableExecutionUtils.getPage(loadDtos(ids), pageable, () -> raportRepository.count(spec));
+    }
 
-        Specification<Raport> spec =
-                Specification.where(RaportSpecifications.hasStatus(statusEnum))
-                        .and(RaportSpecifications.hasMaszynaId(maszynaId))
-                        .and(RaportSpecifications.dateFrom(from))
-                        .and(RaportSpecifications.dateTo(to))
-                        .and(RaportSpecifications.fullText(q));
+    /**
+     * Stronicowanie keyset od najnowszych raportów (id malejąco) z tymi samymi filtrami co lista.
+     * Kursor kolejnej strony zwracany jest w nagłówku X-Next-Cursor (brak nagłówka = ostatnia strona).
+     */
+    @GetMapping("/keyset")
+    public ResponseEntity<List<RaportDTO>> keyset(@RequestParam(required = false) String status,
+                                                  @RequestParam(required = false) Long maszynaId,
+                                                  @RequestParam(required = false) LocalDate from,
+                                                  @RequestParam(required = false) LocalDate to,
+                                                  @RequestParam(required = false) String q,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "25") int size) {
+
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Specification<Raport> spec = filter(status, maszynaId, from, to, q)
+                .and(RaportSpecifications.idBefore(decodeCursor(cursor)));
+
+        List<Long> ids = raportRepository.findIds(spec, Sort.by(Sort.Direction.DESC, "id"), 0, limit + 1);
+        boolean hasMore = ids.size() > limit;
+        List<Long> pageIds = hasMore ? ids.subList(0, limit) : ids;
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (hasMore) {
+            response.header(NEXT_CURSOR_HEADER, new KeysetCursor(null, pageIds.get(pageIds.size() - 1)).encode());
+        }
+        return response.body(loadDtos(pageIds));
+    }
 
-        Page<Raport> pageData = raportRepository.findAll(spec, pageable);
-        return pageData.map(raportMapper::toDto);
+    /**
+     * Wyszukiwanie po typie naprawy i opisie z rankingiem (pg_trgm na postgres, indeks trigramów
+     * w pamięci na H2). Zapytanie krótsze niż trzy znaki: LIKE, od najnowszych.
+     */
+    @GetMapping("/search")
+    public List<RaportDTO> search(@RequestParam String q,
+                                  @RequestParam(defaultValue = "20") int limit) {
+        int max = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Long> ids = raportSearch.search(q, max);
+        if (ids == null) {
+            ids = raportRepository.findIds(RaportSpecifications.fullText(q), Sort.by(Sort.Direction.DESC, "id"), 0, max);
+        }
+        return loadDtos(ids);
     }
 
     @GetMapping("/{id}")
@@ -80,6 +137,7 @@ public class RaportRestController {
     
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
+    @Transactional
     public RaportDTO create(@RequestBody RaportCreateRequest req) {
         Raport r = new Raport();
         r.setTypNaprawy(req.getTypNaprawy());
@@ -92,31 +150,106 @@ public class RaportRestController {
             r.setMaszyna(maszynaRepository.findById(req.getMaszynaId()).orElse(null));
         if (req.getOsobaId() != null)
             r.setOsoba(osobaRepository.findById(req.getOsobaId()).orElse(null));
-        if (req.getPartUsages() != null) {
-            raportMapper.applyPartUsages(r, req.getPartUsages());
-        }
-        raportRepository.save(r);
-        publisher.publishEvent(new RaportChangedEvent(this, raportMapper.toDto(r), "CREATED"));
+        Map<Long, Integer> consumed = raportMapper.applyPartUsages(r, req.getPartUsages());
+        r = raportRepository.save(r);
+        partStockService.consume(consumed, StockChange.raport(r.getId()));
+        RaportDTO dto = raportMapper.toDto(r);
+        publisher.publish(new RaportChangedEvent(this, dto, "CREATED", List.of(), RaportMapper.version(r), null, null));
 
-        return raportMapper.toDto(r);
+        return dto;
     }
 
     @PutMapping("/{id}")
+    @Transactional
     public RaportDTO update(@PathVariable Long id, @RequestBody RaportUpdateRequest req) {
         Raport r = raportRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Raport not found"));
+        RaportDTO before = raportMapper.toDto(r);
         if (req.getStatus() != null) {
             try { r.setStatus(RaportStatus.valueOf(req.getStatus())); } catch (Exception ignored) {}
         }
-        raportMapper.updateEntity(r, req);
-        raportRepository.save(r);
-        publisher.publishEvent(new RaportChangedEvent(this, raportMapper.toDto(r), "UPDATED"));
+        Map<Long, Integer> consumed = raportMapper.updateEntity(r, req);
+        r = raportRepository.save(r);
+        partStockService.consume(consumed, StockChange.raport(r.getId()));
+        RaportDTO after = raportMapper.toDto(r);
+        List<String> changedFields = raportMapper.changedFields(before, after);
+        if (!changedFields.isEmpty()) {
+            publisher.publish(new RaportChangedEvent(this, after, "UPDATED", changedFields, RaportMapper.version(r),
+                    RaportMapper.maszynaId(before), before.getStatus()));
+        }
 
-        return raportMapper.toDto(r);
+        return after;
     }
 
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Transactional
     public void delete(@PathVariable Long id) {
-        raportRepository.deleteById(id);
+        raportRepository.findById(id).ifPresent(r -> {
+            // Stan sprzed usunięcia – maszyna i status wyznaczają tematy STOMP
+            RaportDTO deleted = raportMapper.toDto(r);
+            Map<Long, Integer> usage = RaportMapper.usage(r);
+            raportRepository.delete(r);
+            partStockService.release(usage, StockChange.raport(r.getId()));
+            publisher.publish(new RaportChangedEvent(this, deleted, "DELETED", List.of(), RaportMapper.version(r), null, null));
+            syncService.recordDeletion(SyncEntityType.RAPORT, id);
+        });
+    }
+
+    /* ================== PRIVATE ================== */
+
+    private Specification<Raport> filter(String status, Long maszynaId, LocalDate from, LocalDate to, String q) {
+        RaportStatus statusEnum = null;
+        if (status != null && !status.isBlank()) {
+            try { statusEnum = RaportStatus.valueOf(status); } catch (Exception ignored) {}
+        }
+
+        return Specification.where(RaportSpecifications.hasStatus(statusEnum))
+                .and(RaportSpecifications.hasMaszynaId(maszynaId))
+                .and(RaportSpecifications.dateFrom(from))
+                .and(RaportSpecifications.dateTo(to))
+                .and(raportSearch.filter(q));
+    }
+
+    /**
+     * "pole:kierunek" rozdzielone przecinkami; akceptuje też "pole,kierunek" (domyślna wartość parametru).
+     * Na końcu id jako rozstrzygnięcie remisów – bez tego offset na nieunikalnej kolumnie gubi lub dubluje wiersze.
+     */
+    static Sort parseSort(String sort) {
+        List<Sort.Order> orders = new ArrayList<>();
+        for (String token : sort.split(",")) {
+            String s = token.trim();
+            if (s.isEmpty()) continue;
+            boolean directionOnly = s.equalsIgnoreCase("asc") || s.equalsIgnoreCase("desc");
+            if (directionOnly && !orders.isEmpty()) {
+                Sort.Order last = orders.remove(orders.size() - 1);
+                orders.add(last.with(Sort.Direction.fromString(s)));
+                continue;
+            }
+            String[] p = s.split(":");
+            Sort.Direction dir = p.length > 1 && p[1].equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+            orders.add(new Sort.Order(dir, p[0]));
+        }
+        if (orders.stream().noneMatch(o -> o.getProperty().equals("id"))) {
+            orders.add(Sort.Order.desc("id"));
+        }
+        return Sort.by(orders);
+    }
+
+    /** Ten sam nieprzezroczysty kursor co /api/zgloszenia; porządek tylko po id – bez timestamp. */
+    private static Long decodeCursor(String cursor) {
+        KeysetCursor decoded = KeysetCursor.decode(cursor, false);
+        return decoded != null ? decoded.id() : null;
+    }
+
+    /** Druga faza: encje ze szczegółami jednym zapytaniem, w kolejności identyfikatorów z pierwszej fazy. */
+    private List<RaportDTO> loadDtos(List<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+        Map<Long, Raport> byId = raportRepository.findAllWithDetailsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Raport::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(raportMapper::toDto)
+                .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,58 @@
+package drimer.drimain.controller;
+
+import drimer.drimain.events.EntityType;
+import drimer.drimain.events.EventType;
+import drimer.drimain.service.RealtimeFilter;
+import drimer.drimain.service.SseSubscriptionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/events")
+@RequiredArgsConstructor
+public class RealtimeEventController {
+
+    private final SseSubscriptionService sseSubscriptionService;
+
+    /**
+     * One SSE connection for changes of all entities (zgloszenia, raporty, harmonogramy, czesci).
+     * The same messages are available over STOMP on /topic/events/**.
+     *
+     * @param entities comma-separated entity types (ZGLOSZENIE, RAPORT, HARMONOGRAM, PART); empty = all
+     * @param actions  comma-separated actions, e.g. PART_BELOW_MIN,PART_RESTOCKED; empty = all
+     * @param params   attribute filters, e.g. maszynaId=3&amp;status=W_TOKU (see {@link RealtimeFilter#ATTRIBUTES})
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) String entities,
+                             @RequestParam(required = false) String actions,
+                             @RequestParam Map<String, String> params) {
+        Map<String, String> attributes = new HashMap<>(params);
+        attributes.remove("entities");
+        attributes.remove("actions");
+        return sseSubscriptionService.subscribeEvents(new RealtimeFilter(
+                parse(entities, EntityType.class, "entity type"), parse(actions, EventType.class, "action"), attributes));
+    }
+
+    private static <E extends Enum<E>> Set<E> parse(String values, Class<E> type, String what) {
+        if (values == null || values.isBlank()) return Set.of();
+        return Arrays.stream(values.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .map(s -> {
+                    try {
+                        return Enum.valueOf(type, s.toUpperCase());
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Invalid " + what + ": " + s);
+                    }
+                })
+                .collect(Collectors.toSet());
+    }
+}
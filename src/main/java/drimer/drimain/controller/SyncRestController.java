@@ -0,0 +1,43 @@
+package drimer.drimain.controller;
+
+import drimer.drimain.api.dto.*;
+import drimer.drimain.service.SyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Synchronizacja przyrostowa dla klienta mobilnego.
+ * Pierwsze wywołanie bez since zwraca pełny stan (stronicowany), kolejne – tylko zmiany
+ * i id usuniętych rekordów od poprzedniego nextToken.
+ */
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+public class SyncRestController {
+
+    private final SyncService syncService;
+
+    @GetMapping("/zgloszenia")
+    public SyncResponse<ZgloszenieDTO> zgloszenia(@RequestParam(required = false) String since,
+                                                  @RequestParam(defaultValue = "500") int size) {
+        return syncService.zgloszenia(since, size);
+    }
+
+    @GetMapping("/raporty")
+    public SyncResponse<RaportDTO> raporty(@RequestParam(required = false) String since,
+                                           @RequestParam(defaultValue = "500") int size) {
+        return syncService.raporty(since, size);
+    }
+
+    @GetMapping("/harmonogramy")
+    public SyncResponse<HarmonogramDTO> harmonogramy(@RequestParam(required = false) String since,
+                                                     @RequestParam(defaultValue = "500") int size) {
+        return syncService.harmonogramy(since, size);
+    }
+
+    @GetMapping("/czesci")
+    public SyncResponse<PartDTO> czesci(@RequestParam(required = false) String since,
+                                        @RequestParam(defaultValue = "500") int size) {
+        return syncService.czesci(since, size);
+    }
+}
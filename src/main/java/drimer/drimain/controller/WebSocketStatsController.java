@@ -0,0 +1,30 @@
+package drimer.drimain.controller;
+
+import drimer.drimain.api.dto.StompBrokerStatsDTO;
+import drimer.drimain.security.Roles;
+import drimer.drimain.service.StompBrokerMonitor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/ws")
+@RequiredArgsConstructor
+public class WebSocketStatsController {
+
+    private final StompBrokerMonitor monitor;
+
+    /**
+     * STOMP broker state: open sessions, send buffers of the slowest ones, dropped bytes,
+     * channel pool queues and rejected sends. Also exported as Micrometer meters "websocket.*".
+     */
+    @GetMapping("/stats")
+    public StompBrokerStatsDTO stats(Authentication authentication) {
+        if (!Roles.hasAny(authentication, "ROLE_ADMIN")) {
+            throw new SecurityException("Access denied. Admin role required.");
+        }
+        return monitor.getStats();
+    }
+}
@@ -1,9 +1,16 @@
 package drimer.drimain.controller;
 
+import drimer.drimain.events.DomainEventPublisher;
+import drimer.drimain.events.EventType;
+import drimer.drimain.events.ZgloszenieDomainEvent;
+import drimer.drimain.events.ZgloszenieSnapshot;
 import drimer.drimain.model.Zgloszenie;
+import drimer.drimain.model.enums.SyncEntityType;
 import drimer.drimain.repository.MaszynaRepository;
 import drimer.drimain.repository.OsobaRepository;
 import drimer.drimain.repository.ZgloszenieRepository;
+import drimer.drimain.repository.spec.ZgloszenieSpecifications;
+import drimer.drimain.service.SyncService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -29,16 +36,22 @@ public class ZgloszenieController {
     private final ZgloszenieRepository zgloszenieRepository;
     private final MaszynaRepository maszynaRepository;
     private final OsobaRepository osobaRepository;
+    private final DomainEventPublisher eventPublisher;
+    private final SyncService syncService;
 
     private static final DateTimeFormatter DATE_TIME_FMT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
     @Autowired
     public ZgloszenieController(ZgloszenieRepository zgloszenieRepository,
                                 MaszynaRepository maszynaRepository,
-                                OsobaRepository osobaRepository) {
+                                OsobaRepository osobaRepository,
+                                DomainEventPublisher eventPublisher,
+                                SyncService syncService) {
         this.zgloszenieRepository = zgloszenieRepository;
         this.maszynaRepository = maszynaRepository;
         this.osobaRepository = osobaRepository;
+        this.eventPublisher = eventPublisher;
+        this.syncService = syncService;
     }
 
     // DTO aby nie wiązać bezpośrednio encji z formularzem
@@ -78,7 +91,8 @@ public class ZgloszenieController {
 
     @GetMapping("/zgloszenia")
     public String listaZgloszen(Model model) {
-        model.addAttribute("zgloszenia", zgloszenieRepository.findAll());
+        // Widok czyta tylko pola skalarne – projekcja DTO, bez ładowania encji i relacji
+        model.addAttribute("zgloszenia", zgloszenieRepository.findDtos(null, ZgloszenieSpecifications.KEYSET_SORT));
         model.addAttribute("maszyny", maszynaRepository.findAll());
         model.addAttribute("osoby", osobaRepository.findAll());
         model.addAttribute("form", new ZgloszenieForm());
@@ -123,7 +137,11 @@ public class ZgloszenieController {
             return "zgloszenia";
         }
 
-        zgloszenieRepository.save(zgloszenie);
+        boolean isNew = zgloszenie.getId() == null;
+        Zgloszenie saved = zgloszenieRepository.save(zgloszenie);
+        // Zdarzenie jak w ZgloszenieCommandService – utrzymuje indeks wyszukiwania i klientów SSE w zgodzie
+        eventPublisher.publish(new ZgloszenieDomainEvent(
+                this, isNew ? EventType.CREATED : EventType.UPDATED, saved.getId(), ZgloszenieSnapshot.of(saved)));
         return "redirect:/zgloszenia";
     }
 
@@ -146,11 +164,15 @@ public class ZgloszenieController {
 
     @GetMapping("/zgloszenia/delete/{id}")
     public String deleteZgloszenie(@PathVariable Long id, Model model) {
-        if (!zgloszenieRepository.existsById(id)) {
+        Zgloszenie existing = zgloszenieRepository.findById(id).orElse(null);
+        if (existing == null) {
             model.addAttribute("error", "Nie znaleziono zgłoszenia do usunięcia (ID: " + id + ")");
             return "redirect:/zgloszenia";
         }
-        zgloszenieRepository.deleteById(id);
+        ZgloszenieSnapshot snapshot = ZgloszenieSnapshot.of(existing);
+        zgloszenieRepository.delete(existing);
+        syncService.recordDeletion(SyncEntityType.ZGLOSZENIE, id);
+        eventPublisher.publish(new ZgloszenieDomainEvent(this, EventType.DELETED, id, snapshot));
         return "redirect:/zgloszenia";
     }
 
@@ -5,15 +5,28 @@ import drimer.drimain.api.mapper.ZgloszenieMapper;
 import drimer.drimain.model.Zgloszenie;
 import drimer.drimain.model.enums.ZgloszenieStatus;
 import drimer.drimain.repository.ZgloszenieRepository;
+import drimer.drimain.repository.spec.ZgloszenieSpecifications;
+import drimer.drimain.security.Roles;
 import drimer.drimain.service.ZgloszenieCommandService;
+import drimer.drimain.service.ZgloszenieSearchIndex;
+import drimer.drimain.util.KeysetCursor;
 import drimer.drimain.util.ZgloszenieStatusMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController
@@ -23,37 +36,98 @@ public class ZgloszenieRestController {
 
     private final ZgloszenieRepository zgloszenieRepository;
     private final ZgloszenieCommandService commandService;
+    private final ZgloszenieSearchIndex searchIndex;
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_PAGE_SIZE = 200;
+    /** Tyle id z indeksu wyszukiwania trafia do jednej listy IN; więcej trafień = kilka zapytań. */
+    private static final int ID_CHUNK_SIZE = 1000;
+    private static final Comparator<ZgloszenieDTO> KEYSET_ORDER = Comparator
+            .comparing(ZgloszenieDTO::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(ZgloszenieDTO::getId, Comparator.reverseOrder());
+
+    /**
+     * Lista zgłoszeń filtrowana po stronie bazy, stronicowana kursorem keyset po (createdAt, id).
+     * Kursor kolejnej strony zwracany jest w nagłówku X-Next-Cursor (brak nagłówka = ostatnia strona).
+     */
     @GetMapping
-    public List<ZgloszenieDTO> list(@RequestParam Optional<String> status,
-                                    @RequestParam Optional<String> typ,
-                                    @RequestParam Optional<String> q) {
-
-        return zgloszenieRepository.findAll().stream()
-                .filter(z -> status
-                        .map(s -> {
-                            ZgloszenieStatus ms = ZgloszenieStatusMapper.map(s);
-                            return ms != null && ms == z.getStatus();
-                        })
-                        .orElse(true))
-                .filter(z -> typ
-                        .map(t -> z.getTyp() != null && z.getTyp().equalsIgnoreCase(t))
-                        .orElse(true))
-                .filter(z -> q
-                        .map(query -> {
-                            String qq = query.toLowerCase();
-                            return (z.getOpis() != null && z.getOpis().toLowerCase().contains(qq)) ||
-                                    (z.getTyp() != null && z.getTyp().toLowerCase().contains(qq)) ||
-                                    (z.getImie() != null && z.getImie().toLowerCase().contains(qq)) ||
-                                    (z.getNazwisko() != null && z.getNazwisko().toLowerCase().contains(qq)) ||
-                                    (z.getTytul() != null && z.getTytul().toLowerCase().contains(qq));
-                        })
-                        .orElse(true))
-                .map(ZgloszenieMapper::toDto)
+    public ResponseEntity<List<ZgloszenieDTO>> list(@RequestParam Optional<String> status,
+                                                    @RequestParam Optional<String> typ,
+                                                    @RequestParam Optional<String> q,
+                                                    @RequestParam(required = false) Long dzialId,
+                                                    @RequestParam(required = false) Long autorId,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "50") int size) {
+
+        ZgloszenieStatus statusEnum = null;
+        if (status.isPresent()) {
+            statusEnum = ZgloszenieStatusMapper.map(status.get());
+            // Nieznany status nie pasuje do żadnego zgłoszenia
+            if (statusEnum == null) return ResponseEntity.ok(List.of());
+        }
+
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        Specification<Zgloszenie> spec =
+                Specification.where(ZgloszenieSpecifications.hasStatus(statusEnum))
+                        .and(ZgloszenieSpecifications.hasTyp(typ.orElse(null)))
+                        .and(ZgloszenieSpecifications.hasDzialId(dzialId))
+                        .and(ZgloszenieSpecifications.hasAutorId(autorId))
+                        .and(ZgloszenieSpecifications.after(KeysetCursor.decode(cursor, true)));
+
+        // Pobieramy o jeden wiersz więcej, żeby wiedzieć czy istnieje następna strona – bez COUNT
+        List<ZgloszenieDTO> rows = findPage(spec, q.orElse(null), limit + 1);
+
+        boolean hasMore = rows.size() > limit;
+        List<ZgloszenieDTO> pageRows = hasMore ? rows.subList(0, limit) : rows;
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (hasMore) {
+            ZgloszenieDTO last = pageRows.get(pageRows.size() - 1);
+            response.header(NEXT_CURSOR_HEADER, new KeysetCursor(last.getCreatedAt(), last.getId()).encode());
+        }
+        return response.body(pageRows);
+    }
+
+    /**
+     * Wyszukiwanie pełnotekstowe z rankingiem (indeks w pamięci, prefiksy, bez polskich znaków).
+     */
+    @GetMapping("/search")
+    public List<ZgloszenieDTO> search(@RequestParam String q,
+                                      @RequestParam(defaultValue = "20") int limit) {
+        List<Long> ids = searchIndex.search(q, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        Map<Long, ZgloszenieDTO> byId = zgloszenieRepository.findDtos(ZgloszenieSpecifications.idIn(ids), Sort.unsorted())
+                .stream()
+                .collect(Collectors.toMap(ZgloszenieDTO::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
+    @GetMapping("/search/stats")
+    public SearchIndexStatsDTO searchStats() {
+        return new SearchIndexStatsDTO(
+                searchIndex.isReady(),
+                searchIndex.getDocumentCount(),
+                searchIndex.getTermCount(),
+                searchIndex.getLastBuildMillis(),
+                searchIndex.getLastBuiltAt()
+        );
+    }
+
+    @PostMapping("/search/rebuild")
+    public SearchIndexStatsDTO rebuildSearchIndex(Authentication authentication) {
+        if (!Roles.hasAny(authentication, "ROLE_ADMIN")) {
+            throw new SecurityException("Access denied. Admin role required.");
+        }
+        searchIndex.rebuild();
+        return searchStats();
+    }
+
+    // Mapowanie w transakcji – hasPhoto czyta leniwe załączniki
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ZgloszenieDTO get(@PathVariable Long id) {
         Zgloszenie z = zgloszenieRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Zgloszenie not found"));
@@ -62,12 +136,14 @@ public class ZgloszenieRestController {
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
+    @Transactional
     public ZgloszenieDTO create(@RequestBody ZgloszenieCreateRequest req, Authentication authentication) {
         Zgloszenie z = commandService.create(req, authentication);
         return ZgloszenieMapper.toDto(z);
     }
 
     @PutMapping("/{id}")
+    @Transactional
     public ZgloszenieDTO update(@PathVariable Long id, @RequestBody ZgloszenieUpdateRequest req, 
                                 Authentication authentication) {
         // Check if user has edit permissions (ADMIN or BIURO roles)
@@ -89,13 +165,35 @@ public class ZgloszenieRestController {
         commandService.delete(id, authentication);
     }
     
+    /**
+     * Strona wyników z filtrem q. Gotowy indeks wyszukiwania (prefiksy, bez polskich znaków) daje id
+     * trafień – przy wielu trafieniach zapytanie idzie porcjami po ID_CHUNK_SIZE, a strony porcji są
+     * scalane w kolejności keyset. Dopóki indeks się buduje, q działa jako LIKE.
+     */
+    private List<ZgloszenieDTO> findPage(Specification<Zgloszenie> spec, String q, int limit) {
+        if (q == null || q.isBlank() || !searchIndex.isReady()) {
+            return zgloszenieRepository.findDtos(spec.and(ZgloszenieSpecifications.fullText(q)),
+                    ZgloszenieSpecifications.KEYSET_SORT, limit);
+        }
+        List<Long> ids = searchIndex.search(q, Integer.MAX_VALUE);
+        if (ids.size() <= ID_CHUNK_SIZE) {
+            return zgloszenieRepository.findDtos(spec.and(ZgloszenieSpecifications.idIn(ids)),
+                    ZgloszenieSpecifications.KEYSET_SORT, limit);
+        }
+        List<ZgloszenieDTO> rows = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + ID_CHUNK_SIZE, ids.size()));
+            rows.addAll(zgloszenieRepository.findDtos(spec.and(ZgloszenieSpecifications.idIn(chunk)),
+                    ZgloszenieSpecifications.KEYSET_SORT, limit));
+        }
+        rows.sort(KEYSET_ORDER);
+        return rows.size() > limit ? rows.subList(0, limit) : rows;
+    }
+
     /**
      * Check if the authenticated user has edit/delete permissions (ADMIN or BIURO role)
      */
     private boolean hasEditPermissions(Authentication authentication) {
-        if (authentication == null) return false;
-        return authentication.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN") || 
-                              a.getAuthority().equals("ROLE_BIURO"));
+        return Roles.hasAny(authentication, "ROLE_ADMIN", "ROLE_BIURO");
     }
 }
\ No newline at end of file
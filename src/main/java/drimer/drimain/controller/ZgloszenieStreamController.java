@@ -1,9 +1,12 @@
 package drimer.drimain.controller;
 
+import drimer.drimain.api.dto.SseStatsDTO;
 import drimer.drimain.events.EventType;
+import drimer.drimain.security.Roles;
 import drimer.drimain.service.SseSubscriptionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
@@ -22,9 +25,13 @@ public class ZgloszenieStreamController {
      * Subscribe to Server-Sent Events for zgloszenia changes.
      * 
      * @param types Comma-separated list of event types to filter (CREATED, UPDATED, DELETED, ATTACHMENT_ADDED, ATTACHMENT_REMOVED)
-     * @param dzialId Filter by dzial ID (TODO: not implemented yet)
-     * @param autorId Filter by autor ID (TODO: not implemented yet)  
+     * @param dzialId Filter by dzial ID
+     * @param autorId Filter by autor ID
      * @param full Include full entity snapshots in events (TODO: not implemented yet)
+     * @param lastEventIdHeader Last-Event-ID sent by EventSource on reconnect; missed events are replayed
+     * @param lastEventIdParam same as the header, for clients that cannot set it
+     * @param coalesce merge UPDATED events of the same zgloszenie within app.sse.coalesce-window-ms
+     *                 (changedFields are unioned); defaults to app.sse.coalesce-by-default
      * @return SseEmitter for streaming events
      */
     @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
@@ -32,7 +39,10 @@ public class ZgloszenieStreamController {
             @RequestParam(required = false) String types,
             @RequestParam(required = false) Long dzialId,
             @RequestParam(required = false) Long autorId,
-            @RequestParam(defaultValue = "false") boolean full) {
+            @RequestParam(defaultValue = "false") boolean full,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam,
+            @RequestParam(required = false) Boolean coalesce) {
         
         Set<EventType> eventTypes = null;
         
@@ -50,7 +60,21 @@ public class ZgloszenieStreamController {
                     .collect(Collectors.toSet());
         }
 
-        return sseSubscriptionService.subscribe(eventTypes, dzialId, autorId, full);
+        String lastEventId = lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam;
+        return sseSubscriptionService.subscribe(eventTypes, dzialId, autorId, full, parseLastEventId(lastEventId), coalesce);
+    }
+
+    /**
+     * Unparseable ids are treated as unknown position (-1), which triggers RESYNC rather than a 400 –
+     * EventSource reconnects on its own and cannot react to an error response.
+     */
+    private static Long parseLastEventId(String raw) {
+        if (raw == null || raw.isBlank()) return null;
+        try {
+            return Long.parseLong(raw.trim());
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
     }
 
     /**
@@ -63,4 +87,17 @@ public class ZgloszenieStreamController {
             public final String status = "SSE service running";
         };
     }
-}
\ No newline at end of file
+
+    /**
+     * Detailed SSE metrics: queue depths, sent/dropped counts, serialization/write/delivery latencies,
+     * reconnects and per-subscription state. Admin only – exposes filters of other users' streams.
+     * The same values are published as Micrometer meters under "sse.*".
+     */
+    @GetMapping("/stream/stats")
+    public SseStatsDTO getStreamStats(Authentication authentication) {
+        if (!Roles.hasAny(authentication, "ROLE_ADMIN")) {
+            throw new SecurityException("Access denied. Admin role required.");
+        }
+        return sseSubscriptionService.getStats();
+    }
+}
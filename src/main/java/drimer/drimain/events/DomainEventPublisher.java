@@ -0,0 +1,167 @@
+package drimer.drimain.events;
+
+import drimer.drimain.config.DomainEventProperties;
+import drimer.drimain.config.OutboxProperties;
+import drimer.drimain.model.OutboxEvent;
+import drimer.drimain.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publikacja zdarzeń domenowych po zatwierdzeniu transakcji.
+ * <p>
+ * W transakcji zdarzenia są buforowane i wypuszczane dopiero po commit – przy rollback przepadają.
+ * Poza transakcją idą od razu. W obu przypadkach listenery (@EventListener) wykonują się na osobnej
+ * puli "domain-events-", więc rozsyłanie nie trzyma połączenia z bazą ani wątku żądania.
+ * Przy pełnej kolejce zdarzenie wykonuje wątek wywołujący (backpressure zamiast utraty zdarzeń).
+ * <p>
+ * Zdarzenia rozsyłane między węzłami (zob. {@link OutboxCodec}) są dodatkowo zapisywane do event_outbox
+ * w tej samej transakcji; inne węzły odczytują je w OutboxRelay.
+ */
+@Component
+@Slf4j
+public class DomainEventPublisher {
+
+    private final ApplicationEventPublisher delegate;
+    private final OutboxEventRepository outboxRepository;
+    private final OutboxCodec outboxCodec;
+    private final OutboxProperties outboxProperties;
+    private final ThreadPoolExecutor executor;
+
+    private final Counter committed;
+    private final Counter rolledBack;
+    private final Counter immediate;
+    private final Counter failed;
+    private final Timer lag;
+    private final MeterRegistry meterRegistry;
+
+    public DomainEventPublisher(ApplicationEventPublisher delegate, DomainEventProperties properties,
+                                OutboxEventRepository outboxRepository, OutboxCodec outboxCodec,
+                                OutboxProperties outboxProperties, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.outboxRepository = outboxRepository;
+        this.outboxCodec = outboxCodec;
+        this.outboxProperties = outboxProperties;
+        this.meterRegistry = meterRegistry;
+
+        CustomizableThreadFactory threads = new CustomizableThreadFactory("domain-events-");
+        threads.setDaemon(true);
+        int poolSize = Math.max(1, properties.getDispatchThreads());
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+                threads, new ThreadPoolExecutor.CallerRunsPolicy());
+
+        this.committed = outcome("committed");
+        this.rolledBack = outcome("rolled_back");
+        this.immediate = outcome("immediate");
+        this.failed = Counter.builder("domain.events.failed")
+                .description("Zdarzenia, których listener rzucił wyjątek")
+                .register(meterRegistry);
+        this.lag = Timer.builder("domain.events.lag")
+                .description("Czas od przekazania zdarzenia do rozpoczęcia jego obsługi")
+                .register(meterRegistry);
+        Gauge.builder("domain.events.queue.size", executor, e -> e.getQueue().size())
+                .description("Zdarzenia czekające na rozesłanie")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publikuje zdarzenie po commit bieżącej transakcji albo natychmiast, gdy transakcji nie ma.
+     */
+    public void publish(Object event) {
+        if (outboxProperties.isEnabled()) {
+            OutboxEvent row = outboxCodec.encode(event, outboxProperties.getNodeId());
+            // W transakcji wywołującego; bez niej – we własnej, po zapisie zmiany
+            if (row != null) outboxRepository.save(row);
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            immediate.increment();
+            dispatch(event);
+            return;
+        }
+        currentBuffer().events.add(event);
+    }
+
+    /**
+     * Rozsyła zdarzenie tylko do listenerów tego węzła, z pominięciem outboxa – dla zdarzeń
+     * odczytanych z outboxa (zapisanych przez inny węzeł).
+     */
+    public void publishLocal(Object event) {
+        dispatch(event);
+    }
+
+    private AfterCommitBuffer currentBuffer() {
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            if (sync instanceof AfterCommitBuffer buffer) return buffer;
+        }
+        AfterCommitBuffer buffer = new AfterCommitBuffer();
+        TransactionSynchronizationManager.registerSynchronization(buffer);
+        return buffer;
+    }
+
+    private void dispatch(Object event) {
+        long queuedAt = System.nanoTime();
+        executor.execute(() -> {
+            lag.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                delegate.publishEvent(event);
+            } catch (RuntimeException e) {
+                failed.increment();
+                log.warn("Listener failed for {}", event.getClass().getSimpleName(), e);
+            } finally {
+                sample.stop(Timer.builder("domain.events.dispatch")
+                        .description("Czas obsługi zdarzenia przez wszystkie listenery")
+                        .tag("event", event.getClass().getSimpleName())
+                        .register(meterRegistry));
+            }
+        });
+    }
+
+    private Counter outcome(String outcome) {
+        return Counter.builder("domain.events.published")
+                .description("Zdarzenia domenowe wg sposobu wypuszczenia")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+            log.warn("{} domain events not dispatched before shutdown", executor.getQueue().size());
+            executor.shutdownNow();
+        }
+    }
+
+    /** Zdarzenia jednej transakcji, wypuszczane w kolejności publikacji. */
+    private class AfterCommitBuffer implements TransactionSynchronization {
+        final List<Object> events = new ArrayList<>();
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == STATUS_COMMITTED) {
+                committed.increment(events.size());
+                events.forEach(DomainEventPublisher.this::dispatch);
+            } else {
+                rolledBack.increment(events.size());
+            }
+            events.clear();
+        }
+    }
+}
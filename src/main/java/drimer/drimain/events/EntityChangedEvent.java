@@ -0,0 +1,63 @@
+package drimer.drimain.events;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Zmiana dowolnej encji w postaci wspólnej dla SSE i STOMP. Harmonogramy i części publikują ją
+ * wprost; zdarzenia zgłoszeń i raportów są do niej sprowadzane w RealtimeEventBus.
+ * <p>
+ * attributes to pola, po których klienci filtrują (maszynaId, status...), jako tekst – tak samo
+ * wyglądają w tematach STOMP i parametrach /api/events/stream. previousAttributes: wartości sprzed
+ * zmiany, gdy się zmieniły – filtr "maszyna 3" dostaje też wiadomość, że encja z niej zniknęła.
+ */
+public class EntityChangedEvent extends ApplicationEvent {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final EntityType entity;
+    private final EventType action;
+    private final Long entityId;
+    private final List<String> changedFields;
+    private final Long version;
+    private final Map<String, String> attributes;
+    private final Map<String, String> previousAttributes;
+    private final LocalDateTime eventTimestamp;
+
+    public EntityChangedEvent(Object source, EntityType entity, EventType action, Long entityId,
+                              List<String> changedFields, Long version, Map<String, String> attributes) {
+        this(source, entity, action, entityId, changedFields, version, attributes, Map.of(), LocalDateTime.now());
+    }
+
+    public EntityChangedEvent(Object source, EntityType entity, EventType action, Long entityId,
+                              List<String> changedFields, Long version, Map<String, String> attributes,
+                              Map<String, String> previousAttributes, LocalDateTime eventTimestamp) {
+        super(source);
+        this.entity = entity;
+        this.action = action;
+        this.entityId = entityId;
+        this.changedFields = changedFields != null ? changedFields : List.of();
+        this.version = version;
+        this.attributes = attributes != null ? attributes : Map.of();
+        this.previousAttributes = previousAttributes != null ? previousAttributes : Map.of();
+        this.eventTimestamp = eventTimestamp;
+    }
+
+    /** Wersja encji dla klientów: updatedAt w mikrosekundach (precyzja kolumny). */
+    public static Long versionOf(LocalDateTime updatedAt) {
+        return updatedAt != null ? ChronoUnit.MICROS.between(EPOCH, updatedAt) : null;
+    }
+
+    public EntityType getEntity() { return entity; }
+    public EventType getAction() { return action; }
+    public Long getEntityId() { return entityId; }
+    public List<String> getChangedFields() { return changedFields; }
+    public Long getVersion() { return version; }
+    public Map<String, String> getAttributes() { return attributes; }
+    public Map<String, String> getPreviousAttributes() { return previousAttributes; }
+    public LocalDateTime getEventTimestamp() { return eventTimestamp; }
+}
@@ -0,0 +1,10 @@
+package drimer.drimain.events;
+
+/** Encje publikowane na wspólnej szynie zdarzeń czasu rzeczywistego. */
+public enum EntityType {
+    ZGLOSZENIE,
+    RAPORT,
+    HARMONOGRAM,
+    HARMONOGRAM_RULE,
+    PART
+}
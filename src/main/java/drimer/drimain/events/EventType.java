@@ -5,5 +5,8 @@ public enum EventType {
     UPDATED,
     DELETED,
     ATTACHMENT_ADDED,
-    ATTACHMENT_REMOVED
+    ATTACHMENT_REMOVED,
+    // Przejścia stanu części przez próg minIlosc (PartLowStockTracker) – tylko szyna czasu rzeczywistego
+    PART_BELOW_MIN,
+    PART_RESTOCKED
 }
\ No newline at end of file
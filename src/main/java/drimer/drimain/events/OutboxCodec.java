@@ -0,0 +1,99 @@
+package drimer.drimain.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import drimer.drimain.api.dto.RaportDTO;
+import drimer.drimain.model.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Zamiana zdarzeń domenowych na wiersze event_outbox i z powrotem.
+ * ApplicationEvent nie nadaje się do JSON (source), więc zapisywane są same dane zdarzenia.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxCodec {
+
+    private static final String ZGLOSZENIE = "ZgloszenieDomainEvent";
+    private static final String RAPORT = "RaportChangedEvent";
+    private static final String ENTITY = "EntityChangedEvent";
+
+    private final ObjectMapper objectMapper;
+
+    record ZgloszeniePayload(EventType type, Long zgloszenieId, LocalDateTime eventTimestamp,
+                             List<String> changedFields, Long attachmentId, ZgloszenieSnapshot snapshot) {}
+
+    record RaportPayload(RaportDTO raport, String action, List<String> changedFields, Long version,
+                         Long previousMaszynaId, String previousStatus) {}
+
+    record EntityPayload(EntityType entity, EventType action, Long entityId, List<String> changedFields, Long version,
+                         Map<String, String> attributes, Map<String, String> previousAttributes,
+                         LocalDateTime eventTimestamp) {}
+
+    /**
+     * @return null dla zdarzeń, które nie są rozsyłane między węzłami
+     */
+    public OutboxEvent encode(Object event, String originNode) {
+        Object payload;
+        String type;
+        if (event instanceof ZgloszenieDomainEvent z) {
+            type = ZGLOSZENIE;
+            payload = new ZgloszeniePayload(z.getType(), z.getZgloszenieId(), z.getEventTimestamp(),
+                    z.getChangedFields(), z.getAttachmentId(), z.getSnapshot());
+        } else if (event instanceof RaportChangedEvent r) {
+            type = RAPORT;
+            payload = new RaportPayload(r.getRaport(), r.getAction(), r.getChangedFields(), r.getVersion(),
+                    r.getPreviousMaszynaId(), r.getPreviousStatus());
+        } else if (event instanceof EntityChangedEvent e) {
+            type = ENTITY;
+            payload = new EntityPayload(e.getEntity(), e.getAction(), e.getEntityId(), e.getChangedFields(),
+                    e.getVersion(), e.getAttributes(), e.getPreviousAttributes(), e.getEventTimestamp());
+        } else {
+            return null;
+        }
+
+        OutboxEvent row = new OutboxEvent();
+        row.setEventType(type);
+        row.setOriginNode(originNode);
+        row.setCreatedAt(LocalDateTime.now());
+        try {
+            row.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + type, e);
+        }
+        return row;
+    }
+
+    /**
+     * @return null dla nieznanego typu (np. wiersz zapisany przez nowszą wersję aplikacji)
+     */
+    public Object decode(OutboxEvent row, Object source) {
+        try {
+            return switch (row.getEventType()) {
+                case ZGLOSZENIE -> {
+                    ZgloszeniePayload p = objectMapper.readValue(row.getPayload(), ZgloszeniePayload.class);
+                    yield new ZgloszenieDomainEvent(source, p.type(), p.zgloszenieId(), p.changedFields(),
+                            p.attachmentId(), p.snapshot(), p.eventTimestamp());
+                }
+                case RAPORT -> {
+                    RaportPayload p = objectMapper.readValue(row.getPayload(), RaportPayload.class);
+                    yield new RaportChangedEvent(source, p.raport(), p.action(), p.changedFields(), p.version(),
+                            p.previousMaszynaId(), p.previousStatus());
+                }
+                case ENTITY -> {
+                    EntityPayload p = objectMapper.readValue(row.getPayload(), EntityPayload.class);
+                    yield new EntityChangedEvent(source, p.entity(), p.action(), p.entityId(), p.changedFields(),
+                            p.version(), p.attributes(), p.previousAttributes(), p.eventTimestamp());
+                }
+                default -> null;
+            };
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot deserialize outbox event " + row.getId(), e);
+        }
+    }
+}
@@ -3,16 +3,36 @@ package drimer.drimain.events;
 import drimer.drimain.api.dto.RaportDTO;
 import org.springframework.context.ApplicationEvent;
 
+import java.util.List;
+
 public class RaportChangedEvent extends ApplicationEvent {
     private final RaportDTO raport;
     private final String action; // CREATED / UPDATED / DELETED
+    private final List<String> changedFields;
+    private final Long version; // updatedAt raportu w µs; null gdy nieznany
+    // Maszyna i status sprzed zmiany – żeby tematy, z których raport "wyszedł", też dostały wiadomość
+    private final Long previousMaszynaId;
+    private final String previousStatus;
 
     public RaportChangedEvent(Object source, RaportDTO raport, String action) {
+        this(source, raport, action, List.of(), null, null, null);
+    }
+
+    public RaportChangedEvent(Object source, RaportDTO raport, String action, List<String> changedFields, Long version,
+                              Long previousMaszynaId, String previousStatus) {
         super(source);
         this.raport = raport;
         this.action = action;
+        this.changedFields = changedFields != null ? changedFields : List.of();
+        this.version = version;
+        this.previousMaszynaId = previousMaszynaId;
+        this.previousStatus = previousStatus;
     }
 
     public RaportDTO getRaport() { return raport; }
     public String getAction() { return action; }
-}
\ No newline at end of file
+    public List<String> getChangedFields() { return changedFields; }
+    public Long getVersion() { return version; }
+    public Long getPreviousMaszynaId() { return previousMaszynaId; }
+    public String getPreviousStatus() { return previousStatus; }
+}
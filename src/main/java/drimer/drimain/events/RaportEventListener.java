@@ -1,18 +1,73 @@
 package drimer.drimain.events;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import drimer.drimain.api.dto.RaportChangeMessageDTO;
+import drimer.drimain.api.mapper.RaportMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
 
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Zmiany raportów na STOMP. Wiadomość jest zwarta (id, akcja, zmienione pola, wersja), serializowana raz
+ * i wysyłana na:
+ * <ul>
+ *   <li>/topic/raporty – wszystkie zmiany,</li>
+ *   <li>/topic/raporty/maszyna/{id} – zmiany raportów danej maszyny,</li>
+ *   <li>/topic/raporty/status/{status} – zmiany raportów w danym statusie.</li>
+ * </ul>
+ * Gdy zmiana przenosi raport na inną maszynę lub status, dostaje ją także temat poprzedni.
+ */
 @Component
 @RequiredArgsConstructor
 public class RaportEventListener {
 
+    static final String TOPIC = "/topic/raporty";
+
     private final SimpMessagingTemplate template;
+    private final ObjectMapper objectMapper;
 
     @EventListener
     public void onRaportChanged(RaportChangedEvent ev) {
-        template.convertAndSend("/topic/raporty", ev);
+        Message<byte[]> message = encode(new RaportChangeMessageDTO(
+                ev.getRaport() != null ? ev.getRaport().getId() : null,
+                ev.getAction(),
+                ev.getChangedFields(),
+                ev.getVersion()));
+        // Ta sama tablica bajtów idzie na każdy temat – template kopiuje tylko nagłówki
+        for (String destination : destinations(ev)) {
+            template.send(destination, message);
+        }
+    }
+
+    static Set<String> destinations(RaportChangedEvent ev) {
+        Set<String> destinations = new LinkedHashSet<>();
+        destinations.add(TOPIC);
+        Long maszynaId = RaportMapper.maszynaId(ev.getRaport());
+        if (maszynaId != null) destinations.add(TOPIC + "/maszyna/" + maszynaId);
+        if (ev.getPreviousMaszynaId() != null) destinations.add(TOPIC + "/maszyna/" + ev.getPreviousMaszynaId());
+        String status = ev.getRaport() != null ? ev.getRaport().getStatus() : null;
+        if (status != null) destinations.add(TOPIC + "/status/" + status);
+        if (ev.getPreviousStatus() != null) destinations.add(TOPIC + "/status/" + ev.getPreviousStatus());
+        return destinations;
+    }
+
+    private Message<byte[]> encode(RaportChangeMessageDTO dto) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        try {
+            return MessageBuilder.withPayload(objectMapper.writeValueAsBytes(dto)).setHeaders(headers).build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize raport change " + dto.getId(), e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -12,7 +12,7 @@ public class ZgloszenieDomainEvent extends ApplicationEvent {
     private final LocalDateTime eventTimestamp;
     private final List<String> changedFields;
     private final Long attachmentId;
-    private final Object snapshot; // TODO: For filtering by dzialId/autorId
+    private final ZgloszenieSnapshot snapshot; // stan do filtrowania subskrypcji po dzialId/autorId
 
     public ZgloszenieDomainEvent(Object source, EventType type, Long zgloszenieId) {
         this(source, type, zgloszenieId, null, null, null);
@@ -22,11 +22,24 @@ public class ZgloszenieDomainEvent extends ApplicationEvent {
         this(source, type, zgloszenieId, changedFields, null, null);
     }
 
-    public ZgloszenieDomainEvent(Object source, EventType type, Long zgloszenieId, List<String> changedFields, Long attachmentId, Object snapshot) {
+    public ZgloszenieDomainEvent(Object source, EventType type, Long zgloszenieId, ZgloszenieSnapshot snapshot) {
+        this(source, type, zgloszenieId, null, null, snapshot);
+    }
+
+    public ZgloszenieDomainEvent(Object source, EventType type, Long zgloszenieId, List<String> changedFields, ZgloszenieSnapshot snapshot) {
+        this(source, type, zgloszenieId, changedFields, null, snapshot);
+    }
+
+    public ZgloszenieDomainEvent(Object source, EventType type, Long zgloszenieId, List<String> changedFields, Long attachmentId, ZgloszenieSnapshot snapshot) {
+        this(source, type, zgloszenieId, changedFields, attachmentId, snapshot, LocalDateTime.now());
+    }
+
+    /** Odtworzenie zdarzenia z innego węzła (outbox) z oryginalnym czasem. */
+    public ZgloszenieDomainEvent(Object source, EventType type, Long zgloszenieId, List<String> changedFields, Long attachmentId, ZgloszenieSnapshot snapshot, LocalDateTime eventTimestamp) {
         super(source);
         this.type = type;
         this.zgloszenieId = zgloszenieId;
-        this.eventTimestamp = LocalDateTime.now();
+        this.eventTimestamp = eventTimestamp;
         this.changedFields = changedFields;
         this.attachmentId = attachmentId;
         this.snapshot = snapshot;
@@ -53,7 +66,7 @@ public class ZgloszenieDomainEvent extends ApplicationEvent {
         return attachmentId;
     }
 
-    public Object getSnapshot() {
+    public ZgloszenieSnapshot getSnapshot() {
         return snapshot;
     }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package drimer.drimain.events;
+
+import drimer.drimain.model.Zgloszenie;
+import drimer.drimain.model.enums.ZgloszeniePriorytet;
+import drimer.drimain.model.enums.ZgloszenieStatus;
+
+/**
+ * Lekki stan zgłoszenia w chwili zdarzenia – wystarczający do filtrowania subskrypcji SSE
+ * bez sięgania do bazy.
+ */
+public record ZgloszenieSnapshot(Long dzialId, Long autorId, ZgloszenieStatus status, ZgloszeniePriorytet priorytet) {
+
+    public static ZgloszenieSnapshot of(Zgloszenie z) {
+        // getId() na proxy Hibernate nie inicjalizuje relacji
+        return new ZgloszenieSnapshot(
+                z.getDzial() != null ? z.getDzial().getId() : null,
+                z.getAutor() != null ? z.getAutor().getId() : null,
+                z.getStatus(),
+                z.getPriorytet()
+        );
+    }
+}
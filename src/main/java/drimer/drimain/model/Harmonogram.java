@@ -3,9 +3,14 @@ package drimer.drimain.model;
 import drimer.drimain.model.enums.StatusHarmonogramu;
 import jakarta.persistence.*;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Entity
-@Table(name = "harmonogramy")
+@Table(name = "harmonogramy", indexes = {
+        @Index(name = "idx_harmonogramy_updated_at_id", columnList = "updated_at, id"),
+        @Index(name = "idx_harmonogramy_data", columnList = "data")
+})
 public class Harmonogram {
 
     @Id
@@ -28,6 +33,22 @@ public class Harmonogram {
     @Column(name = "status", nullable = false, length = 40)
     private StatusHarmonogramu status = StatusHarmonogramu.PLANOWANE;
 
+    // Wystąpienie reguły zmaterializowane przy edycji/zakończeniu (null – wpis ręczny)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "rule_id")
+    private HarmonogramRule rule;
+
+    @Column(name = "occurrence_date")
+    private LocalDate occurrenceDate;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist @PreUpdate
+    protected void touch() {
+        updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
     // Gettery / settery
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -46,4 +67,12 @@ public class Harmonogram {
 
     public StatusHarmonogramu getStatus() { return status; }
     public void setStatus(StatusHarmonogramu status) { this.status = status; }
+
+    public HarmonogramRule getRule() { return rule; }
+    public void setRule(HarmonogramRule rule) { this.rule = rule; }
+
+    public LocalDate getOccurrenceDate() { return occurrenceDate; }
+    public void setOccurrenceDate(LocalDate occurrenceDate) { this.occurrenceDate = occurrenceDate; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
 }
\ No newline at end of file
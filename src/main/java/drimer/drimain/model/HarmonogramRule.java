@@ -0,0 +1,73 @@
+package drimer.drimain.model;
+
+import drimer.drimain.model.enums.CzestotliwoscHarmonogramu;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Reguła cyklicznego przeglądu maszyny zapisana raz zamiast wiersza harmonogramu na każdą datę.
+ * Wystąpienia są wyliczane dla żądanego zakresu (HarmonogramRecurrence); wiersz Harmonogram powstaje
+ * dopiero przy edycji lub zakończeniu wystąpienia.
+ * <ul>
+ *   <li>DZIENNIE – co interwal dni od dataOd,</li>
+ *   <li>TYGODNIOWO – w dzienTygodnia co interwal tygodni,</li>
+ *   <li>MIESIECZNIE – co interwal miesięcy: dzienMiesiaca (krótszy miesiąc – ostatni dzień) albo
+ *       tydzienMiesiaca-ty dzienTygodnia (-1 = ostatni).</li>
+ * </ul>
+ */
+@Entity
+@Getter @Setter
+@Table(name = "harmonogram_rules", indexes = {
+        @Index(name = "idx_harmonogram_rules_range", columnList = "data_od, data_do")
+})
+public class HarmonogramRule {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "maszyna_id")
+    private Maszyna maszyna;
+
+    @ManyToOne
+    @JoinColumn(name = "osoba_id")
+    private Osoba osoba;
+
+    private String opis;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private CzestotliwoscHarmonogramu czestotliwosc;
+
+    @Column(nullable = false)
+    private Integer interwal = 1;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dzien_tygodnia", length = 10)
+    private DayOfWeek dzienTygodnia;
+
+    @Column(name = "dzien_miesiaca")
+    private Integer dzienMiesiaca;
+
+    @Column(name = "tydzien_miesiaca")
+    private Integer tydzienMiesiaca;
+
+    @Column(name = "data_od", nullable = false)
+    private LocalDate dataOd;
+
+    @Column(name = "data_do")
+    private LocalDate dataDo;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist @PreUpdate
+    protected void touch() {
+        updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+}
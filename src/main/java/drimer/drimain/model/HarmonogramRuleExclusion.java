@@ -0,0 +1,27 @@
+package drimer.drimain.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Wystąpienie reguły wyłączone z wyliczania: zmaterializowane jako wiersz Harmonogram (edycja,
+ * zakończenie) albo pominięte. Widok kalendarza czyta wyłączenia zakresu jednym zapytaniem.
+ */
+@Entity
+@Getter @Setter
+@Table(name = "harmonogram_rule_exclusions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_harmonogram_rule_exclusions", columnNames = {"rule_id", "data"})
+}, indexes = {
+        @Index(name = "idx_harmonogram_rule_exclusions_data", columnList = "data")
+})
+public class HarmonogramRuleExclusion {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "rule_id", nullable = false)
+    private Long ruleId;
+
+    @Column(nullable = false)
+    private java.time.LocalDate data;
+}
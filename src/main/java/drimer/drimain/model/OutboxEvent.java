@@ -0,0 +1,33 @@
+package drimer.drimain.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Zdarzenie domenowe zapisane w tej samej transakcji co zmiana – pozostałe węzły aplikacji
+ * odczytują je (OutboxRelay) i rozsyłają do swoich subskrybentów SSE/STOMP.
+ */
+@Entity
+@Getter @Setter
+@Table(name = "event_outbox", indexes = {
+        @Index(name = "idx_event_outbox_created_at", columnList = "created_at")
+})
+public class OutboxEvent {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_type", nullable = false, length = 60)
+    private String eventType;
+
+    @Column(name = "payload", nullable = false, length = 65535)
+    private String payload;
+
+    @Column(name = "origin_node", nullable = false, length = 64)
+    private String originNode;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
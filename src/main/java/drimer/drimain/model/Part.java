@@ -3,10 +3,18 @@ package drimer.drimain.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Entity
+@DynamicUpdate // UPDATE tylko zmienionych kolumn – edycja nie nadpisuje ilosc zmienianej atomowo (PartStockService)
 @Getter @Setter
-@Table(name="parts")
+@Table(name="parts", indexes = {
+        @Index(name = "idx_parts_updated_at_id", columnList = "updated_at, id"),
+        @Index(name = "idx_parts_below_min", columnList = "below_min, id")
+})
 public class Part {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -22,4 +30,18 @@ public class Part {
     private Integer ilosc;
     private Integer minIlosc;
     private String jednostka;
+
+    // ilosc < minIlosc wyliczane przez bazę (także przy atomowych UPDATE stanu) – tylko do zapytań
+    // o niski stan; w encji może być nieaktualne do ponownego wczytania
+    @Column(name = "below_min", insertable = false, updatable = false,
+            columnDefinition = "BOOLEAN GENERATED ALWAYS AS (ilosc < min_ilosc)")
+    private Boolean belowMin;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist @PreUpdate
+    protected void touch() {
+        updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
 }
\ No newline at end of file
@@ -9,7 +9,10 @@ import lombok.Setter;
 @Table(name="part_usages")
 public class PartUsage {
 
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pula z sekwencji zamiast IDENTITY – Hibernate może grupować INSERT-y w batch JDBC
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "part_usages_seq")
+    @SequenceGenerator(name = "part_usages_seq", sequenceName = "part_usages_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false)
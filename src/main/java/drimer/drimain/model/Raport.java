@@ -3,12 +3,16 @@ package drimer.drimain.model;
 import drimer.drimain.model.enums.RaportStatus;
 import jakarta.persistence.*;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "raporty")
+@Table(name = "raporty", indexes = {
+        @Index(name = "idx_raporty_updated_at_id", columnList = "updated_at, id")
+})
 public class Raport {
 
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -36,6 +40,14 @@ public class Raport {
     @OneToMany(mappedBy = "raport", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<PartUsage> partUsages = new LinkedHashSet<>();
 
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist @PreUpdate
+    protected void touch() {
+        updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
     // Gettery / settery (jak poprzednio) + dla statusu
     public Long getId() { return id; }
     public Maszyna getMaszyna() { return maszyna; }
@@ -54,6 +66,7 @@ public class Raport {
     public void setCzasOd(LocalTime czasOd) { this.czasOd = czasOd; }
     public LocalTime getCzasDo() { return czasDo; }
     public void setCzasDo(LocalTime czasDo) { this.czasDo = czasDo; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
     public Set<PartUsage> getPartUsages() { return partUsages; }
     public void setPartUsages(Set<PartUsage> partUsages) {
         this.partUsages.clear();
@@ -0,0 +1,48 @@
+package drimer.drimain.model;
+
+import drimer.drimain.model.enums.StockMovementReason;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Wpis dziennika ruchów magazynowych – tylko dopisywany (zapis wsadowy w PartStockService).
+ * part_id bez klucza obcego: historia zostaje po usunięciu części.
+ */
+@Entity
+@Getter @Setter
+@Table(name = "stock_movements", indexes = {
+        @Index(name = "idx_stock_movements_part_created", columnList = "part_id, created_at, id"),
+        @Index(name = "idx_stock_movements_created", columnList = "created_at"),
+        @Index(name = "idx_stock_movements_raport", columnList = "raport_id")
+})
+public class StockMovement {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "part_id", nullable = false)
+    private Long partId;
+
+    @Column(nullable = false)
+    private Integer delta;
+
+    @Column(name = "balance_after", nullable = false)
+    private Integer balanceAfter;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StockMovementReason reason;
+
+    @Column(name = "raport_id")
+    private Long raportId;
+
+    @Column(length = 100)
+    private String username;
+
+    private String note;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
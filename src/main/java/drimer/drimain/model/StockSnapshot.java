@@ -0,0 +1,35 @@
+package drimer.drimain.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stan części na chwilę asOf (ruchy z created_at &lt; asOf): saldo i narastające zużycie w raportach.
+ * Stan na dowolną datę = ostatni snapshot przed nią + krótki ogon ruchów.
+ */
+@Entity
+@Getter @Setter
+@Table(name = "stock_snapshots", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stock_snapshots_part_as_of", columnNames = {"part_id", "as_of"})
+}, indexes = {
+        @Index(name = "idx_stock_snapshots_as_of", columnList = "as_of")
+})
+public class StockSnapshot {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "part_id", nullable = false)
+    private Long partId;
+
+    @Column(name = "as_of", nullable = false)
+    private LocalDateTime asOf;
+
+    @Column(nullable = false)
+    private Integer balance;
+
+    @Column(nullable = false)
+    private Long consumed;
+}
@@ -0,0 +1,32 @@
+package drimer.drimain.model;
+
+import drimer.drimain.model.enums.SyncEntityType;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ślad po usuniętym rekordzie – pozwala klientom synchronizacji przyrostowej (/api/sync/**)
+ * usunąć lokalne kopie. Czyszczone po app.sync.tombstone-retention-days.
+ */
+@Entity
+@Getter @Setter
+@Table(name = "sync_tombstones", indexes = {
+        @Index(name = "idx_sync_tombstones_type_deleted", columnList = "entity_type, deleted_at")
+})
+public class SyncTombstone {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private SyncEntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
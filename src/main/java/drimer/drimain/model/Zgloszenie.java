@@ -7,6 +7,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -15,7 +16,9 @@ import java.util.List;
  * Dodano metodę validate() używaną ręcznie w kontrolerze.
  */
 @Entity
-@Table(name = "zgloszenia")
+@Table(name = "zgloszenia", indexes = {
+        @Index(name = "idx_zgloszenia_created_at_id", columnList = "created_at, id")
+})
 public class Zgloszenie {
 
     @Id
@@ -72,7 +75,8 @@ public class Zgloszenie {
 
     @PrePersist
     protected void onCreate() {
-        LocalDateTime now = LocalDateTime.now();
+        // Precyzja kolumny TIMESTAMP to mikrosekundy – kursor keyset musi porównywać identyczne wartości
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
         createdAt = now;
         updatedAt = now;
         if (dataGodzina == null) {
@@ -82,7 +86,7 @@ public class Zgloszenie {
 
     @PreUpdate
     protected void onUpdate() {
-        updatedAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
     }
 
     // Gettery / Settery (bez zmian)
@@ -0,0 +1,8 @@
+package drimer.drimain.model.enums;
+
+/** Jednostka powtarzania reguły harmonogramu (co interwał dni / tygodni / miesięcy). */
+public enum CzestotliwoscHarmonogramu {
+    DZIENNIE,
+    TYGODNIOWO,
+    MIESIECZNIE
+}
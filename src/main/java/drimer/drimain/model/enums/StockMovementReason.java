@@ -0,0 +1,9 @@
+package drimer.drimain.model.enums;
+
+/** Przyczyna ruchu magazynowego części (dziennik stock_movements). */
+public enum StockMovementReason {
+    OPENING,   // stan początkowy (nowa część lub stan sprzed dziennika)
+    RAPORT,    // zużycie w raporcie (ujemne) lub zwrot przy edycji/usunięciu raportu (dodatnie)
+    MANUAL,    // ręczna korekta
+    DELIVERY   // przyjęcie dostawy
+}
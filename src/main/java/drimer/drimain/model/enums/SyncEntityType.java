@@ -0,0 +1,8 @@
+package drimer.drimain.model.enums;
+
+public enum SyncEntityType {
+    ZGLOSZENIE,
+    RAPORT,
+    HARMONOGRAM,
+    PART
+}
@@ -2,12 +2,43 @@ package drimer.drimain.repository;
 
 import drimer.drimain.model.Harmonogram;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface HarmonogramRepository extends JpaRepository<Harmonogram, Long> {
-    List<Harmonogram> findByDataBetween(LocalDate start, LocalDate end);
+public interface HarmonogramRepository extends JpaRepository<Harmonogram, Long>, JpaSpecificationExecutor<Harmonogram> {
+    // Widok miesiąca: zakres po indeksie na data; maszyna (z działem, EAGER) i osoba w tym samym zapytaniu
+    @Query("SELECT h FROM Harmonogram h LEFT JOIN FETCH h.maszyna m LEFT JOIN FETCH m.dzial LEFT JOIN FETCH h.osoba "
+            + "WHERE h.data BETWEEN :start AND :end ORDER BY h.data, h.id")
+    List<Harmonogram> findByDataBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    @Query("SELECT h FROM Harmonogram h LEFT JOIN FETCH h.maszyna m LEFT JOIN FETCH m.dzial LEFT JOIN FETCH h.osoba "
+            + "ORDER BY h.data, h.id")
+    List<Harmonogram> findAllWithDetails();
+
+    // Klucze indeksu konfliktów (id, data, maszyna, osoba, updatedAt) bez wczytywania encji
+    @Query("SELECT h.id, h.data, m.id, o.id, h.updatedAt FROM Harmonogram h LEFT JOIN h.maszyna m LEFT JOIN h.osoba o")
+    List<Object[]> findConflictKeys();
+
+    // Zmaterializowane wystąpienie reguły (data może już być przeniesiona – szukamy po occurrenceDate)
+    @Query("SELECT h FROM Harmonogram h WHERE h.rule.id = :ruleId AND h.occurrenceDate = :occurrenceDate")
+    Optional<Harmonogram> findOccurrence(@Param("ruleId") Long ruleId, @Param("occurrenceDate") LocalDate occurrenceDate);
+
+    // Usunięcie reguły zostawia zmaterializowane wpisy jako zwykłe pozycje harmonogramu
+    @Modifying
+    @Query("UPDATE Harmonogram h SET h.rule = null WHERE h.rule.id = :ruleId")
+    int detachFromRule(@Param("ruleId") Long ruleId);
+
+    // Uzupełnienie updatedAt dla rekordów sprzed wprowadzenia synchronizacji
+    @Modifying
+    @Query("UPDATE Harmonogram h SET h.updatedAt = :now WHERE h.updatedAt IS NULL")
+    int backfillUpdatedAt(@Param("now") LocalDateTime now);
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package drimer.drimain.repository;
+
+import drimer.drimain.model.HarmonogramRuleExclusion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface HarmonogramRuleExclusionRepository extends JpaRepository<HarmonogramRuleExclusion, Long> {
+    List<HarmonogramRuleExclusion> findByDataBetween(LocalDate start, LocalDate end);
+
+    boolean existsByRuleIdAndData(Long ruleId, LocalDate data);
+
+    @Query("SELECT e.ruleId FROM HarmonogramRuleExclusion e WHERE e.data = :data AND e.ruleId IN :ruleIds")
+    List<Long> findExcludedRuleIds(@Param("data") LocalDate data, @Param("ruleIds") List<Long> ruleIds);
+
+    @Modifying
+    @Query("DELETE FROM HarmonogramRuleExclusion e WHERE e.ruleId = :ruleId")
+    int deleteByRuleId(@Param("ruleId") Long ruleId);
+}
@@ -0,0 +1,28 @@
+package drimer.drimain.repository;
+
+import drimer.drimain.model.HarmonogramRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface HarmonogramRuleRepository extends JpaRepository<HarmonogramRule, Long> {
+    // Reguły aktywne w zakresie kalendarza; maszyna (z działem) i osoba w tym samym zapytaniu
+    @Query("SELECT r FROM HarmonogramRule r JOIN FETCH r.maszyna m LEFT JOIN FETCH m.dzial LEFT JOIN FETCH r.osoba "
+            + "WHERE r.dataOd <= :end AND (r.dataDo IS NULL OR r.dataDo >= :start) ORDER BY r.id")
+    List<HarmonogramRule> findActiveBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    // Reguły maszyny lub osoby aktywne w dniu – czy dzień jest wystąpieniem, liczy HarmonogramRecurrence
+    @Query("SELECT r FROM HarmonogramRule r WHERE (r.maszyna.id = :maszynaId OR r.osoba.id = :osobaId) "
+            + "AND r.dataOd <= :data AND (r.dataDo IS NULL OR r.dataDo >= :data) ORDER BY r.id")
+    List<HarmonogramRule> findActiveOn(@Param("maszynaId") Long maszynaId, @Param("osobaId") Long osobaId,
+                                       @Param("data") LocalDate data);
+
+    @Query("SELECT r FROM HarmonogramRule r JOIN FETCH r.maszyna m LEFT JOIN FETCH m.dzial LEFT JOIN FETCH r.osoba "
+            + "ORDER BY r.id")
+    List<HarmonogramRule> findAllWithDetails();
+}
@@ -2,6 +2,27 @@ package drimer.drimain.repository;
 
 import drimer.drimain.model.Part;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface PartRepository extends JpaRepository<Part, Long> {
-}
\ No newline at end of file
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface PartRepository extends JpaRepository<Part, Long>, JpaSpecificationExecutor<Part> {
+
+    // Uzupełnienie updatedAt dla rekordów sprzed wprowadzenia synchronizacji
+    @Modifying
+    @Query("UPDATE Part p SET p.updatedAt = :now WHERE p.updatedAt IS NULL")
+    int backfillUpdatedAt(@Param("now") LocalDateTime now);
+
+    // Części poniżej stanu minimalnego po indeksie idx_parts_below_min (zamiast filtrowania w pamięci)
+    @Query("SELECT p FROM Part p WHERE p.belowMin = true ORDER BY p.id")
+    List<Part> findBelowMin();
+
+    // Sprawdzenie istnienia bez wczytywania encji (użycia części wskazują je przez referencję)
+    @Query("SELECT p.id FROM Part p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+}
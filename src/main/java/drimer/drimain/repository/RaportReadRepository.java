@@ -0,0 +1,17 @@
+package drimer.drimain.repository;
+
+import drimer.drimain.model.Raport;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Pierwsza faza stronicowania raportów: same identyfikatory strony (filtr, sortowanie, offset/limit)
+ * bez złączeń z relacjami. Encje ze szczegółami dociąga jednym zapytaniem
+ * {@link RaportRepository#findAllWithDetailsByIdIn}.
+ */
+public interface RaportReadRepository {
+
+    List<Long> findIds(Specification<Raport> spec, Sort sort, long offset, int limit);
+}
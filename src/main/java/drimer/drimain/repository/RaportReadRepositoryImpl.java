@@ -0,0 +1,39 @@
+package drimer.drimain.repository;
+
+import drimer.drimain.model.Raport;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+class RaportReadRepositoryImpl implements RaportReadRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<Long> findIds(Specification<Raport> spec, Sort sort, long offset, int limit) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<Raport> root = cq.from(Raport.class);
+        cq.select(root.get("id"));
+
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, cq, cb);
+            if (predicate != null) cq.where(predicate);
+        }
+        if (sort != null && sort.isSorted()) {
+            cq.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+
+        TypedQuery<Long> query = em.createQuery(cq);
+        query.setFirstResult(Math.toIntExact(offset));
+        if (limit > 0) query.setMaxResults(limit);
+        return query.getResultList();
+    }
+}
@@ -1,7 +1,32 @@
 package drimer.drimain.repository;
 
 import drimer.drimain.model.Raport;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface RaportRepository extends JpaRepository<Raport, Long>, JpaSpecificationExecutor<Raport> {}
\ No newline at end of file
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface RaportRepository extends JpaRepository<Raport, Long>, JpaSpecificationExecutor<Raport>,
+        RaportReadRepository {
+
+    // Uzupełnienie updatedAt dla rekordów sprzed wprowadzenia synchronizacji
+    @Modifying
+    @Query("UPDATE Raport r SET r.updatedAt = :now WHERE r.updatedAt IS NULL")
+    int backfillUpdatedAt(@Param("now") LocalDateTime now);
+
+    // Druga faza stronicowania: wszystko, czego potrzebuje RaportMapper.toDto, w jednym zapytaniu (kolejność dowolna)
+    @EntityGraph(attributePaths = {"maszyna", "maszyna.dzial", "osoba", "partUsages", "partUsages.part"})
+    List<Raport> findAllWithDetailsByIdIn(Collection<Long> ids);
+
+    // Budowa indeksu wyszukiwania partiami keyset po id
+    @Query("SELECT new drimer.drimain.repository.RaportSearchText(r.id, r.typNaprawy, r.opis) "
+            + "FROM Raport r WHERE r.id > :afterId ORDER BY r.id")
+    List<RaportSearchText> findSearchTextAfter(@Param("afterId") Long afterId, Limit limit);
+}
@@ -0,0 +1,7 @@
+package drimer.drimain.repository;
+
+/**
+ * Pola raportu indeksowane do wyszukiwania – budowa indeksu bez ładowania encji i relacji.
+ */
+public record RaportSearchText(Long id, String typNaprawy, String opis) {
+}
@@ -0,0 +1,12 @@
+package drimer.drimain.repository;
+
+import drimer.drimain.model.StockMovement;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    List<StockMovement> findByPartIdOrderByIdDesc(Long partId, Limit limit);
+}
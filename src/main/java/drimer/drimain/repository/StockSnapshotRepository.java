@@ -0,0 +1,13 @@
+package drimer.drimain.repository;
+
+import drimer.drimain.model.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+
+    // Najnowszy snapshot nie późniejszy niż at – po unikalnym indeksie (part_id, as_of)
+    Optional<StockSnapshot> findFirstByPartIdAndAsOfLessThanEqualOrderByAsOfDesc(Long partId, LocalDateTime at);
+}
@@ -0,0 +1,21 @@
+package drimer.drimain.repository;
+
+import drimer.drimain.model.SyncTombstone;
+import drimer.drimain.model.enums.SyncEntityType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SyncTombstoneRepository extends JpaRepository<SyncTombstone, Long> {
+
+    @Query("SELECT DISTINCT t.entityId FROM SyncTombstone t WHERE t.entityType = :type AND t.deletedAt > :since")
+    List<Long> findDeletedIdsSince(@Param("type") SyncEntityType type, @Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("DELETE FROM SyncTombstone t WHERE t.deletedAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,21 @@
+package drimer.drimain.repository;
+
+import drimer.drimain.api.dto.ZgloszenieDTO;
+import drimer.drimain.model.Zgloszenie;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Ścieżka odczytu list zgłoszeń: projekcja prosto do ZgloszenieDTO w jednym zapytaniu,
+ * bez ładowania encji i leniwych relacji dzial/autor/attachments.
+ */
+public interface ZgloszenieReadRepository {
+
+    List<ZgloszenieDTO> findDtos(Specification<Zgloszenie> spec, Sort sort, int limit);
+
+    default List<ZgloszenieDTO> findDtos(Specification<Zgloszenie> spec, Sort sort) {
+        return findDtos(spec, sort, 0);
+    }
+}
@@ -0,0 +1,71 @@
+package drimer.drimain.repository;
+
+import drimer.drimain.api.dto.ZgloszenieDTO;
+import drimer.drimain.model.Attachment;
+import drimer.drimain.model.Dzial;
+import drimer.drimain.model.User;
+import drimer.drimain.model.Zgloszenie;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+class ZgloszenieReadRepositoryImpl implements ZgloszenieReadRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<ZgloszenieDTO> findDtos(Specification<Zgloszenie> spec, Sort sort, int limit) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<ZgloszenieDTO> cq = cb.createQuery(ZgloszenieDTO.class);
+        Root<Zgloszenie> root = cq.from(Zgloszenie.class);
+        Join<Zgloszenie, Dzial> dzial = root.join("dzial", JoinType.LEFT);
+        Join<Zgloszenie, User> autor = root.join("autor", JoinType.LEFT);
+
+        cq.select(cb.construct(ZgloszenieDTO.class,
+                root.get("id"),
+                root.get("typ"),
+                root.get("imie"),
+                root.get("nazwisko"),
+                root.get("tytul"),
+                root.get("status"),
+                root.get("priorytet"),
+                root.get("opis"),
+                root.get("dataGodzina"),
+                root.get("createdAt"),
+                root.get("updatedAt"),
+                dzial.get("id"),
+                dzial.get("nazwa"),
+                autor.get("id"),
+                autor.get("username"),
+                hasPhoto(cq, cb, root)));
+
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, cq, cb);
+            if (predicate != null) cq.where(predicate);
+        }
+        if (sort != null && sort.isSorted()) {
+            cq.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+
+        TypedQuery<ZgloszenieDTO> query = em.createQuery(cq);
+        if (limit > 0) query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    /** Zdjęcie = załącznik z typem image/* (encja nie ma osobnej kolumny na zdjęcie). */
+    private static Expression<Boolean> hasPhoto(CriteriaQuery<?> cq, CriteriaBuilder cb, Root<Zgloszenie> root) {
+        Subquery<Long> photo = cq.subquery(Long.class);
+        Root<Attachment> attachment = photo.from(Attachment.class);
+        photo.select(attachment.get("id"))
+                .where(cb.equal(attachment.get("zgloszenie"), root),
+                        cb.like(attachment.get("contentType"), "image/%"));
+        return cb.<Boolean>selectCase().when(cb.exists(photo), true).otherwise(false);
+    }
+}
@@ -11,7 +11,8 @@ import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
-public interface ZgloszenieRepository extends JpaRepository<Zgloszenie, Long>, JpaSpecificationExecutor<Zgloszenie> {
+public interface ZgloszenieRepository extends JpaRepository<Zgloszenie, Long>, JpaSpecificationExecutor<Zgloszenie>,
+        ZgloszenieReadRepository {
     
     // Find by status
     List<Zgloszenie> findByStatus(ZgloszenieStatus status);
@@ -2,12 +2,17 @@ package drimer.drimain.repository.spec;
 
 import drimer.drimain.model.Raport;
 import drimer.drimain.model.enums.RaportStatus;
+import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 public class RaportSpecifications {
 
+    static final int ID_CHUNK_SIZE = 1000;
+
     public static Specification<Raport> hasStatus(RaportStatus status) {
         return (root, q, cb) ->
                 status == null ? cb.conjunction() : cb.equal(root.get("status"), status);
@@ -38,4 +43,22 @@ public class RaportSpecifications {
             );
         };
     }
-}
\ No newline at end of file
+
+    // Keyset po id malejąco: raporty starsze niż ostatni z poprzedniej strony
+    public static Specification<Raport> idBefore(Long id) {
+        return (root, q, cb) ->
+                id == null ? cb.conjunction() : cb.lessThan(root.get("id"), id);
+    }
+
+    /** Lista id dzielona na IN po {@value #ID_CHUNK_SIZE} połączone OR; pusta lista = brak wyników. */
+    public static Specification<Raport> idIn(List<Long> ids) {
+        return (root, q, cb) -> {
+            if (ids.isEmpty()) return cb.disjunction();
+            List<Predicate> chunks = new ArrayList<>();
+            for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+                chunks.add(root.get("id").in(ids.subList(from, Math.min(from + ID_CHUNK_SIZE, ids.size()))));
+            }
+            return chunks.size() == 1 ? chunks.get(0) : cb.or(chunks.toArray(Predicate[]::new));
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package drimer.drimain.repository.spec;
+
+import drimer.drimain.util.KeysetCursor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Warunki synchronizacji przyrostowej wspólne dla encji z polami updatedAt i id.
+ */
+public class SyncSpecifications {
+
+    public static final Sort SYNC_SORT = Sort.by(Sort.Order.asc("updatedAt"), Sort.Order.asc("id"));
+
+    /** (updatedAt, id) &gt; (token.timestamp, token.id); brak tokenu = wszystko. */
+    public static <T> Specification<T> changedAfter(KeysetCursor token) {
+        return (root, q, cb) -> {
+            if (token == null) return cb.conjunction();
+            return cb.or(
+                cb.greaterThan(root.get("updatedAt"), token.timestamp()),
+                cb.and(
+                    cb.equal(root.get("updatedAt"), token.timestamp()),
+                    cb.greaterThan(root.get("id"), token.id())
+                )
+            );
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package drimer.drimain.repository.spec;
+
+import drimer.drimain.model.Zgloszenie;
+import drimer.drimain.model.enums.ZgloszenieStatus;
+import drimer.drimain.util.KeysetCursor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+public class ZgloszenieSpecifications {
+
+    /** Kolejność zgodna z kursorem keyset – najnowsze najpierw, id rozstrzyga remisy. */
+    public static final Sort KEYSET_SORT = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    public static Specification<Zgloszenie> hasStatus(ZgloszenieStatus status) {
+        return (root, q, cb) ->
+                status == null ? cb.conjunction() : cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Zgloszenie> hasTyp(String typ) {
+        return (root, q, cb) ->
+                typ == null || typ.isBlank() ? cb.conjunction() : cb.equal(cb.lower(root.get("typ")), typ.toLowerCase());
+    }
+
+    public static Specification<Zgloszenie> hasDzialId(Long id) {
+        return (root, q, cb) ->
+                id == null ? cb.conjunction() : cb.equal(root.get("dzial").get("id"), id);
+    }
+
+    public static Specification<Zgloszenie> hasAutorId(Long id) {
+        return (root, q, cb) ->
+                id == null ? cb.conjunction() : cb.equal(root.get("autor").get("id"), id);
+    }
+
+    public static Specification<Zgloszenie> fullText(String qStr) {
+        return (root, q, cb) -> {
+            if (qStr == null || qStr.isBlank()) return cb.conjunction();
+            String like = "%" + qStr.toLowerCase() + "%";
+            return cb.or(
+                cb.like(cb.lower(root.get("opis")), like),
+                cb.like(cb.lower(root.get("typ")), like),
+                cb.like(cb.lower(root.get("imie")), like),
+                cb.like(cb.lower(root.get("nazwisko")), like),
+                cb.like(cb.lower(root.get("tytul")), like)
+            );
+        };
+    }
+
+    /** Ograniczenie do id zwróconych przez indeks wyszukiwania; pusta lista = brak wyników. */
+    public static Specification<Zgloszenie> idIn(Collection<Long> ids) {
+        return (root, q, cb) ->
+                ids.isEmpty() ? cb.disjunction() : root.get("id").in(ids);
+    }
+
+    /**
+     * Warunek keyset dla sortowania {@link #KEYSET_SORT}:
+     * (createdAt, id) &lt; (cursor.createdAt, cursor.id).
+     */
+    public static Specification<Zgloszenie> after(KeysetCursor cursor) {
+        return (root, q, cb) -> {
+            if (cursor == null) return cb.conjunction();
+            return cb.or(
+                cb.lessThan(root.get("createdAt"), cursor.timestamp()),
+                cb.and(
+                    cb.equal(root.get("createdAt"), cursor.timestamp()),
+                    cb.lessThan(root.get("id"), cursor.id())
+                )
+            );
+        };
+    }
+}
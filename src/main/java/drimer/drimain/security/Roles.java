@@ -0,0 +1,19 @@
+package drimer.drimain.security;
+
+import org.springframework.security.core.Authentication;
+
+import java.util.Arrays;
+
+/**
+ * Sprawdzanie ról w kontrolerach, które same decydują o dostępie (bez reguł URL).
+ */
+public final class Roles {
+    private Roles() {}
+
+    /** Czy uwierzytelniony użytkownik ma którąkolwiek z ról (pełne nazwy, np. "ROLE_ADMIN"). */
+    public static boolean hasAny(Authentication authentication, String... roles) {
+        if (authentication == null) return false;
+        return authentication.getAuthorities().stream()
+                .anyMatch(a -> Arrays.asList(roles).contains(a.getAuthority()));
+    }
+}
@@ -3,15 +3,16 @@ package drimer.drimain.service;
 import drimer.drimain.api.dto.AttachmentDTO;
 import drimer.drimain.api.mapper.AttachmentMapper;
 import drimer.drimain.config.AttachmentStorageConfig;
+import drimer.drimain.events.DomainEventPublisher;
 import drimer.drimain.events.EventType;
 import drimer.drimain.events.ZgloszenieDomainEvent;
+import drimer.drimain.events.ZgloszenieSnapshot;
 import drimer.drimain.model.Attachment;
 import drimer.drimain.model.Zgloszenie;
 import drimer.drimain.repository.AttachmentRepository;
 import drimer.drimain.repository.ZgloszenieRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
@@ -39,7 +40,7 @@ public class AttachmentService {
     private final ZgloszenieRepository zgloszenieRepository;
     private final AttachmentMapper attachmentMapper;
     private final AttachmentStorageConfig storageConfig;
-    private final ApplicationEventPublisher eventPublisher;
+    private final DomainEventPublisher eventPublisher;
 
     public List<AttachmentDTO> uploadAttachments(Long zgloszenieId, List<MultipartFile> files, String createdBy) {
         Zgloszenie zgloszenie = zgloszenieRepository.findById(zgloszenieId)
@@ -58,14 +59,15 @@ public class AttachmentService {
                 .collect(Collectors.toList());
 
         // Publish attachment events
+        ZgloszenieSnapshot snapshot = ZgloszenieSnapshot.of(zgloszenie);
         savedAttachments.forEach(attachment -> {
-            eventPublisher.publishEvent(new ZgloszenieDomainEvent(
+            eventPublisher.publish(new ZgloszenieDomainEvent(
                     this,
                     EventType.ATTACHMENT_ADDED,
                     zgloszenieId,
                     null,
                     attachment.getId(),
-                    null // TODO: snapshot for filtering
+                    snapshot
             ));
         });
 
@@ -98,6 +100,7 @@ public class AttachmentService {
                 .orElseThrow(() -> new IllegalArgumentException("Attachment not found: " + attachmentId));
 
         Long zgloszenieId = attachment.getZgloszenie().getId();
+        ZgloszenieSnapshot snapshot = ZgloszenieSnapshot.of(attachment.getZgloszenie());
         
         // Delete file from disk
         Path filePath = Paths.get(storageConfig.getBasePath(), attachment.getStoredFilename());
@@ -111,13 +114,13 @@ public class AttachmentService {
         attachmentRepository.delete(attachment);
 
         // Publish attachment removed event
-        eventPublisher.publishEvent(new ZgloszenieDomainEvent(
+        eventPublisher.publish(new ZgloszenieDomainEvent(
                 this,
                 EventType.ATTACHMENT_REMOVED,
                 zgloszenieId,
                 null,
                 attachmentId,
-                null // TODO: snapshot for filtering
+                snapshot
         ));
     }
 
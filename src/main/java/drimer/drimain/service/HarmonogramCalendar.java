@@ -0,0 +1,207 @@
+package drimer.drimain.service;
+
+import drimer.drimain.api.dto.HarmonogramDTO;
+import drimer.drimain.api.mapper.HarmonogramMapper;
+import drimer.drimain.api.mapper.HarmonogramRuleMapper;
+import drimer.drimain.events.EntityChangedEvent;
+import drimer.drimain.events.EntityType;
+import drimer.drimain.model.HarmonogramRule;
+import drimer.drimain.model.HarmonogramRuleExclusion;
+import drimer.drimain.repository.HarmonogramRepository;
+import drimer.drimain.repository.HarmonogramRuleExclusionRepository;
+import drimer.drimain.repository.HarmonogramRuleRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Widoki miesięcy harmonogramu dla kalendarza: jedno zapytanie zakresowe po data (z maszyną i osobą),
+ * wynik trzymany w pamięci do najbliższej zmiany w tym miesiącu.
+ * <p>
+ * Unieważnianie: zapisujący wywołuje {@link #evict} (po commit – ten sam klient od razu widzi zmianę),
+ * a zdarzenia HARMONOGRAM (atrybut data, także z innych węzłów przez outbox) czyszczą miesiąc daty
+ * bieżącej i poprzedniej. Odczyt, który zaczął się przed unieważnieniem, nie trafia do cache – licznik
+ * zmian jest sprawdzany pod tą samą blokadą co usuwanie.
+ * <p>
+ * Miesiąc zawiera też wystąpienia reguł cyklicznych (HarmonogramRule) wyliczone w locie (id == null):
+ * reguły aktywne w miesiącu i wyłączenia z tego miesiąca to dwa kolejne zapytania – koszt zależy od
+ * liczby reguł i wyjątków, nie od liczby wystąpień w historii. Zmiana reguły czyści cały cache.
+ */
+@Service
+public class HarmonogramCalendar {
+
+    private static final int MAX_CACHED_MONTHS = 36;
+    private static final int MAX_RANGE_DAYS = 366;
+
+    private static final Comparator<HarmonogramDTO> ORDER = Comparator
+            .comparing(HarmonogramDTO::getData)
+            .thenComparing(HarmonogramDTO::getId, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(HarmonogramDTO::getRuleId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final HarmonogramRepository harmonogramRepository;
+    private final HarmonogramRuleRepository ruleRepository;
+    private final HarmonogramRuleExclusionRepository exclusionRepository;
+    private final Map<YearMonth, List<HarmonogramDTO>> months = new ConcurrentHashMap<>();
+    private long evictions; // pod blokadą this
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public HarmonogramCalendar(HarmonogramRepository harmonogramRepository, HarmonogramRuleRepository ruleRepository,
+                               HarmonogramRuleExclusionRepository exclusionRepository, MeterRegistry meterRegistry) {
+        this.harmonogramRepository = harmonogramRepository;
+        this.ruleRepository = ruleRepository;
+        this.exclusionRepository = exclusionRepository;
+        this.hits = lookups(meterRegistry, "hit");
+        this.misses = lookups(meterRegistry, "miss");
+        Gauge.builder("harmonogramy.calendar.months", months, Map::size)
+                .description("Miesiące harmonogramu w pamięci")
+                .register(meterRegistry);
+    }
+
+    @Transactional(readOnly = true)
+    public List<HarmonogramDTO> month(YearMonth month) {
+        List<HarmonogramDTO> cached = months.get(month);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        long seen;
+        synchronized (this) {
+            seen = evictions;
+        }
+        List<HarmonogramDTO> loaded = List.copyOf(load(month.atDay(1), month.atEndOfMonth()));
+        synchronized (this) {
+            if (evictions == seen) {
+                if (months.size() >= MAX_CACHED_MONTHS) evictFarthestFrom(month);
+                months.put(month, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    @Transactional(readOnly = true)
+    public List<HarmonogramDTO> year(int year) {
+        List<HarmonogramDTO> result = new ArrayList<>();
+        for (int m = 1; m <= 12; m++) {
+            result.addAll(month(YearMonth.of(year, m)));
+        }
+        return result;
+    }
+
+    /** Dowolny zakres dat (najwyżej rok) złożony z widoków miesięcy. */
+    @Transactional(readOnly = true)
+    public List<HarmonogramDTO> range(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) throw new IllegalArgumentException("to before from");
+        if (from.plusDays(MAX_RANGE_DAYS).isBefore(to)) {
+            throw new IllegalArgumentException("Range longer than " + MAX_RANGE_DAYS + " days");
+        }
+        List<HarmonogramDTO> result = new ArrayList<>();
+        for (YearMonth m = YearMonth.from(from); !m.isAfter(YearMonth.from(to)); m = m.plusMonths(1)) {
+            for (HarmonogramDTO dto : month(m)) {
+                if (!dto.getData().isBefore(from) && !dto.getData().isAfter(to)) result.add(dto);
+            }
+        }
+        return result;
+    }
+
+    /** Unieważnia miesiące podanych dat – po commit bieżącej transakcji albo od razu, gdy jej nie ma. */
+    public void evict(LocalDate... dates) {
+        Set<YearMonth> affected = new HashSet<>();
+        for (LocalDate date : dates) {
+            if (date != null) affected.add(YearMonth.from(date));
+        }
+        if (affected.isEmpty()) return;
+        afterCommit(() -> evictNow(affected));
+    }
+
+    /** Czyści cały cache – jak {@link #evict}, po commit bieżącej transakcji. */
+    public void evictAll() {
+        afterCommit(this::evictAllNow);
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.getEntity() != EntityType.HARMONOGRAM && event.getEntity() != EntityType.HARMONOGRAM_RULE) return;
+        String data = event.getAttributes().get("data");
+        if (data == null) {
+            evictAll(); // bez daty nie wiadomo, który miesiąc; zmiana reguły dotyczy wielu miesięcy
+            return;
+        }
+        try {
+            String previous = event.getPreviousAttributes().get("data");
+            evict(LocalDate.parse(data), previous != null ? LocalDate.parse(previous) : null);
+        } catch (DateTimeParseException e) {
+            evictAll();
+        }
+    }
+
+    private List<HarmonogramDTO> load(LocalDate start, LocalDate end) {
+        List<HarmonogramDTO> result = new ArrayList<>();
+        harmonogramRepository.findByDataBetween(start, end).forEach(h -> result.add(HarmonogramMapper.toDto(h)));
+        List<HarmonogramRule> rules = ruleRepository.findActiveBetween(start, end);
+        if (rules.isEmpty()) return result;
+
+        Map<Long, Set<LocalDate>> excluded = new HashMap<>();
+        for (HarmonogramRuleExclusion e : exclusionRepository.findByDataBetween(start, end)) {
+            excluded.computeIfAbsent(e.getRuleId(), id -> new HashSet<>()).add(e.getData());
+        }
+        for (HarmonogramRule rule : rules) {
+            Set<LocalDate> skip = excluded.getOrDefault(rule.getId(), Set.of());
+            for (LocalDate date : HarmonogramRecurrence.occurrences(rule, start, end)) {
+                if (!skip.contains(date)) result.add(HarmonogramRuleMapper.occurrence(rule, date));
+            }
+        }
+        result.sort(ORDER);
+        return result;
+    }
+
+    private synchronized void evictAllNow() {
+        evictions++;
+        months.clear();
+    }
+
+    private synchronized void evictNow(Collection<YearMonth> affected) {
+        evictions++;
+        affected.forEach(months::remove);
+    }
+
+    private void evictFarthestFrom(YearMonth month) {
+        months.keySet().stream()
+                .max(Comparator.comparingLong(m -> Math.abs(m.getYear() * 12L + m.getMonthValue()
+                        - month.getYear() * 12L - month.getMonthValue())))
+                .ifPresent(months::remove);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static Counter lookups(MeterRegistry registry, String result) {
+        return Counter.builder("harmonogramy.calendar.lookups")
+                .description("Odczyty widoku miesiąca harmonogramu z pamięci i z bazy")
+                .tag("result", result)
+                .register(registry);
+    }
+}
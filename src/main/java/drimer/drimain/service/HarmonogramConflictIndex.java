@@ -0,0 +1,304 @@
+package drimer.drimain.service;
+
+import drimer.drimain.api.dto.HarmonogramConflictDTO;
+import drimer.drimain.api.exception.HarmonogramConflictException;
+import drimer.drimain.events.EntityChangedEvent;
+import drimer.drimain.events.EntityType;
+import drimer.drimain.events.EventType;
+import drimer.drimain.model.Harmonogram;
+import drimer.drimain.model.HarmonogramRule;
+import drimer.drimain.model.HarmonogramRuleExclusion;
+import drimer.drimain.repository.HarmonogramRepository;
+import drimer.drimain.repository.HarmonogramRuleExclusionRepository;
+import drimer.drimain.repository.HarmonogramRuleRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Indeks zajętości osób i maszyn w pamięci: dla każdej osoby i maszyny posortowana mapa dzień → id
+ * wpisów. Harmonogram ma tylko datę (bez godzin i czasu trwania), więc każdy wpis to przedział jednego
+ * dnia – drzewo przedziałów sprowadza się do TreeMap, a sprawdzenie zapisu i konflikty w zakresie to
+ * O(log n + k) na osobę/maszynę zamiast skanu wpisów.
+ * <p>
+ * Wczytywany przy starcie, potem utrzymywany przez zapisujących ({@link #put}/{@link #remove} po commit –
+ * kolejny zapis tego samego klienta już go widzi) i ze zdarzeń HARMONOGRAM (także z innych węzłów przez
+ * outbox). Zdarzenia przychodzą z puli wątków, więc starsza wersja (updatedAt) niż zapamiętana jest
+ * pomijana; usunięcie zostawia wersję, żeby spóźnione UPDATED nie przywróciło wpisu.
+ * {@link #check} blokuje osobę i maszynę do końca transakcji zapisu, więc równoległe zapisy tego samego
+ * zasobu nie przechodzą sprawdzenia jednocześnie (w obrębie węzła).
+ * Wyliczone wystąpienia reguł cyklicznych nie są indeksowane (dopiero zapisane): {@link #check} czyta
+ * z bazy reguły aktywne danego dnia dla tej osoby/maszyny, a {@link #conflicts} reguły i wyłączenia zakresu
+ * – zmaterializowane i pominięte wystąpienia mają wyłączenie, więc nie liczą się podwójnie.
+ */
+@Service
+@Order(20) // po DataInitializer
+@Slf4j
+public class HarmonogramConflictIndex implements ApplicationRunner {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private record Entry(LocalDate data, Long maszynaId, Long osobaId, Long version, boolean deleted) {}
+
+    private final HarmonogramRepository harmonogramRepository;
+    private final HarmonogramRuleRepository ruleRepository;
+    private final HarmonogramRuleExclusionRepository exclusionRepository;
+
+    // Pod blokadą this
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Long, NavigableMap<LocalDate, Set<Long>>> byOsoba = new HashMap<>();
+    private final Map<Long, NavigableMap<LocalDate, Set<Long>>> byMaszyna = new HashMap<>();
+    private int indexed;
+
+    // Blokady zapisu per osoba/maszyna (paski po hash) – trzymane od check do końca transakcji
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public HarmonogramConflictIndex(HarmonogramRepository harmonogramRepository,
+                                    HarmonogramRuleRepository ruleRepository,
+                                    HarmonogramRuleExclusionRepository exclusionRepository,
+                                    MeterRegistry meterRegistry) {
+        this.harmonogramRepository = harmonogramRepository;
+        this.ruleRepository = ruleRepository;
+        this.exclusionRepository = exclusionRepository;
+        for (int i = 0; i < LOCK_STRIPES; i++) locks[i] = new ReentrantLock();
+        Gauge.builder("harmonogramy.conflict_index.entries", this, HarmonogramConflictIndex::size)
+                .description("Wpisy harmonogramu w indeksie konfliktów")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Object[]> rows = harmonogramRepository.findConflictKeys();
+        for (Object[] row : rows) {
+            apply((Long) row[0], (LocalDate) row[1], (Long) row[2], (Long) row[3],
+                    EntityChangedEvent.versionOf((LocalDateTime) row[4]), false);
+        }
+        log.info("Indeks konfliktów harmonogramu: {} wpisów", size());
+    }
+
+    /** Uwzględnia zapisany wpis – po commit bieżącej transakcji albo od razu, gdy jej nie ma. */
+    public void put(Harmonogram h) {
+        Long maszynaId = h.getMaszyna() != null ? h.getMaszyna().getId() : null;
+        Long osobaId = h.getOsoba() != null ? h.getOsoba().getId() : null;
+        Long version = EntityChangedEvent.versionOf(h.getUpdatedAt());
+        afterCommit(() -> apply(h.getId(), h.getData(), maszynaId, osobaId, version, false));
+    }
+
+    public void remove(Harmonogram h) {
+        Long version = EntityChangedEvent.versionOf(h.getUpdatedAt());
+        afterCommit(() -> apply(h.getId(), null, null, null, version, true));
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.getEntity() != EntityType.HARMONOGRAM || event.getEntityId() == null) return;
+        if (event.getAction() == EventType.DELETED) {
+            apply(event.getEntityId(), null, null, null, event.getVersion(), true);
+            return;
+        }
+        if (event.getAction() != EventType.CREATED && event.getAction() != EventType.UPDATED) return;
+        Map<String, String> attributes = event.getAttributes();
+        try {
+            apply(event.getEntityId(),
+                    attributes.containsKey("data") ? LocalDate.parse(attributes.get("data")) : null,
+                    attributes.containsKey("maszynaId") ? Long.valueOf(attributes.get("maszynaId")) : null,
+                    attributes.containsKey("osobaId") ? Long.valueOf(attributes.get("osobaId")) : null,
+                    event.getVersion(), false);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            log.warn("Pominięto zdarzenie harmonogramu {} z nieczytelnymi atrybutami", event.getEntityId());
+        }
+    }
+
+    /** Id innych wpisów tej osoby lub maszyny w danym dniu (bez selfId), rosnąco. */
+    public synchronized List<Long> conflicting(Long selfId, LocalDate data, Long maszynaId, Long osobaId) {
+        if (data == null) return List.of();
+        Set<Long> result = new TreeSet<>();
+        result.addAll(at(byOsoba, osobaId, data));
+        result.addAll(at(byMaszyna, maszynaId, data));
+        if (selfId != null) result.remove(selfId);
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Reguły tej osoby lub maszyny z wyliczonym (niewyłączonym) wystąpieniem w danym dniu, rosnąco –
+     * O(reguł zasobu).
+     */
+    private List<Long> occurringRules(LocalDate data, Long maszynaId, Long osobaId) {
+        if (data == null || (maszynaId == null && osobaId == null)) return List.of();
+        List<Long> ruleIds = ruleRepository.findActiveOn(maszynaId, osobaId, data).stream()
+                .filter(rule -> HarmonogramRecurrence.occursOn(rule, data))
+                .map(HarmonogramRule::getId)
+                .toList();
+        if (ruleIds.isEmpty()) return ruleIds;
+        Set<Long> excluded = new HashSet<>(exclusionRepository.findExcludedRuleIds(data, ruleIds));
+        return ruleIds.stream().filter(id -> !excluded.contains(id)).toList();
+    }
+
+    /**
+     * Odrzuca zapis, który zająłby osobę lub maszynę już zajętą w tym dniu (wpisem lub wystąpieniem
+     * reguły). Wymaga transakcji: osoba
+     * i maszyna pozostają zablokowane do jej zakończenia, a zapisany wpis trafia do indeksu w afterCommit,
+     * czyli zanim kolejny zapis tych zasobów wykona swoje sprawdzenie.
+     */
+    public void check(Long selfId, LocalDate data, Long maszynaId, Long osobaId) {
+        lockUntilCompletion(maszynaId, osobaId);
+        List<Long> ids = conflicting(selfId, data, maszynaId, osobaId);
+        List<Long> ruleIds = occurringRules(data, maszynaId, osobaId);
+        if (!ids.isEmpty() || !ruleIds.isEmpty()) throw new HarmonogramConflictException(data, ids, ruleIds);
+    }
+
+    /**
+     * Dni z więcej niż jednym wpisem osoby lub maszyny w zakresie (zapisanym lub wystąpieniem reguły) –
+     * wg daty, osoby przed maszynami.
+     */
+    public List<HarmonogramConflictDTO> conflicts(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) throw new IllegalArgumentException("to before from");
+        Map<Long, Set<LocalDate>> excluded = new HashMap<>();
+        for (HarmonogramRuleExclusion e : exclusionRepository.findByDataBetween(from, to)) {
+            excluded.computeIfAbsent(e.getRuleId(), k -> new HashSet<>()).add(e.getData());
+        }
+        Map<Long, NavigableMap<LocalDate, List<Long>>> rulesByOsoba = new HashMap<>();
+        Map<Long, NavigableMap<LocalDate, List<Long>>> rulesByMaszyna = new HashMap<>();
+        for (HarmonogramRule rule : ruleRepository.findActiveBetween(from, to)) {
+            Set<LocalDate> skipped = excluded.getOrDefault(rule.getId(), Set.of());
+            for (LocalDate data : HarmonogramRecurrence.occurrences(rule, from, to)) {
+                if (skipped.contains(data)) continue;
+                if (rule.getOsoba() != null) addRule(rulesByOsoba, rule.getOsoba().getId(), data, rule.getId());
+                addRule(rulesByMaszyna, rule.getMaszyna().getId(), data, rule.getId());
+            }
+        }
+
+        List<HarmonogramConflictDTO> result = new ArrayList<>();
+        synchronized (this) {
+            collect(byOsoba, rulesByOsoba, from, to, (data, id, ids, ruleIds) ->
+                    result.add(new HarmonogramConflictDTO(data, id, null, ids, ruleIds)));
+            collect(byMaszyna, rulesByMaszyna, from, to, (data, id, ids, ruleIds) ->
+                    result.add(new HarmonogramConflictDTO(data, null, id, ids, ruleIds)));
+        }
+        result.sort(Comparator.comparing(HarmonogramConflictDTO::getData)
+                .thenComparing(c -> c.getOsobaId() == null)
+                .thenComparing(c -> c.getOsobaId() != null ? c.getOsobaId() : c.getMaszynaId()));
+        return result;
+    }
+
+    public synchronized int size() {
+        return indexed;
+    }
+
+    private synchronized void apply(Long id, LocalDate data, Long maszynaId, Long osobaId, Long version,
+                                    boolean deleted) {
+        Entry old = entries.get(id);
+        if (isStale(version, old)) return;
+        if (old != null && !old.deleted()) {
+            unlink(byOsoba, old.osobaId(), old.data(), id);
+            unlink(byMaszyna, old.maszynaId(), old.data(), id);
+            indexed--;
+        }
+        entries.put(id, new Entry(data, maszynaId, osobaId, version, deleted));
+        if (deleted) return;
+        link(byOsoba, osobaId, data, id);
+        link(byMaszyna, maszynaId, data, id);
+        indexed++;
+    }
+
+    private static boolean isStale(Long version, Entry current) {
+        if (current == null || current.version() == null || version == null) return false;
+        return version < current.version() || (version.equals(current.version()) && current.deleted());
+    }
+
+    private static void link(Map<Long, NavigableMap<LocalDate, Set<Long>>> index, Long key, LocalDate data, Long id) {
+        if (key == null || data == null) return;
+        index.computeIfAbsent(key, k -> new TreeMap<>()).computeIfAbsent(data, d -> new HashSet<>()).add(id);
+    }
+
+    private static void unlink(Map<Long, NavigableMap<LocalDate, Set<Long>>> index, Long key, LocalDate data, Long id) {
+        if (key == null || data == null) return;
+        NavigableMap<LocalDate, Set<Long>> days = index.get(key);
+        if (days == null) return;
+        Set<Long> ids = days.get(data);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) days.remove(data);
+        if (days.isEmpty()) index.remove(key);
+    }
+
+    private static Set<Long> at(Map<Long, NavigableMap<LocalDate, Set<Long>>> index, Long key, LocalDate data) {
+        if (key == null) return Set.of();
+        NavigableMap<LocalDate, Set<Long>> days = index.get(key);
+        return days != null ? days.getOrDefault(data, Set.of()) : Set.of();
+    }
+
+    private static void addRule(Map<Long, NavigableMap<LocalDate, List<Long>>> rules, Long key, LocalDate data,
+                                Long ruleId) {
+        rules.computeIfAbsent(key, k -> new TreeMap<>()).computeIfAbsent(data, d -> new ArrayList<>()).add(ruleId);
+    }
+
+    private interface ConflictSink {
+        void accept(LocalDate data, Long key, List<Long> ids, List<Long> ruleIds);
+    }
+
+    // Wystąpienia reguł (już w zakresie, rosnąco po id reguły) dokładane do wpisów z indeksu
+    private static void collect(Map<Long, NavigableMap<LocalDate, Set<Long>>> index,
+                                Map<Long, NavigableMap<LocalDate, List<Long>>> rules, LocalDate from, LocalDate to,
+                                ConflictSink sink) {
+        Set<Long> keys = new HashSet<>(index.keySet());
+        keys.addAll(rules.keySet());
+        for (Long key : keys) {
+            NavigableMap<LocalDate, Set<Long>> days = index.containsKey(key)
+                    ? index.get(key).subMap(from, true, to, true) : Collections.emptyNavigableMap();
+            NavigableMap<LocalDate, List<Long>> ruleDays = rules.getOrDefault(key, Collections.emptyNavigableMap());
+            SortedSet<LocalDate> dates = new TreeSet<>(days.keySet());
+            dates.addAll(ruleDays.keySet());
+            for (LocalDate data : dates) {
+                Set<Long> ids = days.getOrDefault(data, Set.of());
+                List<Long> ruleIds = ruleDays.getOrDefault(data, List.of());
+                if (ids.size() + ruleIds.size() > 1) sink.accept(data, key, ids.stream().sorted().toList(), ruleIds);
+            }
+        }
+    }
+
+    private void lockUntilCompletion(Long maszynaId, Long osobaId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Harmonogram conflict check requires a transaction");
+        }
+        // Stała kolejność pasków – dwa zapisy blokujące tę samą parę nie zakleszczą się
+        SortedSet<Integer> stripes = new TreeSet<>();
+        if (maszynaId != null) stripes.add(Math.floorMod(Objects.hash("maszyna", maszynaId), LOCK_STRIPES));
+        if (osobaId != null) stripes.add(Math.floorMod(Objects.hash("osoba", osobaId), LOCK_STRIPES));
+        List<ReentrantLock> held = new ArrayList<>();
+        for (int stripe : stripes) {
+            locks[stripe].lock();
+            held.add(locks[stripe]);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                held.forEach(ReentrantLock::unlock);
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package drimer.drimain.service;
+
+import drimer.drimain.model.HarmonogramRule;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Daty wystąpień reguły w zakresie liczone arytmetycznie: pierwsze wystąpienie w zakresie wyznaczane
+ * wprost z dataOd i interwału (bez przechodzenia po wcześniejszych), koszt proporcjonalny do liczby
+ * wystąpień w zakresie, nie do wieku reguły.
+ */
+public final class HarmonogramRecurrence {
+    private HarmonogramRecurrence() {}
+
+    public static List<LocalDate> occurrences(HarmonogramRule rule, LocalDate from, LocalDate to) {
+        LocalDate lo = from.isBefore(rule.getDataOd()) ? rule.getDataOd() : from;
+        LocalDate hi = rule.getDataDo() != null && rule.getDataDo().isBefore(to) ? rule.getDataDo() : to;
+        List<LocalDate> result = new ArrayList<>();
+        if (lo.isAfter(hi)) return result;
+        int interwal = rule.getInterwal();
+        switch (rule.getCzestotliwosc()) {
+            case DZIENNIE -> stepDays(rule.getDataOd(), interwal, lo, hi, result);
+            case TYGODNIOWO -> stepDays(rule.getDataOd().with(TemporalAdjusters.nextOrSame(rule.getDzienTygodnia())),
+                    7L * interwal, lo, hi, result);
+            case MIESIECZNIE -> {
+                YearMonth anchor = YearMonth.from(rule.getDataOd());
+                long behind = ChronoUnit.MONTHS.between(anchor, YearMonth.from(lo));
+                long k = behind <= 0 ? 0 : (behind + interwal - 1) / interwal;
+                for (YearMonth m = anchor.plusMonths(k * interwal); !m.isAfter(YearMonth.from(hi));
+                     m = m.plusMonths(interwal)) {
+                    LocalDate date = dayIn(rule, m);
+                    if (!date.isBefore(lo) && !date.isAfter(hi)) result.add(date);
+                }
+            }
+        }
+        return result;
+    }
+
+    public static boolean occursOn(HarmonogramRule rule, LocalDate date) {
+        return occurrences(rule, date, date).contains(date);
+    }
+
+    private static void stepDays(LocalDate anchor, long step, LocalDate lo, LocalDate hi, List<LocalDate> result) {
+        long behind = ChronoUnit.DAYS.between(anchor, lo);
+        LocalDate date = behind <= 0 ? anchor : anchor.plusDays((behind + step - 1) / step * step);
+        for (; !date.isAfter(hi); date = date.plusDays(step)) {
+            result.add(date);
+        }
+    }
+
+    private static LocalDate dayIn(HarmonogramRule rule, YearMonth month) {
+        if (rule.getTydzienMiesiaca() == null) {
+            return month.atDay(Math.min(rule.getDzienMiesiaca(), month.lengthOfMonth()));
+        }
+        DayOfWeek dow = rule.getDzienTygodnia();
+        LocalDate first = month.atDay(1);
+        return rule.getTydzienMiesiaca() < 0
+                ? first.with(TemporalAdjusters.lastInMonth(dow))
+                : first.with(TemporalAdjusters.dayOfWeekInMonth(rule.getTydzienMiesiaca(), dow));
+    }
+}
@@ -0,0 +1,195 @@
+package drimer.drimain.service;
+
+import drimer.drimain.api.dto.HarmonogramRuleDTO;
+import drimer.drimain.api.dto.HarmonogramRuleRequest;
+import drimer.drimain.api.mapper.HarmonogramMapper;
+import drimer.drimain.api.mapper.HarmonogramRuleMapper;
+import drimer.drimain.events.DomainEventPublisher;
+import drimer.drimain.events.EventType;
+import drimer.drimain.model.Harmonogram;
+import drimer.drimain.model.HarmonogramRule;
+import drimer.drimain.model.HarmonogramRuleExclusion;
+import drimer.drimain.model.enums.StatusHarmonogramu;
+import drimer.drimain.repository.HarmonogramRepository;
+import drimer.drimain.repository.HarmonogramRuleExclusionRepository;
+import drimer.drimain.repository.HarmonogramRuleRepository;
+import drimer.drimain.repository.MaszynaRepository;
+import drimer.drimain.repository.OsobaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reguły cyklicznych przeglądów. Reguła jest zapisywana raz; wystąpienia wylicza HarmonogramCalendar,
+ * a wiersz Harmonogram (z rule/occurrenceDate) powstaje dopiero przy edycji lub zakończeniu wystąpienia.
+ * Zmaterializowane i pominięte wystąpienia trafiają do harmonogram_rule_exclusions – wyliczanie je pomija.
+ */
+@Service
+@RequiredArgsConstructor
+public class HarmonogramRuleService {
+
+    private final HarmonogramRuleRepository ruleRepository;
+    private final HarmonogramRuleExclusionRepository exclusionRepository;
+    private final HarmonogramRepository harmonogramRepository;
+    private final MaszynaRepository maszynaRepository;
+    private final OsobaRepository osobaRepository;
+    private final HarmonogramCalendar harmonogramCalendar;
+    private final DomainEventPublisher publisher;
+
+    @Transactional(readOnly = true)
+    public List<HarmonogramRuleDTO> list() {
+        return ruleRepository.findAllWithDetails().stream().map(HarmonogramRuleMapper::toDto).toList();
+    }
+
+    @Transactional(readOnly = true)
+    public HarmonogramRuleDTO get(Long id) {
+        return HarmonogramRuleMapper.toDto(find(id));
+    }
+
+    @Transactional
+    public HarmonogramRuleDTO create(HarmonogramRuleRequest req) {
+        HarmonogramRule rule = new HarmonogramRule();
+        apply(rule, req);
+        rule = ruleRepository.save(rule);
+        harmonogramCalendar.evictAll();
+        publisher.publish(HarmonogramRuleMapper.changedEvent(this, rule, EventType.CREATED, List.of(), null));
+        return HarmonogramRuleMapper.toDto(rule);
+    }
+
+    /** Pełna zamiana reguły; zmaterializowane wystąpienia zostają bez zmian. */
+    @Transactional
+    public HarmonogramRuleDTO update(Long id, HarmonogramRuleRequest req) {
+        HarmonogramRule rule = find(id);
+        apply(rule, req);
+        rule = ruleRepository.save(rule);
+        harmonogramCalendar.evictAll();
+        publisher.publish(HarmonogramRuleMapper.changedEvent(this, rule, EventType.UPDATED, List.of(), null));
+        return HarmonogramRuleMapper.toDto(rule);
+    }
+
+    /** Usuwa regułę i jej wyłączenia; zmaterializowane wystąpienia zostają jako zwykłe wpisy. */
+    @Transactional
+    public void delete(Long id) {
+        ruleRepository.findById(id).ifPresent(rule -> {
+            exclusionRepository.deleteByRuleId(id);
+            harmonogramRepository.detachFromRule(id);
+            ruleRepository.delete(rule);
+            harmonogramCalendar.evictAll();
+            publisher.publish(HarmonogramRuleMapper.changedEvent(this, rule, EventType.DELETED, List.of(), null));
+        });
+    }
+
+    /**
+     * Zapisuje wystąpienie reguły jako wiersz harmonogramu (albo zwraca już zapisany) – przed edycją
+     * lub zakończeniem. Data musi być wystąpieniem reguły.
+     */
+    @Transactional
+    public Harmonogram materialize(Long ruleId, LocalDate date) {
+        Optional<Harmonogram> existing = harmonogramRepository.findOccurrence(ruleId, date);
+        if (existing.isPresent()) return existing.get();
+        HarmonogramRule rule = find(ruleId);
+        requireOccurrence(rule, date);
+        exclude(rule, date);
+
+        Harmonogram h = new Harmonogram();
+        h.setRule(rule);
+        h.setOccurrenceDate(date);
+        h.setData(date);
+        h.setOpis(rule.getOpis());
+        h.setMaszyna(rule.getMaszyna());
+        h.setOsoba(rule.getOsoba());
+        h.setStatus(StatusHarmonogramu.PLANOWANE);
+        h = harmonogramRepository.save(h);
+        harmonogramCalendar.evict(date);
+        publisher.publish(HarmonogramMapper.changedEvent(this, h, EventType.CREATED, List.of(), Map.of()));
+        return h;
+    }
+
+    /**
+     * Pomija wystąpienie reguły. Zwraca zmaterializowany wiersz, jeśli istnieje – usuwa go wołający
+     * (jak każdy harmonogram: zdarzenie i tombstone synchronizacji); wyłączenie zostaje, więc wystąpienie
+     * nie wraca w kalendarzu.
+     */
+    @Transactional
+    public Optional<Harmonogram> skip(Long ruleId, LocalDate date) {
+        Optional<Harmonogram> existing = harmonogramRepository.findOccurrence(ruleId, date);
+        if (existing.isPresent()) return existing;
+        HarmonogramRule rule = find(ruleId);
+        requireOccurrence(rule, date);
+        if (exclude(rule, date)) {
+            harmonogramCalendar.evict(date);
+            publisher.publish(HarmonogramRuleMapper.changedEvent(this, rule, EventType.UPDATED,
+                    List.of("wystapienia"), date));
+        }
+        return Optional.empty();
+    }
+
+    private boolean exclude(HarmonogramRule rule, LocalDate date) {
+        if (exclusionRepository.existsByRuleIdAndData(rule.getId(), date)) return false;
+        HarmonogramRuleExclusion exclusion = new HarmonogramRuleExclusion();
+        exclusion.setRuleId(rule.getId());
+        exclusion.setData(date);
+        exclusionRepository.save(exclusion);
+        return true;
+    }
+
+    private void apply(HarmonogramRule rule, HarmonogramRuleRequest req) {
+        rule.setMaszyna(maszynaRepository.findById(req.getMaszynaId())
+                .orElseThrow(() -> new IllegalArgumentException("Maszyna not found")));
+        rule.setOsoba(req.getOsobaId() == null ? null : osobaRepository.findById(req.getOsobaId())
+                .orElseThrow(() -> new IllegalArgumentException("Osoba not found")));
+        rule.setOpis(req.getOpis());
+        rule.setCzestotliwosc(req.getCzestotliwosc());
+        rule.setDataOd(req.getDataOd());
+        rule.setDataDo(req.getDataDo());
+        if (req.getDataDo() != null && req.getDataDo().isBefore(req.getDataOd())) {
+            throw new IllegalArgumentException("dataDo before dataOd");
+        }
+        int interwal = req.getInterwal() != null ? req.getInterwal() : 1;
+        if (interwal < 1) throw new IllegalArgumentException("interwal must be >= 1");
+        rule.setInterwal(interwal);
+
+        rule.setDzienTygodnia(null);
+        rule.setDzienMiesiaca(null);
+        rule.setTydzienMiesiaca(null);
+        switch (req.getCzestotliwosc()) {
+            case DZIENNIE -> { }
+            case TYGODNIOWO -> rule.setDzienTygodnia(dayOfWeek(req));
+            case MIESIECZNIE -> {
+                if (req.getTydzienMiesiaca() != null) {
+                    int week = req.getTydzienMiesiaca();
+                    if (week != -1 && (week < 1 || week > 4)) {
+                        throw new IllegalArgumentException("tydzienMiesiaca must be 1..4 or -1");
+                    }
+                    rule.setTydzienMiesiaca(week);
+                    rule.setDzienTygodnia(dayOfWeek(req));
+                } else {
+                    int day = req.getDzienMiesiaca() != null ? req.getDzienMiesiaca() : req.getDataOd().getDayOfMonth();
+                    if (day < 1 || day > 31) throw new IllegalArgumentException("dzienMiesiaca must be 1..31");
+                    rule.setDzienMiesiaca(day);
+                }
+            }
+        }
+    }
+
+    private static DayOfWeek dayOfWeek(HarmonogramRuleRequest req) {
+        return req.getDzienTygodnia() != null ? req.getDzienTygodnia() : req.getDataOd().getDayOfWeek();
+    }
+
+    private static void requireOccurrence(HarmonogramRule rule, LocalDate date) {
+        if (!HarmonogramRecurrence.occursOn(rule, date)) {
+            throw new IllegalArgumentException("Not an occurrence of rule " + rule.getId() + ": " + date);
+        }
+    }
+
+    private HarmonogramRule find(Long id) {
+        return ruleRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Harmonogram rule not found"));
+    }
+}
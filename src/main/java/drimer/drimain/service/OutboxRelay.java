@@ -0,0 +1,97 @@
+package drimer.drimain.service;
+
+import drimer.drimain.config.OutboxProperties;
+import drimer.drimain.events.DomainEventPublisher;
+import drimer.drimain.events.OutboxCodec;
+import drimer.drimain.model.OutboxEvent;
+import drimer.drimain.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Odczytuje event_outbox i rozsyła zdarzenia zapisane przez inne węzły do lokalnych subskrybentów
+ * (SSE, STOMP, indeks wyszukiwania). Własne zdarzenia węzeł rozesłał już po commit – są pomijane.
+ * <p>
+ * Id z IDENTITY są nadawane przy INSERT, a widoczne dopiero po commit, więc wiersz o niższym id
+ * może pojawić się po wyższym. Kursor przesuwa się tylko po ciągłym zakresie; luka (transakcja w toku
+ * albo wycofana) jest przeskakiwana po app.outbox.gap-timeout-seconds.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxRepository;
+    private final OutboxCodec outboxCodec;
+    private final DomainEventPublisher eventPublisher;
+    private final OutboxProperties outboxProperties;
+
+    /** Wszystkie id &lt;= cursor są obsłużone. */
+    private Long cursor;
+    /** Obsłużone id powyżej kursora (za luką). */
+    private final NavigableSet<Long> seenAboveCursor = new TreeSet<>();
+    private LocalDateTime gapSince;
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:1000}")
+    @Transactional(readOnly = true)
+    public synchronized void poll() {
+        if (!outboxProperties.isEnabled()) return;
+        if (cursor == null) {
+            // Historia sprzed startu węzła nie jest odtwarzana – klienci i tak pobierają stan przy połączeniu
+            cursor = outboxRepository.findMaxId();
+            return;
+        }
+
+        List<OutboxEvent> rows = outboxRepository.findByIdGreaterThanOrderByIdAsc(cursor,
+                Limit.of(outboxProperties.getBatchSize() + seenAboveCursor.size()));
+        for (OutboxEvent row : rows) {
+            if (!seenAboveCursor.add(row.getId())) continue;
+            if (outboxProperties.getNodeId().equals(row.getOriginNode())) continue;
+
+            Object event = outboxCodec.decode(row, this);
+            if (event != null) {
+                eventPublisher.publishLocal(event);
+            } else {
+                log.warn("Unknown outbox event type {} (id {})", row.getEventType(), row.getId());
+            }
+        }
+        advanceCursor();
+    }
+
+    private void advanceCursor() {
+        while (!seenAboveCursor.isEmpty() && seenAboveCursor.first() == cursor + 1) {
+            cursor = seenAboveCursor.pollFirst();
+        }
+        if (seenAboveCursor.isEmpty()) {
+            gapSince = null;
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (gapSince == null) {
+            gapSince = now;
+        } else if (gapSince.plusSeconds(outboxProperties.getGapTimeoutSeconds()).isBefore(now)) {
+            log.debug("Skipping outbox ids {}..{} (rolled back or never committed)", cursor + 1, seenAboveCursor.first() - 1);
+            cursor = seenAboveCursor.first() - 1;
+            gapSince = null;
+            advanceCursor();
+        }
+    }
+
+    @Scheduled(cron = "0 15 * * * *")
+    @Transactional
+    public void purge() {
+        int removed = outboxRepository.deleteOlderThan(LocalDateTime.now().minusHours(outboxProperties.getRetentionHours()));
+        if (removed > 0) {
+            log.info("Usunięto {} starych zdarzeń z event_outbox", removed);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package drimer.drimain.service;
+
+import drimer.drimain.events.DomainEventPublisher;
+import drimer.drimain.events.EntityChangedEvent;
+import drimer.drimain.events.EntityType;
+import drimer.drimain.events.EventType;
+import drimer.drimain.model.Part;
+import drimer.drimain.repository.PartRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Zbiór części poniżej stanu minimalnego w pamięci. Wczytywany przy starcie z indeksu (findBelowMin),
+ * potem utrzymywany ze zdarzeń zmian części (atrybut belowMin; także z innych węzłów przez outbox).
+ * Przejście przez próg publikuje PART_BELOW_MIN / PART_RESTOCKED tylko do lokalnych subskrybentów –
+ * każdy węzeł wylicza przejścia sam, więc nie trafiają do outboxa.
+ * <p>
+ * Listenery działają na puli wątków, więc zdarzenia jednej części mogą przyjść w innej kolejności
+ * niż zapisy – starsza wersja (updatedAt) niż zapamiętana jest pomijana.
+ */
+@Service
+@Order(20) // po DataInitializer
+@Slf4j
+public class PartLowStockTracker implements ApplicationRunner {
+
+    private record State(boolean belowMin, Long version) {}
+
+    private final PartRepository partRepository;
+    private final DomainEventPublisher publisher;
+
+    private final Map<Long, State> states = new ConcurrentHashMap<>();
+    private final Set<Long> belowMin = ConcurrentHashMap.newKeySet();
+
+    public PartLowStockTracker(PartRepository partRepository, DomainEventPublisher publisher, MeterRegistry meterRegistry) {
+        this.partRepository = partRepository;
+        this.publisher = publisher;
+        Gauge.builder("parts.below_min", belowMin, Set::size)
+                .description("Części poniżej stanu minimalnego")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Part> parts = partRepository.findBelowMin();
+        for (Part p : parts) {
+            Long version = EntityChangedEvent.versionOf(p.getUpdatedAt());
+            // Zdarzenie nowsze niż odczyt mogło już przyjść – ma pierwszeństwo
+            states.compute(p.getId(), (id, old) -> isStale(version, old) ? old : new State(true, version));
+            if (states.get(p.getId()).belowMin()) belowMin.add(p.getId());
+        }
+        log.info("Części poniżej stanu minimalnego: {}", belowMin.size());
+    }
+
+    @EventListener
+    public void onPartChanged(EntityChangedEvent event) {
+        if (event.getEntity() != EntityType.PART || event.getEntityId() == null) return;
+        Long id = event.getEntityId();
+        if (event.getAction() == EventType.DELETED) {
+            states.remove(id);
+            belowMin.remove(id);
+            return;
+        }
+        String flag = event.getAttributes().get("belowMin");
+        if (flag == null || (event.getAction() != EventType.CREATED && event.getAction() != EventType.UPDATED)) return;
+
+        boolean below = Boolean.parseBoolean(flag);
+        boolean[] crossed = new boolean[1];
+        states.compute(id, (key, old) -> {
+            if (isStale(event.getVersion(), old)) return old;
+            crossed[0] = (old != null && old.belowMin()) != below;
+            return new State(below, event.getVersion());
+        });
+        if (!crossed[0]) return;
+
+        if (below) belowMin.add(id);
+        else belowMin.remove(id);
+        publisher.publishLocal(new EntityChangedEvent(this, EntityType.PART,
+                below ? EventType.PART_BELOW_MIN : EventType.PART_RESTOCKED, id, List.of("ilosc"),
+                event.getVersion(), event.getAttributes(), Map.of(), LocalDateTime.now()));
+    }
+
+    /** Id części poniżej stanu minimalnego, rosnąco. */
+    public Set<Long> getBelowMinIds() {
+        return new TreeSet<>(belowMin);
+    }
+
+    private static boolean isStale(Long version, State current) {
+        return current != null && current.version() != null && version != null && version < current.version();
+    }
+}
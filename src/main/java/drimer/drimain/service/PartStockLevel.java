@@ -0,0 +1,9 @@
+package drimer.drimain.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stan części tuż po atomowej zmianie (odczytany w tej samej transakcji).
+ */
+public record PartStockLevel(Long partId, int ilosc, Integer minIlosc, String kategoria, LocalDateTime updatedAt) {
+}
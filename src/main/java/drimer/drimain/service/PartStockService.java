@@ -0,0 +1,171 @@
+package drimer.drimain.service;
+
+import drimer.drimain.api.exception.InsufficientStockException;
+import drimer.drimain.api.mapper.PartMapper;
+import drimer.drimain.events.DomainEventPublisher;
+import drimer.drimain.events.EventType;
+import drimer.drimain.model.Part;
+import drimer.drimain.model.enums.StockMovementReason;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Zmiany stanu magazynowego części bez read-modify-write: każda zmiana to jedno
+ * {@code UPDATE parts SET ilosc = ilosc + :delta WHERE id = :id AND ilosc + :delta >= 0},
+ * więc równoległe skanery nie gubią aktualizacji, a stan nie schodzi poniżej zera. Bez blokad
+ * pesymistycznych – wiersz jest zablokowany tylko na czas własnego UPDATE do końca transakcji.
+ * <p>
+ * Wiele zmian idzie jednym batchem JDBC w kolejności id (stała kolejność blokad = brak zakleszczeń
+ * między batchami) i atomowo: jedna odrzucona zmiana wycofuje całość. Po zmianie stan jest czytany
+ * w tej samej transakcji, a zarządzane kopie encji odświeżane. Każda zmiana trafia też (tym samym
+ * batchem, w tej samej transakcji) do dziennika ruchów – {@link StockLedgerService}.
+ */
+@Service
+public class PartStockService {
+
+    private static final String ADJUST_SQL = "UPDATE parts SET ilosc = COALESCE(ilosc, 0) + :delta, updated_at = :now "
+            + "WHERE id = :id AND COALESCE(ilosc, 0) + :delta >= 0";
+    private static final String LEVELS_SQL = "SELECT id, ilosc, min_ilosc, kategoria, updated_at FROM parts WHERE id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final DomainEventPublisher publisher;
+    private final StockLedgerService ledger;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    public PartStockService(NamedParameterJdbcTemplate jdbc, DomainEventPublisher publisher, StockLedgerService ledger) {
+        this.jdbc = jdbc;
+        this.publisher = publisher;
+        this.ledger = ledger;
+    }
+
+    @Transactional
+    public PartStockLevel adjust(Long partId, int delta, StockChange change) {
+        return adjustAll(Map.of(partId, delta), change).get(0);
+    }
+
+    /**
+     * Zmienia stany wielu części naraz (partId → delta). Zwraca nowe stany w kolejności id.
+     *
+     * @throws IllegalArgumentException    gdy części nie ma
+     * @throws InsufficientStockException  gdy stan zszedłby poniżej zera
+     */
+    @Transactional
+    public List<PartStockLevel> adjustAll(Map<Long, Integer> deltas, StockChange change) {
+        SortedMap<Long, Integer> sorted = new TreeMap<>();
+        deltas.forEach((id, delta) -> {
+            if (id == null || delta == null) throw new IllegalArgumentException("partId and delta are required");
+            sorted.merge(id, delta, Integer::sum);
+        });
+        if (sorted.isEmpty()) return List.of();
+        // Oczekujące zmiany encji trafiają do bazy przed UPDATE z pominięciem kontekstu
+        em.flush();
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        List<Long> ids = new ArrayList<>(sorted.keySet());
+        SqlParameterSource[] batch = ids.stream()
+                .map(id -> new MapSqlParameterSource()
+                        .addValue("id", id)
+                        .addValue("delta", sorted.get(id))
+                        .addValue("now", now))
+                .toArray(SqlParameterSource[]::new);
+        int[] updated = jdbc.batchUpdate(ADJUST_SQL, batch);
+
+        Map<Long, PartStockLevel> levels = levels(ids);
+        for (int i = 0; i < ids.size(); i++) {
+            if (updated[i] != 0) continue;
+            Long id = ids.get(i);
+            PartStockLevel current = levels.get(id);
+            if (current == null) throw new IllegalArgumentException("Part not found: " + id);
+            throw new InsufficientStockException(id, current.ilosc(), sorted.get(id));
+        }
+
+        refreshManaged(ids);
+        List<PartStockLevel> result = ids.stream().map(levels::get).toList();
+        Map<Long, Integer> balances = new HashMap<>();
+        result.forEach(level -> balances.put(level.partId(), level.ilosc()));
+        ledger.record(sorted, balances, change, now.toLocalDateTime());
+        result.forEach(level -> publisher.publish(PartMapper.changedEvent(this, level.partId(), EventType.UPDATED,
+                List.of("ilosc"), level.kategoria(), null, PartMapper.belowMin(level.ilosc(), level.minIlosc()),
+                level.updatedAt())));
+        return result;
+    }
+
+    /** Zużycie części (partId → ilość zużyta; ujemna = zwrot do magazynu). */
+    @Transactional
+    public List<PartStockLevel> consume(Map<Long, Integer> usage, StockChange change) {
+        Map<Long, Integer> deltas = new HashMap<>();
+        usage.forEach((id, qty) -> {
+            if (qty != null && qty != 0) deltas.put(id, -qty);
+        });
+        return adjustAll(capReturns(deltas, change), change);
+    }
+
+    /** Zwrot do magazynu części z usuniętego zużycia (partId → ilość). */
+    @Transactional
+    public List<PartStockLevel> release(Map<Long, Integer> usage, StockChange change) {
+        Map<Long, Integer> deltas = new HashMap<>();
+        usage.forEach((id, qty) -> {
+            if (qty != null && qty != 0) deltas.put(id, qty);
+        });
+        return adjustAll(capReturns(deltas, change), change);
+    }
+
+    /**
+     * Zwrot do magazynu z raportu najwyżej do tego, co raport wg dziennika pobrał – raporty sprzed
+     * dziennika niczego nie zdjęły ze stanu, więc ich usunięcie lub zmniejszenie zużycia nic nie oddaje.
+     */
+    private Map<Long, Integer> capReturns(Map<Long, Integer> deltas, StockChange change) {
+        if (change.reason() != StockMovementReason.RAPORT || change.raportId() == null) return deltas;
+        List<Long> returned = deltas.entrySet().stream()
+                .filter(e -> e.getValue() > 0).map(Map.Entry::getKey).toList();
+        if (returned.isEmpty()) return deltas;
+        Map<Long, Integer> consumed = ledger.consumedByRaport(change.raportId(), returned);
+        Map<Long, Integer> capped = new HashMap<>(deltas);
+        for (Long id : returned) {
+            int cap = Math.max(0, consumed.getOrDefault(id, 0));
+            if (cap == 0) capped.remove(id);
+            else capped.put(id, Math.min(deltas.get(id), cap));
+        }
+        return capped;
+    }
+
+    private Map<Long, PartStockLevel> levels(List<Long> ids) {
+        Map<Long, PartStockLevel> levels = new HashMap<>();
+        jdbc.query(LEVELS_SQL, Map.of("ids", ids), rs -> {
+            Timestamp updatedAt = rs.getTimestamp("updated_at");
+            levels.put(rs.getLong("id"), new PartStockLevel(
+                    rs.getLong("id"),
+                    rs.getInt("ilosc"),
+                    rs.getObject("min_ilosc", Integer.class),
+                    rs.getString("kategoria"),
+                    updatedAt != null ? updatedAt.toLocalDateTime() : null));
+        });
+        return levels;
+    }
+
+    /**
+     * UPDATE ominął kontekst utrwalania – już wczytane encje Part mają stary stan. Proxy jeszcze
+     * niezainicjowane wczytają się świeże, więc odświeżane są tylko zainicjowane.
+     */
+    private void refreshManaged(List<Long> ids) {
+        Session session = em.unwrap(Session.class);
+        for (Long id : ids) {
+            Part part = session.getReference(Part.class, id);
+            if (Hibernate.isInitialized(part)) session.refresh(part);
+        }
+    }
+}
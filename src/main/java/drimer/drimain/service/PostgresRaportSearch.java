@@ -0,0 +1,53 @@
+package drimer.drimain.service;
+
+import drimer.drimain.model.Raport;
+import drimer.drimain.repository.spec.RaportSpecifications;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Wyszukiwanie raportów na PostgreSQL: LIKE po lower(typ_naprawy)/lower(opis) korzysta z indeksów
+ * GIN pg_trgm (migracja V2), ranking po similarity/word_similarity – typ naprawy waży podwójnie.
+ */
+@Service
+@Profile("postgres")
+public class PostgresRaportSearch implements RaportSearch {
+
+    private static final String SEARCH_SQL = """
+            SELECT r.id FROM raporty r
+            WHERE lower(r.typ_naprawy) LIKE :like ESCAPE '\\' OR lower(r.opis) LIKE :like ESCAPE '\\'
+            ORDER BY greatest(2 * similarity(lower(r.typ_naprawy), :q), word_similarity(:q, lower(r.opis))) DESC,
+                     r.id DESC
+            LIMIT :limit
+            """;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<Long> search(String query, int limit) {
+        String q = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (q.length() < MIN_QUERY_LENGTH) return null;
+        if (limit <= 0) return List.of();
+
+        String like = "%" + q.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        List<?> rows = em.createNativeQuery(SEARCH_SQL)
+                .setParameter("like", like)
+                .setParameter("q", q)
+                .setParameter("limit", limit)
+                .getResultList();
+        return rows.stream().map(id -> ((Number) id).longValue()).toList();
+    }
+
+    /** LIKE po lower(...) trafia w indeksy GIN – lista nie potrzebuje osobnego wyszukiwania. */
+    @Override
+    public Specification<Raport> filter(String query) {
+        return RaportSpecifications.fullText(query);
+    }
+}
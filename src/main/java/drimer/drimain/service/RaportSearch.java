@@ -0,0 +1,25 @@
+package drimer.drimain.service;
+
+import drimer.drimain.model.Raport;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Wyszukiwanie raportów po typNaprawy/opis z semantyką podciągu (jak LIKE '%q%'), od najlepiej
+ * dopasowanych. Profil postgres: indeks GIN pg_trgm; pozostałe (H2): indeks trigramów w pamięci.
+ */
+public interface RaportSearch {
+
+    /** Krótsze zapytanie nie ma pełnego trigramu – żaden indeks nie pomoże. */
+    int MIN_QUERY_LENGTH = 3;
+
+    /**
+     * Id pasujących raportów, od najlepiej dopasowanych; {@code null}, gdy zapytanie jest za krótkie
+     * dla indeksu lub indeks nie jest gotowy – wtedy wywołujący zostaje przy LIKE.
+     */
+    List<Long> search(String query, int limit);
+
+    /** Filtr q dla list (bez rankingu – kolejność wyznacza sortowanie listy). */
+    Specification<Raport> filter(String query);
+}
@@ -0,0 +1,347 @@
+package drimer.drimain.service;
+
+import drimer.drimain.api.dto.RaportDTO;
+import drimer.drimain.events.RaportChangedEvent;
+import drimer.drimain.model.Raport;
+import drimer.drimain.repository.RaportRepository;
+import drimer.drimain.repository.RaportSearchText;
+import drimer.drimain.repository.spec.RaportSpecifications;
+import drimer.drimain.util.PolishTextNormalizer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Indeks trigramów w pamięci po typNaprawy/opis dla wdrożeń na H2 (odpowiednik pg_trgm).
+ * Tekst jest normalizowany jak w {@link PolishTextNormalizer} (bez polskich znaków). Trigramy wybierają
+ * kandydatów, a – jak recheck w pg_trgm – trafieniem jest tylko pole zawierające całe zapytanie
+ * (LIKE '%q%' po znormalizowanym tekście). Ranking: udział trigramów zapytania w trigramach pola
+ * (krótsze pole z pełnym dopasowaniem wyżej), typNaprawy waży podwójnie.
+ * <p>
+ * Budowany przy starcie, aktualizowany przyrostowo z RaportChangedEvent (tekst jest w zdarzeniu).
+ * Usunięte i zastąpione dokumenty są oznaczane, a listy trigramów czyszczone, gdy martwych wpisów
+ * jest więcej niż żywych.
+ */
+@Service
+@Profile("!postgres")
+@Order(20) // po DataInitializer
+@Slf4j
+public class RaportSearchIndex implements RaportSearch, ApplicationRunner {
+
+    private static final int BUILD_BATCH_SIZE = 5000;
+    private static final int MIN_DEAD_FOR_COMPACTION = 10_000;
+    private static final int W_TYP = 2;
+    private static final int W_OPIS = 1;
+
+    /** Bit pola we wpisie listy trigramu: (ordinal << 1) | pole. */
+    private static final int F_OPIS = 0;
+    private static final int F_TYP = 1;
+
+    private final RaportRepository raportRepository;
+    private final Timer buildTimer;
+    private final Timer queryTimer;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Segment segment = new Segment();
+    private volatile boolean ready;
+    private volatile long lastBuildMillis;
+    private volatile LocalDateTime lastBuiltAt;
+
+    /** Zmiany w trakcie przebudowy (pusty Optional = usunięcie) – nakładane na nowy segment przed podmianą. */
+    private final Map<Long, Optional<RaportSearchText>> touchedDuringRebuild = new ConcurrentHashMap<>();
+    private volatile boolean rebuilding;
+
+    public RaportSearchIndex(RaportRepository raportRepository, MeterRegistry meterRegistry) {
+        this.raportRepository = raportRepository;
+        this.buildTimer = Timer.builder("raporty.search.index.build")
+                .description("Czas pełnej przebudowy indeksu trigramów raportów")
+                .register(meterRegistry);
+        this.queryTimer = Timer.builder("raporty.search.query")
+                .description("Czas zapytania do indeksu trigramów raportów")
+                .register(meterRegistry);
+        Gauge.builder("raporty.search.index.documents", this, i -> i.segment.ordinals.size())
+                .register(meterRegistry);
+        Gauge.builder("raporty.search.index.terms", this, i -> i.segment.postings.size())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    /**
+     * Pełna przebudowa: nowy segment budowany obok bieżącego (wyszukiwanie działa dalej),
+     * po czym atomowo podmieniany.
+     */
+    public synchronized void rebuild() {
+        rebuilding = true;
+        touchedDuringRebuild.clear();
+        long start = System.nanoTime();
+
+        Segment fresh = new Segment();
+        long afterId = 0;
+        List<RaportSearchText> batch;
+        do {
+            batch = raportRepository.findSearchTextAfter(afterId, Limit.of(BUILD_BATCH_SIZE));
+            batch.forEach(fresh::add);
+            if (!batch.isEmpty()) afterId = batch.get(batch.size() - 1).id();
+        } while (batch.size() == BUILD_BATCH_SIZE);
+
+        lock.writeLock().lock();
+        try {
+            touchedDuringRebuild.forEach((id, text) -> fresh.replace(id, text.orElse(null)));
+            touchedDuringRebuild.clear();
+            segment = fresh;
+            rebuilding = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        lastBuildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        buildTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        lastBuiltAt = LocalDateTime.now();
+        ready = true;
+        log.info("Zbudowano indeks trigramów raportów: {} dokumentów, {} trigramów w {} ms",
+                fresh.ordinals.size(), fresh.postings.size(), lastBuildMillis);
+    }
+
+    @EventListener
+    public void onRaportChanged(RaportChangedEvent event) {
+        RaportDTO raport = event.getRaport();
+        if (raport == null || raport.getId() == null) return;
+        List<String> changed = event.getChangedFields();
+        if ("UPDATED".equals(event.getAction()) && changed != null && !changed.isEmpty()
+                && !changed.contains("typNaprawy") && !changed.contains("opis")) {
+            return;
+        }
+
+        RaportSearchText text = "DELETED".equals(event.getAction())
+                ? null
+                : new RaportSearchText(raport.getId(), raport.getTypNaprawy(), raport.getOpis());
+        if (rebuilding) touchedDuringRebuild.put(raport.getId(), Optional.ofNullable(text));
+
+        lock.writeLock().lock();
+        try {
+            segment.replace(raport.getId(), text);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Long> search(String query, int limit) {
+        String q = PolishTextNormalizer.squash(query);
+        if (!ready || q.length() < MIN_QUERY_LENGTH) return null;
+        if (limit <= 0) return List.of();
+
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            return segment.search(q, limit);
+        } finally {
+            lock.readLock().unlock();
+            queryTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public Specification<Raport> filter(String query) {
+        if (query != null && !query.isBlank()) {
+            // Wszystkie trafienia – ta sama semantyka niezależnie od ich liczby
+            List<Long> ids = search(query, Integer.MAX_VALUE);
+            if (ids != null) return RaportSpecifications.idIn(ids);
+        }
+        return RaportSpecifications.fullText(query);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int getDocumentCount() {
+        return segment.ordinals.size();
+    }
+
+    public int getTermCount() {
+        return segment.postings.size();
+    }
+
+    public long getLastBuildMillis() {
+        return lastBuildMillis;
+    }
+
+    public LocalDateTime getLastBuiltAt() {
+        return lastBuiltAt;
+    }
+
+    /** Trigramy pola dopełnionego spacjami – początek i koniec tekstu liczą się jak granice słów. */
+    static Set<String> documentTrigrams(String text) {
+        String s = PolishTextNormalizer.squash(text);
+        return s.isEmpty() ? Set.of() : trigrams(" " + s + " ");
+    }
+
+    private static Set<String> trigrams(String s) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= s.length(); i++) {
+            grams.add(s.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /**
+     * Listy trigramów z rosnącymi wpisami (ordinal << 1 | pole) – przecięcie przez scalanie.
+     * Ordinal to kolejny numer dodanego dokumentu; zmiana dokumentu = nowy ordinal, stary martwy.
+     */
+    private static final class Segment {
+        final Map<String, Postings> postings = new HashMap<>();
+        final Map<Long, Integer> ordinals = new HashMap<>();
+        final BitSet dead = new BitSet();
+        long[] ids = new long[1024];
+        String[] typTexts = new String[1024];
+        String[] opisTexts = new String[1024];
+        int[] typTrigrams = new int[1024];
+        int[] opisTrigrams = new int[1024];
+        int size;
+        int deadSinceCompaction;
+
+        void add(RaportSearchText text) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                typTexts = Arrays.copyOf(typTexts, capacity);
+                opisTexts = Arrays.copyOf(opisTexts, capacity);
+                typTrigrams = Arrays.copyOf(typTrigrams, capacity);
+                opisTrigrams = Arrays.copyOf(opisTrigrams, capacity);
+            }
+            int ordinal = size++;
+            Set<String> typ = documentTrigrams(text.typNaprawy());
+            Set<String> opis = documentTrigrams(text.opis());
+            ids[ordinal] = text.id();
+            typTexts[ordinal] = PolishTextNormalizer.squash(text.typNaprawy());
+            opisTexts[ordinal] = PolishTextNormalizer.squash(text.opis());
+            typTrigrams[ordinal] = typ.size();
+            opisTrigrams[ordinal] = opis.size();
+            // Najpierw opis (bit 0), potem typ (bit 1) – listy pozostają rosnące
+            for (String gram : opis) postings.computeIfAbsent(gram, g -> new Postings()).add(ordinal << 1 | F_OPIS);
+            for (String gram : typ) postings.computeIfAbsent(gram, g -> new Postings()).add(ordinal << 1 | F_TYP);
+            ordinals.put(text.id(), ordinal);
+        }
+
+        void replace(Long id, RaportSearchText text) {
+            Integer previous = ordinals.remove(id);
+            if (previous != null) {
+                dead.set(previous);
+                deadSinceCompaction++;
+            }
+            if (text != null) add(text);
+            if (deadSinceCompaction >= MIN_DEAD_FOR_COMPACTION && deadSinceCompaction > ordinals.size()) {
+                compact();
+            }
+        }
+
+        /** @param query zapytanie po {@link PolishTextNormalizer#squash} */
+        List<Long> search(String query, int limit) {
+            Set<String> queryGrams = trigrams(query);
+            List<Postings> lists = new ArrayList<>(queryGrams.size());
+            for (String gram : queryGrams) {
+                Postings p = postings.get(gram);
+                if (p == null) return List.of();
+                lists.add(p);
+            }
+            lists.sort(Comparator.comparingInt(p -> p.size));
+
+            int[] hits = Arrays.copyOf(lists.get(0).entries, lists.get(0).size);
+            int count = hits.length;
+            for (int i = 1; i < lists.size() && count > 0; i++) {
+                count = lists.get(i).retainIn(hits, count);
+            }
+
+            // Najsłabszy z najlepszych na szczycie kopca
+            PriorityQueue<Hit> top = new PriorityQueue<>(Math.min(limit, Math.max(1, count)) + 1, Hit.ORDER);
+            double matched = queryGrams.size();
+            for (int k = 0; k < count; ) {
+                int ordinal = hits[k] >>> 1;
+                double score = 0;
+                for (; k < count && hits[k] >>> 1 == ordinal; k++) {
+                    // Recheck: trigramy rozrzucone po polu ("abc xbcd" dla "abcd") to nie trafienie
+                    if ((hits[k] & 1) == F_TYP) {
+                        if (typTexts[ordinal].contains(query)) score += W_TYP * matched / typTrigrams[ordinal];
+                    } else if (opisTexts[ordinal].contains(query)) {
+                        score += W_OPIS * matched / opisTrigrams[ordinal];
+                    }
+                }
+                if (score == 0 || dead.get(ordinal)) continue;
+                top.add(new Hit(ids[ordinal], score));
+                if (top.size() > limit) top.poll();
+            }
+
+            List<Long> result = new ArrayList<>(top.size());
+            while (!top.isEmpty()) result.add(top.poll().id());
+            Collections.reverse(result);
+            return result;
+        }
+
+        private void compact() {
+            postings.values().removeIf(p -> p.removeDead(dead) == 0);
+            deadSinceCompaction = 0;
+        }
+    }
+
+    private record Hit(long id, double score) {
+        static final Comparator<Hit> ORDER = Comparator.comparingDouble(Hit::score).thenComparingLong(Hit::id);
+    }
+
+    private static final class Postings {
+        int[] entries = new int[4];
+        int size;
+
+        void add(int entry) {
+            if (size == entries.length) entries = Arrays.copyOf(entries, size * 2);
+            entries[size++] = entry;
+        }
+
+        /** Zostawia w {@code hits[0..count)} wpisy obecne na tej liście; zwraca nową liczbę. */
+        int retainIn(int[] hits, int count) {
+            int kept = 0;
+            int j = 0;
+            for (int i = 0; i < count && j < size; ) {
+                if (hits[i] < entries[j]) {
+                    i++;
+                } else if (hits[i] > entries[j]) {
+                    j++;
+                } else {
+                    hits[kept++] = hits[i++];
+                    j++;
+                }
+            }
+            return kept;
+        }
+
+        int removeDead(BitSet dead) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (!dead.get(entries[i] >>> 1)) entries[kept++] = entries[i];
+            }
+            size = kept;
+            if (entries.length > 16 && size < entries.length / 4) entries = Arrays.copyOf(entries, Math.max(4, size * 2));
+            return size;
+        }
+    }
+}
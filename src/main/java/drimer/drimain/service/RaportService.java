@@ -1,16 +1,16 @@
 package drimer.drimain.service;
 
-import drimer.drimain.api.dto.PartUsageDTO;
+import drimer.drimain.api.dto.RaportDTO;
 import drimer.drimain.api.dto.RaportCreateRequest;
 import drimer.drimain.api.dto.RaportUpdateRequest;
-import drimer.drimain.model.Part;
-import drimer.drimain.model.PartUsage;
+import drimer.drimain.api.mapper.RaportMapper;
+import drimer.drimain.events.DomainEventPublisher;
+import drimer.drimain.events.RaportChangedEvent;
 import drimer.drimain.model.Raport;
 import drimer.drimain.model.enums.RaportStatus;
+import drimer.drimain.model.enums.SyncEntityType;
 import drimer.drimain.repository.MaszynaRepository;
 import drimer.drimain.repository.OsobaRepository;
-import drimer.drimain.repository.PartRepository;
-import drimer.drimain.repository.PartUsageRepository;
 import drimer.drimain.repository.RaportRepository;
 import drimer.drimain.util.RaportStatusMapper;
 import jakarta.transaction.Transactional;
@@ -19,6 +19,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -27,15 +28,18 @@ public class RaportService {
     private final RaportRepository raportRepository;
     private final MaszynaRepository maszynaRepository;
     private final OsobaRepository osobaRepository;
-    private final PartRepository partRepository;
-    private final PartUsageRepository partUsageRepository;
+    private final SyncService syncService;
+    private final RaportMapper raportMapper;
+    private final DomainEventPublisher publisher;
+    private final PartStockService partStockService;
 
     @Transactional
     public Raport create(RaportCreateRequest req) {
         Raport r = new Raport();
         applyCreate(r, req);
-        raportRepository.save(r);
-        savePartUsages(r, req.getPartUsages());
+        Map<Long, Integer> consumed = raportMapper.applyPartUsages(r, req.getPartUsages());
+        r = raportRepository.save(r);
+        partStockService.consume(consumed, StockChange.raport(r.getId()));
         return r;
     }
 
@@ -44,12 +48,10 @@ public class RaportService {
         Raport r = raportRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Raport not found"));
         applyUpdate(r, req);
-        raportRepository.save(r);
-        // Reset użyć części – w prostym wariancie kasujemy i dodajemy ponownie
-        if (req.getPartUsages() != null) {
-            partUsageRepository.deleteAll(r.getPartUsages());
-            savePartUsages(r, req.getPartUsages());
-        }
+        // Tylko różnice w liniach części; zapis kaskadowo z raportem, stan magazynu o różnicę zużycia
+        Map<Long, Integer> consumed = raportMapper.applyPartUsages(r, req.getPartUsages());
+        r = raportRepository.save(r);
+        partStockService.consume(consumed, StockChange.raport(r.getId()));
         return r;
     }
 
@@ -62,8 +64,16 @@ public class RaportService {
         return raportRepository.findAll();
     }
 
+    @Transactional
     public void delete(Long id) {
-        raportRepository.deleteById(id);
+        raportRepository.findById(id).ifPresent(r -> {
+            RaportDTO deleted = raportMapper.toDto(r);
+            Map<Long, Integer> usage = RaportMapper.usage(r);
+            raportRepository.delete(r);
+            partStockService.release(usage, StockChange.raport(r.getId()));
+            publisher.publish(new RaportChangedEvent(this, deleted, "DELETED", List.of(), RaportMapper.version(r), null, null));
+        });
+        syncService.recordDeletion(SyncEntityType.RAPORT, id);
     }
 
     /* ================== PRIVATE ================== */
@@ -107,17 +117,4 @@ public class RaportService {
         if (req.getOsobaId() != null)
             r.setOsoba(osobaRepository.findById(req.getOsobaId()).orElse(null));
     }
-
-    private void savePartUsages(Raport raport, List<PartUsageDTO> partUsages) {
-        if (partUsages == null || partUsages.isEmpty()) return;
-        for (PartUsageDTO dto : partUsages) {
-            Part part = partRepository.findById(dto.getPartId())
-                    .orElseThrow(() -> new IllegalArgumentException("Part not found: " + dto.getPartId()));
-            PartUsage pu = new PartUsage();
-            pu.setRaport(raport);
-            pu.setPart(part);
-            pu.setIlosc(dto.getIlosc());
-            partUsageRepository.save(pu);
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,103 @@
+package drimer.drimain.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import drimer.drimain.api.dto.EntityChangeDTO;
+import drimer.drimain.api.dto.RaportDTO;
+import drimer.drimain.api.mapper.RaportMapper;
+import drimer.drimain.events.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Wspólna szyna zdarzeń czasu rzeczywistego. Zdarzenia zgłoszeń, raportów, harmonogramów i części
+ * (po commit, także z innych węzłów przez outbox) są sprowadzane do {@link EntityChangedEvent},
+ * serializowane raz do {@link EntityChangeDTO} i przekazywane wszystkim {@link RealtimeTransport}.
+ * Filtrowanie po typie encji i atrybutach jest wspólne ({@link RealtimeFilter} / tematy STOMP
+ * z tych samych atrybutów), więc klient wybiera transport, nie zakres danych.
+ * <p>
+ * Dotychczasowe kanały (/api/zgloszenia/stream z odtwarzaniem i scalaniem, /topic/raporty/**) działają
+ * bez zmian.
+ */
+@Component
+@Slf4j
+public class RealtimeEventBus {
+
+    private final ObjectMapper objectMapper;
+    private final List<RealtimeTransport> transports;
+
+    public RealtimeEventBus(ObjectMapper objectMapper, List<RealtimeTransport> transports) {
+        this.objectMapper = objectMapper;
+        this.transports = transports;
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        publish(event);
+    }
+
+    @EventListener
+    public void onZgloszenieEvent(ZgloszenieDomainEvent event) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        ZgloszenieSnapshot snapshot = event.getSnapshot();
+        if (snapshot != null) {
+            put(attributes, "dzialId", snapshot.dzialId());
+            put(attributes, "autorId", snapshot.autorId());
+            put(attributes, "status", snapshot.status());
+            put(attributes, "priorytet", snapshot.priorytet());
+        }
+        put(attributes, "attachmentId", event.getAttachmentId());
+        publish(new EntityChangedEvent(event.getSource(), EntityType.ZGLOSZENIE, event.getType(),
+                event.getZgloszenieId(), event.getChangedFields(), null, attributes, Map.of(),
+                event.getEventTimestamp()));
+    }
+
+    @EventListener
+    public void onRaportChanged(RaportChangedEvent event) {
+        RaportDTO raport = event.getRaport();
+        Map<String, String> attributes = new LinkedHashMap<>();
+        put(attributes, "maszynaId", RaportMapper.maszynaId(raport));
+        put(attributes, "status", raport != null ? raport.getStatus() : null);
+        Map<String, String> previous = new LinkedHashMap<>();
+        if (event.getPreviousMaszynaId() != null) put(previous, "maszynaId", event.getPreviousMaszynaId());
+        if (event.getPreviousStatus() != null) put(previous, "status", event.getPreviousStatus());
+        previous.entrySet().removeIf(e -> e.getValue().equals(attributes.get(e.getKey())));
+
+        publish(new EntityChangedEvent(event.getSource(), EntityType.RAPORT, EventType.valueOf(event.getAction()),
+                raport != null ? raport.getId() : null, event.getChangedFields(), event.getVersion(), attributes,
+                previous, LocalDateTime.now()));
+    }
+
+    void publish(EntityChangedEvent change) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(new EntityChangeDTO(change.getEntity(), change.getAction(),
+                    change.getEntityId(), change.getChangedFields(), change.getVersion(), change.getAttributes(),
+                    change.getEventTimestamp()));
+        } catch (JsonProcessingException e) {
+            log.error("Cannot serialize {} change {}", change.getEntity(), change.getEntityId(), e);
+            return;
+        }
+        RealtimeMessage message = new RealtimeMessage(change, json);
+        for (RealtimeTransport transport : transports) {
+            try {
+                transport.publish(message);
+            } catch (RuntimeException e) {
+                // Awaria jednego transportu nie może zablokować pozostałych
+                log.warn("Realtime transport {} failed for {} {}", transport.getClass().getSimpleName(),
+                        change.getEntity(), change.getEntityId(), e);
+            }
+        }
+    }
+
+    private static void put(Map<String, String> attributes, String name, Object value) {
+        if (value != null) attributes.put(name, Objects.toString(value));
+    }
+}
@@ -0,0 +1,47 @@
+package drimer.drimain.service;
+
+import drimer.drimain.events.EntityChangedEvent;
+import drimer.drimain.events.EntityType;
+import drimer.drimain.events.EventType;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Filtr subskrypcji wspólnego strumienia: typy encji i akcje (puste = wszystkie) oraz wymagane wartości
+ * atrybutów. Atrybut pasuje, gdy zgadza się wartość bieżąca albo sprzed zmiany.
+ */
+public record RealtimeFilter(Set<EntityType> entities, Set<EventType> actions, Map<String, String> attributes) {
+
+    /** Atrybuty, po których można filtrować; inne nazwy to błąd klienta. */
+    public static final Set<String> ATTRIBUTES = Set.of("dzialId", "autorId", "maszynaId", "osobaId", "status",
+            "kategoria", "belowMin");
+
+    public RealtimeFilter(Set<EntityType> entities, Map<String, String> attributes) {
+        this(entities, Set.of(), attributes);
+    }
+
+    public RealtimeFilter {
+        entities = entities != null ? Set.copyOf(entities) : Set.of();
+        actions = actions != null ? Set.copyOf(actions) : Set.of();
+        attributes = attributes != null ? Map.copyOf(attributes) : Map.of();
+        for (String name : attributes.keySet()) {
+            if (!ATTRIBUTES.contains(name)) {
+                throw new IllegalArgumentException("Unknown filter attribute: " + name);
+            }
+        }
+    }
+
+    public boolean matches(EntityChangedEvent change) {
+        if (!entities.isEmpty() && !entities.contains(change.getEntity())) return false;
+        if (!actions.isEmpty() && !actions.contains(change.getAction())) return false;
+        for (Map.Entry<String, String> required : attributes.entrySet()) {
+            String value = required.getValue();
+            if (!value.equals(change.getAttributes().get(required.getKey()))
+                    && !value.equals(change.getPreviousAttributes().get(required.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,8 @@
+package drimer.drimain.service;
+
+import drimer.drimain.events.EntityChangedEvent;
+
+/**
+ * Zdarzenie szyny razem z jego jedyną serializacją (JSON {@link drimer.drimain.api.dto.EntityChangeDTO}).
+ */
+public record RealtimeMessage(EntityChangedEvent change, String json) {}
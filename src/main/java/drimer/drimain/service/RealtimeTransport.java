@@ -0,0 +1,10 @@
+package drimer.drimain.service;
+
+/**
+ * Kanał dostarczania zdarzeń z {@link RealtimeEventBus} do klientów (SSE, STOMP). Wiadomość przychodzi
+ * już zserializowana; transport tylko wybiera odbiorców i wysyła, nie może blokować wywołującego.
+ */
+public interface RealtimeTransport {
+
+    void publish(RealtimeMessage message);
+}
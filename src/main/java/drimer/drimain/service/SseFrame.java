@@ -0,0 +1,58 @@
+package drimer.drimain.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Gotowa ramka SSE ("id:/event:/data:" zakończona pustą linią) zakodowana raz do UTF-8.
+ * Ta sama niezmienna instancja jest wysyłana do wszystkich subskrybentów – byte[] przechodzi
+ * przez ByteArrayHttpMessageConverter bez ponownej serializacji.
+ */
+final class SseFrame {
+
+    private final byte[] bytes;
+    private final Set<DataWithMediaType> items;
+
+    private SseFrame(byte[] bytes) {
+        this.bytes = bytes;
+        this.items = Set.of(new DataWithMediaType(bytes, MediaType.TEXT_PLAIN));
+    }
+
+    /**
+     * @param data String wysyłany wprost, inne obiekty jako JSON
+     */
+    static SseFrame encode(ObjectMapper objectMapper, Long id, String name, Object data) {
+        StringBuilder sb = new StringBuilder(128);
+        if (id != null) sb.append("id:").append(id).append('\n');
+        if (name != null) sb.append("event:").append(name).append('\n');
+
+        String payload;
+        try {
+            payload = data instanceof String s ? s : objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize SSE event " + name, e);
+        }
+        // Wieloliniowe dane – każda linia jako osobne "data:"
+        sb.append("data:").append(payload.replace("\n", "\ndata:")).append("\n\n");
+        return new SseFrame(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Argument dla {@link org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter#send(Set)}. */
+    Set<DataWithMediaType> items() {
+        return items;
+    }
+
+    int size() {
+        return bytes.length;
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,96 @@
+package drimer.drimain.service;
+
+import drimer.drimain.api.dto.SseStatsDTO.LatencyStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mierniki strumienia SSE (prefiks "sse."). Te same wartości zwraca /api/zgloszenia/stream/stats.
+ */
+class SseMetrics {
+
+    final Counter eventsPublished;
+    final Counter messagesSent;
+    final Counter droppedOldest;
+    final Counter droppedCoalesced;
+    final Counter droppedDispatcherFull;
+    final Counter slowConsumerDisconnects;
+    final Counter idleDisconnects;
+    final Counter reconnects;
+    final Counter resyncs;
+    final Timer serialization;
+    final Timer write;
+    final Timer deliveryLag;
+    final Timer subscriptionDuration;
+
+    SseMetrics(MeterRegistry registry) {
+        eventsPublished = Counter.builder("sse.events.published")
+                .description("Zdarzenia rozłożone do kolejek subskrybentów (po scaleniu)")
+                .register(registry);
+        messagesSent = Counter.builder("sse.messages.sent")
+                .description("Wiadomości zapisane do klientów, z heartbeatami")
+                .register(registry);
+        droppedOldest = dropped(registry, "drop_oldest");
+        droppedCoalesced = dropped(registry, "coalesced");
+        droppedDispatcherFull = dropped(registry, "dispatcher_full");
+        slowConsumerDisconnects = disconnects(registry, "slow_consumer");
+        idleDisconnects = disconnects(registry, "idle");
+        reconnects = Counter.builder("sse.reconnects")
+                .description("Połączenia wznowione z Last-Event-ID")
+                .register(registry);
+        resyncs = Counter.builder("sse.resyncs")
+                .description("Wznowienia, których nie dało się odtworzyć z bufora (RESYNC)")
+                .register(registry);
+        serialization = latency(registry, "sse.serialization", "Serializacja zdarzenia do ramki SSE");
+        write = latency(registry, "sse.write", "Zapis jednej ramki do połączenia");
+        deliveryLag = latency(registry, "sse.delivery.lag", "Od utworzenia zdarzenia (przed commit) do zapisu u klienta");
+        subscriptionDuration = Timer.builder("sse.subscription.duration")
+                .description("Czas życia zakończonych subskrypcji")
+                .publishPercentiles(0.5, 0.95)
+                .register(registry);
+    }
+
+    long dropped() {
+        return (long) (droppedOldest.count() + droppedCoalesced.count() + droppedDispatcherFull.count());
+    }
+
+    static LatencyStats snapshot(Timer timer) {
+        HistogramSnapshot s = timer.takeSnapshot();
+        return new LatencyStats(s.count(), s.mean(TimeUnit.MILLISECONDS), s.max(TimeUnit.MILLISECONDS),
+                percentile(s, 0.5), percentile(s, 0.95), percentile(s, 0.99));
+    }
+
+    private static double percentile(HistogramSnapshot snapshot, double p) {
+        for (ValueAtPercentile v : snapshot.percentileValues()) {
+            if (v.percentile() == p) return v.value(TimeUnit.MILLISECONDS);
+        }
+        return Double.NaN;
+    }
+
+    private static Counter dropped(MeterRegistry registry, String reason) {
+        return Counter.builder("sse.messages.dropped")
+                .description("Wiadomości odrzucone przed wysłaniem")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    private static Counter disconnects(MeterRegistry registry, String reason) {
+        return Counter.builder("sse.disconnects")
+                .description("Połączenia zamknięte przez serwer")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    private static Timer latency(MeterRegistry registry, String name, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
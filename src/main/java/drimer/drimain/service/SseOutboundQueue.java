@@ -0,0 +1,87 @@
+package drimer.drimain.service;
+
+import drimer.drimain.config.SseProperties.SlowConsumerPolicy;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Ograniczona kolejka zdarzeń czekających na wysłanie do jednego klienta SSE.
+ * Przepełnienie obsługiwane wg {@link SlowConsumerPolicy} – zapis nigdy nie blokuje wydawcy.
+ */
+class SseOutboundQueue {
+
+    /**
+     * Pojedyncza wiadomość SSE; coalesceKey (id zgłoszenia) służy do scalania przy COALESCE,
+     * id trafia do pola "id:" strumienia (null – bez id, np. HEARTBEAT).
+     * frame to gotowe bajty do wysłania, współdzielone przez wszystkich odbiorców.
+     */
+    record Message(String name, Object data, Long coalesceKey, Long id, SseFrame frame) {}
+
+    enum OfferResult { ACCEPTED, DROPPED_OLDEST, COALESCED, OVERFLOW }
+
+    private final Deque<Message> messages = new ArrayDeque<>();
+    private final int capacity;
+    private final SlowConsumerPolicy policy;
+
+    SseOutboundQueue(int capacity, SlowConsumerPolicy policy) {
+        this.capacity = Math.max(1, capacity);
+        this.policy = policy;
+    }
+
+    /**
+     * @return OVERFLOW tylko dla polityki DISCONNECT – wywołujący zamyka połączenie
+     */
+    synchronized OfferResult offer(Message message) {
+        if (messages.size() < capacity) {
+            messages.addLast(message);
+            return OfferResult.ACCEPTED;
+        }
+        switch (policy) {
+            case DISCONNECT:
+                return OfferResult.OVERFLOW;
+            case COALESCE:
+                if (replacePending(message)) return OfferResult.COALESCED;
+                // brak zdarzenia do scalenia – jak DROP_OLDEST
+            default:
+                messages.pollFirst();
+                messages.addLast(message);
+                return OfferResult.DROPPED_OLDEST;
+        }
+    }
+
+    /** Pobiera do max wiadomości w kolejności dodania. */
+    synchronized List<Message> drain(int max) {
+        List<Message> batch = new ArrayList<>(Math.min(max, messages.size()));
+        Message m;
+        while (batch.size() < max && (m = messages.pollFirst()) != null) {
+            batch.add(m);
+        }
+        return batch;
+    }
+
+    synchronized boolean isEmpty() {
+        return messages.isEmpty();
+    }
+
+    synchronized int size() {
+        return messages.size();
+    }
+
+    /** Najnowsza wersja zajmuje miejsce poprzedniej – kolejność względem innych zgłoszeń zostaje. */
+    private boolean replacePending(Message message) {
+        if (message.coalesceKey() == null) return false;
+        List<Message> pending = new ArrayList<>(messages);
+        for (int i = pending.size() - 1; i >= 0; i--) {
+            if (message.coalesceKey().equals(pending.get(i).coalesceKey())) {
+                pending.set(i, message);
+                messages.clear();
+                messages.addAll(pending);
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,71 @@
+package drimer.drimain.service;
+
+import drimer.drimain.events.ZgloszenieDomainEvent;
+import drimer.drimain.service.SseOutboundQueue.Message;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pierścień ostatnich zdarzeń SSE do odtworzenia po ponownym połączeniu (Last-Event-ID).
+ * Id są kolejne, więc pozycja w pierścieniu to id % pojemność. Bez synchronizacji – chroni go
+ * blokada w {@link SseSubscriptionService}.
+ */
+class SseReplayBuffer {
+
+    record Entry(long id, ZgloszenieDomainEvent event, Message message, Audience audience) {}
+
+    /** Kto dostaje zdarzenie: UPDATED idzie osobno do subskrypcji bez scalania i ze scalaniem. */
+    enum Audience {
+        ALL, RAW, COALESCED;
+
+        boolean accepts(boolean coalescing) {
+            return this == ALL || (this == COALESCED) == coalescing;
+        }
+    }
+
+    private final Entry[] ring;
+    private int size;
+    private long lastId;
+
+    /**
+     * @param startId id "sprzed pierwszego zdarzenia"; kolejne zdarzenia dostają startId + 1, + 2...
+     */
+    SseReplayBuffer(int capacity, long startId) {
+        this.ring = new Entry[Math.max(1, capacity)];
+        this.lastId = startId;
+    }
+
+    long lastId() {
+        return lastId;
+    }
+
+    long nextId() {
+        return lastId + 1;
+    }
+
+    void add(Entry entry) {
+        if (entry.id() != lastId + 1) {
+            throw new IllegalArgumentException("Non-sequential SSE event id " + entry.id() + " after " + lastId);
+        }
+        ring[(int) (entry.id() % ring.length)] = entry;
+        lastId = entry.id();
+        size = Math.min(size + 1, ring.length);
+    }
+
+    /**
+     * Zdarzenia po id {@code since}, od najstarszego.
+     *
+     * @return null, gdy luki nie da się uzupełnić (starsza niż bufor albo id z innego uruchomienia serwera)
+     */
+    List<Entry> after(long since) {
+        if (since > lastId || lastId - since > size) {
+            return null;
+        }
+        List<Entry> result = new ArrayList<>((int) (lastId - since));
+        for (long id = since + 1; id <= lastId; id++) {
+            result.add(ring[(int) (id % ring.length)]);
+        }
+        return result;
+    }
+}
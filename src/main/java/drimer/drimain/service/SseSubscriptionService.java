@@ -1,37 +1,111 @@
 package drimer.drimain.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import drimer.drimain.api.dto.SseStatsDTO;
 import drimer.drimain.api.dto.ZgloszenieEventDTO;
 import drimer.drimain.config.SseProperties;
 import drimer.drimain.events.EventType;
 import drimer.drimain.events.ZgloszenieDomainEvent;
-import lombok.RequiredArgsConstructor;
+import drimer.drimain.events.ZgloszenieSnapshot;
+import drimer.drimain.service.SseOutboundQueue.Message;
+import drimer.drimain.service.SseOutboundQueue.OfferResult;
+import drimer.drimain.service.SseReplayBuffer.Audience;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Subskrypcje SSE zgłoszeń (indeks po typie/dziale/autorze, odtwarzanie po Last-Event-ID, scalanie UPDATED)
+ * i transport SSE szyny {@link RealtimeEventBus}; wspólne kolejki per klient, dispatcher i wątki zapisujące.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
-public class SseSubscriptionService {
+public class SseSubscriptionService implements RealtimeTransport {
+
+    /** Ile wiadomości wątek zapisujący wysyła jednemu klientowi, zanim odda wątek innym. */
+    private static final int DRAIN_BATCH = 32;
 
     private final SseProperties sseProperties;
-    private final Map<String, SseEmitter> subscriptions = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final Message heartbeat;
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
     private final Map<String, SubscriptionInfo> subscriptionInfo = new ConcurrentHashMap<>();
+    private final Map<FilterKey, Set<String>> index = new ConcurrentHashMap<>();
+    private final Map<String, Subscription> realtimeSubscriptions = new ConcurrentHashMap<>();
+
+    /** Chroni bufor i kolejność: nadanie id + rozesłanie vs. rejestracja subskrypcji z odtworzeniem. */
+    private final Object dispatchLock = new Object();
+    private final SseReplayBuffer replayBuffer;
+    private final SseUpdateCoalescer coalescer;
+
+    private final ExecutorService dispatcher;
+    private final ExecutorService writers;
+    private final ScheduledExecutorService timer;
+    private final SseTimingWheel<Subscription> timingWheel;
+    private final SseMetrics metrics;
+
+    public SseSubscriptionService(SseProperties sseProperties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.sseProperties = sseProperties;
+        this.objectMapper = objectMapper;
+        this.metrics = new SseMetrics(meterRegistry);
+        this.heartbeat = message("HEARTBEAT", "ping", null, null);
+        this.replayBuffer = new SseReplayBuffer(sseProperties.getReplayBufferSize(), System.currentTimeMillis() * 1000);
+        this.dispatcher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, sseProperties.getDispatcherQueueCapacity())),
+                daemonThreads("sse-dispatcher-"),
+                (task, executor) -> {
+                    metrics.droppedDispatcherFull.increment();
+                    log.warn("SSE dispatcher queue full, event not delivered live");
+                    throw new RejectedExecutionException("SSE dispatcher queue full");
+                });
+        this.writers = Executors.newFixedThreadPool(Math.max(1, sseProperties.getWriterThreads()),
+                daemonThreads("sse-writer-"));
+        this.coalescer = new SseUpdateCoalescer(sseProperties.getCoalesceWindowMs());
+        this.timer = Executors.newSingleThreadScheduledExecutor(daemonThreads("sse-timer-"));
+        this.timingWheel = new SseTimingWheel<>(sseProperties.getTimerTickMillis(), sseProperties.getTimerWheelSize(),
+                System.currentTimeMillis());
+        timer.scheduleAtFixedRate(this::onTimerTick, sseProperties.getTimerTickMillis(),
+                sseProperties.getTimerTickMillis(), TimeUnit.MILLISECONDS);
+
+        Gauge.builder("sse.subscriptions.active", subscriptions, Map::size)
+                .description("Aktywne połączenia SSE")
+                .register(meterRegistry);
+        Gauge.builder("sse.queue.depth", this, SseSubscriptionService::getQueuedMessageCount)
+                .description("Wiadomości czekające w kolejkach wszystkich subskrybentów")
+                .register(meterRegistry);
+    }
 
     public SseEmitter subscribe(Set<EventType> eventTypes, Long dzialId, Long autorId, boolean full) {
+        return subscribe(eventTypes, dzialId, autorId, full, null, null);
+    }
+
+    /**
+     * @param lastEventId id ostatniego zdarzenia odebranego przed zerwaniem połączenia (nagłówek Last-Event-ID)
+     * @param coalesce    scalać UPDATED tego samego zgłoszenia; null = app.sse.coalesce-by-default
+     */
+    public SseEmitter subscribe(Set<EventType> eventTypes, Long dzialId, Long autorId, boolean full,
+                                Long lastEventId, Boolean coalesce) {
         if (subscriptions.size() >= sseProperties.getMaxClients()) {
             throw new IllegalStateException("Maximum number of SSE clients reached");
         }
 
         String subscriptionId = UUID.randomUUID().toString();
-        SseEmitter emitter = new SseEmitter(sseProperties.getClientTimeoutSeconds() * 1000);
+        // Bez limitu kontenera – bezczynność sprawdza koło czasowe (0 = brak timeoutu async)
+        SseEmitter emitter = new SseEmitter(0L);
 
         // Configure emitter callbacks
         emitter.onCompletion(() -> removeSubscription(subscriptionId));
@@ -39,32 +113,145 @@ public class SseSubscriptionService {
         emitter.onError(e -> removeSubscription(subscriptionId));
 
         // Store subscription
-        subscriptions.put(subscriptionId, emitter);
-        subscriptionInfo.put(subscriptionId, new SubscriptionInfo(
-                eventTypes, dzialId, autorId, full, LocalDateTime.now()
-        ));
+        boolean coalescing = coalescingEnabled()
+                && (coalesce != null ? coalesce : sseProperties.isCoalesceByDefault());
+        Subscription subscription = new Subscription(subscriptionId, emitter, new SseOutboundQueue(
+                sseProperties.getQueueCapacity(), sseProperties.getSlowConsumerPolicy()), coalescing, null);
+        SubscriptionInfo info = new SubscriptionInfo(eventTypes, dzialId, autorId, full, LocalDateTime.now());
+        synchronized (dispatchLock) {
+            subscriptions.put(subscriptionId, subscription);
+            subscriptionInfo.put(subscriptionId, info);
+            // compute() atomowo względem usuwania pustych kubełków w removeSubscription
+            info.keys().forEach(key -> index.compute(key, (k, ids) -> {
+                Set<String> bucket = ids != null ? ids : ConcurrentHashMap.<String>newKeySet();
+                bucket.add(subscriptionId);
+                return bucket;
+            }));
 
-        try {
-            // Send initial event
-            ZgloszenieEventDTO initEvent = new ZgloszenieEventDTO(
-                    null, null, LocalDateTime.now(), Collections.emptyList(), null
-            );
-            initEvent.setType(null); // Special INIT event marker
-            emitter.send(SseEmitter.event()
-                    .name("INIT")
-                    .data(initEvent)
-            );
-        } catch (IOException e) {
-            log.warn("Failed to send initial event to subscription {}", subscriptionId, e);
-            removeSubscription(subscriptionId);
+            if (lastEventId == null) {
+                // Nowy klient: INIT z bieżącym id – od niego liczy się ewentualne wznowienie
+                enqueue(subscription, message("INIT", markerEvent(), null, replayBuffer.lastId()));
+            } else {
+                metrics.reconnects.increment();
+                enqueue(subscription, message("INIT", markerEvent(), null, null));
+                replay(subscription, info, lastEventId);
+            }
         }
 
+        timingWheel.schedule(subscription, System.currentTimeMillis() + heartbeatMillis());
+
         log.debug("SSE subscription {} created. Active subscriptions: {}", subscriptionId, subscriptions.size());
         return emitter;
     }
 
+    /**
+     * Subskrypcja wspólnego strumienia zdarzeń wszystkich encji (transport SSE szyny).
+     */
+    public SseEmitter subscribeEvents(RealtimeFilter filter) {
+        if (subscriptions.size() >= sseProperties.getMaxClients()) {
+            throw new IllegalStateException("Maximum number of SSE clients reached");
+        }
+
+        String subscriptionId = UUID.randomUUID().toString();
+        SseEmitter emitter = new SseEmitter(0L);
+        emitter.onCompletion(() -> removeSubscription(subscriptionId));
+        emitter.onTimeout(() -> removeSubscription(subscriptionId));
+        emitter.onError(e -> removeSubscription(subscriptionId));
+
+        Subscription subscription = new Subscription(subscriptionId, emitter, new SseOutboundQueue(
+                sseProperties.getQueueCapacity(), sseProperties.getSlowConsumerPolicy()), false, filter);
+        subscriptions.put(subscriptionId, subscription);
+        realtimeSubscriptions.put(subscriptionId, subscription);
+        enqueue(subscription, message("INIT", "{}", null, null));
+        timingWheel.schedule(subscription, System.currentTimeMillis() + heartbeatMillis());
+
+        log.debug("SSE event stream subscription {} created ({})", subscriptionId, filter);
+        return emitter;
+    }
+
+    /**
+     * Zdarzenie szyny – JSON jest już gotowy, tu powstaje tylko ramka (raz, przy pierwszym pasującym
+     * subskrybencie). Nazwa zdarzenia SSE = typ encji.
+     */
+    @Override
+    public void publish(RealtimeMessage realtimeMessage) {
+        if (realtimeSubscriptions.isEmpty()) {
+            return;
+        }
+        try {
+            dispatcher.execute(() -> {
+                Message message = null;
+                for (Subscription subscription : realtimeSubscriptions.values()) {
+                    if (!subscription.filter.matches(realtimeMessage.change())) continue;
+                    if (message == null) {
+                        message = message(realtimeMessage.change().getEntity().name(), realtimeMessage.json(), null, null);
+                    }
+                    enqueue(subscription, message);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // strumień szyny nie ma odtwarzania – zdarzenie policzone w droppedDispatcherFull
+        }
+    }
+
+    /**
+     * Wywoływany przez DomainEventPublisher po commit – tylko przekazuje zdarzenie dalej. Przy pełnej
+     * kolejce dispatchera zdarzenie trafia jeszcze do bufora odtwarzania (klient zobaczy lukę w id
+     * i odzyska je przez Last-Event-ID).
+     */
     @EventListener
     public void onZgloszenieEvent(ZgloszenieDomainEvent event) {
+        try {
+            dispatcher.execute(() -> {
+                synchronized (dispatchLock) {
+                    if (!coalescingEnabled()) {
+                        emit(event, Audience.ALL);
+                    } else if (event.getType() == EventType.UPDATED) {
+                        emit(event, Audience.RAW);
+                        if (coalescer.add(event, System.nanoTime())) {
+                            scheduleFlush();
+                        }
+                    } else {
+                        if (event.getType() == EventType.DELETED) coalescer.discard(event.getZgloszenieId());
+                        emit(event, Audience.ALL);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            synchronized (dispatchLock) {
+                record(event, Audience.ALL);
+            }
+        }
+    }
+
+    /** Opróżnienie scalonych UPDATED po oknie; odrzucone przez dispatcher – ponawiane, żeby klucze nie utknęły. */
+    private void scheduleFlush() {
+        timer.schedule(() -> {
+            try {
+                dispatcher.execute(this::flushCoalesced);
+            } catch (RejectedExecutionException e) {
+                if (!dispatcher.isShutdown()) scheduleFlush();
+            }
+        }, sseProperties.getCoalesceWindowMs(), TimeUnit.MILLISECONDS);
+    }
+
+    private void flushCoalesced() {
+        synchronized (dispatchLock) {
+            coalescer.takeDue(System.nanoTime()).forEach(merged -> emit(merged, Audience.COALESCED));
+        }
+    }
+
+    /** Nadaje id, zapisuje w buforze odtwarzania i rozkłada do kolejek pasujących subskrybentów. */
+    private void emit(ZgloszenieDomainEvent event, Audience audience) {
+        Message message = record(event, audience);
+        for (String subscriptionId : matchingSubscriptions(event)) {
+            Subscription subscription = subscriptions.get(subscriptionId);
+            if (subscription != null && audience.accepts(subscription.coalescing)) enqueue(subscription, message);
+        }
+    }
+
+    /** Nadaje id i zapisuje w buforze odtwarzania (pod dispatchLock). */
+    private Message record(ZgloszenieDomainEvent event, Audience audience) {
         ZgloszenieEventDTO eventDto = new ZgloszenieEventDTO(
                 event.getType(),
                 event.getZgloszenieId(),
@@ -72,80 +259,199 @@ public class SseSubscriptionService {
                 event.getChangedFields(),
                 event.getAttachmentId()
         );
+        Message message = message(event.getType().name(), eventDto, event.getZgloszenieId(),
+                replayBuffer.nextId());
+        replayBuffer.add(new SseReplayBuffer.Entry(message.id(), event, message, audience));
+        metrics.eventsPublished.increment();
+        return message;
+    }
 
-        List<String> failedSubscriptions = new ArrayList<>();
-
-        subscriptions.entrySet().parallelStream().forEach(entry -> {
-            String subscriptionId = entry.getKey();
-            SseEmitter emitter = entry.getValue();
-            SubscriptionInfo info = subscriptionInfo.get(subscriptionId);
-
-            if (info != null && shouldSendEvent(event, info)) {
-                try {
-                    emitter.send(SseEmitter.event()
-                            .name(event.getType().name())
-                            .data(eventDto)
-                    );
-                } catch (IOException e) {
-                    log.warn("Failed to send event to subscription {}", subscriptionId, e);
-                    synchronized (failedSubscriptions) {
-                        failedSubscriptions.add(subscriptionId);
-                    }
-                }
-            }
-        });
+    private boolean coalescingEnabled() {
+        return sseProperties.getCoalesceWindowMs() > 0;
+    }
 
-        // Clean up failed subscriptions
-        failedSubscriptions.forEach(this::removeSubscription);
+    /** Tick koła: tylko subskrypcje, których termin właśnie minął. */
+    private void onTimerTick() {
+        try {
+            long now = System.currentTimeMillis();
+            for (Subscription subscription : timingWheel.advance(now)) {
+                if (subscriptions.containsKey(subscription.id)) checkIdle(subscription, now);
+            }
+        } catch (RuntimeException e) {
+            // wyjątek zatrzymałby scheduleAtFixedRate
+            log.warn("SSE timer tick failed", e);
+        }
     }
 
-    @Scheduled(fixedDelayString = "#{sseProperties.heartbeatIntervalSeconds * 1000}")
-    public void sendHeartbeat() {
-        if (subscriptions.isEmpty()) {
+    private void checkIdle(Subscription subscription, long now) {
+        long idle = now - subscription.lastWriteMillis;
+        if (idle >= sseProperties.getClientTimeoutSeconds() * 1000) {
+            log.info("SSE subscription {} idle for {} ms, closing", subscription.id, idle);
+            metrics.idleDisconnects.increment();
+            removeSubscription(subscription.id);
+            subscription.emitter.complete();
+            return;
+        }
+        if (idle < heartbeatMillis()) {
+            // Coś wysłano w międzyczasie – następny termin liczony od ostatniego zapisu
+            timingWheel.schedule(subscription, subscription.lastWriteMillis + heartbeatMillis());
             return;
         }
+        // Niepusta kolejka = zapis w toku albo zablokowany; heartbeat niczego by nie zmienił
+        if (subscription.queue.isEmpty()) enqueue(subscription, heartbeat);
+        timingWheel.schedule(subscription, now + heartbeatMillis());
+    }
+
+    private long heartbeatMillis() {
+        return sseProperties.getHeartbeatIntervalSeconds() * 1000;
+    }
 
-        List<String> failedSubscriptions = new ArrayList<>();
-        
-        subscriptions.entrySet().parallelStream().forEach(entry -> {
-            String subscriptionId = entry.getKey();
-            SseEmitter emitter = entry.getValue();
+    /**
+     * Id subskrypcji pasujących do zdarzenia. Każda subskrypcja leży w dokładnie jednym kubełku
+     * na kombinację (typ, dzial, autor), więc wyniki się nie powtarzają.
+     * Zdarzenie bez snapshotu trafia tylko do subskrypcji bez filtra dzialId/autorId.
+     */
+    List<String> matchingSubscriptions(ZgloszenieDomainEvent event) {
+        ZgloszenieSnapshot snapshot = event.getSnapshot();
+        Long dzialId = snapshot != null ? snapshot.dzialId() : null;
+        Long autorId = snapshot != null ? snapshot.autorId() : null;
 
-            try {
-                emitter.send(SseEmitter.event()
-                        .name("HEARTBEAT")
-                        .data("ping")
-                );
-            } catch (IOException e) {
-                log.debug("Heartbeat failed for subscription {}", subscriptionId, e);
-                synchronized (failedSubscriptions) {
-                    failedSubscriptions.add(subscriptionId);
+        List<String> result = new ArrayList<>();
+        for (EventType type : alternatives(event.getType())) {
+            for (Long d : alternatives(dzialId)) {
+                for (Long a : alternatives(autorId)) {
+                    Set<String> bucket = index.get(new FilterKey(type, d, a));
+                    if (bucket != null) result.addAll(bucket);
                 }
             }
-        });
+        }
+        return result;
+    }
+
+    /** Wartość konkretna oraz null ("dowolny"); dla null tylko null. */
+    private static <T> List<T> alternatives(T value) {
+        return value == null ? Collections.singletonList(null) : Arrays.asList(value, null);
+    }
+
+    /**
+     * Odtwarza zdarzenia po lastEventId pasujące do filtra subskrypcji. Gdy luka jest za duża
+     * (albo nie zmieści się w kolejce klienta) – RESYNC z bieżącym id.
+     */
+    private void replay(Subscription subscription, SubscriptionInfo info, long lastEventId) {
+        List<SseReplayBuffer.Entry> missed = replayBuffer.after(lastEventId);
+        List<Message> matching = missed == null ? null : missed.stream()
+                .filter(e -> e.audience().accepts(subscription.coalescing) && info.matches(e.event()))
+                .map(SseReplayBuffer.Entry::message)
+                .toList();
+
+        if (matching == null || matching.size() >= sseProperties.getQueueCapacity()) {
+            log.debug("SSE subscription {} cannot replay from {}, requesting resync", subscription.id, lastEventId);
+            metrics.resyncs.increment();
+            enqueue(subscription, message("RESYNC", markerEvent(), null, replayBuffer.lastId()));
+            return;
+        }
+        matching.forEach(m -> enqueue(subscription, m));
+        log.debug("SSE subscription {} replayed {} events after {}", subscription.id, matching.size(), lastEventId);
+    }
+
+    private Message message(String name, Object data, Long coalesceKey, Long id) {
+        long start = System.nanoTime();
+        SseFrame frame = SseFrame.encode(objectMapper, id, name, data);
+        metrics.serialization.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new Message(name, data, coalesceKey, id, frame);
+    }
 
-        failedSubscriptions.forEach(this::removeSubscription);
-        
-        if (!subscriptions.isEmpty()) {
-            log.debug("Sent heartbeat to {} active SSE subscriptions", subscriptions.size());
+    /** Zdarzenie sterujące (INIT/RESYNC) – bez typu i zgłoszenia. */
+    private static ZgloszenieEventDTO markerEvent() {
+        ZgloszenieEventDTO marker = new ZgloszenieEventDTO(
+                null, null, LocalDateTime.now(), Collections.emptyList(), null
+        );
+        marker.setType(null);
+        return marker;
+    }
+
+    private void enqueue(Subscription subscription, Message message) {
+        OfferResult result = subscription.queue.offer(message);
+        if (result == OfferResult.OVERFLOW) {
+            log.info("SSE subscription {} too slow (queue full), disconnecting", subscription.id);
+            metrics.slowConsumerDisconnects.increment();
+            removeSubscription(subscription.id);
+            subscription.emitter.complete();
+            return;
         }
+        if (result != OfferResult.ACCEPTED) {
+            log.debug("SSE subscription {} queue full: {}", subscription.id, result);
+            subscription.dropped.increment();
+            (result == OfferResult.COALESCED ? metrics.droppedCoalesced : metrics.droppedOldest).increment();
+        }
+        scheduleDrain(subscription);
     }
 
-    private boolean shouldSendEvent(ZgloszenieDomainEvent event, SubscriptionInfo info) {
-        // Filter by event type
-        if (info.eventTypes != null && !info.eventTypes.isEmpty() && !info.eventTypes.contains(event.getType())) {
-            return false;
+    private void scheduleDrain(Subscription subscription) {
+        if (!subscription.draining.compareAndSet(false, true)) {
+            return; // wątek zapisujący już pracuje nad tą subskrypcją
+        }
+        try {
+            writers.execute(() -> drain(subscription));
+        } catch (RejectedExecutionException e) {
+            subscription.draining.set(false);
         }
+    }
 
-        // TODO: Filter by dzialId/autorId requires snapshot implementation
-        // Currently not filtering by dzialId/autorId as noted in requirements
-        
-        return true;
+    private void drain(Subscription subscription) {
+        try {
+            for (Message message : subscription.queue.drain(DRAIN_BATCH)) {
+                long start = System.nanoTime();
+                subscription.emitter.send(message.frame().items());
+                metrics.write.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                subscription.lastWriteMillis = System.currentTimeMillis();
+                subscription.sent.increment();
+                metrics.messagesSent.increment();
+                recordDeliveryLag(message);
+            }
+        } catch (IOException e) {
+            log.debug("Failed to send event to subscription {}", subscription.id, e);
+            removeSubscription(subscription.id);
+            // Zamyka żądanie async od razu, zamiast czekać na jego timeout
+            subscription.emitter.completeWithError(e);
+            return;
+        } catch (IllegalStateException e) {
+            // Emiter już zakończony
+            log.debug("Failed to send event to subscription {}", subscription.id, e);
+            removeSubscription(subscription.id);
+            return;
+        } finally {
+            subscription.draining.set(false);
+        }
+        // Wiadomości dodane w trakcie wysyłki (ich scheduleDrain trafił na draining == true)
+        if (!subscription.queue.isEmpty() && subscriptions.containsKey(subscription.id)) {
+            scheduleDrain(subscription);
+        }
+    }
+
+    /** Tylko zdarzenia domenowe – heartbeat i INIT/RESYNC nie mają sensownego czasu źródłowego. */
+    private void recordDeliveryLag(Message message) {
+        if (message.id() == null || !(message.data() instanceof ZgloszenieEventDTO dto) || dto.getType() == null
+                || dto.getEventTimestamp() == null) {
+            return;
+        }
+        long created = dto.getEventTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        metrics.deliveryLag.record(Math.max(0, System.currentTimeMillis() - created), TimeUnit.MILLISECONDS);
     }
 
     private void removeSubscription(String subscriptionId) {
-        subscriptions.remove(subscriptionId);
-        subscriptionInfo.remove(subscriptionId);
+        Subscription subscription = subscriptions.remove(subscriptionId);
+        realtimeSubscriptions.remove(subscriptionId);
+        if (subscription != null) {
+            metrics.subscriptionDuration.record(Duration.ofMillis(System.currentTimeMillis() - subscription.createdMillis));
+        }
+        SubscriptionInfo info = subscriptionInfo.remove(subscriptionId);
+        if (info != null) {
+            info.keys().forEach(key -> index.computeIfPresent(key, (k, ids) -> {
+                ids.remove(subscriptionId);
+                return ids.isEmpty() ? null : ids;
+            }));
+        }
         log.debug("SSE subscription {} removed. Active subscriptions: {}", subscriptionId, subscriptions.size());
     }
 
@@ -153,6 +459,88 @@ public class SseSubscriptionService {
         return subscriptions.size();
     }
 
+    /** Migawka liczników zbiorczych i stanu każdej subskrypcji. */
+    public SseStatsDTO getStats() {
+        long now = System.currentTimeMillis();
+        List<SseStatsDTO.SubscriptionStats> perSubscription = new ArrayList<>();
+        for (Subscription subscription : subscriptions.values()) {
+            SubscriptionInfo info = subscriptionInfo.get(subscription.id);
+            if (info == null && subscription.filter == null) continue; // usuwana właśnie teraz
+            perSubscription.add(new SseStatsDTO.SubscriptionStats(
+                    subscription.id,
+                    (now - subscription.createdMillis) / 1000,
+                    now - subscription.lastWriteMillis,
+                    subscription.queue.size(),
+                    subscription.sent.sum(),
+                    subscription.dropped.sum(),
+                    subscription.coalescing,
+                    info != null ? info.eventTypes : null,
+                    info != null ? info.dzialId : null,
+                    info != null ? info.autorId : null));
+        }
+        perSubscription.sort(Comparator.comparingLong(SseStatsDTO.SubscriptionStats::getAgeSeconds).reversed());
+
+        return new SseStatsDTO(
+                subscriptions.size(),
+                sseProperties.getMaxClients(),
+                perSubscription.stream().mapToLong(SseStatsDTO.SubscriptionStats::getQueueDepth).sum(),
+                (long) metrics.eventsPublished.count(),
+                (long) metrics.messagesSent.count(),
+                metrics.dropped(),
+                (long) metrics.slowConsumerDisconnects.count(),
+                (long) metrics.idleDisconnects.count(),
+                (long) metrics.reconnects.count(),
+                (long) metrics.resyncs.count(),
+                SseMetrics.snapshot(metrics.serialization),
+                SseMetrics.snapshot(metrics.write),
+                SseMetrics.snapshot(metrics.deliveryLag),
+                perSubscription);
+    }
+
+    /** Wiadomości czekające w kolejkach wszystkich subskrybentów. */
+    int getQueuedMessageCount() {
+        return subscriptions.values().stream().mapToInt(sub -> sub.queue.size()).sum();
+    }
+
+    /** Czeka, aż dispatcher rozłoży wszystkie dotychczas opublikowane zdarzenia do kolejek. */
+    void awaitDispatched() throws InterruptedException, ExecutionException {
+        dispatcher.submit(() -> { }).get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.shutdownNow();
+        dispatcher.shutdownNow();
+        writers.shutdownNow();
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        CustomizableThreadFactory factory = new CustomizableThreadFactory(prefix);
+        factory.setDaemon(true);
+        return factory;
+    }
+
+    private static class Subscription {
+        final String id;
+        final SseEmitter emitter;
+        final SseOutboundQueue queue;
+        final boolean coalescing;
+        final RealtimeFilter filter; // null = strumień zgłoszeń (indeks)
+        final AtomicBoolean draining = new AtomicBoolean();
+        final long createdMillis = System.currentTimeMillis();
+        volatile long lastWriteMillis = createdMillis;
+        final LongAdder sent = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+
+        Subscription(String id, SseEmitter emitter, SseOutboundQueue queue, boolean coalescing, RealtimeFilter filter) {
+            this.id = id;
+            this.emitter = emitter;
+            this.queue = queue;
+            this.coalescing = coalescing;
+            this.filter = filter;
+        }
+    }
+
     private static class SubscriptionInfo {
         final Set<EventType> eventTypes;
         final Long dzialId;
@@ -167,5 +555,26 @@ public class SseSubscriptionService {
             this.full = full;
             this.createdAt = createdAt;
         }
+
+        /** To samo kryterium co indeks – używane przy odtwarzaniu z bufora. */
+        boolean matches(ZgloszenieDomainEvent event) {
+            if (eventTypes != null && !eventTypes.isEmpty() && !eventTypes.contains(event.getType())) {
+                return false;
+            }
+            ZgloszenieSnapshot snapshot = event.getSnapshot();
+            if (dzialId != null && (snapshot == null || !dzialId.equals(snapshot.dzialId()))) return false;
+            return autorId == null || (snapshot != null && autorId.equals(snapshot.autorId()));
+        }
+
+        /** Kubełki indeksu, w których subskrypcja jest zarejestrowana – po jednym na typ zdarzenia. */
+        List<FilterKey> keys() {
+            if (eventTypes == null || eventTypes.isEmpty()) {
+                return List.of(new FilterKey(null, dzialId, autorId));
+            }
+            return eventTypes.stream().map(t -> new FilterKey(t, dzialId, autorId)).toList();
+        }
     }
-}
\ No newline at end of file
+
+    /** Klucz indeksu; null w polu = subskrypcja nie filtruje po nim. */
+    private record FilterKey(EventType type, Long dzialId, Long autorId) {}
+}
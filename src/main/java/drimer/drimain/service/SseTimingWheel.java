@@ -0,0 +1,59 @@
+package drimer.drimain.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Haszowane koło czasowe: terminy zaokrąglane do ticków, tick → slot = tick % rozmiar koła.
+ * Dodanie i przesunięcie o jeden tick kosztują O(1) + liczba wpisów w slocie; wpisy odległe
+ * o więcej niż jeden obrót czekają w slocie, aż ich tick nadejdzie.
+ */
+class SseTimingWheel<T> {
+
+    private record Entry<T>(T item, long tick) {}
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final List<List<Entry<T>>> slots;
+    /** Ostatni przetworzony tick. */
+    private long currentTick;
+    private int size;
+
+    SseTimingWheel(long tickMillis, int wheelSize, long nowMillis) {
+        this.tickMillis = Math.max(1, tickMillis);
+        this.startMillis = nowMillis;
+        this.slots = new ArrayList<>(Math.max(1, wheelSize));
+        for (int i = 0; i < Math.max(1, wheelSize); i++) slots.add(new ArrayList<>());
+    }
+
+    /** Termin w przeszłości trafia do najbliższego ticka. */
+    synchronized void schedule(T item, long deadlineMillis) {
+        long tick = Math.max(Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis), currentTick + 1);
+        slots.get((int) (tick % slots.size())).add(new Entry<>(item, tick));
+        size++;
+    }
+
+    /** Przesuwa koło do chwili now i zwraca wpisy, których termin minął. */
+    synchronized List<T> advance(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        List<T> due = new ArrayList<>();
+        while (currentTick < targetTick) {
+            currentTick++;
+            Iterator<Entry<T>> it = slots.get((int) (currentTick % slots.size())).iterator();
+            while (it.hasNext()) {
+                Entry<T> entry = it.next();
+                if (entry.tick() <= currentTick) {
+                    due.add(entry.item());
+                    it.remove();
+                    size--;
+                }
+            }
+        }
+        return due;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+}
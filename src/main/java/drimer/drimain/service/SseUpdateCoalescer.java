@@ -0,0 +1,85 @@
+package drimer.drimain.service;
+
+import drimer.drimain.events.EventType;
+import drimer.drimain.events.ZgloszenieDomainEvent;
+
+import java.util.*;
+
+/**
+ * Scala zdarzenia UPDATED tego samego zgłoszenia w oknie czasowym: changedFields są sumowane,
+ * snapshot i czas pochodzą z ostatniej zmiany. Okno liczy się od pierwszego zdarzenia w serii.
+ * Bez synchronizacji – używany wyłącznie pod blokadą dispatchera {@link SseSubscriptionService}.
+ */
+class SseUpdateCoalescer {
+
+    private final long windowNanos;
+    /** Kolejność wstawienia = kolejność otwarcia okien, więc terminy rosną. */
+    private final Map<Long, Pending> pending = new LinkedHashMap<>();
+
+    SseUpdateCoalescer(long windowMillis) {
+        this.windowNanos = windowMillis * 1_000_000;
+    }
+
+    /**
+     * @return true, gdy zdarzenie otworzyło nowe okno (wywołujący planuje opróżnienie)
+     */
+    boolean add(ZgloszenieDomainEvent event, long nowNanos) {
+        Pending p = pending.get(event.getZgloszenieId());
+        if (p == null) {
+            pending.put(event.getZgloszenieId(), new Pending(event, nowNanos));
+            return true;
+        }
+        p.merge(event);
+        return false;
+    }
+
+    /** DELETED zastępuje oczekującą aktualizację – nie ma czego odświeżać. */
+    void discard(Long zgloszenieId) {
+        pending.remove(zgloszenieId);
+    }
+
+    /** Scalone zdarzenia, których okno minęło, w kolejności otwarcia okien. */
+    List<ZgloszenieDomainEvent> takeDue(long nowNanos) {
+        List<ZgloszenieDomainEvent> due = new ArrayList<>();
+        Iterator<Pending> it = pending.values().iterator();
+        while (it.hasNext()) {
+            Pending p = it.next();
+            if (nowNanos - p.openedAt < windowNanos) break;
+            due.add(p.toEvent());
+            it.remove();
+        }
+        return due;
+    }
+
+    int size() {
+        return pending.size();
+    }
+
+    private static final class Pending {
+        final long openedAt;
+        ZgloszenieDomainEvent last;
+        /** null = nieznany zakres zmian (któreś zdarzenie nie podało pól) */
+        Set<String> changedFields;
+
+        Pending(ZgloszenieDomainEvent first, long openedAt) {
+            this.openedAt = openedAt;
+            this.last = first;
+            this.changedFields = first.getChangedFields() != null ? new LinkedHashSet<>(first.getChangedFields()) : null;
+        }
+
+        void merge(ZgloszenieDomainEvent next) {
+            last = next;
+            if (changedFields == null || next.getChangedFields() == null) {
+                changedFields = null;
+            } else {
+                changedFields.addAll(next.getChangedFields());
+            }
+        }
+
+        ZgloszenieDomainEvent toEvent() {
+            return new ZgloszenieDomainEvent(last.getSource(), EventType.UPDATED, last.getZgloszenieId(),
+                    changedFields != null ? List.copyOf(changedFields) : null, null,
+                    last.getSnapshot(), last.getEventTimestamp());
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package drimer.drimain.service;
+
+import drimer.drimain.model.enums.StockMovementReason;
+
+/** Kontekst zmiany stanu zapisywany w dzienniku ruchów: przyczyna, raport źródłowy, notatka. */
+public record StockChange(StockMovementReason reason, Long raportId, String note) {
+
+    public static StockChange raport(Long raportId) {
+        return new StockChange(StockMovementReason.RAPORT, raportId, null);
+    }
+
+    public static StockChange manual(String note) {
+        return new StockChange(StockMovementReason.MANUAL, null, note);
+    }
+}
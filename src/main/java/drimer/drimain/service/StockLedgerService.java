@@ -0,0 +1,267 @@
+package drimer.drimain.service;
+
+import drimer.drimain.api.dto.StockConsumptionDTO;
+import drimer.drimain.api.dto.StockMovementDTO;
+import drimer.drimain.model.StockMovement;
+import drimer.drimain.model.StockSnapshot;
+import drimer.drimain.model.enums.StockMovementReason;
+import drimer.drimain.repository.StockMovementRepository;
+import drimer.drimain.repository.StockSnapshotRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Dziennik ruchów magazynowych (tylko dopisywanie) i okresowe snapshoty stanów.
+ * <p>
+ * Ruchy są zapisywane jednym batchem JDBC w transakcji zmiany stanu (PartStockService), więc dziennik
+ * nie rozjeżdża się z parts.ilosc. Codzienny snapshot zapisuje per część saldo i narastające zużycie
+ * w raportach na północ – stan na dzień X i zużycie w miesiącu to ostatni snapshot przed X plus ruchy
+ * od niego (najwyżej doba), a nie skan całej historii.
+ */
+@Service
+@Order(20) // po DataInitializer
+@Slf4j
+public class StockLedgerService implements ApplicationRunner {
+
+    private static final int MAX_LIMIT = 500;
+    private static final int IN_CHUNK = 1000;
+
+    private static final String INSERT_MOVEMENT_SQL = """
+            INSERT INTO stock_movements (part_id, delta, balance_after, reason, raport_id, username, note, created_at)
+            VALUES (:partId, :delta, :balanceAfter, :reason, :raportId, :username, :note, :createdAt)
+            """;
+    // Części ze stanem, ale bez żadnego ruchu (sprzed dziennika lub zapisane z pominięciem API)
+    private static final String OPENING_SQL = """
+            INSERT INTO stock_movements (part_id, delta, balance_after, reason, username, created_at)
+            SELECT p.id, p.ilosc, p.ilosc, 'OPENING', 'system', :now FROM parts p
+            WHERE COALESCE(p.ilosc, 0) <> 0
+              AND NOT EXISTS (SELECT 1 FROM stock_movements m WHERE m.part_id = p.id)
+            """;
+    private static final String PERIOD_SQL = """
+            SELECT part_id, SUM(delta) AS delta, SUM(CASE WHEN reason = 'RAPORT' THEN -delta ELSE 0 END) AS consumed
+            FROM stock_movements WHERE created_at >= :from AND created_at < :to GROUP BY part_id
+            """;
+    private static final String LATEST_SNAPSHOTS_SQL = """
+            SELECT s.part_id, s.balance, s.consumed FROM stock_snapshots s
+            WHERE s.part_id IN (:ids)
+              AND s.as_of = (SELECT MAX(s2.as_of) FROM stock_snapshots s2 WHERE s2.part_id = s.part_id)
+            """;
+    private static final String INSERT_SNAPSHOT_SQL = """
+            INSERT INTO stock_snapshots (part_id, as_of, balance, consumed) VALUES (:partId, :asOf, :balance, :consumed)
+            """;
+    private static final String RAPORT_CONSUMED_SQL = """
+            SELECT part_id, -SUM(delta) AS consumed FROM stock_movements
+            WHERE reason = 'RAPORT' AND raport_id = :raportId AND part_id IN (:ids) GROUP BY part_id
+            """;
+    private static final String TAIL_SQL = """
+            SELECT COALESCE(SUM(delta), 0) AS delta,
+                   COALESCE(SUM(CASE WHEN reason = 'RAPORT' THEN -delta ELSE 0 END), 0) AS consumed
+            FROM stock_movements WHERE part_id = :partId AND created_at >= :from AND created_at < :to
+            """;
+
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final StockMovementRepository movementRepository;
+    private final StockSnapshotRepository snapshotRepository;
+
+    public StockLedgerService(NamedParameterJdbcTemplate jdbc, StockMovementRepository movementRepository,
+                              StockSnapshotRepository snapshotRepository) {
+        this.jdbc = jdbc;
+        this.movementRepository = movementRepository;
+        this.snapshotRepository = snapshotRepository;
+    }
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        recordOpeningBalances();
+    }
+
+    /** Ruch OPENING dla części ze stanem, które nie mają jeszcze żadnego ruchu. */
+    @Transactional
+    public int recordOpeningBalances() {
+        int inserted = jdbc.update(OPENING_SQL, Map.of("now", Timestamp.valueOf(now())));
+        if (inserted > 0) {
+            log.info("Dziennik magazynu: stan początkowy dla {} części", inserted);
+        }
+        return inserted;
+    }
+
+    /**
+     * Dopisuje ruchy jednym batchem (w transakcji wywołującego).
+     *
+     * @param deltas   partId → zmiana
+     * @param balances partId → stan po zmianie
+     */
+    @Transactional
+    public void record(Map<Long, Integer> deltas, Map<Long, Integer> balances, StockChange change, LocalDateTime at) {
+        if (deltas.isEmpty()) return;
+        String username = currentUsername();
+        Timestamp createdAt = Timestamp.valueOf(at);
+        SqlParameterSource[] batch = new TreeMap<>(deltas).entrySet().stream()
+                .map(e -> new MapSqlParameterSource()
+                        .addValue("partId", e.getKey())
+                        .addValue("delta", e.getValue())
+                        .addValue("balanceAfter", balances.get(e.getKey()))
+                        .addValue("reason", change.reason().name())
+                        .addValue("raportId", change.raportId())
+                        .addValue("username", username)
+                        .addValue("note", change.note())
+                        .addValue("createdAt", createdAt))
+                .toArray(SqlParameterSource[]::new);
+        jdbc.batchUpdate(INSERT_MOVEMENT_SQL, batch);
+    }
+
+    /** Ile każdej z części raport pobrał z magazynu netto wg dziennika (partId → ilość; brak = nic). */
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> consumedByRaport(Long raportId, Collection<Long> partIds) {
+        Map<Long, Integer> consumed = new HashMap<>();
+        if (raportId == null || partIds.isEmpty()) return consumed;
+        jdbc.query(RAPORT_CONSUMED_SQL, Map.of("raportId", raportId, "ids", partIds),
+                rs -> { consumed.put(rs.getLong("part_id"), rs.getInt("consumed")); });
+        return consumed;
+    }
+
+    /** Stan początkowy nowej części. */
+    @Transactional
+    public void recordOpening(Long partId, Integer ilosc) {
+        if (ilosc == null || ilosc == 0) return;
+        record(Map.of(partId, ilosc), Map.of(partId, ilosc),
+                new StockChange(StockMovementReason.OPENING, null, null), now());
+    }
+
+    @Scheduled(cron = "${app.stock.snapshot-cron:0 5 0 * * *}")
+    public void snapshotDaily() {
+        try {
+            snapshot(LocalDate.now().atStartOfDay());
+        } catch (DataIntegrityViolationException e) {
+            // Inny węzeł zapisał już snapshot na tę chwilę
+            log.info("Snapshot stanów magazynu pominięty: {}", e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    /**
+     * Snapshot na chwilę asOf dla części z ruchami od poprzedniego snapshotu (pozostałe dziedziczą
+     * swój ostatni). Ruchy zapisane później z created_at &lt; asOf nie są uwzględniane – stąd uruchamianie
+     * z zapasem po północy.
+     *
+     * @return liczba zapisanych snapshotów
+     */
+    @Transactional
+    public int snapshot(LocalDateTime asOf) {
+        LocalDateTime from = jdbc.queryForObject("SELECT MAX(as_of) FROM stock_snapshots", Map.of(), LocalDateTime.class);
+        if (from != null && !from.isBefore(asOf)) return 0;
+
+        Map<Long, long[]> period = new TreeMap<>();
+        jdbc.query(PERIOD_SQL, Map.of("from", Timestamp.valueOf(from != null ? from : BEGINNING),
+                "to", Timestamp.valueOf(asOf)), rs -> {
+            period.put(rs.getLong("part_id"), new long[]{rs.getLong("delta"), rs.getLong("consumed")});
+        });
+        if (period.isEmpty()) return 0;
+
+        Map<Long, long[]> previous = new HashMap<>();
+        List<Long> ids = new ArrayList<>(period.keySet());
+        for (int i = 0; i < ids.size(); i += IN_CHUNK) {
+            jdbc.query(LATEST_SNAPSHOTS_SQL, Map.of("ids", ids.subList(i, Math.min(ids.size(), i + IN_CHUNK))), rs -> {
+                previous.put(rs.getLong("part_id"), new long[]{rs.getLong("balance"), rs.getLong("consumed")});
+            });
+        }
+
+        Timestamp asOfTs = Timestamp.valueOf(asOf);
+        SqlParameterSource[] batch = period.entrySet().stream()
+                .map(e -> {
+                    long[] prev = previous.getOrDefault(e.getKey(), new long[2]);
+                    return new MapSqlParameterSource()
+                            .addValue("partId", e.getKey())
+                            .addValue("asOf", asOfTs)
+                            .addValue("balance", Math.toIntExact(prev[0] + e.getValue()[0]))
+                            .addValue("consumed", prev[1] + e.getValue()[1]);
+                })
+                .toArray(SqlParameterSource[]::new);
+        jdbc.batchUpdate(INSERT_SNAPSHOT_SQL, batch);
+        log.info("Snapshot stanów magazynu na {}: {} części", asOf, batch.length);
+        return batch.length;
+    }
+
+    /** Stan części na chwilę at (ruchy z created_at &lt; at). */
+    @Transactional(readOnly = true)
+    public int balanceAt(Long partId, LocalDateTime at) {
+        return Math.toIntExact(position(partId, at)[0]);
+    }
+
+    /** Zużycie części w raportach (minus zwroty) w kolejnych miesiącach od from do to włącznie. */
+    @Transactional(readOnly = true)
+    public List<StockConsumptionDTO> monthlyConsumption(Long partId, YearMonth from, YearMonth to) {
+        if (to.isBefore(from)) throw new IllegalArgumentException("'to' must not be before 'from'");
+        if (ChronoUnit.MONTHS.between(from, to) >= 120) throw new IllegalArgumentException("Range too long (max 120 months)");
+        List<StockConsumptionDTO> result = new ArrayList<>();
+        long consumedBefore = position(partId, from.atDay(1).atStartOfDay())[1];
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            long consumedAfter = position(partId, month.plusMonths(1).atDay(1).atStartOfDay())[1];
+            result.add(new StockConsumptionDTO(month.toString(), consumedAfter - consumedBefore));
+            consumedBefore = consumedAfter;
+        }
+        return result;
+    }
+
+    @Transactional(readOnly = true)
+    public List<StockMovementDTO> movements(Long partId, int limit) {
+        return movementRepository.findByPartIdOrderByIdDesc(partId, Limit.of(Math.max(1, Math.min(limit, MAX_LIMIT))))
+                .stream().map(StockLedgerService::toDto).toList();
+    }
+
+    /** [saldo, narastające zużycie] na chwilę at: ostatni snapshot ≤ at + ruchy od niego. */
+    private long[] position(Long partId, LocalDateTime at) {
+        Optional<StockSnapshot> snapshot = snapshotRepository.findFirstByPartIdAndAsOfLessThanEqualOrderByAsOfDesc(partId, at);
+        long[] position = snapshot.map(s -> new long[]{s.getBalance(), s.getConsumed()}).orElse(new long[2]);
+        LocalDateTime from = snapshot.map(StockSnapshot::getAsOf).orElse(BEGINNING);
+        jdbc.query(TAIL_SQL, Map.of("partId", partId, "from", Timestamp.valueOf(from), "to", Timestamp.valueOf(at)), rs -> {
+            position[0] += rs.getLong("delta");
+            position[1] += rs.getLong("consumed");
+        });
+        return position;
+    }
+
+    private static StockMovementDTO toDto(StockMovement m) {
+        StockMovementDTO dto = new StockMovementDTO();
+        dto.setId(m.getId());
+        dto.setPartId(m.getPartId());
+        dto.setDelta(m.getDelta());
+        dto.setBalanceAfter(m.getBalanceAfter());
+        dto.setReason(m.getReason().name());
+        dto.setRaportId(m.getRaportId());
+        dto.setUsername(m.getUsername());
+        dto.setNote(m.getNote());
+        dto.setCreatedAt(m.getCreatedAt());
+        return dto;
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+}
@@ -0,0 +1,201 @@
+package drimer.drimain.service;
+
+import drimer.drimain.api.dto.StompBrokerStatsDTO;
+import drimer.drimain.config.WebSocketProperties;
+import drimer.drimain.config.WebSocketProperties.SlowSessionPolicy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator.OverflowStrategy;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stan brokera STOMP: sesje z buforami wysyłki, pule kanałów inbound/outbound i odrzucone wysyłki.
+ * <p>
+ * Każda sesja jest opakowana w {@link ConcurrentWebSocketSessionDecorator} z limitami z app.websocket.*:
+ * gdy zapis do klienta się zatrzyma, kolejne wiadomości czekają w buforze sesji, a po przekroczeniu
+ * limitu bufora decyduje {@link SlowSessionPolicy}. Zapis dłuższy niż send-time-limit zawsze zamyka
+ * sesję. Pełna kolejka puli outbound odrzuca wysyłkę (broker loguje i pomija tę wiadomość), zamiast
+ * zbierać ją w pamięci.
+ * <p>
+ * Mierniki "websocket.*" i /api/ws/stats.
+ */
+@Component
+@Slf4j
+public class StompBrokerMonitor {
+
+    private static final int SLOWEST_SESSIONS = 10;
+
+    private final WebSocketProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TrackedSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, ThreadPoolTaskExecutor> executors = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> rejected = new ConcurrentHashMap<>();
+    /** Bajty porzucone przez sesje już zamknięte; żywe liczone na bieżąco. */
+    private final AtomicLong closedDroppedBytes = new AtomicLong();
+    private final Counter limitExceeded;
+
+    public StompBrokerMonitor(WebSocketProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.limitExceeded = Counter.builder("websocket.sessions.limit.exceeded")
+                .description("Sesje zamknięte po przekroczeniu limitu czasu zapisu lub bufora")
+                .register(meterRegistry);
+        Gauge.builder("websocket.sessions", sessions, Map::size)
+                .description("Otwarte sesje WebSocket/SockJS")
+                .register(meterRegistry);
+        Gauge.builder("websocket.buffered.bytes", this, StompBrokerMonitor::bufferedBytes)
+                .description("Bajty czekające w buforach sesji na zablokowany zapis")
+                .register(meterRegistry);
+        // Gauge, nie licznik: wartość dla żywych sesji jest wyliczana i może chwilowo się cofnąć
+        Gauge.builder("websocket.dropped.bytes", this, StompBrokerMonitor::droppedBytes)
+                .description("Bajty usunięte z buforów wolnych sesji od startu (DROP_OLDEST)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Pula kanału klienta ("inbound"/"outbound") z ograniczoną kolejką; odrzucenia są liczone.
+     */
+    public ThreadPoolTaskExecutor channelExecutor(String channel, int corePoolSize, int maxPoolSize, int queueCapacity) {
+        LongAdder rejections = rejected.computeIfAbsent(channel, c -> new LongAdder());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("client" + Character.toUpperCase(channel.charAt(0)) + channel.substring(1) + "Channel-");
+        executor.setCorePoolSize(Math.max(1, corePoolSize));
+        executor.setMaxPoolSize(Math.max(Math.max(1, corePoolSize), maxPoolSize));
+        executor.setQueueCapacity(queueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejections.increment();
+            throw new RejectedExecutionException("STOMP " + channel + " channel queue full");
+        });
+        executors.put(channel, executor);
+
+        Gauge.builder("websocket.channel.queue", executor, e -> queued(e))
+                .description("Wiadomości czekające na wątek kanału")
+                .tag("channel", channel)
+                .register(meterRegistry);
+        FunctionCounter.builder("websocket.channel.rejected", rejections, LongAdder::sum)
+                .description("Wysyłki odrzucone przez pełną kolejkę kanału")
+                .tag("channel", channel)
+                .register(meterRegistry);
+        return executor;
+    }
+
+    /**
+     * Zastępuje domyślną dekorację sesji w SubProtocolWebSocketHandler: te same limity, strategia
+     * przepełnienia z app.websocket.slow-session-policy i liczniki bajtów.
+     */
+    public WebSocketSession track(WebSocketSession session, int sendTimeLimit, int sendBufferSizeLimit) {
+        TrackedSession tracked = new TrackedSession(session, sendTimeLimit, sendBufferSizeLimit,
+                properties.getSlowSessionPolicy() == SlowSessionPolicy.TERMINATE
+                        ? OverflowStrategy.TERMINATE : OverflowStrategy.DROP);
+        sessions.put(session.getId(), tracked);
+        return tracked.decorator;
+    }
+
+    public void closed(WebSocketSession session, CloseStatus status) {
+        TrackedSession tracked = sessions.remove(session.getId());
+        if (tracked != null) {
+            closedDroppedBytes.addAndGet(tracked.droppedBytes());
+        }
+        if (CloseStatus.SESSION_NOT_RELIABLE.equals(status)) {
+            log.info("STOMP session {} closed: send limit exceeded", session.getId());
+            limitExceeded.increment();
+        }
+    }
+
+    public StompBrokerStatsDTO getStats() {
+        return new StompBrokerStatsDTO(
+                sessions.size(),
+                properties.getSlowSessionPolicy().name(),
+                bufferedBytes(),
+                droppedBytes(),
+                (long) limitExceeded.count(),
+                channelStats("inbound"),
+                channelStats("outbound"),
+                sessions.values().stream()
+                        .sorted(Comparator.comparingInt((TrackedSession t) -> t.decorator.getBufferSize()).reversed())
+                        .limit(SLOWEST_SESSIONS)
+                        .map(TrackedSession::stats)
+                        .toList());
+    }
+
+    private StompBrokerStatsDTO.ChannelStats channelStats(String channel) {
+        ThreadPoolTaskExecutor executor = executors.get(channel);
+        if (executor == null) return null;
+        LongAdder rejections = rejected.get(channel);
+        return new StompBrokerStatsDTO.ChannelStats(
+                executor.getPoolSize(),
+                executor.getActiveCount(),
+                queued(executor),
+                executor.getQueueCapacity(),
+                rejections != null ? rejections.sum() : 0);
+    }
+
+    private static int queued(ThreadPoolTaskExecutor executor) {
+        try {
+            ThreadPoolExecutor pool = executor.getThreadPoolExecutor();
+            return pool.getQueue().size();
+        } catch (IllegalStateException e) {
+            return 0; // jeszcze niezainicjowana
+        }
+    }
+
+    private long bufferedBytes() {
+        return sessions.values().stream().mapToLong(t -> t.decorator.getBufferSize()).sum();
+    }
+
+    private long droppedBytes() {
+        return closedDroppedBytes.get() + sessions.values().stream().mapToLong(TrackedSession::droppedBytes).sum();
+    }
+
+    /**
+     * Bajty przyjęte do bufora (callback dekoratora) minus zapisane do gniazda minus wciąż buforowane
+     * = bajty usunięte przez strategię DROP. Dekorator nie udostępnia tej liczby wprost; wynik jest
+     * przybliżony o wiadomość właśnie przekazywaną między buforem a gniazdem.
+     */
+    private static class TrackedSession {
+        final ConcurrentWebSocketSessionDecorator decorator;
+        final AtomicLong offeredBytes = new AtomicLong();
+        final AtomicLong writtenBytes = new AtomicLong();
+
+        TrackedSession(WebSocketSession session, int sendTimeLimit, int sendBufferSizeLimit, OverflowStrategy strategy) {
+            WebSocketSession counting = new WebSocketSessionDecorator(session) {
+                @Override
+                public void sendMessage(WebSocketMessage<?> message) throws IOException {
+                    // Przed zapisem: dekorator już zdjął wiadomość z bufora, a zapis może trwać długo
+                    writtenBytes.addAndGet(message.getPayloadLength());
+                    super.sendMessage(message);
+                }
+            };
+            this.decorator = new ConcurrentWebSocketSessionDecorator(counting, sendTimeLimit, sendBufferSizeLimit, strategy);
+            this.decorator.setMessageCallback(message -> offeredBytes.addAndGet(message.getPayloadLength()));
+        }
+
+        long droppedBytes() {
+            return Math.max(0, offeredBytes.get() - writtenBytes.get() - decorator.getBufferSize());
+        }
+
+        StompBrokerStatsDTO.SessionStats stats() {
+            return new StompBrokerStatsDTO.SessionStats(decorator.getId(), decorator.getBufferSize(),
+                    decorator.getTimeSinceSendStarted(), droppedBytes());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package drimer.drimain.service;
+
+import drimer.drimain.events.EntityChangedEvent;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * STOMP jako transport szyny. Filtrowanie robi broker po temacie – tematy wynikają z tych samych
+ * atrybutów co {@link RealtimeFilter}:
+ * <ul>
+ *   <li>/topic/events – wszystko,</li>
+ *   <li>/topic/events/{encja} – np. /topic/events/part,</li>
+ *   <li>/topic/events/{encja}/{atrybut}/{wartość} – np. /topic/events/harmonogram/maszynaId/3,</li>
+ *   <li>/topic/events/{encja}/action/{akcja} – np. /topic/events/part/action/PART_BELOW_MIN.</li>
+ * </ul>
+ */
+@Component
+public class StompRealtimeTransport implements RealtimeTransport {
+
+    static final String TOPIC = "/topic/events";
+
+    private final SimpMessagingTemplate template;
+
+    public StompRealtimeTransport(SimpMessagingTemplate template) {
+        this.template = template;
+    }
+
+    @Override
+    public void publish(RealtimeMessage message) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        Message<byte[]> stompMessage = MessageBuilder
+                .withPayload(message.json().getBytes(StandardCharsets.UTF_8))
+                .setHeaders(headers)
+                .build();
+        for (String destination : destinations(message.change())) {
+            template.send(destination, stompMessage);
+        }
+    }
+
+    static Set<String> destinations(EntityChangedEvent change) {
+        String entityTopic = TOPIC + "/" + change.getEntity().name().toLowerCase(Locale.ROOT);
+        Set<String> destinations = new LinkedHashSet<>();
+        destinations.add(TOPIC);
+        destinations.add(entityTopic);
+        destinations.add(entityTopic + "/action/" + change.getAction());
+        addAttributeTopics(destinations, entityTopic, change.getAttributes());
+        addAttributeTopics(destinations, entityTopic, change.getPreviousAttributes());
+        return destinations;
+    }
+
+    private static void addAttributeTopics(Set<String> destinations, String entityTopic, Map<String, String> attributes) {
+        attributes.forEach((name, value) -> {
+            if (RealtimeFilter.ATTRIBUTES.contains(name)) {
+                destinations.add(entityTopic + "/" + name + "/" + value);
+            }
+        });
+    }
+}
@@ -0,0 +1,190 @@
+package drimer.drimain.service;
+
+import drimer.drimain.api.dto.*;
+import drimer.drimain.api.mapper.HarmonogramMapper;
+import drimer.drimain.api.mapper.PartMapper;
+import drimer.drimain.api.mapper.RaportMapper;
+import drimer.drimain.config.SyncProperties;
+import drimer.drimain.model.Harmonogram;
+import drimer.drimain.model.Part;
+import drimer.drimain.model.Raport;
+import drimer.drimain.model.SyncTombstone;
+import drimer.drimain.model.Zgloszenie;
+import drimer.drimain.model.enums.SyncEntityType;
+import drimer.drimain.repository.*;
+import drimer.drimain.repository.spec.SyncSpecifications;
+import drimer.drimain.util.KeysetCursor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Synchronizacja przyrostowa dla klienta mobilnego: zwraca tylko rekordy zmienione po tokenie
+ * (wg updatedAt, id) oraz id rekordów usuniętych (SyncTombstone).
+ * <p>
+ * Token to {@link KeysetCursor}. W trakcie stronicowania (hasMore) niesie też punkt startu serii
+ * ("pozycja.start", start pusty = pełny snapshot) – retencja i ślady usunięć liczą się od startu,
+ * nie od ostatniego wiersza strony.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SyncService implements ApplicationRunner {
+
+    /** Poza alfabetem base64url kursora. */
+    private static final char PAGING_SEPARATOR = '.';
+
+    private final ZgloszenieRepository zgloszenieRepository;
+    private final RaportRepository raportRepository;
+    private final HarmonogramRepository harmonogramRepository;
+    private final PartRepository partRepository;
+    private final SyncTombstoneRepository tombstoneRepository;
+    private final RaportMapper raportMapper;
+    private final SyncProperties syncProperties;
+
+    /**
+     * Rekordy sprzed wprowadzenia kolumny updated_at dostają bieżący znacznik,
+     * żeby sortowanie keyset nie musiało obsługiwać NULL.
+     */
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        LocalDateTime now = now();
+        int updated = raportRepository.backfillUpdatedAt(now)
+                + harmonogramRepository.backfillUpdatedAt(now)
+                + partRepository.backfillUpdatedAt(now);
+        if (updated > 0) {
+            log.info("Uzupełniono updatedAt w {} rekordach (raporty/harmonogramy/części)", updated);
+        }
+    }
+
+    @Transactional
+    public void recordDeletion(SyncEntityType type, Long entityId) {
+        SyncTombstone t = new SyncTombstone();
+        t.setEntityType(type);
+        t.setEntityId(entityId);
+        t.setDeletedAt(now());
+        tombstoneRepository.save(t);
+    }
+
+    @Transactional(readOnly = true)
+    public SyncResponse<ZgloszenieDTO> zgloszenia(String since, int size) {
+        return sync(SyncEntityType.ZGLOSZENIE, since, size,
+                (Specification<Zgloszenie> spec, Integer limit) ->
+                        zgloszenieRepository.findDtos(spec, SyncSpecifications.SYNC_SORT, limit),
+                ZgloszenieDTO::getUpdatedAt, ZgloszenieDTO::getId, Function.identity());
+    }
+
+    @Transactional(readOnly = true)
+    public SyncResponse<RaportDTO> raporty(String since, int size) {
+        return sync(SyncEntityType.RAPORT, since, size,
+                (Specification<Raport> spec, Integer limit) -> raportRepository.findBy(spec, q -> q
+                        .sortBy(SyncSpecifications.SYNC_SORT).limit(limit).all()),
+                Raport::getUpdatedAt, Raport::getId, raportMapper::toDto);
+    }
+
+    @Transactional(readOnly = true)
+    public SyncResponse<HarmonogramDTO> harmonogramy(String since, int size) {
+        return sync(SyncEntityType.HARMONOGRAM, since, size,
+                (Specification<Harmonogram> spec, Integer limit) -> harmonogramRepository.findBy(spec, q -> q
+                        .sortBy(SyncSpecifications.SYNC_SORT).limit(limit).all()),
+                Harmonogram::getUpdatedAt, Harmonogram::getId, HarmonogramMapper::toDto);
+    }
+
+    @Transactional(readOnly = true)
+    public SyncResponse<PartDTO> czesci(String since, int size) {
+        return sync(SyncEntityType.PART, since, size,
+                (Specification<Part> spec, Integer limit) -> partRepository.findBy(spec, q -> q
+                        .sortBy(SyncSpecifications.SYNC_SORT).limit(limit).all()),
+                Part::getUpdatedAt, Part::getId, PartMapper::toDto);
+    }
+
+    @Scheduled(cron = "0 30 3 * * *")
+    @Transactional
+    public void purgeTombstones() {
+        int removed = tombstoneRepository.deleteOlderThan(retentionLimit(now()));
+        if (removed > 0) {
+            log.info("Usunięto {} przeterminowanych śladów usunięć", removed);
+        }
+    }
+
+    /**
+     * @param <R> encja, na której działa warunek keyset
+     * @param <E> typ wiersza zwracanego przez zapytanie (encja lub projekcja)
+     * @param <D> typ elementu odpowiedzi
+     */
+    private <R, E, D> SyncResponse<D> sync(SyncEntityType type, String since, int size,
+                                         BiFunction<Specification<R>, Integer, List<E>> fetch,
+                                         Function<E, LocalDateTime> updatedAt,
+                                         Function<E, Long> id,
+                                         Function<E, D> mapper) {
+        LocalDateTime now = now();
+        KeysetCursor token;
+        LocalDateTime start;
+        boolean fullResync = false;
+        int sep = since != null ? since.indexOf(PAGING_SEPARATOR) : -1;
+        if (sep >= 0) {
+            // Kolejna strona serii – start był sprawdzony na jej pierwszej stronie
+            token = KeysetCursor.decode(since.substring(0, sep), true);
+            KeysetCursor startCursor = KeysetCursor.decode(since.substring(sep + 1), true);
+            start = startCursor != null ? startCursor.timestamp() : null;
+        } else {
+            token = KeysetCursor.decode(since, true);
+            start = token != null ? token.timestamp() : null;
+            // Token starszy niż retencja śladów usunięć – nie wiemy co zniknęło, klient zaczyna od zera
+            if (start != null && start.isBefore(retentionLimit(now))) {
+                token = null;
+                start = null;
+                fullResync = true;
+            }
+        }
+
+        int limit = Math.max(1, Math.min(size, syncProperties.getMaxPageSize()));
+        List<E> rows = fetch.apply(SyncSpecifications.<R>changedAfter(token), limit + 1);
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) rows = rows.subList(0, limit);
+
+        // Ślady usunięć raz na serię – na jej ostatniej stronie
+        List<Long> deletedIds = start == null || hasMore
+                ? List.of()
+                : tombstoneRepository.findDeletedIdsSince(type, start);
+
+        String next;
+        if (hasMore) {
+            E last = rows.get(rows.size() - 1);
+            next = new KeysetCursor(updatedAt.apply(last), id.apply(last)).encode() + PAGING_SEPARATOR
+                    + (start != null ? new KeysetCursor(start, 0L).encode() : "");
+        } else {
+            // Klient jest na bieżąco: cofamy się o overlapSeconds, żeby nie zgubić zapisów
+            // z transakcji zatwierdzonych po naszym odczycie (duplikaty są nieszkodliwe – upsert po id)
+            next = new KeysetCursor(now.minusSeconds(syncProperties.getOverlapSeconds()), 0L).encode();
+        }
+
+        return new SyncResponse<>(
+                rows.stream().map(mapper).toList(),
+                deletedIds,
+                next,
+                hasMore,
+                fullResync
+        );
+    }
+
+    private LocalDateTime retentionLimit(LocalDateTime now) {
+        return now.minusDays(syncProperties.getTombstoneRetentionDays());
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+}
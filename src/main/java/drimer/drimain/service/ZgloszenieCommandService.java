@@ -2,11 +2,14 @@ package drimer.drimain.service;
 
 import drimer.drimain.api.dto.ZgloszenieCreateRequest;
 import drimer.drimain.api.dto.ZgloszenieUpdateRequest;
+import drimer.drimain.events.DomainEventPublisher;
 import drimer.drimain.events.EventType;
 import drimer.drimain.events.ZgloszenieDomainEvent;
+import drimer.drimain.events.ZgloszenieSnapshot;
 import drimer.drimain.model.Dzial;
 import drimer.drimain.model.User;
 import drimer.drimain.model.Zgloszenie;
+import drimer.drimain.model.enums.SyncEntityType;
 import drimer.drimain.model.enums.ZgloszenieStatus;
 import drimer.drimain.repository.DzialRepository;
 import drimer.drimain.repository.UserRepository;
@@ -14,7 +17,6 @@ import drimer.drimain.repository.ZgloszenieRepository;
 import drimer.drimain.util.ZgloszenieStatusMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -32,7 +34,8 @@ public class ZgloszenieCommandService {
     private final ZgloszenieRepository zgloszenieRepository;
     private final DzialRepository dzialRepository;
     private final UserRepository userRepository;
-    private final ApplicationEventPublisher eventPublisher;
+    private final DomainEventPublisher eventPublisher;
+    private final SyncService syncService;
 
     public Zgloszenie create(ZgloszenieCreateRequest req, Authentication authentication) {
         Zgloszenie z = new Zgloszenie();
@@ -73,10 +76,11 @@ public class ZgloszenieCommandService {
         Zgloszenie saved = zgloszenieRepository.save(z);
 
         // Publish creation event
-        eventPublisher.publishEvent(new ZgloszenieDomainEvent(
+        eventPublisher.publish(new ZgloszenieDomainEvent(
                 this,
                 EventType.CREATED,
-                saved.getId()
+                saved.getId(),
+                ZgloszenieSnapshot.of(saved)
         ));
 
         log.debug("Created zgloszenie {} with ID {}", saved.getTytul(), saved.getId());
@@ -142,11 +146,12 @@ public class ZgloszenieCommandService {
 
         // Publish update event with changed fields
         if (!changedFields.isEmpty()) {
-            eventPublisher.publishEvent(new ZgloszenieDomainEvent(
+            eventPublisher.publish(new ZgloszenieDomainEvent(
                     this,
                     EventType.UPDATED,
                     saved.getId(),
-                    changedFields
+                    changedFields,
+                    ZgloszenieSnapshot.of(saved)
             ));
             
             log.debug("Updated zgloszenie {} with changes: {}", saved.getId(), changedFields);
@@ -159,14 +164,19 @@ public class ZgloszenieCommandService {
         Zgloszenie z = zgloszenieRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Zgloszenie not found"));
 
+        // Snapshot before delete – relations are gone afterwards
+        ZgloszenieSnapshot snapshot = ZgloszenieSnapshot.of(z);
+
         // Delete the entity
         zgloszenieRepository.delete(z);
+        syncService.recordDeletion(SyncEntityType.ZGLOSZENIE, id);
 
         // Publish deletion event
-        eventPublisher.publishEvent(new ZgloszenieDomainEvent(
+        eventPublisher.publish(new ZgloszenieDomainEvent(
                 this,
                 EventType.DELETED,
-                id
+                id,
+                snapshot
         ));
 
         log.debug("Deleted zgloszenie with ID {}", id);
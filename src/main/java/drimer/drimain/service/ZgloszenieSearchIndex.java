@@ -0,0 +1,256 @@
+package drimer.drimain.service;
+
+import drimer.drimain.events.EventType;
+import drimer.drimain.events.ZgloszenieDomainEvent;
+import drimer.drimain.model.Zgloszenie;
+import drimer.drimain.repository.ZgloszenieRepository;
+import drimer.drimain.util.PolishTextNormalizer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Indeks odwrócony w pamięci po polach tytul/opis/imie/nazwisko/typ.
+ * Budowany przy starcie, aktualizowany przyrostowo z ZgloszenieDomainEvent.
+ * Zapytanie: każdy token zapytania dopasowywany prefiksowo, wszystkie tokeny muszą wystąpić (AND),
+ * wynik sortowany po sumie wag pól (pełne dopasowanie tokenu liczone podwójnie).
+ */
+@Service
+@Order(20) // po DataInitializer
+@Slf4j
+public class ZgloszenieSearchIndex implements ApplicationRunner {
+
+    private static final int BUILD_BATCH_SIZE = 500;
+
+    private static final int W_TYTUL = 4;
+    private static final int W_TYP = 3;
+    private static final int W_OSOBA = 2;
+    private static final int W_OPIS = 1;
+
+    private final ZgloszenieRepository zgloszenieRepository;
+    private final Timer buildTimer;
+    private final Timer queryTimer;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Segment segment = new Segment();
+    private volatile boolean ready;
+    private volatile long lastBuildMillis;
+    private volatile LocalDateTime lastBuiltAt;
+
+    /** Id zmienione w trakcie przebudowy – po podmianie segmentu są indeksowane ponownie. */
+    private final Set<Long> touchedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding;
+
+    public ZgloszenieSearchIndex(ZgloszenieRepository zgloszenieRepository, MeterRegistry meterRegistry) {
+        this.zgloszenieRepository = zgloszenieRepository;
+        this.buildTimer = Timer.builder("zgloszenia.search.index.build")
+                .description("Czas pełnej przebudowy indeksu wyszukiwania zgłoszeń")
+                .register(meterRegistry);
+        this.queryTimer = Timer.builder("zgloszenia.search.query")
+                .description("Czas zapytania do indeksu wyszukiwania zgłoszeń")
+                .register(meterRegistry);
+        Gauge.builder("zgloszenia.search.index.documents", this, i -> i.segment.docTerms.size())
+                .register(meterRegistry);
+        Gauge.builder("zgloszenia.search.index.terms", this, i -> i.segment.postings.size())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    /**
+     * Pełna przebudowa: nowy segment budowany obok bieżącego (wyszukiwanie działa dalej),
+     * po czym atomowo podmieniany.
+     */
+    public synchronized void rebuild() {
+        rebuilding = true;
+        touchedDuringRebuild.clear();
+        long start = System.nanoTime();
+
+        Segment fresh = new Segment();
+        int page = 0;
+        Page<Zgloszenie> batch;
+        do {
+            batch = zgloszenieRepository.findAll(PageRequest.of(page++, BUILD_BATCH_SIZE, Sort.by("id")));
+            batch.forEach(fresh::add);
+        } while (batch.hasNext());
+
+        lock.writeLock().lock();
+        try {
+            segment = fresh;
+            rebuilding = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        touchedDuringRebuild.forEach(this::reindex);
+        touchedDuringRebuild.clear();
+
+        lastBuildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        buildTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        lastBuiltAt = LocalDateTime.now();
+        ready = true;
+        log.info("Zbudowano indeks wyszukiwania zgłoszeń: {} dokumentów, {} termów w {} ms",
+                fresh.docTerms.size(), fresh.postings.size(), lastBuildMillis);
+    }
+
+    @EventListener
+    public void onZgloszenieEvent(ZgloszenieDomainEvent event) {
+        EventType type = event.getType();
+        if (type != EventType.CREATED && type != EventType.UPDATED && type != EventType.DELETED) {
+            return;
+        }
+        if (rebuilding) touchedDuringRebuild.add(event.getZgloszenieId());
+
+        if (type == EventType.DELETED) {
+            remove(event.getZgloszenieId());
+        } else {
+            reindex(event.getZgloszenieId());
+        }
+    }
+
+    /**
+     * Zwraca id pasujących zgłoszeń, od najlepiej dopasowanych.
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> terms = PolishTextNormalizer.tokenize(query);
+        if (terms.isEmpty() || limit <= 0) return List.of();
+
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> scores = null;
+            for (String term : terms) {
+                Map<Long, Integer> termScores = segment.match(term);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    Map<Long, Integer> merged = new HashMap<>();
+                    for (Map.Entry<Long, Integer> e : scores.entrySet()) {
+                        Integer s = termScores.get(e.getKey());
+                        if (s != null) merged.put(e.getKey(), e.getValue() + s);
+                    }
+                    scores = merged;
+                }
+                if (scores.isEmpty()) return List.of();
+            }
+
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.<Long, Integer>comparingByKey().reversed()))
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+            queryTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int getDocumentCount() {
+        return segment.docTerms.size();
+    }
+
+    public int getTermCount() {
+        return segment.postings.size();
+    }
+
+    public long getLastBuildMillis() {
+        return lastBuildMillis;
+    }
+
+    public LocalDateTime getLastBuiltAt() {
+        return lastBuiltAt;
+    }
+
+    private void reindex(Long id) {
+        Optional<Zgloszenie> z = zgloszenieRepository.findById(id);
+        lock.writeLock().lock();
+        try {
+            segment.remove(id);
+            z.ifPresent(segment::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            segment.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Struktury indeksu: term → (id → waga) oraz id → termy dokumentu (do usuwania).
+     */
+    private static final class Segment {
+        final NavigableMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+        final Map<Long, Set<String>> docTerms = new ConcurrentHashMap<>();
+
+        void add(Zgloszenie z) {
+            Map<String, Integer> weights = new HashMap<>();
+            collect(weights, z.getTytul(), W_TYTUL);
+            collect(weights, z.getTyp(), W_TYP);
+            collect(weights, z.getImie(), W_OSOBA);
+            collect(weights, z.getNazwisko(), W_OSOBA);
+            collect(weights, z.getOpis(), W_OPIS);
+
+            weights.forEach((term, w) ->
+                    postings.computeIfAbsent(term, k -> new ConcurrentHashMap<>()).put(z.getId(), w));
+            docTerms.put(z.getId(), weights.keySet());
+        }
+
+        void remove(Long id) {
+            Set<String> terms = docTerms.remove(id);
+            if (terms == null) return;
+            for (String term : terms) {
+                Map<Long, Integer> ids = postings.get(term);
+                if (ids == null) continue;
+                ids.remove(id);
+                if (ids.isEmpty()) postings.remove(term);
+            }
+        }
+
+        /** Dopasowanie prefiksowe; pełny token ma podwójną wagę. */
+        Map<Long, Integer> match(String term) {
+            Map<Long, Integer> result = new HashMap<>();
+            for (Map.Entry<String, Map<Long, Integer>> e
+                    : postings.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+                int factor = e.getKey().length() == term.length() ? 2 : 1;
+                e.getValue().forEach((id, w) -> result.merge(id, w * factor, Math::max));
+            }
+            return result;
+        }
+
+        private static void collect(Map<String, Integer> weights, String text, int weight) {
+            for (String token : PolishTextNormalizer.tokenize(text)) {
+                weights.merge(token, weight, Math::max);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package drimer.drimain.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Nieprzezroczysta pozycja (timestamp, id) w porządku keyset – kursor stron (nagłówek X-Next-Cursor,
+ * parametr cursor) i token synchronizacji przyrostowej (parametr since). Klient odsyła go bez zmian.
+ * Porządek tylko po id (np. raporty) ma timestamp == null.
+ */
+public record KeysetCursor(LocalDateTime timestamp, Long id) {
+
+    public String encode() {
+        String raw = (timestamp != null ? timestamp.toString() : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** @param timestamped czy porządek ma timestamp – kursor z innego porządku jest odrzucany */
+    public static KeysetCursor decode(String token, boolean timestamped) {
+        if (token == null || token.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            if (sep < 0) throw new IllegalArgumentException("Invalid cursor");
+            LocalDateTime timestamp = sep == 0 ? null : LocalDateTime.parse(raw.substring(0, sep));
+            if ((timestamp != null) != timestamped) throw new IllegalArgumentException("Invalid cursor");
+            return new KeysetCursor(timestamp, Long.valueOf(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
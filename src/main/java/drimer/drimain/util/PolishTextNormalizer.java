@@ -0,0 +1,43 @@
+package drimer.drimain.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizacja tekstu pod wyszukiwanie: małe litery, zdjęte znaki diakrytyczne
+ * (ą→a, ć→c, ę→e, ł→l, ń→n, ó→o, ś→s, ź/ż→z) i podział na tokeny alfanumeryczne.
+ */
+public final class PolishTextNormalizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALNUM = Pattern.compile("[^\\p{Alnum}]+", Pattern.UNICODE_CHARACTER_CLASS);
+    private static final Locale PL = Locale.forLanguageTag("pl");
+
+    private PolishTextNormalizer() {}
+
+    public static String fold(String raw) {
+        if (raw == null || raw.isEmpty()) return "";
+        String lower = raw.toLowerCase(PL)
+                .replace('ł', 'l'); // ł nie rozkłada się w NFD
+        return COMBINING_MARKS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    public static List<String> tokenize(String raw) {
+        List<String> tokens = new ArrayList<>();
+        for (String t : NON_ALNUM.split(fold(raw))) {
+            if (!t.isEmpty()) tokens.add(t);
+        }
+        return tokens;
+    }
+
+    /**
+     * Jak {@link #tokenize}, ale jako jeden ciąg: tokeny rozdzielone pojedynczą spacją (pod n-gramy
+     * obejmujące granice słów).
+     */
+    public static String squash(String raw) {
+        return NON_ALNUM.matcher(fold(raw)).replaceAll(" ").trim();
+    }
+}
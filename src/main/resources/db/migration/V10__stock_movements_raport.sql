@@ -0,0 +1,2 @@
+-- Zwroty z raportu ograniczone do tego, co raport pobrał wg dziennika (ruchy RAPORT po raport_id).
+CREATE INDEX IF NOT EXISTS idx_stock_movements_raport ON stock_movements (raport_id);
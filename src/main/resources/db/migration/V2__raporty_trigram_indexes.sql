@@ -0,0 +1,5 @@
+-- Wyszukiwanie raportów (PostgresRaportSearch): LIKE '%q%' po lower(...) przez indeksy GIN trigramów
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_raporty_typ_naprawy_trgm ON raporty USING gin (lower(typ_naprawy) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_raporty_opis_trgm ON raporty USING gin (lower(opis) gin_trgm_ops);
@@ -0,0 +1,12 @@
+-- V1 tworzy tabelę part_usage, a encja PartUsage mapuje part_usages – ujednolicenie nazwy.
+DO $$
+BEGIN
+    IF to_regclass('part_usages') IS NULL AND to_regclass('part_usage') IS NOT NULL THEN
+        ALTER TABLE part_usage RENAME TO part_usages;
+    END IF;
+END $$;
+
+-- PartUsage: identyfikatory z sekwencji z pulą 50 (allocationSize w encji) – batch INSERT w JDBC.
+-- Optymalizator pooled traktuje wartość sekwencji jako górną granicę puli, więc start = max(id) + 50.
+CREATE SEQUENCE IF NOT EXISTS part_usages_seq INCREMENT BY 50;
+SELECT setval('part_usages_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM part_usages), false);
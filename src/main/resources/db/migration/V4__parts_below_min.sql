@@ -0,0 +1,4 @@
+-- Niski stan części: kolumna wyliczana ilosc < min_ilosc (także przy atomowych UPDATE stanu)
+-- i indeks częściowy tylko po częściach poniżej minimum – GET /api/czesci?belowMin=true czyta sam indeks.
+ALTER TABLE parts ADD COLUMN IF NOT EXISTS below_min BOOLEAN GENERATED ALWAYS AS (ilosc < min_ilosc) STORED;
+CREATE INDEX IF NOT EXISTS idx_parts_below_min ON parts (id) WHERE below_min;
@@ -0,0 +1,31 @@
+-- Dziennik ruchów magazynowych (tylko dopisywanie) i dzienne snapshoty stanów części.
+-- part_id bez klucza obcego – historia zostaje po usunięciu części.
+CREATE TABLE IF NOT EXISTS stock_movements (
+    id BIGSERIAL PRIMARY KEY,
+    part_id BIGINT NOT NULL,
+    delta INTEGER NOT NULL,
+    balance_after INTEGER NOT NULL,
+    reason VARCHAR(20) NOT NULL,
+    raport_id BIGINT,
+    username VARCHAR(100),
+    note VARCHAR(255),
+    created_at TIMESTAMP NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_stock_movements_part_created ON stock_movements (part_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_stock_movements_created ON stock_movements (created_at);
+
+CREATE TABLE IF NOT EXISTS stock_snapshots (
+    id BIGSERIAL PRIMARY KEY,
+    part_id BIGINT NOT NULL,
+    as_of TIMESTAMP NOT NULL,
+    balance INTEGER NOT NULL,
+    consumed BIGINT NOT NULL,
+    CONSTRAINT uk_stock_snapshots_part_as_of UNIQUE (part_id, as_of)
+);
+CREATE INDEX IF NOT EXISTS idx_stock_snapshots_as_of ON stock_snapshots (as_of);
+
+-- Stan początkowy części sprzed dziennika
+INSERT INTO stock_movements (part_id, delta, balance_after, reason, username, created_at)
+SELECT p.id, p.ilosc, p.ilosc, 'OPENING', 'system', now() FROM parts p
+WHERE COALESCE(p.ilosc, 0) <> 0
+  AND NOT EXISTS (SELECT 1 FROM stock_movements m WHERE m.part_id = p.id);
@@ -0,0 +1,2 @@
+-- Widok miesiąca harmonogramu: zapytanie zakresowe data BETWEEN zamiast pełnego skanu
+CREATE INDEX IF NOT EXISTS idx_harmonogramy_data ON harmonogramy (data);
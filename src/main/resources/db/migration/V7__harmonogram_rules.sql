@@ -0,0 +1,29 @@
+-- Reguły cyklicznych przeglądów maszyn; wystąpienia są wyliczane w locie, w harmonogramy trafiają
+-- dopiero edytowane lub zakończone (rule_id, occurrence_date).
+CREATE TABLE IF NOT EXISTS harmonogram_rules (
+    id BIGSERIAL PRIMARY KEY,
+    maszyna_id BIGINT NOT NULL REFERENCES maszyny (id),
+    osoba_id BIGINT REFERENCES osoby (id),
+    opis VARCHAR(255),
+    czestotliwosc VARCHAR(20) NOT NULL,
+    interwal INTEGER NOT NULL,
+    dzien_tygodnia VARCHAR(10),
+    dzien_miesiaca INTEGER,
+    tydzien_miesiaca INTEGER,
+    data_od DATE NOT NULL,
+    data_do DATE,
+    updated_at TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS idx_harmonogram_rules_range ON harmonogram_rules (data_od, data_do);
+
+-- Wystąpienia wyłączone z wyliczania: zmaterializowane albo pominięte
+CREATE TABLE IF NOT EXISTS harmonogram_rule_exclusions (
+    id BIGSERIAL PRIMARY KEY,
+    rule_id BIGINT NOT NULL,
+    data DATE NOT NULL,
+    CONSTRAINT uk_harmonogram_rule_exclusions UNIQUE (rule_id, data)
+);
+CREATE INDEX IF NOT EXISTS idx_harmonogram_rule_exclusions_data ON harmonogram_rule_exclusions (data);
+
+ALTER TABLE harmonogramy ADD COLUMN IF NOT EXISTS rule_id BIGINT REFERENCES harmonogram_rules (id);
+ALTER TABLE harmonogramy ADD COLUMN IF NOT EXISTS occurrence_date DATE;
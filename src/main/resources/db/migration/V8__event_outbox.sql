@@ -0,0 +1,10 @@
+-- Outbox zdarzeń domenowych (app.outbox.enabled=true): zapis w transakcji zmiany, OutboxRelay innych
+-- węzłów czyta po id; wiersze starsze niż app.outbox.retention-hours są usuwane.
+CREATE TABLE IF NOT EXISTS event_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    event_type VARCHAR(60) NOT NULL,
+    payload VARCHAR(65535) NOT NULL,
+    origin_node VARCHAR(64) NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_event_outbox_created_at ON event_outbox (created_at);
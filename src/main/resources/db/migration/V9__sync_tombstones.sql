@@ -0,0 +1,18 @@
+-- Synchronizacja przyrostowa (/api/sync/**): znacznik zmiany z indeksem (updated_at, id) i ślady usunięć.
+-- Istniejące wiersze dostają updated_at przy starcie aplikacji (backfillUpdatedAt).
+ALTER TABLE raporty ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP;
+CREATE INDEX IF NOT EXISTS idx_raporty_updated_at_id ON raporty (updated_at, id);
+
+ALTER TABLE harmonogramy ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP;
+CREATE INDEX IF NOT EXISTS idx_harmonogramy_updated_at_id ON harmonogramy (updated_at, id);
+
+ALTER TABLE parts ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP;
+CREATE INDEX IF NOT EXISTS idx_parts_updated_at_id ON parts (updated_at, id);
+
+CREATE TABLE IF NOT EXISTS sync_tombstones (
+    id BIGSERIAL PRIMARY KEY,
+    entity_type VARCHAR(20) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    deleted_at TIMESTAMP NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_sync_tombstones_type_deleted ON sync_tombstones (entity_type, deleted_at);
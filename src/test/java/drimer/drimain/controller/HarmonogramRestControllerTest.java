@@ -0,0 +1,446 @@
+package drimer.drimain.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import drimer.drimain.DriMainApplication;
+import drimer.drimain.api.dto.HarmonogramCreateRequest;
+import drimer.drimain.api.dto.MaszynaCreateRequest;
+import drimer.drimain.api.dto.OsobaCreateRequest;
+import drimer.drimain.api.exception.HarmonogramConflictException;
+import drimer.drimain.model.Dzial;
+import drimer.drimain.model.Harmonogram;
+import drimer.drimain.model.Maszyna;
+import drimer.drimain.model.Osoba;
+import drimer.drimain.model.enums.StatusHarmonogramu;
+import drimer.drimain.repository.DzialRepository;
+import drimer.drimain.repository.HarmonogramRepository;
+import drimer.drimain.repository.HarmonogramRuleExclusionRepository;
+import drimer.drimain.repository.HarmonogramRuleRepository;
+import drimer.drimain.repository.MaszynaRepository;
+import drimer.drimain.repository.OsobaRepository;
+import drimer.drimain.service.HarmonogramCalendar;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.mvc.support.RedirectAttributesModelMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Widok miesiąca: zapytanie zakresowe z maszyną, działem i osobą, kolejne odczyty z pamięci,
+ * zapis unieważnia miesiąc. Wystąpienia reguł cyklicznych są wyliczane, a zapisywane dopiero przy edycji.
+ * Zapis zajmujący osobę lub maszynę w zajętym dniu jest odrzucany (indeks konfliktów).
+ * Bez transakcji testu – unieważnienie następuje po commit.
+ */
+// Relay outboksu odpytuje bazę w tle i psułby licznik zapytań
+@SpringBootTest(classes = DriMainApplication.class, properties = "app.outbox.poll-interval-ms=3600000")
+@WithMockUser(username = "tester")
+class HarmonogramRestControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private HarmonogramRepository harmonogramRepository;
+
+    @Autowired
+    private MaszynaRepository maszynaRepository;
+
+    @Autowired
+    private DzialRepository dzialRepository;
+
+    @Autowired
+    private OsobaRepository osobaRepository;
+
+    @Autowired
+    private HarmonogramRuleRepository harmonogramRuleRepository;
+
+    @Autowired
+    private HarmonogramRuleExclusionRepository harmonogramRuleExclusionRepository;
+
+    @Autowired
+    private HarmonogramCalendar harmonogramCalendar;
+
+    @Autowired
+    private HarmonogramRestController harmonogramRestController;
+
+    @Autowired
+    private AdminRestController adminRestController;
+
+    @Autowired
+    private HarmonogramController harmonogramController;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> harmonogramIds = new ArrayList<>();
+    private Maszyna maszyna;
+    private Osoba osoba;
+    private Dzial dzial;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders
+                .webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+        harmonogramCalendar.evictAll();
+
+        dzial = new Dzial();
+        dzial.setNazwa("Dział kalendarza");
+        dzial = dzialRepository.save(dzial);
+        maszyna = new Maszyna();
+        maszyna.setNazwa("Prasa kalendarzowa");
+        maszyna.setDzial(dzial);
+        maszyna = maszynaRepository.save(maszyna);
+        osoba = new Osoba();
+        osoba.setImieNazwisko("Jan Kalendarz");
+        osoba = osobaRepository.save(osoba);
+        for (int day = 1; day <= 5; day++) {
+            Harmonogram h = new Harmonogram();
+            h.setData(LocalDate.of(2031, 3, day * 5));
+            h.setOpis("Przegląd " + day);
+            h.setMaszyna(maszyna);
+            h.setOsoba(osoba);
+            harmonogramIds.add(harmonogramRepository.save(h).getId());
+        }
+        Harmonogram other = new Harmonogram();
+        other.setData(LocalDate.of(2031, 4, 1));
+        other.setOpis("Inny miesiąc");
+        harmonogramIds.add(harmonogramRepository.save(other).getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        harmonogramRepository.deleteAllById(harmonogramIds);
+        // wystąpienia zapisane z reguły (po jej usunięciu – zwykłe wpisy tej maszyny)
+        harmonogramRepository.deleteAll(harmonogramRepository.findAll().stream()
+                .filter(h -> h.getMaszyna() != null && maszyna.getId().equals(h.getMaszyna().getId())).toList());
+        harmonogramRuleExclusionRepository.deleteAll();
+        harmonogramRuleRepository.deleteAll();
+        maszynaRepository.delete(maszyna);
+        dzialRepository.delete(dzial);
+        osobaRepository.delete(osoba);
+        harmonogramCalendar.evictAll();
+    }
+
+    @Test
+    void shouldServeMonthFromRangeQueryThenFromCacheUntilWrite() throws Exception {
+        Statistics stats = statistics();
+        mockMvc.perform(get("/api/harmonogramy").param("year", "2031").param("month", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[0].maszyna.nazwa").value("Prasa kalendarzowa"))
+                .andExpect(jsonPath("$[0].osoba.imieNazwisko").value("Jan Kalendarz"));
+        // wpisy z zakresu i reguły aktywne w miesiącu (brak reguł – bez zapytania o wyjątki)
+        assertEquals(2, stats.getPrepareStatementCount());
+
+        stats.clear();
+        mockMvc.perform(get("/api/harmonogramy").param("year", "2031").param("month", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5));
+        assertEquals(0, stats.getPrepareStatementCount());
+
+        // Przeniesienie wpisu z kwietnia do marca unieważnia oba miesiące
+        mockMvc.perform(get("/api/harmonogramy").param("year", "2031").param("month", "4"))
+                .andExpect(jsonPath("$.length()").value(1));
+        Long moved = harmonogramIds.get(harmonogramIds.size() - 1);
+        mockMvc.perform(put("/api/harmonogramy/" + moved).with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("data", "2031-03-31"))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/harmonogramy").param("year", "2031").param("month", "3"))
+                .andExpect(jsonPath("$.length()").value(6))
+                .andExpect(jsonPath("$[5].opis").value("Inny miesiąc"));
+        mockMvc.perform(get("/api/harmonogramy").param("year", "2031").param("month", "4"))
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/harmonogramy").param("year", "2031"))
+                .andExpect(jsonPath("$.length()").value(6));
+    }
+
+    @Test
+    void shouldEvictCachedMonthsWhenMaszynaOrOsobaIsRenamed() throws Exception {
+        mockMvc.perform(get("/api/harmonogramy").param("year", "2031").param("month", "3"))
+                .andExpect(jsonPath("$[0].maszyna.nazwa").value("Prasa kalendarzowa"));
+
+        MaszynaCreateRequest maszynaReq = new MaszynaCreateRequest();
+        maszynaReq.setNazwa("Prasa po zmianie");
+        adminRestController.updateMaszyna(maszyna.getId(), maszynaReq);
+        OsobaCreateRequest osobaReq = new OsobaCreateRequest();
+        osobaReq.setImieNazwisko("Jan Przemianowany");
+        adminRestController.updateOsoba(osoba.getId(), osobaReq);
+
+        mockMvc.perform(get("/api/harmonogramy").param("year", "2031").param("month", "3"))
+                .andExpect(jsonPath("$[0].maszyna.nazwa").value("Prasa po zmianie"))
+                .andExpect(jsonPath("$[0].osoba.imieNazwisko").value("Jan Przemianowany"));
+    }
+
+    @Test
+    void shouldKeepRuleLinkWhenOccurrenceIsEditedInLegacyForm() throws Exception {
+        Map<String, Object> rule = Map.of("maszynaId", maszyna.getId(), "osobaId", osoba.getId(),
+                "opis", "Smarowanie", "czestotliwosc", "TYGODNIOWO", "dzienTygodnia", "WEDNESDAY",
+                "dataOd", "2030-01-01");
+        long ruleId = objectMapper.readTree(mockMvc.perform(post("/api/harmonogramy/reguly").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(rule)))
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+        String occurrence = "/api/harmonogramy/reguly/" + ruleId + "/wystapienia/2031-03-12";
+        long rowId = objectMapper.readTree(mockMvc.perform(put(occurrence).with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("status", "W_TRAKCIE"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+
+        // Formularz /harmonogramy/edit nie ma pól reguły
+        Harmonogram form = new Harmonogram();
+        form.setId(rowId);
+        form.setData(LocalDate.of(2031, 3, 12));
+        form.setOpis("Smarowanie – poprawione");
+        form.setMaszyna(maszyna);
+        form.setOsoba(osoba);
+        form.setStatus(StatusHarmonogramu.W_TRAKCIE);
+        harmonogramController.saveEditedHarmonogram(form, new RedirectAttributesModelMap());
+
+        Harmonogram edited = harmonogramRepository.findById(rowId).orElseThrow();
+        assertEquals(ruleId, edited.getRule().getId());
+        assertEquals(LocalDate.of(2031, 3, 12), edited.getOccurrenceDate());
+        assertEquals("Smarowanie – poprawione", edited.getOpis());
+
+        long stored = harmonogramRepository.count();
+        mockMvc.perform(put(occurrence).with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("status", "ZAKONCZONE"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(rowId));
+        assertEquals(stored, harmonogramRepository.count());
+    }
+
+    @Test
+    void shouldExpandRuleOccurrencesAndPersistOnlyEditedOnes() throws Exception {
+        // Co tydzień w środę od 2030 – w marcu 2031: 5, 12, 19, 26
+        Map<String, Object> rule = Map.of("maszynaId", maszyna.getId(), "osobaId", osoba.getId(),
+                "opis", "Smarowanie", "czestotliwosc", "TYGODNIOWO", "dzienTygodnia", "WEDNESDAY",
+                "dataOd", "2030-01-01");
+        JsonNode created = objectMapper.readTree(mockMvc.perform(post("/api/harmonogramy/reguly").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(rule)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString());
+        long ruleId = created.get("id").asLong();
+
+        Statistics stats = statistics();
+        mockMvc.perform(get("/api/harmonogramy").param("year", "2031").param("month", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(9))
+                .andExpect(jsonPath("$[1].data").value("2031-03-05"))
+                .andExpect(jsonPath("$[1].id").doesNotExist())
+                .andExpect(jsonPath("$[1].ruleId").value(ruleId))
+                .andExpect(jsonPath("$[1].maszyna.nazwa").value("Prasa kalendarzowa"));
+        // wpisy, reguły aktywne w miesiącu, wyjątki z miesiąca
+        assertEquals(3, stats.getPrepareStatementCount());
+        long stored = harmonogramRepository.count();
+
+        // Zakończenie wystąpienia 12.03 zapisuje je jako wiersz; pominięcie 19.03 tylko wyjątek
+        mockMvc.perform(put("/api/harmonogramy/reguly/" + ruleId + "/wystapienia/2031-03-12").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("status", "ZAKONCZONE"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").isNumber())
+                .andExpect(jsonPath("$.occurrenceDate").value("2031-03-12"))
+                .andExpect(jsonPath("$.status").value("ZAKONCZONE"));
+        mockMvc.perform(delete("/api/harmonogramy/reguly/" + ruleId + "/wystapienia/2031-03-19").with(csrf()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(put("/api/harmonogramy/reguly/" + ruleId + "/wystapienia/2031-03-13").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+        assertEquals(stored + 1, harmonogramRepository.count());
+
+        JsonNode march = objectMapper.readTree(mockMvc.perform(get("/api/harmonogramy")
+                        .param("from", "2031-03-10").param("to", "2031-03-31"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        List<String> ruleDates = new ArrayList<>();
+        march.forEach(n -> {
+            if (n.hasNonNull("ruleId")) ruleDates.add(n.get("data").asText() + ":" + n.get("status").asText());
+        });
+        assertEquals(List.of("2031-03-12:ZAKONCZONE", "2031-03-26:PLANOWANE"), ruleDates);
+
+        // Zmiana reguły czyści cały kalendarz
+        mockMvc.perform(delete("/api/harmonogramy/reguly/" + ruleId).with(csrf()))
+                .andExpect(status().isNoContent());
+        JsonNode after = objectMapper.readTree(mockMvc.perform(get("/api/harmonogramy")
+                        .param("year", "2031").param("month", "3"))
+                .andReturn().getResponse().getContentAsString());
+        assertEquals(6, after.size());
+        after.forEach(n -> assertTrue(n.get("ruleId").isNull()));
+    }
+
+    @Test
+    void shouldRejectDoubleBookingAndListConflicts() throws Exception {
+        long first = createVia(Map.of("data", "2031-05-07", "maszynaId", maszyna.getId(), "osobaId", osoba.getId()));
+        Maszyna other = new Maszyna();
+        other.setNazwa("Tokarka kalendarzowa");
+        other.setDzial(dzial);
+        other = maszynaRepository.save(other);
+        try {
+            Map<String, Object> sameOsoba = Map.of("data", "2031-05-07", "maszynaId", other.getId(), "osobaId", osoba.getId());
+            mockMvc.perform(post("/api/harmonogramy").with(csrf())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(sameOsoba)))
+                    .andExpect(status().isConflict())
+                    .andExpect(jsonPath("$.error").value("HarmonogramConflict"));
+
+            long second = createVia(Map.of("data", "2031-05-08", "maszynaId", other.getId(), "osobaId", osoba.getId()));
+            // Przeniesienie na zajęty dzień też jest sprawdzane; wymuszenie zostawia konflikt widoczny w raporcie
+            mockMvc.perform(put("/api/harmonogramy/" + second).with(csrf())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(Map.of("data", "2031-05-07"))))
+                    .andExpect(status().isConflict());
+            mockMvc.perform(put("/api/harmonogramy/" + second).param("allowConflicts", "true").with(csrf())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(Map.of("data", "2031-05-07"))))
+                    .andExpect(status().isOk());
+
+            mockMvc.perform(get("/api/harmonogramy/conflicts").param("from", "2031-05-01").param("to", "2031-05-31"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(1))
+                    .andExpect(jsonPath("$[0].data").value("2031-05-07"))
+                    .andExpect(jsonPath("$[0].osobaId").value(osoba.getId()))
+                    .andExpect(jsonPath("$[0].harmonogramIds.length()").value(2));
+
+            mockMvc.perform(delete("/api/harmonogramy/" + second).with(csrf())).andExpect(status().isNoContent());
+            mockMvc.perform(get("/api/harmonogramy/conflicts").param("from", "2031-05-01").param("to", "2031-05-31"))
+                    .andExpect(jsonPath("$.length()").value(0));
+        } finally {
+            mockMvc.perform(delete("/api/harmonogramy/" + first).with(csrf()));
+            maszynaRepository.delete(other);
+        }
+    }
+
+    @Test
+    void shouldTreatRuleOccurrencesAsBookings() throws Exception {
+        // Środy marca 2031: 5, 12, 19, 26
+        Map<String, Object> rule = Map.of("maszynaId", maszyna.getId(), "osobaId", osoba.getId(),
+                "opis", "Smarowanie", "czestotliwosc", "TYGODNIOWO", "dzienTygodnia", "WEDNESDAY",
+                "dataOd", "2030-01-01");
+        long ruleId = objectMapper.readTree(mockMvc.perform(post("/api/harmonogramy/reguly").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(rule)))
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+
+        mockMvc.perform(post("/api/harmonogramy").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("data", "2031-03-19",
+                                "maszynaId", maszyna.getId(), "osobaId", osoba.getId()))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value(containsString("rules [" + ruleId + "]")));
+        long forced = objectMapper.readTree(mockMvc.perform(post("/api/harmonogramy")
+                        .param("allowConflicts", "true").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("data", "2031-03-26",
+                                "maszynaId", maszyna.getId(), "osobaId", osoba.getId()))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+        harmonogramIds.add(forced);
+        mockMvc.perform(get("/api/harmonogramy/conflicts").param("from", "2031-03-01").param("to", "2031-03-31"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].data").value("2031-03-26"))
+                .andExpect(jsonPath("$[0].osobaId").value(osoba.getId()))
+                .andExpect(jsonPath("$[0].harmonogramIds[0]").value(forced))
+                .andExpect(jsonPath("$[0].ruleIds[0]").value(ruleId))
+                .andExpect(jsonPath("$[1].maszynaId").value(maszyna.getId()));
+
+        // Zapisane wystąpienie nie koliduje z własną regułą, ale przeniesione na inne wystąpienie – tak
+        String occurrence = "/api/harmonogramy/reguly/" + ruleId + "/wystapienia/2031-03-12";
+        mockMvc.perform(put(occurrence).with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("status", "W_TRAKCIE"))))
+                .andExpect(status().isOk());
+        mockMvc.perform(put(occurrence).with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("data", "2031-03-19"))))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(delete("/api/harmonogramy/reguly/" + ruleId + "/wystapienia/2031-03-26").with(csrf()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/harmonogramy/conflicts").param("from", "2031-03-01").param("to", "2031-03-31"))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void shouldLetOnlyOneConcurrentBookingOfTheSameDayThrough() throws Exception {
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(pool.submit(() -> {
+                HarmonogramCreateRequest req = new HarmonogramCreateRequest();
+                req.setData(LocalDate.of(2031, 6, 11));
+                req.setMaszynaId(maszyna.getId());
+                req.setOsobaId(osoba.getId());
+                start.await();
+                try {
+                    return harmonogramRestController.create(req, false).getId();
+                } catch (HarmonogramConflictException e) {
+                    return null;
+                }
+            }));
+        }
+        start.countDown();
+        List<Long> created = new ArrayList<>();
+        for (Future<Long> f : results) {
+            Long id = f.get(30, TimeUnit.SECONDS);
+            if (id != null) created.add(id);
+        }
+        pool.shutdown();
+        harmonogramIds.addAll(created);
+        assertEquals(1, created.size());
+    }
+
+    private long createVia(Map<String, Object> body) throws Exception {
+        String json = mockMvc.perform(post("/api/harmonogramy").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(body)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(json).get("id").asLong();
+    }
+
+    private Statistics statistics() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.setStatisticsEnabled(true);
+        stats.clear();
+        return stats;
+    }
+}
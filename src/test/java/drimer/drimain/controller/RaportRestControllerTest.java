@@ -0,0 +1,298 @@
+package drimer.drimain.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import drimer.drimain.DriMainApplication;
+import drimer.drimain.model.*;
+import drimer.drimain.model.enums.RaportStatus;
+import drimer.drimain.repository.*;
+import drimer.drimain.service.RaportSearchIndex;
+import drimer.drimain.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Relay outboksu odpytuje bazę w tle i psułby licznik zapytań
+@SpringBootTest(classes = DriMainApplication.class, properties = "app.outbox.poll-interval-ms=3600000")
+@Transactional
+@WithMockUser(username = "tester")
+class RaportRestControllerTest {
+
+    private static final int RAPORTS = 12;
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RaportRepository raportRepository;
+
+    @Autowired
+    private MaszynaRepository maszynaRepository;
+
+    @Autowired
+    private OsobaRepository osobaRepository;
+
+    @Autowired
+    private PartRepository partRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private RaportSearchIndex raportSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders
+                .webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+
+        raportRepository.deleteAll();
+        for (int i = 0; i < RAPORTS; i++) {
+            Maszyna maszyna = new Maszyna();
+            maszyna.setNazwa("Maszyna " + i);
+            Osoba osoba = new Osoba();
+            osoba.setImieNazwisko("Osoba " + i);
+            Raport r = new Raport();
+            r.setTypNaprawy("Naprawa " + i);
+            r.setStatus(RaportStatus.NOWY);
+            r.setDataNaprawy(LocalDate.of(2024, 1, 1).plusDays(i % 3)); // remisy na kolumnie sortowania
+            r.setMaszyna(maszynaRepository.save(maszyna));
+            r.setOsoba(osobaRepository.save(osoba));
+            for (int j = 0; j < 2; j++) {
+                Part part = new Part();
+                part.setNazwa("Część " + i + "/" + j);
+                part.setKod("K-" + i + "-" + j);
+                part.setIlosc(10);
+                PartUsage usage = new PartUsage();
+                usage.setPart(partRepository.save(part));
+                usage.setIlosc(1);
+                r.addPartUsage(usage);
+            }
+            raportRepository.save(r);
+        }
+    }
+
+    @Test
+    void shouldLoadPageWithBoundedStatementCount() throws Exception {
+        Statistics stats = statistics();
+        mockMvc.perform(get("/api/raporty").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(5))
+                .andExpect(jsonPath("$.content[0].partUsages.length()").value(2))
+                .andExpect(jsonPath("$.content[0].maszyna.nazwa").exists())
+                .andExpect(jsonPath("$.totalElements").value(RAPORTS));
+        // identyfikatory + szczegóły + COUNT, niezależnie od liczby wierszy i relacji
+        assertEquals(3, stats.getPrepareStatementCount());
+
+        stats = statistics();
+        mockMvc.perform(get("/api/raporty").param("size", "5").param("withTotal", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(5))
+                .andExpect(jsonPath("$.last").value(false))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+        assertEquals(2, stats.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldPageWithoutGapsOrDuplicates() throws Exception {
+        List<Long> offsetIds = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            JsonNode body = json(mockMvc.perform(get("/api/raporty")
+                            .param("size", "5").param("page", String.valueOf(page))
+                            .param("sort", "dataNaprawy,desc").param("withTotal", "false"))
+                    .andExpect(status().isOk()).andReturn());
+            body.get("content").forEach(r -> offsetIds.add(r.get("id").asLong()));
+        }
+        assertEquals(RAPORTS, offsetIds.stream().distinct().count());
+
+        List<Long> keysetIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            MvcResult result = mockMvc.perform(cursor == null
+                            ? get("/api/raporty/keyset").param("size", "5")
+                            : get("/api/raporty/keyset").param("size", "5").param("cursor", cursor))
+                    .andExpect(status().isOk()).andReturn();
+            json(result).forEach(r -> keysetIds.add(r.get("id").asLong()));
+            cursor = result.getResponse().getHeader(RaportRestController.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+        assertEquals(RAPORTS, keysetIds.stream().distinct().count());
+        assertEquals(keysetIds.stream().sorted((a, b) -> Long.compare(b, a)).toList(), keysetIds);
+    }
+
+    @Test
+    void shouldRejectInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/raporty/keyset").param("cursor", "abc"))
+                .andExpect(status().isBadRequest());
+        // Kursor /api/zgloszenia (z timestamp) nie pasuje do porządku po id
+        mockMvc.perform(get("/api/raporty/keyset")
+                        .param("cursor", new KeysetCursor(LocalDateTime.now(), 5L).encode()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldRankSearchResultsAndFoldPolishCharacters() throws Exception {
+        Raport wOpisie = tekst("Przegląd", "Wymieniono łożysko wrzeciona i uszczelki");
+        Raport wTypie = tekst("Wymiana łożyska", null);
+        raportSearchIndex.rebuild();
+
+        mockMvc.perform(get("/api/raporty/search").param("q", "lozysk"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(wTypie.getId()))
+                .andExpect(jsonPath("$[1].id").value(wOpisie.getId()));
+        // Podciąg przez granicę słów, jak LIKE
+        mockMvc.perform(get("/api/raporty/search").param("q", "ysko wrzec"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(wOpisie.getId()));
+        mockMvc.perform(get("/api/raporty").param("q", "ŁOŻYSK"))
+                .andExpect(jsonPath("$.totalElements").value(2));
+        // Za krótkie dla trigramów – LIKE
+        mockMvc.perform(get("/api/raporty/search").param("q", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void shouldRecheckSubstringAndKeepIndexSemanticsForManyHits() throws Exception {
+        tekst("Przegląd", "abc xbcd");
+        List<Raport> many = new ArrayList<>();
+        for (int i = 0; i < 1100; i++) {
+            Raport r = new Raport();
+            r.setTypNaprawy("Żółte łożysko " + i);
+            r.setStatus(RaportStatus.NOWY);
+            many.add(r);
+        }
+        raportRepository.saveAll(many);
+        raportSearchIndex.rebuild();
+
+        // Wszystkie trigramy "abcd" są w polu, ale nie jako ciągły podciąg
+        mockMvc.perform(get("/api/raporty/search").param("q", "abcd"))
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/raporty").param("q", "abcd"))
+                .andExpect(jsonPath("$.totalElements").value(0));
+        // Ponad jedną listę IN – nadal bez polskich znaków
+        mockMvc.perform(get("/api/raporty").param("q", "zolte lozysk"))
+                .andExpect(jsonPath("$.totalElements").value(1100));
+    }
+
+    private Raport tekst(String typNaprawy, String opis) {
+        Raport r = new Raport();
+        r.setTypNaprawy(typNaprawy);
+        r.setOpis(opis);
+        r.setStatus(RaportStatus.NOWY);
+        return raportRepository.save(r);
+    }
+
+    @Test
+    void shouldPersistPartUsagesInBatchesAndUpdateOnlyChangedLines() throws Exception {
+        List<Long> partIds = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            Part part = new Part();
+            part.setNazwa("Śruba " + i);
+            part.setKod("S-" + i);
+            part.setIlosc(100);
+            partIds.add(partRepository.save(part).getId());
+        }
+        List<Map<String, Object>> usages = new ArrayList<>();
+        partIds.forEach(id -> usages.add(new HashMap<>(Map.of("partId", id, "ilosc", 1))));
+
+        Statistics stats = statistics();
+        MvcResult created = mockMvc.perform(post("/api/raporty").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("typNaprawy", "Duży remont", "partUsages", usages))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        entityManager.flush();
+        EntityStatistics usageStats = stats.getEntityStatistics(PartUsage.class.getName());
+        assertEquals(60, usageStats.getInsertCount());
+        // jedno findAllById, INSERT raportu, kilka pobrań sekwencji i dwa batche zamiast 120 zapytań
+        // (poza wierszami outboksu – zdarzenie zmiany stanu per część)
+        long outboxInserts = stats.getEntityStatistics(OutboxEvent.class.getName()).getInsertCount();
+        long statements = stats.getPrepareStatementCount() - outboxInserts;
+        assertTrue(statements <= 10, "statements: " + statements);
+        assertEquals(99, partRepository.findById(partIds.get(0)).orElseThrow().getIlosc());
+
+        long id = json(created).get("id").asLong();
+        usages.get(0).put("ilosc", 5);
+        usages.remove(usages.size() - 1);
+        stats = statistics();
+        mockMvc.perform(put("/api/raporty/" + id).with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("partUsages", usages))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.partUsages.length()").value(59));
+        entityManager.flush();
+        usageStats = stats.getEntityStatistics(PartUsage.class.getName());
+        assertEquals(0, usageStats.getInsertCount());
+        assertEquals(1, usageStats.getUpdateCount());
+        assertEquals(1, usageStats.getDeleteCount());
+        // Zmiana ilości o 4 zużywa dodatkowo 4 szt., usunięta linia wraca do magazynu
+        assertEquals(95, partRepository.findById(partIds.get(0)).orElseThrow().getIlosc());
+        assertEquals(100, partRepository.findById(partIds.get(59)).orElseThrow().getIlosc());
+    }
+
+    @Test
+    void shouldRejectRaportConsumingMoreThanInStock() throws Exception {
+        Part part = new Part();
+        part.setNazwa("Pas napędowy");
+        part.setKod("P-1");
+        part.setIlosc(2);
+        Long partId = partRepository.save(part).getId();
+
+        mockMvc.perform(post("/api/raporty").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("typNaprawy", "Wymiana pasa",
+                                "partUsages", List.of(Map.of("partId", partId, "ilosc", 3))))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("InsufficientStock"));
+
+        entityManager.clear();
+        assertEquals(2, partRepository.findById(partId).orElseThrow().getIlosc());
+    }
+
+    private JsonNode json(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    /** Zrzuca kontekst utrwalania, żeby relacje nie były podawane z cache pierwszego poziomu. */
+    private Statistics statistics() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics stats = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        stats.setStatisticsEnabled(true);
+        stats.clear();
+        return stats;
+    }
+}
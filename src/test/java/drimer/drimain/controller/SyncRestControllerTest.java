@@ -0,0 +1,152 @@
+package drimer.drimain.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import drimer.drimain.DriMainApplication;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = DriMainApplication.class)
+@Transactional
+@WithMockUser(username = "tester")
+class SyncRestControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders
+                .webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    void shouldReturnChangesAndTombstonesSinceToken() throws Exception {
+        String token = sync(null).get("nextToken").asText();
+
+        long keptId = createPart("SYNC-1");
+        long deletedId = createPart("SYNC-2");
+        mockMvc.perform(delete("/api/czesci/{id}", deletedId))
+                .andExpect(status().isNoContent());
+
+        JsonNode delta = sync(token);
+        List<Long> itemIds = new ArrayList<>();
+        delta.get("items").forEach(i -> itemIds.add(i.get("id").asLong()));
+        List<Long> deletedIds = new ArrayList<>();
+        delta.get("deletedIds").forEach(i -> deletedIds.add(i.asLong()));
+
+        assertTrue(itemIds.contains(keptId));
+        assertFalse(itemIds.contains(deletedId));
+        assertTrue(deletedIds.contains(deletedId));
+        assertFalse(delta.get("fullResync").asBoolean());
+    }
+
+    @Test
+    void shouldPageThroughFullSnapshot() throws Exception {
+        for (int i = 0; i < 3; i++) createPart("PAGE-" + i);
+
+        JsonNode first = sync(null, 2);
+        assertEquals(2, first.get("items").size());
+        assertTrue(first.get("hasMore").asBoolean());
+
+        JsonNode second = sync(first.get("nextToken").asText(), 2);
+        assertFalse(second.get("items").isEmpty());
+        first.get("items").forEach(seen -> second.get("items").forEach(item ->
+                assertNotEquals(seen.get("id").asLong(), item.get("id").asLong())));
+    }
+
+    @Test
+    void shouldPageThroughRowsOlderThanTombstoneRetention() throws Exception {
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) created.add(createPart("OLD-" + i));
+        entityManager.flush();
+        entityManager.clear();
+        jdbcTemplate.update("UPDATE parts SET updated_at = ?", LocalDateTime.now().minusDays(60));
+        String caughtUp = sync(null).get("nextToken").asText();
+        long deletedId = createPart("OLD-DELETED");
+        mockMvc.perform(delete("/api/czesci/{id}", deletedId))
+                .andExpect(status().isNoContent());
+
+        // Pełny snapshot: strony nie mogą wracać do początku mimo starych updatedAt
+        List<Long> seen = new ArrayList<>();
+        String token = null;
+        JsonNode page;
+        int pages = 0;
+        do {
+            page = sync(token, 2);
+            assertFalse(page.get("fullResync").asBoolean());
+            page.get("items").forEach(i -> seen.add(i.get("id").asLong()));
+            token = page.get("nextToken").asText();
+            assertTrue(++pages < 50, "paging does not terminate");
+        } while (page.get("hasMore").asBoolean());
+        assertTrue(seen.containsAll(created));
+        assertEquals(seen.size(), seen.stream().distinct().count());
+
+        // Ślad usunięcia z tokenu "na bieżąco" przychodzi raz, na ostatniej stronie serii
+        createPart("OLD-NEW-1");
+        createPart("OLD-NEW-2");
+        createPart("OLD-NEW-3");
+        List<Long> deletedIds = new ArrayList<>();
+        token = caughtUp;
+        do {
+            page = sync(token, 2);
+            page.get("deletedIds").forEach(i -> deletedIds.add(i.asLong()));
+            token = page.get("nextToken").asText();
+        } while (page.get("hasMore").asBoolean());
+        assertEquals(List.of(deletedId), deletedIds);
+    }
+
+    private JsonNode sync(String since) throws Exception {
+        return sync(since, 500);
+    }
+
+    private JsonNode sync(String since, int size) throws Exception {
+        var request = get("/api/sync/czesci").param("size", String.valueOf(size));
+        if (since != null) request.param("since", since);
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private long createPart(String kod) throws Exception {
+        String body = mockMvc.perform(post("/api/czesci")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nazwa\":\"Łożysko\",\"kod\":\"" + kod + "\",\"ilosc\":5,\"minIlosc\":1}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+}
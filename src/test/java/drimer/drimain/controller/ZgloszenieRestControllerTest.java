@@ -0,0 +1,252 @@
+package drimer.drimain.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import drimer.drimain.DriMainApplication;
+import drimer.drimain.model.Attachment;
+import drimer.drimain.model.Dzial;
+import drimer.drimain.model.User;
+import drimer.drimain.model.Zgloszenie;
+import drimer.drimain.model.enums.ZgloszenieStatus;
+import drimer.drimain.repository.DzialRepository;
+import drimer.drimain.repository.UserRepository;
+import drimer.drimain.repository.ZgloszenieRepository;
+import drimer.drimain.service.ZgloszenieSearchIndex;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.ui.ExtendedModelMap;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Relay outboksu odpytuje bazę w tle i psułby licznik zapytań
+@SpringBootTest(classes = DriMainApplication.class, properties = "app.outbox.poll-interval-ms=3600000")
+@Transactional
+@WithMockUser(username = "tester")
+class ZgloszenieRestControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ZgloszenieRepository zgloszenieRepository;
+
+    @Autowired
+    private ZgloszenieSearchIndex searchIndex;
+
+    @Autowired
+    private DzialRepository dzialRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ZgloszenieController zgloszenieController;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders
+                .webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+
+        zgloszenieRepository.deleteAll();
+        for (int i = 0; i < 5; i++) {
+            Zgloszenie z = zgloszenie("Awaria", ZgloszenieStatus.OPEN, "Wyciek oleju na linii " + i);
+            z.setDzial(dzial("Dzial testowy " + i));
+            z.setAutor(autor("autor" + i));
+            zgloszenieRepository.save(z);
+        }
+        zgloszenieRepository.save(zgloszenie("Przegląd", ZgloszenieStatus.DONE, "Przegląd okresowy prasy hydraulicznej"));
+        searchIndex.rebuild();
+    }
+
+    @Test
+    void shouldWalkAllPagesWithKeysetCursor() throws Exception {
+        Set<Long> seen = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+
+        do {
+            var request = get("/api/zgloszenia").param("size", "2");
+            if (cursor != null) request.param("cursor", cursor);
+
+            MvcResult result = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn();
+
+            JsonNode items = objectMapper.readTree(result.getResponse().getContentAsString());
+            assertTrue(items.size() <= 2);
+            items.forEach(item -> assertTrue(seen.add(item.get("id").asLong()), "duplicate row across pages"));
+
+            cursor = result.getResponse().getHeader(ZgloszenieRestController.NEXT_CURSOR_HEADER);
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(6, seen.size());
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void shouldFilterInDatabase() throws Exception {
+        mockMvc.perform(get("/api/zgloszenia").param("status", "OPEN").param("q", "linii 3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().doesNotExist(ZgloszenieRestController.NEXT_CURSOR_HEADER));
+
+        mockMvc.perform(get("/api/zgloszenia").param("typ", "przegląd"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void shouldSearchWithDiacriticsFoldingAndPrefixes() throws Exception {
+        mockMvc.perform(get("/api/zgloszenia/search").param("q", "PRZEGLAD hydraul"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].typ").value("Przegląd"));
+
+        mockMvc.perform(get("/api/zgloszenia/search").param("q", "wyciek"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5));
+    }
+
+    @Test
+    void shouldKeepIndexSemanticsForManyTextHits() throws Exception {
+        List<Zgloszenie> many = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) many.add(zgloszenie("Awaria", ZgloszenieStatus.OPEN, "Żółty olej " + i));
+        zgloszenieRepository.saveAll(many);
+        searchIndex.rebuild();
+
+        // Ponad limit jednej listy IN – nadal prefiks bez polskich znaków, stronicowany keyset
+        Set<Long> seen = new HashSet<>();
+        String cursor = null;
+        do {
+            var request = get("/api/zgloszenia").param("q", "zolt").param("size", "200");
+            if (cursor != null) request.param("cursor", cursor);
+            MvcResult result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+            objectMapper.readTree(result.getResponse().getContentAsString())
+                    .forEach(item -> assertTrue(seen.add(item.get("id").asLong()), "duplicate row across pages"));
+            cursor = result.getResponse().getHeader(ZgloszenieRestController.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+
+        assertEquals(1200, seen.size());
+    }
+
+    @Test
+    void shouldListWithSingleStatementRegardlessOfRowCount() throws Exception {
+        Statistics stats = statistics();
+
+        mockMvc.perform(get("/api/zgloszenia"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(6))
+                .andExpect(jsonPath("$[?(@.dzialNazwa == 'Dzial testowy 0')].autorUsername").value("autor0"));
+        assertEquals(1, stats.getPrepareStatementCount());
+
+        stats.clear();
+        mockMvc.perform(get("/api/zgloszenia/search").param("q", "wyciek"))
+                .andExpect(status().isOk());
+        assertEquals(1, stats.getPrepareStatementCount());
+
+        // Widok /zgloszenia: zgłoszenia + maszyny + osoby
+        stats.clear();
+        zgloszenieController.listaZgloszen(new ExtendedModelMap());
+        assertEquals(3, stats.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldReportPhotoFromImageAttachments() throws Exception {
+        Zgloszenie z = zgloszenie("Awaria", ZgloszenieStatus.OPEN, "Pęknięta obudowa");
+        z.addAttachment(attachment("zdjecie.jpg", "image/jpeg"));
+        z.addAttachment(attachment("protokol.pdf", "application/pdf"));
+        zgloszenieRepository.save(z);
+        Zgloszenie pdfOnly = zgloszenie("Awaria", ZgloszenieStatus.OPEN, "Brak zdjęcia");
+        pdfOnly.addAttachment(attachment("protokol2.pdf", "application/pdf"));
+        zgloszenieRepository.save(pdfOnly);
+
+        mockMvc.perform(get("/api/zgloszenia"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(8))
+                .andExpect(jsonPath("$[?(@.hasPhoto == true)].id").value(z.getId().intValue()));
+        // Szczegóły – ta sama reguła co lista
+        mockMvc.perform(get("/api/zgloszenia/{id}", z.getId()))
+                .andExpect(jsonPath("$.hasPhoto").value(true));
+        mockMvc.perform(get("/api/zgloszenia/{id}", pdfOnly.getId()))
+                .andExpect(jsonPath("$.hasPhoto").value(false));
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() throws Exception {
+        mockMvc.perform(get("/api/zgloszenia").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /** Zrzuca kontekst utrwalania, żeby relacje nie były podawane z cache pierwszego poziomu. */
+    private Statistics statistics() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics stats = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        stats.setStatisticsEnabled(true);
+        stats.clear();
+        return stats;
+    }
+
+    private Dzial dzial(String nazwa) {
+        Dzial d = new Dzial();
+        d.setNazwa(nazwa);
+        return dzialRepository.save(d);
+    }
+
+    private User autor(String username) {
+        User u = new User();
+        u.setUsername(username);
+        u.setPassword("x");
+        return userRepository.save(u);
+    }
+
+    private static Attachment attachment(String filename, String contentType) {
+        Attachment a = new Attachment();
+        a.setOriginalFilename(filename);
+        a.setStoredFilename(UUID.randomUUID() + "-" + filename);
+        a.setContentType(contentType);
+        a.setFileSize(1L);
+        return a;
+    }
+
+    private static Zgloszenie zgloszenie(String typ, ZgloszenieStatus status, String opis) {
+        Zgloszenie z = new Zgloszenie();
+        z.setTyp(typ);
+        z.setImie("Jan");
+        z.setNazwisko("Kowalski");
+        z.setStatus(status);
+        z.setOpis(opis);
+        return z;
+    }
+}
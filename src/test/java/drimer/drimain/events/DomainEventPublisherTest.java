@@ -0,0 +1,79 @@
+package drimer.drimain.events;
+
+import drimer.drimain.DriMainApplication;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = {DriMainApplication.class, DomainEventPublisherTest.Config.class})
+class DomainEventPublisherTest {
+
+    @Autowired
+    private DomainEventPublisher publisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private RecordingListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener.received.clear();
+    }
+
+    @Test
+    void shouldReleaseEventsOnlyAfterCommitOnDispatchThread() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            publisher.publish(new ZgloszenieDomainEvent(this, EventType.CREATED, 1L));
+            publisher.publish(new ZgloszenieDomainEvent(this, EventType.UPDATED, 1L));
+            assertTrue(listener.received.isEmpty(), "events must wait for commit");
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            publisher.publish(new ZgloszenieDomainEvent(this, EventType.DELETED, 2L));
+            status.setRollbackOnly();
+        });
+        // Znacznik poza transakcją – jedna pula, więc przychodzi po zdarzeniach z commitu
+        publisher.publish(new ZgloszenieDomainEvent(this, EventType.DELETED, 3L));
+
+        assertTrue(listener.done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(EventType.CREATED, EventType.UPDATED, EventType.DELETED),
+                listener.received.stream().map(ZgloszenieDomainEvent::getType).toList());
+        assertEquals(List.of(1L, 1L, 3L),
+                listener.received.stream().map(ZgloszenieDomainEvent::getZgloszenieId).toList());
+        assertTrue(listener.threads.stream().allMatch(t -> t.startsWith("domain-events-")));
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        RecordingListener recordingListener() {
+            return new RecordingListener();
+        }
+    }
+
+    static class RecordingListener {
+        final List<ZgloszenieDomainEvent> received = new CopyOnWriteArrayList<>();
+        final List<String> threads = new CopyOnWriteArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        @EventListener
+        public void on(ZgloszenieDomainEvent event) {
+            received.add(event);
+            threads.add(Thread.currentThread().getName());
+            if (event.getZgloszenieId() == 3L) done.countDown();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package drimer.drimain.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import drimer.drimain.api.dto.RaportDTO;
+import drimer.drimain.api.dto.SimpleMaszynaDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.AbstractMessageChannel;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RaportEventListenerTest {
+
+    private final List<Message<?>> sent = new ArrayList<>();
+    private final RaportEventListener listener = new RaportEventListener(new SimpMessagingTemplate(
+            new AbstractMessageChannel() {
+                @Override
+                protected boolean sendInternal(Message<?> message, long timeout) {
+                    return sent.add(message);
+                }
+            }), new ObjectMapper());
+
+    @Test
+    void shouldRouteCompactPayloadToMachineAndStatusTopics() {
+        RaportDTO raport = new RaportDTO();
+        raport.setId(11L);
+        raport.setOpis("Wymiana łożyska");
+        SimpleMaszynaDTO maszyna = new SimpleMaszynaDTO();
+        maszyna.setId(4L);
+        raport.setMaszyna(maszyna);
+        raport.setStatus("W_TOKU");
+
+        listener.onRaportChanged(new RaportChangedEvent(this, raport, "UPDATED", List.of("maszyna", "status"),
+                123L, 3L, "NOWY"));
+
+        assertEquals(List.of("/topic/raporty", "/topic/raporty/maszyna/4", "/topic/raporty/maszyna/3",
+                        "/topic/raporty/status/W_TOKU", "/topic/raporty/status/NOWY"),
+                sent.stream().map(m -> SimpMessageHeaderAccessor.getDestination(m.getHeaders())).toList());
+
+        // Jedna serializacja: wszystkie tematy dostają tę samą tablicę bajtów
+        Object payload = sent.get(0).getPayload();
+        sent.forEach(m -> assertSame(payload, m.getPayload()));
+        String json = new String((byte[]) payload, StandardCharsets.UTF_8);
+        assertEquals("{\"id\":11,\"action\":\"UPDATED\",\"changedFields\":[\"maszyna\",\"status\"],\"version\":123}", json);
+        assertFalse(json.contains("opis"));
+    }
+}
@@ -0,0 +1,56 @@
+package drimer.drimain.service;
+
+import drimer.drimain.model.HarmonogramRule;
+import drimer.drimain.model.enums.CzestotliwoscHarmonogramu;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HarmonogramRecurrenceTest {
+
+    @Test
+    void shouldJumpToFirstOccurrenceInRange() {
+        HarmonogramRule rule = rule(CzestotliwoscHarmonogramu.DZIENNIE, 10, LocalDate.of(2000, 1, 1));
+        List<LocalDate> dates = HarmonogramRecurrence.occurrences(rule, LocalDate.of(2031, 3, 1), LocalDate.of(2031, 3, 31));
+        assertEquals(3, dates.size());
+        dates.forEach(d -> assertEquals(0, ChronoUnit.DAYS.between(rule.getDataOd(), d) % 10));
+    }
+
+    @Test
+    void shouldExpandWeeklyEveryOtherWeekOnGivenDay() {
+        HarmonogramRule rule = rule(CzestotliwoscHarmonogramu.TYGODNIOWO, 2, LocalDate.of(2031, 3, 1)); // sobota
+        rule.setDzienTygodnia(DayOfWeek.WEDNESDAY);
+        assertEquals(List.of(LocalDate.of(2031, 3, 5), LocalDate.of(2031, 3, 19)),
+                HarmonogramRecurrence.occurrences(rule, LocalDate.of(2031, 3, 1), LocalDate.of(2031, 3, 31)));
+    }
+
+    @Test
+    void shouldClampDayOfMonthAndResolveLastWeekday() {
+        HarmonogramRule rule = rule(CzestotliwoscHarmonogramu.MIESIECZNIE, 1, LocalDate.of(2031, 1, 31));
+        rule.setDzienMiesiaca(31);
+        assertEquals(List.of(LocalDate.of(2031, 1, 31), LocalDate.of(2031, 2, 28), LocalDate.of(2031, 3, 31)),
+                HarmonogramRecurrence.occurrences(rule, LocalDate.of(2030, 12, 1), LocalDate.of(2031, 3, 31)));
+
+        HarmonogramRule last = rule(CzestotliwoscHarmonogramu.MIESIECZNIE, 3, LocalDate.of(2030, 1, 1));
+        last.setDzienTygodnia(DayOfWeek.FRIDAY);
+        last.setTydzienMiesiaca(-1);
+        last.setDataDo(LocalDate.of(2031, 12, 31));
+        assertEquals(List.of(LocalDate.of(2031, 1, 31), LocalDate.of(2031, 4, 25)),
+                HarmonogramRecurrence.occurrences(last, LocalDate.of(2031, 1, 1), LocalDate.of(2031, 6, 30)));
+        assertTrue(HarmonogramRecurrence.occursOn(last, LocalDate.of(2031, 4, 25)));
+        assertFalse(HarmonogramRecurrence.occursOn(last, LocalDate.of(2032, 1, 30)));
+    }
+
+    private static HarmonogramRule rule(CzestotliwoscHarmonogramu czestotliwosc, int interwal, LocalDate dataOd) {
+        HarmonogramRule rule = new HarmonogramRule();
+        rule.setCzestotliwosc(czestotliwosc);
+        rule.setInterwal(interwal);
+        rule.setDataOd(dataOd);
+        return rule;
+    }
+}
@@ -0,0 +1,127 @@
+package drimer.drimain.service;
+
+import drimer.drimain.DriMainApplication;
+import drimer.drimain.api.dto.RaportDTO;
+import drimer.drimain.events.*;
+import drimer.drimain.model.enums.ZgloszeniePriorytet;
+import drimer.drimain.model.enums.ZgloszenieStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Dwa konteksty aplikacji (węzły A i B) na tej samej bazie H2 – zdarzenie zatwierdzone na A
+ * dociera do listenerów B przez event_outbox.
+ */
+@SpringBootTest(classes = {DriMainApplication.class, OutboxRelayTest.Config.class},
+        properties = {"app.outbox.enabled=true", "app.outbox.node-id=node-a", "app.outbox.poll-interval-ms=100"})
+class OutboxRelayTest {
+
+    private static final long ZGLOSZENIE_ID = 4242L;
+
+    @Autowired
+    private DomainEventPublisher publisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private RecordingListener listenerA;
+
+    @Autowired
+    private OutboxRelay relayA;
+
+    private ConfigurableApplicationContext nodeB;
+
+    @BeforeEach
+    void startSecondNode() {
+        nodeB = new SpringApplicationBuilder(DriMainApplication.class, Config.class)
+                // Argumenty, nie properties() – domyślne właściwości przegrywają z application.properties
+                .run("--server.port=0", "--spring.jmx.enabled=false",
+                        "--app.outbox.enabled=true", "--app.outbox.node-id=node-b", "--app.outbox.poll-interval-ms=100");
+        // Ustawienie kursorów przed publikacją
+        relayA.poll();
+        nodeB.getBean(OutboxRelay.class).poll();
+    }
+
+    @AfterEach
+    void stopSecondNode() {
+        nodeB.close();
+    }
+
+    @Test
+    void shouldFanOutCommittedEventsToOtherNode() throws Exception {
+        RaportDTO raport = new RaportDTO();
+        raport.setId(7L);
+        raport.setOpis("Wymiana łożyska");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            publisher.publish(new ZgloszenieDomainEvent(this, EventType.UPDATED, ZGLOSZENIE_ID, List.of("status"),
+                    new ZgloszenieSnapshot(3L, 5L, ZgloszenieStatus.IN_PROGRESS, ZgloszeniePriorytet.WYSOKI)));
+            publisher.publish(new RaportChangedEvent(this, raport, "UPDATED"));
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            publisher.publish(new ZgloszenieDomainEvent(this, EventType.DELETED, ZGLOSZENIE_ID));
+            status.setRollbackOnly();
+        });
+
+        RecordingListener listenerB = nodeB.getBean(RecordingListener.class);
+        assertTrue(listenerB.awaitCount(2, 5), "node B should receive both events");
+
+        ZgloszenieDomainEvent z = (ZgloszenieDomainEvent) listenerB.received.get(0);
+        assertEquals(EventType.UPDATED, z.getType());
+        assertEquals(List.of("status"), z.getChangedFields());
+        assertEquals(3L, z.getSnapshot().dzialId());
+        RaportChangedEvent r = (RaportChangedEvent) listenerB.received.get(1);
+        assertEquals("Wymiana łożyska", r.getRaport().getOpis());
+
+        // Kilka cykli odpytywania: A nie rozsyła ponownie własnych zdarzeń, wycofane nie dociera nigdzie
+        Thread.sleep(500);
+        assertEquals(2, listenerA.received.size());
+        assertEquals(2, listenerB.received.size());
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        RecordingListener recordingListener() {
+            return new RecordingListener();
+        }
+    }
+
+    static class RecordingListener {
+        final List<Object> received = new CopyOnWriteArrayList<>();
+
+        @EventListener
+        public void on(ZgloszenieDomainEvent event) {
+            if (event.getZgloszenieId() == ZGLOSZENIE_ID) received.add(event);
+        }
+
+        @EventListener
+        public void on(RaportChangedEvent event) {
+            if (event.getRaport() != null && Long.valueOf(7L).equals(event.getRaport().getId())) received.add(event);
+        }
+
+        boolean awaitCount(int count, int seconds) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+            while (received.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            return received.size() >= count;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package drimer.drimain.service;
+
+import drimer.drimain.events.DomainEventPublisher;
+import drimer.drimain.events.EntityChangedEvent;
+import drimer.drimain.events.EntityType;
+import drimer.drimain.events.EventType;
+import drimer.drimain.repository.PartRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class PartLowStockTrackerTest {
+
+    private final DomainEventPublisher publisher = mock(DomainEventPublisher.class);
+    private final PartLowStockTracker tracker =
+            new PartLowStockTracker(mock(PartRepository.class), publisher, new SimpleMeterRegistry());
+
+    @Test
+    void shouldPublishOnlyThresholdCrossingsAndIgnoreStaleEvents() {
+        tracker.onPartChanged(change(EventType.UPDATED, 1L, false));
+        tracker.onPartChanged(change(EventType.UPDATED, 2L, true));
+        tracker.onPartChanged(change(EventType.UPDATED, 3L, true)); // nadal poniżej – bez alertu
+        tracker.onPartChanged(change(EventType.UPDATED, 2L, false)); // starsze niż wersja 3
+        tracker.onPartChanged(change(EventType.UPDATED, 4L, false));
+
+        ArgumentCaptor<EntityChangedEvent> captor = ArgumentCaptor.forClass(EntityChangedEvent.class);
+        verify(publisher, times(2)).publishLocal(captor.capture());
+        assertEquals(List.of(EventType.PART_BELOW_MIN, EventType.PART_RESTOCKED),
+                captor.getAllValues().stream().map(EntityChangedEvent::getAction).toList());
+        assertEquals(Set.of(), tracker.getBelowMinIds());
+
+        tracker.onPartChanged(change(EventType.UPDATED, 5L, true));
+        assertEquals(Set.of(7L), tracker.getBelowMinIds());
+        tracker.onPartChanged(change(EventType.DELETED, 6L, null));
+        assertEquals(Set.of(), tracker.getBelowMinIds());
+        verify(publisher, times(3)).publishLocal(any());
+    }
+
+    private static EntityChangedEvent change(EventType action, Long version, Boolean belowMin) {
+        Map<String, String> attributes = belowMin != null ? Map.of("belowMin", belowMin.toString()) : Map.of();
+        return new EntityChangedEvent(PartLowStockTrackerTest.class, EntityType.PART, action, 7L, List.of("ilosc"),
+                version, attributes);
+    }
+}
@@ -0,0 +1,137 @@
+package drimer.drimain.service;
+
+import drimer.drimain.DriMainApplication;
+import drimer.drimain.api.exception.InsufficientStockException;
+import drimer.drimain.model.Part;
+import drimer.drimain.repository.PartRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Równoległe zmiany stanu tej samej części (bez transakcji testu – każdy wątek ma własną):
+ * żadna aktualizacja nie ginie, a stan nie schodzi poniżej zera; przejścia przez stan minimalny są śledzone.
+ */
+@SpringBootTest(classes = DriMainApplication.class, properties = "app.outbox.poll-interval-ms=3600000")
+class PartStockServiceTest {
+
+    private static final int THREADS = 8;
+    private static final int ADJUSTMENTS = 25;
+
+    @Autowired
+    private PartStockService partStockService;
+
+    @Autowired
+    private PartRepository partRepository;
+
+    @Autowired
+    private PartLowStockTracker lowStockTracker;
+
+    private final List<Long> partIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 2; i++) {
+            Part part = new Part();
+            part.setNazwa("Uszczelka " + i);
+            part.setKod("STOCK-" + i);
+            part.setIlosc(THREADS * ADJUSTMENTS);
+            part.setMinIlosc(10);
+            partIds.add(partRepository.save(part).getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        partRepository.deleteAllById(partIds);
+    }
+
+    @Test
+    void shouldNotLoseConcurrentAdjustments() throws Exception {
+        Long partId = partIds.get(0);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ADJUSTMENTS; i++) partStockService.adjust(partId, -1, StockChange.manual(null));
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(0, partRepository.findById(partId).orElseThrow().getIlosc());
+        InsufficientStockException ex = assertThrows(InsufficientStockException.class,
+                () -> partStockService.adjust(partId, -1, StockChange.manual(null)));
+        assertEquals(0, ex.getAvailable());
+    }
+
+    @Test
+    void shouldRollBackWholeBatchWhenOnePartIsShort() {
+        int initial = THREADS * ADJUSTMENTS;
+        assertThrows(InsufficientStockException.class, () -> partStockService.adjustAll(
+                Map.of(partIds.get(0), -1, partIds.get(1), -(initial + 1)), StockChange.manual(null)));
+
+        assertEquals(initial, partRepository.findById(partIds.get(0)).orElseThrow().getIlosc());
+        assertEquals(initial, partRepository.findById(partIds.get(1)).orElseThrow().getIlosc());
+
+        List<PartStockLevel> levels = partStockService.consume(Map.of(partIds.get(1), 5, partIds.get(0), 0), StockChange.raport(null));
+        assertEquals(1, levels.size());
+        assertEquals(initial - 5, levels.get(0).ilosc());
+    }
+
+    @Test
+    void shouldReturnOnlyWhatLedgerShowsRaportConsumed() {
+        int initial = THREADS * ADJUSTMENTS;
+        Long partId = partIds.get(0);
+        partStockService.consume(Map.of(partId, 5), StockChange.raport(900_001L));
+
+        // Zmniejszenie zużycia i usunięcie oddają najwyżej 5 pobranych przez raport
+        partStockService.consume(Map.of(partId, -2), StockChange.raport(900_001L));
+        assertEquals(initial - 3, partRepository.findById(partId).orElseThrow().getIlosc());
+        partStockService.release(Map.of(partId, 8), StockChange.raport(900_001L));
+        assertEquals(initial, partRepository.findById(partId).orElseThrow().getIlosc());
+
+        // Raport sprzed dziennika nic nie pobrał – jego usunięcie nic nie oddaje
+        assertEquals(List.of(), partStockService.release(Map.of(partId, 4), StockChange.raport(900_002L)));
+        assertEquals(initial, partRepository.findById(partId).orElseThrow().getIlosc());
+    }
+
+    @Test
+    void shouldTrackPartsCrossingMinimumStock() throws Exception {
+        Long partId = partIds.get(0);
+        assertFalse(partRepository.findBelowMin().stream().anyMatch(p -> p.getId().equals(partId)));
+
+        partStockService.adjust(partId, -(THREADS * ADJUSTMENTS - 5), StockChange.manual(null));
+        assertTrue(partRepository.findBelowMin().stream().anyMatch(p -> p.getId().equals(partId)));
+        assertTrue(await(() -> lowStockTracker.getBelowMinIds().contains(partId)));
+
+        partStockService.adjust(partId, 20, StockChange.manual(null));
+        assertFalse(partRepository.findBelowMin().stream().anyMatch(p -> p.getId().equals(partId)));
+        assertTrue(await(() -> !lowStockTracker.getBelowMinIds().contains(partId)));
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        return condition.getAsBoolean();
+    }
+}
@@ -0,0 +1,128 @@
+package drimer.drimain.service;
+
+import drimer.drimain.DriMainApplication;
+import drimer.drimain.repository.RaportRepository;
+import drimer.drimain.repository.spec.RaportSpecifications;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Wyszukiwanie raportów na wygenerowanym zbiorze: LIKE '%q%' po typNaprawy/opis (skan) vs. indeks
+ * trigramów w pamięci – czas budowy, pamięć, czas zapytania i zgodność pierwszych trafień z LIKE.
+ * <p>
+ * Uruchomienie: {@code mvn test -Dtest=RaportSearchBenchmarkTest -Dbenchmark=true [-Draporty.count=1000000]}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(classes = DriMainApplication.class)
+class RaportSearchBenchmarkTest {
+
+    private static final int INSERT_BATCH = 10_000;
+    private static final int RUNS = 5;
+
+    private static final String[] TYPY = {"Wymiana łożyska", "Przegląd okresowy", "Naprawa hydrauliki",
+            "Regulacja czujnika", "Wymiana pasa", "Smarowanie", "Kalibracja", "Naprawa elektryki"};
+    private static final String[] SLOWA = {"wyciek", "oleju", "łożysko", "wrzeciona", "uszczelka", "pompa",
+            "silnik", "czujnik", "zbliżeniowy", "przewód", "hydrauliczny", "pas", "napędowy", "falownik",
+            "przekaźnik", "zawór", "ciśnienie", "temperatura", "drgania", "hałas", "wymieniono", "sprawdzono",
+            "wyregulowano", "oczyszczono", "dokręcono", "linia", "prasa", "tokarka", "frezarka", "robot"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RaportRepository raportRepository;
+
+    @Autowired
+    private RaportSearchIndex index;
+
+    @Test
+    void likeVersusTrigramIndex() {
+        int count = Integer.getInteger("raporty.count", 1_000_000);
+        Long maxBefore = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM raporty", Long.class);
+        try {
+            long start = System.nanoTime();
+            generate(count);
+            System.out.printf("generated %d raporty in %d ms%n", count, ms(start));
+
+            Runtime rt = Runtime.getRuntime();
+            System.gc();
+            long heapBefore = rt.totalMemory() - rt.freeMemory();
+            index.rebuild();
+            System.gc();
+            long heapAfter = rt.totalMemory() - rt.freeMemory();
+            System.out.printf("index: %d documents, %d trigrams, build %d ms, ~%d MB heap%n",
+                    index.getDocumentCount(), index.getTermCount(), index.getLastBuildMillis(),
+                    (heapAfter - heapBefore) / (1024 * 1024));
+
+            System.out.printf("%-22s %10s %12s %12s%n", "query", "like ms", "index ms", "index hits");
+            for (String q : List.of("łożysko wrzeciona", "falownik", "wyciek oleju", "zbliżeniowy czujnik", "unikat-42")) {
+                List<Long> like = null;
+                List<Long> indexed = null;
+                long likeNanos = Long.MAX_VALUE;
+                long indexNanos = Long.MAX_VALUE;
+                for (int run = 0; run < RUNS; run++) {
+                    long t = System.nanoTime();
+                    like = raportRepository.findIds(RaportSpecifications.fullText(q), Sort.by(Sort.Direction.DESC, "id"), 0, 20);
+                    likeNanos = Math.min(likeNanos, System.nanoTime() - t);
+                    t = System.nanoTime();
+                    indexed = index.search(q, 20);
+                    indexNanos = Math.min(indexNanos, System.nanoTime() - t);
+                }
+                System.out.printf("%-22s %10.1f %12.2f %12d%n", q, likeNanos / 1e6, indexNanos / 1e6, indexed.size());
+                // Bez polskich znaków w zapytaniu LIKE i indeks muszą znaleźć to samo
+                if (q.equals("falownik") || q.equals("unikat-42")) {
+                    assertEquals(like.stream().sorted().toList(),
+                            index.search(q, Integer.MAX_VALUE).stream().filter(like::contains).sorted().toList());
+                }
+            }
+        } finally {
+            jdbcTemplate.update("DELETE FROM raporty WHERE id > ?", maxBefore);
+            index.rebuild();
+        }
+    }
+
+    private void generate(int count) {
+        Random random = new Random(42);
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (int i = 0; i < count; i++) {
+            StringBuilder opis = new StringBuilder();
+            int words = 6 + random.nextInt(15);
+            for (int w = 0; w < words; w++) {
+                if (w > 0) opis.append(' ');
+                opis.append(SLOWA[random.nextInt(SLOWA.length)]);
+            }
+            if (i % 100_000 == 42) opis.append(" unikat-42"); // rzadkie trafienie
+            batch.add(new Object[]{TYPY[random.nextInt(TYPY.length)], opis.toString(), "ZAKONCZONE",
+                    Date.valueOf(day.plusDays(i % 365)), now});
+            if (batch.size() == INSERT_BATCH) flush(batch);
+        }
+        flush(batch);
+    }
+
+    private void flush(List<Object[]> batch) {
+        if (batch.isEmpty()) return;
+        jdbcTemplate.batchUpdate("INSERT INTO raporty (typ_naprawy, opis, status, data_naprawy, updated_at) VALUES (?, ?, ?, ?, ?)", batch);
+        batch.clear();
+    }
+
+    private static long ms(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
@@ -0,0 +1,63 @@
+package drimer.drimain.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import drimer.drimain.api.dto.RaportDTO;
+import drimer.drimain.api.dto.SimpleMaszynaDTO;
+import drimer.drimain.events.*;
+import drimer.drimain.model.enums.ZgloszeniePriorytet;
+import drimer.drimain.model.enums.ZgloszenieStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RealtimeEventBusTest {
+
+    private final List<RealtimeMessage> published = new ArrayList<>();
+    private final RealtimeEventBus bus = new RealtimeEventBus(new ObjectMapper().findAndRegisterModules(),
+            List.of(published::add, published::add));
+
+    @Test
+    void shouldNormalizeEntitiesAndSerializeOnceForAllTransports() {
+        bus.onZgloszenieEvent(new ZgloszenieDomainEvent(this, EventType.UPDATED, 5L, List.of("status"),
+                new ZgloszenieSnapshot(2L, 9L, ZgloszenieStatus.IN_PROGRESS, ZgloszeniePriorytet.WYSOKI)));
+
+        assertEquals(2, published.size());
+        assertSame(published.get(0).json(), published.get(1).json());
+        EntityChangedEvent change = published.get(0).change();
+        assertEquals(EntityType.ZGLOSZENIE, change.getEntity());
+        assertEquals("2", change.getAttributes().get("dzialId"));
+        assertTrue(published.get(0).json().contains("\"entity\":\"ZGLOSZENIE\""));
+    }
+
+    @Test
+    void shouldMatchRaportMovedAwayFromFilteredMachine() {
+        RaportDTO raport = new RaportDTO();
+        raport.setId(11L);
+        SimpleMaszynaDTO maszyna = new SimpleMaszynaDTO();
+        maszyna.setId(4L);
+        raport.setMaszyna(maszyna);
+        raport.setStatus("W_TOKU");
+        bus.onRaportChanged(new RaportChangedEvent(this, raport, "UPDATED", List.of("maszyna"), 1L, 3L, "W_TOKU"));
+
+        EntityChangedEvent change = published.get(0).change();
+        assertEquals(Map.of("maszynaId", "3"), change.getPreviousAttributes()); // status bez zmian
+        assertTrue(new RealtimeFilter(Set.of(EntityType.RAPORT), Map.of("maszynaId", "3")).matches(change));
+        assertTrue(new RealtimeFilter(Set.of(), Map.of("maszynaId", "4")).matches(change));
+        assertFalse(new RealtimeFilter(Set.of(EntityType.PART), Map.of()).matches(change));
+
+        assertEquals(Set.of("/topic/events", "/topic/events/raport", "/topic/events/raport/maszynaId/4",
+                        "/topic/events/raport/status/W_TOKU", "/topic/events/raport/maszynaId/3",
+                        "/topic/events/raport/action/UPDATED"),
+                StompRealtimeTransport.destinations(change));
+    }
+
+    @Test
+    void shouldRejectUnknownFilterAttribute() {
+        assertThrows(IllegalArgumentException.class, () -> new RealtimeFilter(Set.of(), Map.of("haslo", "x")));
+    }
+}
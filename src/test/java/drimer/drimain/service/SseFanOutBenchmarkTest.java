@@ -0,0 +1,85 @@
+package drimer.drimain.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import drimer.drimain.api.dto.ZgloszenieEventDTO;
+import drimer.drimain.config.SseProperties;
+import drimer.drimain.events.EventType;
+import drimer.drimain.events.ZgloszenieDomainEvent;
+import drimer.drimain.events.ZgloszenieSnapshot;
+import drimer.drimain.model.enums.ZgloszeniePriorytet;
+import drimer.drimain.model.enums.ZgloszenieStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Rozsyłanie SSE przy 1k i 10k subskrybentów: jedna serializacja na zdarzenie vs. dotychczasowa
+ * serializacja per subskrybent (odtworzona wprost na ObjectMapperze).
+ * <p>
+ * Uruchomienie: {@code mvn test -Dtest=SseFanOutBenchmarkTest -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SseFanOutBenchmarkTest {
+
+    private static final int EVENTS = 200;
+
+    @Test
+    void fanOut() throws Exception {
+        System.out.printf("%-12s %-10s %-16s %-18s %-22s%n",
+                "subscribers", "events", "serializations", "fan-out ms (once)", "serialize ms (per-sub)");
+        for (int subscribers : List.of(1_000, 10_000)) {
+            run(subscribers);
+        }
+    }
+
+    private void run(int subscribers) throws Exception {
+        SseProperties props = new SseProperties();
+        props.setMaxClients(subscribers);
+        props.setQueueCapacity(EVENTS + 1);
+        props.setCoalesceWindowMs(0); // mierzymy samo rozsyłanie
+        SseSubscriptionServiceTest.CountingObjectMapper mapper = new SseSubscriptionServiceTest.CountingObjectMapper();
+        SseSubscriptionService service = new SseSubscriptionService(props, mapper, new SimpleMeterRegistry());
+        try {
+            for (int i = 0; i < subscribers; i++) service.subscribe(null, null, null, false);
+            awaitDrained(service);
+            mapper.serializations.set(0);
+
+            long start = System.nanoTime();
+            for (int i = 0; i < EVENTS; i++) {
+                service.onZgloszenieEvent(new ZgloszenieDomainEvent(this, EventType.UPDATED, (long) i,
+                        List.of("status"), new ZgloszenieSnapshot(1L, 1L, ZgloszenieStatus.OPEN, ZgloszeniePriorytet.NORMALNY)));
+            }
+            service.awaitDispatched();
+            awaitDrained(service);
+            long onceMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertEquals(EVENTS, mapper.serializations.get());
+
+            // Dotychczasowa ścieżka: konwerter Jacksona dla każdego subskrybenta osobno
+            ObjectMapper plain = new ObjectMapper().findAndRegisterModules();
+            ZgloszenieEventDTO dto = new ZgloszenieEventDTO(EventType.UPDATED, 1L, LocalDateTime.now(), List.of("status"), null);
+            long bytes = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < EVENTS; i++) {
+                for (int s = 0; s < subscribers; s++) bytes += plain.writeValueAsBytes(dto).length;
+            }
+            long perSubscriberMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            System.out.printf("%-12d %-10d %-16d %-18d %-22d (%d MB serialized)%n",
+                    subscribers, EVENTS, mapper.serializations.get(), onceMs, perSubscriberMs, bytes >> 20);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private static void awaitDrained(SseSubscriptionService service) throws InterruptedException {
+        while (service.getQueuedMessageCount() > 0) {
+            Thread.sleep(5);
+        }
+    }
+}
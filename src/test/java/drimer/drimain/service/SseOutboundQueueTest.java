@@ -0,0 +1,50 @@
+package drimer.drimain.service;
+
+import drimer.drimain.config.SseProperties.SlowConsumerPolicy;
+import drimer.drimain.service.SseOutboundQueue.Message;
+import drimer.drimain.service.SseOutboundQueue.OfferResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SseOutboundQueueTest {
+
+    @Test
+    void shouldDropOldestWhenFull() {
+        SseOutboundQueue queue = new SseOutboundQueue(2, SlowConsumerPolicy.DROP_OLDEST);
+        queue.offer(msg("a", 1L));
+        queue.offer(msg("b", 2L));
+
+        assertEquals(OfferResult.DROPPED_OLDEST, queue.offer(msg("c", 3L)));
+        assertEquals(List.of("b", "c"), names(queue));
+    }
+
+    @Test
+    void shouldCoalesceSameZgloszenieInPlace() {
+        SseOutboundQueue queue = new SseOutboundQueue(2, SlowConsumerPolicy.COALESCE);
+        queue.offer(msg("a1", 1L));
+        queue.offer(msg("b1", 2L));
+
+        assertEquals(OfferResult.COALESCED, queue.offer(msg("a2", 1L)));
+        assertEquals(List.of("a2", "b1"), names(queue));
+    }
+
+    @Test
+    void shouldSignalOverflowForDisconnectPolicy() {
+        SseOutboundQueue queue = new SseOutboundQueue(1, SlowConsumerPolicy.DISCONNECT);
+        queue.offer(msg("a", 1L));
+
+        assertEquals(OfferResult.OVERFLOW, queue.offer(msg("b", 2L)));
+        assertEquals(1, queue.size());
+    }
+
+    private static Message msg(String name, Long key) {
+        return new Message(name, null, key, null, null);
+    }
+
+    private static List<String> names(SseOutboundQueue queue) {
+        return queue.drain(Integer.MAX_VALUE).stream().map(Message::name).toList();
+    }
+}
@@ -0,0 +1,32 @@
+package drimer.drimain.service;
+
+import drimer.drimain.service.SseOutboundQueue.Message;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SseReplayBufferTest {
+
+    @Test
+    void shouldReplayOnlyWhileGapFitsInBuffer() {
+        SseReplayBuffer buffer = new SseReplayBuffer(3, 100);
+        for (int i = 0; i < 5; i++) {
+            long id = buffer.nextId();
+            buffer.add(new SseReplayBuffer.Entry(id, null, new Message("E" + id, null, null, id, null),
+                    SseReplayBuffer.Audience.ALL));
+        }
+
+        assertEquals(105, buffer.lastId());
+        assertEquals(List.of(104L, 105L), ids(buffer.after(103)));
+        assertEquals(List.of(103L, 104L, 105L), ids(buffer.after(102)));
+        assertEquals(List.of(), ids(buffer.after(105)));
+        assertNull(buffer.after(101), "gap larger than buffer");
+        assertNull(buffer.after(999), "id from another server run");
+    }
+
+    private static List<Long> ids(List<SseReplayBuffer.Entry> entries) {
+        return entries.stream().map(SseReplayBuffer.Entry::id).toList();
+    }
+}
@@ -0,0 +1,147 @@
+package drimer.drimain.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import drimer.drimain.api.dto.SseStatsDTO;
+import drimer.drimain.config.SseProperties;
+import drimer.drimain.events.EventType;
+import drimer.drimain.events.ZgloszenieDomainEvent;
+import drimer.drimain.events.ZgloszenieSnapshot;
+import drimer.drimain.model.enums.ZgloszeniePriorytet;
+import drimer.drimain.model.enums.ZgloszenieStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SseSubscriptionServiceTest {
+
+    private final CountingObjectMapper objectMapper = new CountingObjectMapper();
+    private final SseSubscriptionService service = new SseSubscriptionService(withoutCoalescing(), objectMapper, new SimpleMeterRegistry());
+
+    @Test
+    void shouldDispatchOnlyToMatchingFilters() {
+        service.subscribe(null, null, null, false);                     // wszystko
+        service.subscribe(Set.of(EventType.CREATED), null, null, false); // tylko CREATED
+        service.subscribe(null, 1L, null, false);                       // dział 1
+        service.subscribe(null, 2L, null, false);                       // dział 2
+        service.subscribe(Set.of(EventType.UPDATED), 1L, 7L, false);    // dział 1, autor 7, UPDATED
+
+        assertEquals(3, service.matchingSubscriptions(event(EventType.CREATED, 1L, 5L)).size());
+        assertEquals(3, service.matchingSubscriptions(event(EventType.UPDATED, 1L, 7L)).size());
+        assertEquals(2, service.matchingSubscriptions(event(EventType.UPDATED, 2L, 7L)).size());
+        // Bez snapshotu – tylko subskrypcje bez filtra dział/autor
+        assertEquals(2, service.matchingSubscriptions(
+                new ZgloszenieDomainEvent(this, EventType.CREATED, 1L)).size());
+    }
+
+    @Test
+    void shouldSerializeEachEventOnceRegardlessOfSubscriberCount() throws Exception {
+        for (int i = 0; i < 10; i++) service.subscribe(null, null, null, false);
+        objectMapper.serializations.set(0);
+
+        service.onZgloszenieEvent(event(EventType.CREATED, 1L, 5L));
+        service.onZgloszenieEvent(event(EventType.UPDATED, 1L, 5L));
+        service.awaitDispatched();
+
+        assertEquals(2, objectMapper.serializations.get());
+    }
+
+    @Test
+    void shouldReportAggregateAndPerSubscriptionStats() throws Exception {
+        service.subscribe(null, null, null, false);
+        service.subscribe(null, 2L, null, false);
+
+        service.onZgloszenieEvent(event(EventType.CREATED, 1L, 5L));
+        service.awaitDispatched();
+
+        SseStatsDTO stats = service.getStats();
+        assertEquals(2, stats.getActiveSubscriptions());
+        assertEquals(1, stats.getEventsPublished());
+        assertEquals(2, stats.getSubscriptions().size());
+        assertEquals(0, stats.getMessagesDropped());
+    }
+
+    @Test
+    void shouldKeepEventRejectedByFullDispatcherReplayable() throws Exception {
+        SseProperties props = withoutCoalescing();
+        props.setDispatcherQueueCapacity(1);
+        BlockingObjectMapper blocking = new BlockingObjectMapper();
+        SseSubscriptionService small = new SseSubscriptionService(props, blocking, new SimpleMeterRegistry());
+        blocking.block.set(true);
+
+        small.onZgloszenieEvent(event(EventType.CREATED, 1L, 5L)); // wstrzymany w dispatcherze
+        assertTrue(blocking.entered.await(5, TimeUnit.SECONDS));
+        small.onZgloszenieEvent(event(EventType.UPDATED, 1L, 5L)); // w kolejce
+        Thread rejected = new Thread(() -> small.onZgloszenieEvent(event(EventType.DELETED, 1L, 5L)));
+        rejected.start();
+        blocking.release.countDown();
+        rejected.join(5000);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (small.getStats().getEventsPublished() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        SseStatsDTO stats = small.getStats();
+        assertEquals(3, stats.getEventsPublished());
+        assertEquals(1, stats.getMessagesDropped());
+        small.shutdown();
+    }
+
+    private static SseProperties withoutCoalescing() {
+        SseProperties props = new SseProperties();
+        props.setCoalesceWindowMs(0);
+        return props;
+    }
+
+    private ZgloszenieDomainEvent event(EventType type, Long dzialId, Long autorId) {
+        return new ZgloszenieDomainEvent(this, type, 1L,
+                new ZgloszenieSnapshot(dzialId, autorId, ZgloszenieStatus.OPEN, ZgloszeniePriorytet.NORMALNY));
+    }
+
+    /** ObjectMapper liczący serializacje. */
+    static class CountingObjectMapper extends ObjectMapper {
+        final AtomicInteger serializations = new AtomicInteger();
+
+        CountingObjectMapper() {
+            findAndRegisterModules();
+        }
+
+        @Override
+        public String writeValueAsString(Object value) throws JsonProcessingException {
+            serializations.incrementAndGet();
+            return super.writeValueAsString(value);
+        }
+    }
+
+    /** Wstrzymuje pierwszą serializację po włączeniu block, aż test zwolni release. */
+    static class BlockingObjectMapper extends ObjectMapper {
+        final AtomicBoolean block = new AtomicBoolean();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        BlockingObjectMapper() {
+            findAndRegisterModules();
+        }
+
+        @Override
+        public String writeValueAsString(Object value) throws JsonProcessingException {
+            if (block.compareAndSet(true, false)) {
+                entered.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return super.writeValueAsString(value);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package drimer.drimain.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SseTimingWheelTest {
+
+    @Test
+    void shouldFireEntriesAtTheirTickIncludingLaterRotations() {
+        SseTimingWheel<String> wheel = new SseTimingWheel<>(100, 8, 0); // obrót = 800 ms
+        wheel.schedule("a", 250);
+        wheel.schedule("b", 300);
+        wheel.schedule("far", 2_050);     // ten sam slot co "a" – dwa obroty później
+        wheel.schedule("overdue", -500);  // przeterminowany – najbliższy tick
+
+        assertEquals(List.of("overdue"), wheel.advance(100));
+        assertEquals(List.of("a", "b"), wheel.advance(300));
+        assertEquals(List.of(), wheel.advance(2_000));
+        assertEquals(List.of("far"), wheel.advance(2_100));
+        assertEquals(0, wheel.size());
+    }
+}
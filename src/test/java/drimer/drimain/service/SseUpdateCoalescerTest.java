@@ -0,0 +1,46 @@
+package drimer.drimain.service;
+
+import drimer.drimain.events.EventType;
+import drimer.drimain.events.ZgloszenieDomainEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SseUpdateCoalescerTest {
+
+    private static final long MS = 1_000_000;
+
+    @Test
+    void shouldMergeUpdatesWithinWindowAndUnionChangedFields() {
+        SseUpdateCoalescer coalescer = new SseUpdateCoalescer(500);
+
+        assertTrue(coalescer.add(updated(1L, "status"), 0));
+        assertFalse(coalescer.add(updated(1L, "opis", "status"), 100 * MS));
+        assertTrue(coalescer.add(updated(2L, "tytul"), 200 * MS));
+
+        assertEquals(List.of(), coalescer.takeDue(400 * MS));
+
+        List<ZgloszenieDomainEvent> due = coalescer.takeDue(500 * MS);
+        assertEquals(1, due.size());
+        assertEquals(1L, due.get(0).getZgloszenieId());
+        assertEquals(List.of("status", "opis"), due.get(0).getChangedFields());
+
+        assertEquals(List.of(2L), coalescer.takeDue(700 * MS).stream().map(ZgloszenieDomainEvent::getZgloszenieId).toList());
+        assertEquals(0, coalescer.size());
+    }
+
+    @Test
+    void shouldDropPendingUpdateWhenDeleted() {
+        SseUpdateCoalescer coalescer = new SseUpdateCoalescer(500);
+        coalescer.add(updated(1L, "status"), 0);
+        coalescer.discard(1L);
+
+        assertEquals(List.of(), coalescer.takeDue(1000 * MS));
+    }
+
+    private static ZgloszenieDomainEvent updated(Long id, String... fields) {
+        return new ZgloszenieDomainEvent(SseUpdateCoalescerTest.class, EventType.UPDATED, id, List.of(fields));
+    }
+}
@@ -0,0 +1,91 @@
+package drimer.drimain.service;
+
+import drimer.drimain.DriMainApplication;
+import drimer.drimain.api.dto.StockConsumptionDTO;
+import drimer.drimain.api.dto.StockMovementDTO;
+import drimer.drimain.model.Part;
+import drimer.drimain.model.enums.StockMovementReason;
+import drimer.drimain.repository.PartRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Dziennik ruchów: każda zmiana stanu dopisuje ruch, a stan na dzień i zużycie w miesiącu liczone
+ * ze snapshotu i ogona ruchów zgadzają się z parts.ilosc.
+ */
+@SpringBootTest(classes = DriMainApplication.class, properties = "app.outbox.poll-interval-ms=3600000")
+class StockLedgerServiceTest {
+
+    @Autowired
+    private StockLedgerService ledger;
+
+    @Autowired
+    private PartStockService partStockService;
+
+    @Autowired
+    private PartRepository partRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long partId;
+
+    @BeforeEach
+    void setUp() {
+        Part part = new Part();
+        part.setNazwa("Filtr oleju");
+        part.setKod("LEDGER-1");
+        part.setIlosc(50);
+        partId = partRepository.save(part).getId();
+        ledger.recordOpeningBalances();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM stock_snapshots WHERE part_id = ?", partId);
+        jdbcTemplate.update("DELETE FROM stock_movements WHERE part_id = ?", partId);
+        partRepository.deleteById(partId);
+    }
+
+    @Test
+    void shouldAnswerBalanceAndConsumptionFromSnapshotPlusTail() throws Exception {
+        partStockService.consume(Map.of(partId, 5), StockChange.raport(7L));
+        partStockService.adjust(partId, 20, new StockChange(StockMovementReason.DELIVERY, null, "WZ 12/2024"));
+        Thread.sleep(2);
+        LocalDateTime asOf = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Thread.sleep(2);
+        assertTrue(ledger.snapshot(asOf) >= 1);
+        partStockService.adjust(partId, -3, StockChange.manual("inwentaryzacja"));
+        partStockService.release(Map.of(partId, 1), StockChange.raport(7L));
+
+        List<StockMovementDTO> movements = ledger.movements(partId, 10);
+        assertEquals(List.of("RAPORT", "MANUAL", "DELIVERY", "RAPORT", "OPENING"),
+                movements.stream().map(StockMovementDTO::getReason).toList());
+        assertEquals(63, movements.get(0).getBalanceAfter());
+        assertEquals("WZ 12/2024", movements.get(2).getNote());
+
+        Integer snapshotBalance = jdbcTemplate.queryForObject(
+                "SELECT balance FROM stock_snapshots WHERE part_id = ? AND as_of = ?", Integer.class, partId, asOf);
+        assertEquals(65, snapshotBalance);
+        assertEquals(65, ledger.balanceAt(partId, asOf));
+        assertEquals(63, ledger.balanceAt(partId, LocalDateTime.now().plusSeconds(1)));
+        assertEquals(partRepository.findById(partId).orElseThrow().getIlosc(),
+                ledger.balanceAt(partId, LocalDateTime.now().plusSeconds(1)));
+
+        YearMonth month = YearMonth.now();
+        List<StockConsumptionDTO> consumption = ledger.monthlyConsumption(partId, month.minusMonths(1), month);
+        assertEquals(List.of(0L, 4L), consumption.stream().map(StockConsumptionDTO::getZuzycie).toList());
+    }
+}
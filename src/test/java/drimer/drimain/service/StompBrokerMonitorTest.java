@@ -0,0 +1,62 @@
+package drimer.drimain.service;
+
+import drimer.drimain.api.dto.StompBrokerStatsDTO;
+import drimer.drimain.config.WebSocketProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class StompBrokerMonitorTest {
+
+    private final StompBrokerMonitor monitor = new StompBrokerMonitor(new WebSocketProperties(), new SimpleMeterRegistry());
+
+    @Test
+    void shouldDropOldestMessagesOfStalledSessionAndCountThem() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        WebSocketSession raw = mock(WebSocketSession.class);
+        when(raw.getId()).thenReturn("s1");
+        doAnswer(inv -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS); // klient przestał odbierać
+            return null;
+        }).when(raw).sendMessage(any(WebSocketMessage.class));
+
+        WebSocketSession session = monitor.track(raw, 10_000, 100);
+        Thread writer = new Thread(() -> send(session));
+        writer.start();
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 5; i++) send(session); // 5 × 50 B przy limicie bufora 100 B
+
+        StompBrokerStatsDTO stats = monitor.getStats();
+        assertEquals(1, stats.getSessions());
+        assertEquals(100, stats.getBufferedBytes());
+        assertEquals(150, stats.getDroppedBytes());
+        assertEquals("s1", stats.getSlowestSessions().get(0).getId());
+
+        release.countDown();
+        writer.join(5000);
+        monitor.closed(raw, CloseStatus.NORMAL);
+        assertEquals(0, monitor.getStats().getSessions());
+        assertEquals(150, monitor.getStats().getDroppedBytes());
+    }
+
+    private static void send(WebSocketSession session) {
+        try {
+            session.sendMessage(new TextMessage("x".repeat(50)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
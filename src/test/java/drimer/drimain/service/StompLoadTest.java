@@ -0,0 +1,138 @@
+package drimer.drimain.service;
+
+import drimer.drimain.DriMainApplication;
+import drimer.drimain.api.dto.RaportDTO;
+import drimer.drimain.api.dto.SimpleMaszynaDTO;
+import drimer.drimain.api.dto.StompBrokerStatsDTO;
+import drimer.drimain.events.RaportChangedEvent;
+import drimer.drimain.events.RaportEventListener;
+import drimer.drimain.security.JwtService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.converter.SimpleMessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Obciążenie brokera STOMP: tysiące lokalnych sesji subskrybujących tematy maszyn, seria zmian raportów,
+ * czas dostarczenia i stan brokera (bufory, odrzucenia) na końcu.
+ * <p>
+ * Uruchomienie: {@code mvn test -Dtest=StompLoadTest -Dbenchmark=true [-Dstomp.sessions=5000 -Dstomp.events=200]}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(classes = DriMainApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class StompLoadTest {
+
+    private static final int MACHINES = 10;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private RaportEventListener raportEventListener;
+
+    @Autowired
+    private StompBrokerMonitor monitor;
+
+    @Test
+    void fanOutToThousandsOfSessions() throws Exception {
+        int sessionCount = Integer.getInteger("stomp.sessions", 2000);
+        int events = Integer.getInteger("stomp.events", 100);
+
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.initialize();
+        WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+        client.setMessageConverter(new SimpleMessageConverter()); // surowe byte[] bez względu na content-type
+        client.setTaskScheduler(scheduler);
+        client.setInboundMessageSizeLimit(64 * 1024);
+
+        WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+        headers.setBearerAuth(jwtService.generate("admin", Map.of()));
+        String url = "ws://localhost:" + port + "/ws/websocket";
+
+        AtomicLong received = new AtomicLong();
+        List<StompSession> sessions = new ArrayList<>(sessionCount);
+        long start = System.nanoTime();
+        try {
+            List<CompletableFuture<StompSession>> connecting = new ArrayList<>(sessionCount);
+            for (int i = 0; i < sessionCount; i++) {
+                connecting.add(client.connectAsync(url, headers, new StompSessionHandlerAdapter() { }));
+            }
+            for (int i = 0; i < sessionCount; i++) {
+                StompSession session = connecting.get(i).get(30, TimeUnit.SECONDS);
+                session.subscribe("/topic/raporty/maszyna/" + (i % MACHINES), new StompFrameHandler() {
+                    @Override
+                    public Type getPayloadType(StompHeaders stompHeaders) {
+                        return byte[].class;
+                    }
+
+                    @Override
+                    public void handleFrame(StompHeaders stompHeaders, Object payload) {
+                        received.incrementAndGet();
+                    }
+                });
+                sessions.add(session);
+            }
+            long connectMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            Thread.sleep(500); // SUBSCRIBE przetwarzane asynchronicznie
+
+            start = System.nanoTime();
+            for (int e = 0; e < events; e++) {
+                raportEventListener.onRaportChanged(new RaportChangedEvent(this, raport(e), "UPDATED",
+                        List.of("status"), (long) e, null, null));
+            }
+            long expected = (long) events * sessionCount / MACHINES;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+            while (received.get() < expected && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            long deliverMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            StompBrokerStatsDTO stats = monitor.getStats();
+            System.out.printf("sessions=%d connect=%d ms events=%d delivered=%d/%d in %d ms%n",
+                    sessionCount, connectMs, events, received.get(), expected, deliverMs);
+            System.out.printf("broker: sessions=%d buffered=%d B dropped=%d B limitExceeded=%d%n",
+                    stats.getSessions(), stats.getBufferedBytes(), stats.getDroppedBytes(), stats.getLimitExceededSessions());
+            System.out.printf("outbound: pool=%d queued=%d rejected=%d; inbound: pool=%d queued=%d rejected=%d%n",
+                    stats.getOutbound().getPoolSize(), stats.getOutbound().getQueued(), stats.getOutbound().getRejected(),
+                    stats.getInbound().getPoolSize(), stats.getInbound().getQueued(), stats.getInbound().getRejected());
+            assertEquals(expected, received.get());
+        } finally {
+            sessions.forEach(StompSession::disconnect);
+            client.stop();
+            scheduler.shutdown();
+        }
+    }
+
+    private static RaportDTO raport(int i) {
+        RaportDTO raport = new RaportDTO();
+        raport.setId((long) i);
+        SimpleMaszynaDTO maszyna = new SimpleMaszynaDTO();
+        maszyna.setId((long) (i % MACHINES));
+        raport.setMaszyna(maszyna);
+        raport.setStatus("W_TOKU");
+        return raport;
+    }
+}